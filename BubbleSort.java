@@ -1,27 +0,0 @@
-// Java program for implementation of Bubble Sort 
-class BubbleSort 
-{ 
-    void bubbleSort(int arr[]) 
-    { 
-        //complete this method
-    } 
-  
-    /* Prints the array */
-    void printArray(int arr[]) 
-    { 
-        int n = arr.length; 
-        for (int i=0; i<n; ++i) 
-            System.out.print(arr[i] + " "); 
-        System.out.println(); 
-    } 
-  
-    // Driver method to test above 
-    public static void main(String args[]) 
-    { 
-        BubbleSort ob = new BubbleSort(); 
-        int arr[] = {64, 34, 25, 12, 22, 11, 90}; 
-        ob.bubbleSort(arr); 
-        System.out.println("Sorted array"); 
-        ob.printArray(arr); 
-    } 
-} 
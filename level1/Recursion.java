@@ -1,12 +0,0 @@
-class Recursion
-{
-    public static void Main(string[] args)
-    {
-        printNum(10);
-    }
-    static void printNum(int num)
-    {
-       //complete this method
-    }
-   
-}
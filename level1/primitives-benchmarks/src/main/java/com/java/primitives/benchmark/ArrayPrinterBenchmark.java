@@ -0,0 +1,56 @@
+package com.java.primitives.benchmark;
+
+import com.java.primitives.io.ArrayPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ArrayPrinter} against the {@code print} per element of the original {@code printArray}, both to a
+ * {@link PrintStream} over a discarding stream, so the cost measured is that of the calls and not of a terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArrayPrinterBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    private int[] array;
+    private PrintStream out;
+
+    @Setup
+    public void setup() {
+        array = Distribution.RANDOM.ints(size, 42);
+        out = new PrintStream(OutputStream.nullOutputStream(), true);
+    }
+
+    @Benchmark
+    public void perElement() {
+        for (int value : array) {
+            out.print(value + " ");
+        }
+        out.println();
+    }
+
+    @Benchmark
+    public void arrayPrinter() {
+        ArrayPrinter.print(array, out);
+    }
+}
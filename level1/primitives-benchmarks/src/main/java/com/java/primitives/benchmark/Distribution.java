@@ -0,0 +1,62 @@
+package com.java.primitives.benchmark;
+
+import java.util.Random;
+
+/**
+ * Shapes of input data: sorting algorithms are as different on sorted or repetitive data as on random data.
+ */
+public enum Distribution {
+
+    RANDOM {
+        @Override
+        long next(Random random, int index, int size) {
+            return random.nextLong();
+        }
+    },
+    SORTED {
+        @Override
+        long next(Random random, int index, int size) {
+            return index;
+        }
+    },
+    REVERSED {
+        @Override
+        long next(Random random, int index, int size) {
+            return size - index;
+        }
+    },
+    /** Sixteen distinct values. */
+    FEW_UNIQUE {
+        @Override
+        long next(Random random, int index, int size) {
+            return random.nextInt(16);
+        }
+    },
+    /** Sorted, except one element in a hundred replaced by a random value. */
+    NEARLY_SORTED {
+        @Override
+        long next(Random random, int index, int size) {
+            return random.nextInt(100) == 0 ? random.nextInt(size) : index;
+        }
+    };
+
+    abstract long next(Random random, int index, int size);
+
+    public long[] longs(int size, long seed) {
+        Random random = new Random(seed);
+        long[] array = new long[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = next(random, i, size);
+        }
+        return array;
+    }
+
+    public int[] ints(int size, long seed) {
+        Random random = new Random(seed);
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = (int) next(random, i, size);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,59 @@
+package com.java.primitives.benchmark;
+
+import com.java.primitives.recursion.PrintNum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * The naive, trampolined and iterative {@link PrintNum} at depths up to 10^7, each number added to a sum instead
+ * of printed so the cost measured is the recursion's.
+ * <p>
+ * The fork gets a 1 GB stack, as the naive recursion needs about a hundred bytes of it per number; with the default
+ * stack it overflows before 10^5.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xss1g")
+public class RecursionBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    int depth;
+
+    private long sum;
+    private final IntConsumer out = value -> sum += value;
+
+    @Benchmark
+    public long naive() {
+        sum = 0;
+        PrintNum.naive(depth, out);
+        return sum;
+    }
+
+    @Benchmark
+    public long trampolined() {
+        sum = 0;
+        PrintNum.trampolined(depth, out);
+        return sum;
+    }
+
+    @Benchmark
+    public long iterative() {
+        sum = 0;
+        PrintNum.iterative(depth, out);
+        return sum;
+    }
+}
@@ -0,0 +1,68 @@
+package com.java.primitives.benchmark;
+
+import com.java.primitives.sort.BubbleSort;
+import com.java.primitives.sort.InsertionSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The quadratic sorts on the tiny arrays they are meant for, against {@link Arrays#sort(int[])}, which switches to
+ * its own insertion sort below 47 elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmallSortBenchmark {
+
+    @Param({"8", "16", "32", "64"})
+    int size;
+
+    @Param({"RANDOM", "NEARLY_SORTED"})
+    Distribution distribution;
+
+    private int[] source;
+    private int[] array;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = distribution.ints(size, 42);
+        array = new int[size];
+    }
+
+    @Benchmark
+    public int[] bubbleSort() {
+        System.arraycopy(source, 0, array, 0, size);
+        BubbleSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] insertionSort() {
+        System.arraycopy(source, 0, array, 0, size);
+        InsertionSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        System.arraycopy(source, 0, array, 0, size);
+        Arrays.sort(array);
+        return array;
+    }
+}
@@ -0,0 +1,120 @@
+package com.java.primitives.benchmark;
+
+import com.java.primitives.sort.ParallelMergeSort;
+import com.java.primitives.sort.RadixSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RadixSort} and {@link ParallelMergeSort} against {@link Arrays#sort(int[])} and
+ * {@link Arrays#parallelSort(int[])}, across sizes and distributions.
+ * <p>
+ * Every call sorts a fresh copy of the same input, so each benchmark includes the copy: {@code copyOnly} measures
+ * it alone, to subtract. The parallel sorts need several cores to be faster, on one they only add their overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param
+    Distribution distribution;
+
+    private int[] source;
+    private int[] array;
+    private int[] buffer;
+    private long[] longSource;
+    private long[] longArray;
+    private long[] longBuffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = distribution.ints(size, 42);
+        array = new int[size];
+        buffer = new int[size];
+        longSource = distribution.longs(size, 42);
+        longArray = new long[size];
+        longBuffer = new long[size];
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        System.arraycopy(source, 0, array, 0, size);
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        System.arraycopy(source, 0, array, 0, size);
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysParallelSort() {
+        System.arraycopy(source, 0, array, 0, size);
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] radixSort() {
+        System.arraycopy(source, 0, array, 0, size);
+        RadixSort.sort(array, 0, size, buffer);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelMergeSort() {
+        System.arraycopy(source, 0, array, 0, size);
+        ParallelMergeSort.common().sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public long[] longArraysSort() {
+        System.arraycopy(longSource, 0, longArray, 0, size);
+        Arrays.sort(longArray);
+        return longArray;
+    }
+
+    @Benchmark
+    public long[] longArraysParallelSort() {
+        System.arraycopy(longSource, 0, longArray, 0, size);
+        Arrays.parallelSort(longArray);
+        return longArray;
+    }
+
+    @Benchmark
+    public long[] longRadixSort() {
+        System.arraycopy(longSource, 0, longArray, 0, size);
+        RadixSort.sort(longArray, 0, size, longBuffer);
+        return longArray;
+    }
+
+    @Benchmark
+    public long[] longParallelMergeSort() {
+        System.arraycopy(longSource, 0, longArray, 0, size);
+        ParallelMergeSort.common().sort(longArray);
+        return longArray;
+    }
+}
@@ -0,0 +1,108 @@
+package com.java.primitives.collection;
+
+import java.util.Arrays;
+
+/**
+ * Map of {@code long} keys to {@code long} values, without the boxing and entry objects of a
+ * {@code HashMap<Long, Long>}.
+ * <p>
+ * Open addressing with linear probing in parallel key and value arrays, doubled when more than half full, so a
+ * lookup is a hash and usually one or two reads of adjacent slots. There is no removal. Not thread-safe.
+ */
+public final class LongLongHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_EXPECTED_SIZE = 1 << 28;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] mKeys;
+    private long[] mValues;
+    private boolean[] mUsed;
+    private int mShift;
+    private int mSize;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize number of keys the map holds without growing
+     */
+    public LongLongHashMap(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > MAX_EXPECTED_SIZE) {
+            throw new IllegalArgumentException("The expected size must be from 0 to " + MAX_EXPECTED_SIZE + " but was " + expectedSize);
+        }
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize)) << 2));
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return mUsed[indexOf(key)];
+    }
+
+    /**
+     * @return the value of the key, or {@code valueIfAbsent} when the map has none
+     */
+    public long get(long key, long valueIfAbsent) {
+        int index = indexOf(key);
+        return mUsed[index] ? mValues[index] : valueIfAbsent;
+    }
+
+    public void put(long key, long value) {
+        int index = indexOf(key);
+        mValues[index] = value;
+        if (!mUsed[index]) {
+            mKeys[index] = key;
+            mUsed[index] = true;
+            if (++mSize > mKeys.length >>> 1) {
+                grow();
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(mUsed, false);
+        mSize = 0;
+    }
+
+    /**
+     * @return the slot of the key, or the free slot where it would go
+     */
+    private int indexOf(long key) {
+        int mask = mKeys.length - 1;
+        int index = (int) (key * GOLDEN_RATIO >>> mShift);
+        while (mUsed[index] && mKeys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void grow() {
+        long[] keys = mKeys;
+        long[] values = mValues;
+        boolean[] used = mUsed;
+        allocate(keys.length << 1);
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                int index = indexOf(keys[i]);
+                mKeys[index] = keys[i];
+                mValues[index] = values[i];
+                mUsed[index] = true;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new long[capacity];
+        mUsed = new boolean[capacity];
+        mShift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+}
@@ -0,0 +1,66 @@
+package com.java.primitives.io;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Prints {@code int[]} and {@code long[]} arrays as their elements each followed by a space, then a line separator.
+ * <p>
+ * The text is written through a {@link ChunkedAppender}, one call per chunk of about
+ * {@value ChunkedAppender#CHUNK_SIZE} characters instead of one {@code print} per element: {@link System#out} locks
+ * and may flush on every call, which costs far more than formatting the number.
+ */
+public final class ArrayPrinter {
+
+    private ArrayPrinter() {
+    }
+
+    public static void print(int[] array) {
+        print(array, System.out);
+    }
+
+    public static void print(long[] array) {
+        print(array, System.out);
+    }
+
+    /**
+     * Prints the array to the stream and flushes it.
+     */
+    public static void print(int[] array, PrintStream out) {
+        try {
+            print(array, (Appendable) out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.flush();
+    }
+
+    /**
+     * Prints the array to the stream and flushes it.
+     */
+    public static void print(long[] array, PrintStream out) {
+        try {
+            print(array, (Appendable) out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.flush();
+    }
+
+    public static void print(int[] array, Appendable out) throws IOException {
+        ChunkedAppender appender = new ChunkedAppender(out, array.length);
+        for (int value : array) {
+            appender.append(value);
+        }
+        appender.endLine();
+    }
+
+    public static void print(long[] array, Appendable out) throws IOException {
+        ChunkedAppender appender = new ChunkedAppender(out, array.length);
+        for (long value : array) {
+            appender.append(value);
+        }
+        appender.endLine();
+    }
+}
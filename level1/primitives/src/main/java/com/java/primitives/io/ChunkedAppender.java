@@ -0,0 +1,46 @@
+package com.java.primitives.io;
+
+import java.io.IOException;
+
+/**
+ * Appends numbers, each followed by a space, to an {@link Appendable} in chunks of about {@value #CHUNK_SIZE}
+ * characters, so the target sees one call per chunk rather than one per number.
+ * <p>
+ * Nothing reaches the target until a chunk fills or {@link #endLine} is called.
+ */
+public final class ChunkedAppender {
+
+    static final int CHUNK_SIZE = 8192;
+
+    // the longest element and its space, so a chunk is written before it would need to grow
+    static final int LONGEST_ELEMENT = String.valueOf(Long.MIN_VALUE).length() + 1;
+
+    private final Appendable mOut;
+    private final StringBuilder mChunk;
+
+    /**
+     * @param expectedElements how many numbers will be appended, to keep the chunk small for short output
+     */
+    public ChunkedAppender(Appendable out, int expectedElements) {
+        mOut = out;
+        // in long, as more than Integer.MAX_VALUE / LONGEST_ELEMENT elements would overflow the product
+        mChunk = new StringBuilder((int) Math.min(CHUNK_SIZE, (long) Math.max(expectedElements, 0) * LONGEST_ELEMENT + 2));
+    }
+
+    public void append(long value) throws IOException {
+        if (mChunk.length() > CHUNK_SIZE - LONGEST_ELEMENT) {
+            mOut.append(mChunk);
+            mChunk.setLength(0);
+        }
+        mChunk.append(value).append(' ');
+    }
+
+    /**
+     * Appends a line separator and writes out what is left of the chunk.
+     */
+    public void endLine() throws IOException {
+        mChunk.append(System.lineSeparator());
+        mOut.append(mChunk);
+        mChunk.setLength(0);
+    }
+}
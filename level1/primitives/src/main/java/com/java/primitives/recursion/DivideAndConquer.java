@@ -0,0 +1,182 @@
+package com.java.primitives.recursion;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Parallel recursion over a range of {@code long} indexes: the range is halved into fork/join tasks until a part is
+ * no longer than the threshold, each part is solved directly and the results of the halves are combined.
+ * <p>
+ * The results must not depend on where the range is split, so combine has to be associative and the result of an
+ * empty part its identity. The recursion is only as deep as the logarithm of the range over the threshold. The
+ * threshold trades scheduling overhead against parallelism as in {@link com.java.primitives.sort.ParallelMergeSort}.
+ * <p>
+ * Instances are immutable and can be shared.
+ */
+public final class DivideAndConquer {
+
+    @FunctionalInterface
+    public interface RangeFunction<R> {
+
+        R apply(long fromIndex, long toIndex);
+    }
+
+    @FunctionalInterface
+    public interface RangeToLongFunction {
+
+        long applyAsLong(long fromIndex, long toIndex);
+    }
+
+    @FunctionalInterface
+    public interface RangeConsumer {
+
+        void accept(long fromIndex, long toIndex);
+    }
+
+    private final ForkJoinPool mPool;
+    private final long mThreshold;
+
+    /**
+     * @param threshold length at and below which a part is solved directly, at least 1
+     */
+    public DivideAndConquer(ForkJoinPool pool, long threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("The threshold must be at least 1 but was " + threshold);
+        }
+        this.mPool = Objects.requireNonNull(pool, "pool");
+        this.mThreshold = threshold;
+    }
+
+    /**
+     * @return an instance on the common pool
+     */
+    public static DivideAndConquer common(long threshold) {
+        return new DivideAndConquer(ForkJoinPool.commonPool(), threshold);
+    }
+
+    public long getThreshold() {
+        return mThreshold;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     */
+    public <R> R compute(long fromIndex, long toIndex, RangeFunction<R> solve, BinaryOperator<R> combine) {
+        checkRange(fromIndex, toIndex);
+        return mPool.invoke(new ComputeTask<>(fromIndex, toIndex, mThreshold, solve, combine));
+    }
+
+    /**
+     * Like {@link #compute(long, long, RangeFunction, BinaryOperator)}, without boxing the results.
+     */
+    public long computeLong(long fromIndex, long toIndex, RangeToLongFunction solve, LongBinaryOperator combine) {
+        checkRange(fromIndex, toIndex);
+        return mPool.invoke(new ComputeLongTask(fromIndex, toIndex, mThreshold, solve, combine));
+    }
+
+    /**
+     * Runs {@code action} on every part of the range, for work that only has effects, like filling an array.
+     */
+    public void forEach(long fromIndex, long toIndex, RangeConsumer action) {
+        checkRange(fromIndex, toIndex);
+        mPool.invoke(new ForEachTask(fromIndex, toIndex, mThreshold, action));
+    }
+
+    private static void checkRange(long fromIndex, long toIndex) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("The range [" + fromIndex + ", " + toIndex + ") is reversed");
+        }
+    }
+
+    private static final class ComputeTask<R> extends RecursiveTask<R> {
+
+        private final long from;
+        private final long to;
+        private final long threshold;
+        private final RangeFunction<R> solve;
+        private final BinaryOperator<R> combine;
+
+        ComputeTask(long from, long to, long threshold, RangeFunction<R> solve, BinaryOperator<R> combine) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.solve = solve;
+            this.combine = combine;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= threshold) {
+                return solve.apply(from, to);
+            }
+            long middle = from + (to - from) / 2;
+            ComputeTask<R> left = new ComputeTask<>(from, middle, threshold, solve, combine);
+            left.fork();
+            R right = new ComputeTask<>(middle, to, threshold, solve, combine).compute();
+            return combine.apply(left.join(), right);
+        }
+    }
+
+    private static final class ComputeLongTask extends RecursiveTask<Long> {
+
+        private final long from;
+        private final long to;
+        private final long threshold;
+        private final RangeToLongFunction solve;
+        private final LongBinaryOperator combine;
+
+        ComputeLongTask(long from, long to, long threshold, RangeToLongFunction solve, LongBinaryOperator combine) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.solve = solve;
+            this.combine = combine;
+        }
+
+        @Override
+        protected Long compute() {
+            return computeLong();
+        }
+
+        // the halves computed on this thread return their result unboxed, only forked ones box it
+        private long computeLong() {
+            if (to - from <= threshold) {
+                return solve.applyAsLong(from, to);
+            }
+            long middle = from + (to - from) / 2;
+            ComputeLongTask left = new ComputeLongTask(from, middle, threshold, solve, combine);
+            left.fork();
+            long right = new ComputeLongTask(middle, to, threshold, solve, combine).computeLong();
+            return combine.applyAsLong(left.join(), right);
+        }
+    }
+
+    private static final class ForEachTask extends RecursiveAction {
+
+        private final long from;
+        private final long to;
+        private final long threshold;
+        private final RangeConsumer action;
+
+        ForEachTask(long from, long to, long threshold, RangeConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                action.accept(from, to);
+                return;
+            }
+            long middle = from + (to - from) / 2;
+            invokeAll(new ForEachTask(from, middle, threshold, action), new ForEachTask(middle, to, threshold, action));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.java.primitives.recursion;
+
+import com.java.primitives.collection.LongLongHashMap;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A recursive {@code long} function that computes each argument once, keeping the results in a
+ * {@link LongLongHashMap}.
+ * <p>
+ * The function receives the memoized function itself for its recursive calls:
+ * <pre>{@code
+ * LongMemo fibonacci = LongMemo.of((self, n) -> n < 2 ? n : self.applyAsLong(n - 1) + self.applyAsLong(n - 2));
+ * }</pre>
+ * Memoizing turns exponential recursions like this one into linear ones, but does not make them shallower: the
+ * first call still recurses as deep as the function does. Not thread-safe.
+ */
+public final class LongMemo implements LongUnaryOperator {
+
+    @FunctionalInterface
+    public interface Function {
+
+        /**
+         * @param self the memoized function, for the recursive calls
+         */
+        long apply(LongUnaryOperator self, long argument);
+    }
+
+    // an unlikely result, a result equal to it is only taken for absent after checking the map
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private final Function mFunction;
+    private final LongLongHashMap mResults = new LongLongHashMap();
+
+    private LongMemo(Function function) {
+        this.mFunction = function;
+    }
+
+    public static LongMemo of(Function function) {
+        return new LongMemo(function);
+    }
+
+    @Override
+    public long applyAsLong(long argument) {
+        long result = mResults.get(argument, ABSENT);
+        if (result == ABSENT && !mResults.containsKey(argument)) {
+            result = mFunction.apply(this, argument);
+            mResults.put(argument, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of arguments computed so far
+     */
+    public int size() {
+        return mResults.size();
+    }
+
+    public void clear() {
+        mResults.clear();
+    }
+}
@@ -0,0 +1,77 @@
+package com.java.primitives.recursion;
+
+import com.java.primitives.io.ChunkedAppender;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.IntConsumer;
+
+/**
+ * Prints the numbers from 1 to {@code num}, the recursion exercise, written three ways to show what
+ * {@link Trampoline} costs and saves: {@link #naive} overflows the default stack somewhere past ten thousand,
+ * {@link #trampolined} runs to any depth, and {@link #iterative} is what both should be measured against.
+ */
+public final class PrintNum {
+
+    private PrintNum() {
+    }
+
+    public static void main(String[] args) {
+        printNum(args.length > 0 ? Integer.parseInt(args[0]) : 10);
+    }
+
+    /**
+     * Prints the numbers from 1 to {@code num} to {@link System#out}, each followed by a space, then a line
+     * separator.
+     */
+    public static void printNum(int num) {
+        ChunkedAppender appender = new ChunkedAppender(System.out, num);
+        try {
+            trampolined(num, value -> {
+                try {
+                    appender.append(value);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            appender.endLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.flush();
+    }
+
+    /**
+     * Plain recursion: one stack frame per number.
+     *
+     * @throws StackOverflowError when {@code num} is deeper than the stack
+     */
+    public static void naive(int num, IntConsumer out) {
+        if (num < 1) {
+            return;
+        }
+        naive(num - 1, out);
+        out.accept(num);
+    }
+
+    /**
+     * The recursion counting up, so the call is the last thing it does, run on a {@link Trampoline}.
+     */
+    public static void trampolined(int num, IntConsumer out) {
+        countUp(1, num, out).run();
+    }
+
+    private static Trampoline<Void> countUp(int next, int num, IntConsumer out) {
+        if (next > num) {
+            return Trampoline.done(null);
+        }
+        out.accept(next);
+        return Trampoline.more(() -> countUp(next + 1, num, out));
+    }
+
+    public static void iterative(int num, IntConsumer out) {
+        for (int i = 1; i <= num; i++) {
+            out.accept(i);
+        }
+    }
+}
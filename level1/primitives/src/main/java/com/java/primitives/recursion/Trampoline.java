@@ -0,0 +1,81 @@
+package com.java.primitives.recursion;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A step of a tail-recursive computation, run in a loop instead of on the call stack, so the recursion can be as
+ * deep as the heap allows.
+ * <p>
+ * A recursive method returns {@link #done(Object)} in its base case and {@link #more(Trampoline)} with the recursive
+ * call, in a lambda, otherwise:
+ * <pre>{@code
+ * static Trampoline<Long> sum(long n, long total) {
+ *     return n == 0 ? done(total) : more(() -> sum(n - 1, total + n));
+ * }
+ * long result = sum(10_000_000, 0).run();
+ * }</pre>
+ * Each step returns instead of calling the next, so the stack stays one frame deep; the price is the lambda
+ * allocated per step. Only tail calls can be trampolined: a recursion that works after its call returns has to be
+ * rewritten with an accumulator first.
+ *
+ * @param <T> type of the result
+ */
+@FunctionalInterface
+public interface Trampoline<T> {
+
+    /**
+     * @return the next step
+     */
+    Trampoline<T> bounce();
+
+    default boolean isDone() {
+        return false;
+    }
+
+    /**
+     * @throws NoSuchElementException if this step is not {@link #isDone() done}
+     */
+    default T result() {
+        throw new NoSuchElementException("The computation is not done");
+    }
+
+    /**
+     * Runs the steps from this one until one is done.
+     *
+     * @return the result of the last step
+     */
+    default T run() {
+        Trampoline<T> step = this;
+        while (!step.isDone()) {
+            step = step.bounce();
+        }
+        return step.result();
+    }
+
+    static <T> Trampoline<T> done(T result) {
+        return new Trampoline<>() {
+
+            @Override
+            public Trampoline<T> bounce() {
+                throw new IllegalStateException("The computation is done");
+            }
+
+            @Override
+            public boolean isDone() {
+                return true;
+            }
+
+            @Override
+            public T result() {
+                return result;
+            }
+        };
+    }
+
+    /**
+     * @return the step itself; it only makes the recursive call read as one
+     */
+    static <T> Trampoline<T> more(Trampoline<T> next) {
+        return next;
+    }
+}
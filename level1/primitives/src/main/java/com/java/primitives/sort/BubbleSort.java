@@ -0,0 +1,65 @@
+package com.java.primitives.sort;
+
+import java.util.Objects;
+
+/**
+ * Bubble sort of {@code int[]} and {@code long[]} ranges, ascending and in place.
+ * <p>
+ * Quadratic, so only for tiny inputs. Each pass ends at the last swap of the previous one, which makes sorted input
+ * a single pass and nearly sorted input a few.
+ */
+public final class BubbleSort {
+
+    private BubbleSort() {
+    }
+
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)}.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     */
+    public static void sort(int[] array, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        for (int end = toIndex; end > fromIndex + 1; ) {
+            int lastSwap = fromIndex;
+            for (int i = fromIndex + 1; i < end; i++) {
+                int value = array[i];
+                if (array[i - 1] > value) {
+                    array[i] = array[i - 1];
+                    array[i - 1] = value;
+                    lastSwap = i;
+                }
+            }
+            end = lastSwap;
+        }
+    }
+
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)}.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     */
+    public static void sort(long[] array, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        for (int end = toIndex; end > fromIndex + 1; ) {
+            int lastSwap = fromIndex;
+            for (int i = fromIndex + 1; i < end; i++) {
+                long value = array[i];
+                if (array[i - 1] > value) {
+                    array[i] = array[i - 1];
+                    array[i - 1] = value;
+                    lastSwap = i;
+                }
+            }
+            end = lastSwap;
+        }
+    }
+}
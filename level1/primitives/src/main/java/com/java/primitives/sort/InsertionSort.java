@@ -0,0 +1,59 @@
+package com.java.primitives.sort;
+
+import java.util.Objects;
+
+/**
+ * Insertion sort of {@code int[]} and {@code long[]} ranges, ascending, stable and in place.
+ * <p>
+ * Quadratic, but with the fewest moves and no allocation it is the fastest sort for a few dozen elements, and
+ * linear on sorted input. {@link RadixSort} hands it the ranges too small to be worth its passes.
+ */
+public final class InsertionSort {
+
+    private InsertionSort() {
+    }
+
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)}.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     */
+    public static void sort(int[] array, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            int value = array[i];
+            int j = i - 1;
+            while (j >= fromIndex && array[j] > value) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)}.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     */
+    public static void sort(long[] array, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            long value = array[i];
+            int j = i - 1;
+            while (j >= fromIndex && array[j] > value) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.java.primitives.sort;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join merge sort of {@code int[]} and {@code long[]} ranges, ascending and in place.
+ * <p>
+ * The range is halved into tasks until a part is no longer than the sequential cutoff, which is sorted with
+ * {@link Arrays#sort(int[], int, int)}; sorted halves are then merged through a buffer of half their length. The
+ * cutoff trades scheduling overhead against parallelism: too small and the tasks cost more than they sort, too
+ * large and there are fewer parts than workers. Ranges up to the cutoff, or sorted on a pool of one thread, are
+ * sorted without forking.
+ * <p>
+ * Instances are immutable and can be shared.
+ */
+public final class ParallelMergeSort {
+
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 1 << 13;
+
+    private static final ParallelMergeSort COMMON = new ParallelMergeSort(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_CUTOFF);
+
+    private final ForkJoinPool mPool;
+    private final int mSequentialCutoff;
+
+    /**
+     * @param sequentialCutoff length at and below which a part is sorted sequentially, at least 1
+     */
+    public ParallelMergeSort(ForkJoinPool pool, int sequentialCutoff) {
+        if (sequentialCutoff < 1) {
+            throw new IllegalArgumentException("The sequential cutoff must be at least 1 but was " + sequentialCutoff);
+        }
+        this.mPool = Objects.requireNonNull(pool, "pool");
+        this.mSequentialCutoff = sequentialCutoff;
+    }
+
+    /**
+     * @return the instance on the common pool with {@link #DEFAULT_SEQUENTIAL_CUTOFF}
+     */
+    public static ParallelMergeSort common() {
+        return COMMON;
+    }
+
+    public int getSequentialCutoff() {
+        return mSequentialCutoff;
+    }
+
+    public void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)}.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     */
+    public void sort(int[] array, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        if (toIndex - fromIndex <= mSequentialCutoff || mPool.getParallelism() == 1) {
+            Arrays.sort(array, fromIndex, toIndex);
+            return;
+        }
+        mPool.invoke(new IntSortTask(array, new int[(toIndex - fromIndex + 1) / 2], fromIndex, toIndex, mSequentialCutoff));
+    }
+
+    public void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)}.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     */
+    public void sort(long[] array, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        if (toIndex - fromIndex <= mSequentialCutoff || mPool.getParallelism() == 1) {
+            Arrays.sort(array, fromIndex, toIndex);
+            return;
+        }
+        mPool.invoke(new LongSortTask(array, new long[(toIndex - fromIndex + 1) / 2], fromIndex, toIndex, mSequentialCutoff));
+    }
+
+    /**
+     * Sorts its range of the array. The buffer is shared by all tasks: a task merging {@code [from, to)} uses
+     * {@code buffer[(from - rootFrom) / 2, ...)}, which no task running at the same time touches.
+     */
+    private static final class IntSortTask extends RecursiveAction {
+
+        private final int[] array;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final int rootFrom;
+        private final int cutoff;
+
+        IntSortTask(int[] array, int[] buffer, int from, int to, int cutoff) {
+            this(array, buffer, from, to, from, cutoff);
+        }
+
+        private IntSortTask(int[] array, int[] buffer, int from, int to, int rootFrom, int cutoff) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.rootFrom = rootFrom;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= cutoff) {
+                Arrays.sort(array, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new IntSortTask(array, buffer, from, middle, rootFrom, cutoff),
+                    new IntSortTask(array, buffer, middle, to, rootFrom, cutoff));
+            if (array[middle - 1] <= array[middle]) {
+                return;
+            }
+            // the left half moves out to the buffer and is merged back with the right half, which stays in place
+            int bufferFrom = (from - rootFrom) / 2;
+            int leftLength = middle - from;
+            System.arraycopy(array, from, buffer, bufferFrom, leftLength);
+            int left = bufferFrom;
+            int leftEnd = bufferFrom + leftLength;
+            int right = middle;
+            int target = from;
+            while (left < leftEnd && right < to) {
+                array[target++] = buffer[left] <= array[right] ? buffer[left++] : array[right++];
+            }
+            System.arraycopy(buffer, left, array, target, leftEnd - left);
+        }
+    }
+
+    private static final class LongSortTask extends RecursiveAction {
+
+        private final long[] array;
+        private final long[] buffer;
+        private final int from;
+        private final int to;
+        private final int rootFrom;
+        private final int cutoff;
+
+        LongSortTask(long[] array, long[] buffer, int from, int to, int cutoff) {
+            this(array, buffer, from, to, from, cutoff);
+        }
+
+        private LongSortTask(long[] array, long[] buffer, int from, int to, int rootFrom, int cutoff) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.rootFrom = rootFrom;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= cutoff) {
+                Arrays.sort(array, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new LongSortTask(array, buffer, from, middle, rootFrom, cutoff),
+                    new LongSortTask(array, buffer, middle, to, rootFrom, cutoff));
+            if (array[middle - 1] <= array[middle]) {
+                return;
+            }
+            int bufferFrom = (from - rootFrom) / 2;
+            int leftLength = middle - from;
+            System.arraycopy(array, from, buffer, bufferFrom, leftLength);
+            int left = bufferFrom;
+            int leftEnd = bufferFrom + leftLength;
+            int right = middle;
+            int target = from;
+            while (left < leftEnd && right < to) {
+                array[target++] = buffer[left] <= array[right] ? buffer[left++] : array[right++];
+            }
+            System.arraycopy(buffer, left, array, target, leftEnd - left);
+        }
+    }
+}
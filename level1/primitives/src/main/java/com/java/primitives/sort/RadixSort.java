@@ -0,0 +1,170 @@
+package com.java.primitives.sort;
+
+import java.util.Objects;
+
+/**
+ * Least significant digit radix sort of {@code int[]} and {@code long[]} ranges, ascending and stable.
+ * <p>
+ * Keys are sorted one byte at a time, four passes for an int and eight for a long, each a counting pass into a
+ * scratch buffer of the same length. The counts of every byte are taken in a single read before the first pass,
+ * and a pass is skipped when all keys have the same byte there, so small values or values sharing their high bytes
+ * need fewer passes. Negative values are ordered by flipping the sign bit of the key.
+ * <p>
+ * Linear in the length, it beats comparison sorts on large random inputs, but not on sorted ones, and needs the
+ * buffer: pass one to the overloads that take it to sort repeatedly without allocating. Ranges shorter than
+ * {@link #INSERTION_SORT_THRESHOLD} go to {@link InsertionSort}.
+ */
+public final class RadixSort {
+
+    public static final int INSERTION_SORT_THRESHOLD = 64;
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+    private static final int INT_PASSES = Integer.SIZE / RADIX_BITS;
+    private static final int LONG_PASSES = Long.SIZE / RADIX_BITS;
+
+    private RadixSort() {
+    }
+
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)} with a new buffer.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     */
+    public static void sort(int[] array, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        int length = toIndex - fromIndex;
+        sort(array, fromIndex, toIndex, length < INSERTION_SORT_THRESHOLD ? null : new int[length]);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)} using {@code buffer} as scratch space.
+     *
+     * @param buffer at least {@code toIndex - fromIndex} long; its contents are overwritten
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     * @throws IllegalArgumentException  if the buffer is too short
+     */
+    public static void sort(int[] array, int fromIndex, int toIndex, int[] buffer) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        int length = toIndex - fromIndex;
+        if (length < INSERTION_SORT_THRESHOLD) {
+            InsertionSort.sort(array, fromIndex, toIndex);
+            return;
+        }
+        if (buffer == null || buffer.length < length) {
+            throw new IllegalArgumentException("The buffer needs at least " + length + " elements");
+        }
+        int[] counts = new int[INT_PASSES * RADIX];
+        for (int i = fromIndex; i < toIndex; i++) {
+            int key = array[i] ^ Integer.MIN_VALUE;
+            for (int pass = 0; pass < INT_PASSES; pass++) {
+                counts[pass * RADIX + (key >>> (pass * RADIX_BITS) & DIGIT_MASK)]++;
+            }
+        }
+        int[] source = array;
+        int sourceFrom = fromIndex;
+        int[] target = buffer;
+        int targetFrom = 0;
+        for (int pass = 0; pass < INT_PASSES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int countsFrom = pass * RADIX;
+            if (counts[countsFrom + ((source[sourceFrom] ^ Integer.MIN_VALUE) >>> shift & DIGIT_MASK)] == length) {
+                continue;
+            }
+            // counts become the next free index of each digit in the target
+            for (int digit = 0, offset = targetFrom; digit < RADIX; digit++) {
+                int count = counts[countsFrom + digit];
+                counts[countsFrom + digit] = offset;
+                offset += count;
+            }
+            for (int i = sourceFrom, end = sourceFrom + length; i < end; i++) {
+                int value = source[i];
+                target[counts[countsFrom + ((value ^ Integer.MIN_VALUE) >>> shift & DIGIT_MASK)]++] = value;
+            }
+            int[] sorted = target;
+            target = source;
+            source = sorted;
+            int sortedFrom = targetFrom;
+            targetFrom = sourceFrom;
+            sourceFrom = sortedFrom;
+        }
+        if (source != array) {
+            System.arraycopy(source, sourceFrom, array, fromIndex, length);
+        }
+    }
+
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)} with a new buffer.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     */
+    public static void sort(long[] array, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        int length = toIndex - fromIndex;
+        sort(array, fromIndex, toIndex, length < INSERTION_SORT_THRESHOLD ? null : new long[length]);
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)} using {@code buffer} as scratch space.
+     *
+     * @param buffer at least {@code toIndex - fromIndex} long; its contents are overwritten
+     * @throws IndexOutOfBoundsException if the range is not within the array
+     * @throws IllegalArgumentException  if the buffer is too short
+     */
+    public static void sort(long[] array, int fromIndex, int toIndex, long[] buffer) {
+        Objects.checkFromToIndex(fromIndex, toIndex, array.length);
+        int length = toIndex - fromIndex;
+        if (length < INSERTION_SORT_THRESHOLD) {
+            InsertionSort.sort(array, fromIndex, toIndex);
+            return;
+        }
+        if (buffer == null || buffer.length < length) {
+            throw new IllegalArgumentException("The buffer needs at least " + length + " elements");
+        }
+        int[] counts = new int[LONG_PASSES * RADIX];
+        for (int i = fromIndex; i < toIndex; i++) {
+            long key = array[i] ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < LONG_PASSES; pass++) {
+                counts[pass * RADIX + (int) (key >>> (pass * RADIX_BITS) & DIGIT_MASK)]++;
+            }
+        }
+        long[] source = array;
+        int sourceFrom = fromIndex;
+        long[] target = buffer;
+        int targetFrom = 0;
+        for (int pass = 0; pass < LONG_PASSES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int countsFrom = pass * RADIX;
+            if (counts[countsFrom + (int) ((source[sourceFrom] ^ Long.MIN_VALUE) >>> shift & DIGIT_MASK)] == length) {
+                continue;
+            }
+            for (int digit = 0, offset = targetFrom; digit < RADIX; digit++) {
+                int count = counts[countsFrom + digit];
+                counts[countsFrom + digit] = offset;
+                offset += count;
+            }
+            for (int i = sourceFrom, end = sourceFrom + length; i < end; i++) {
+                long value = source[i];
+                target[counts[countsFrom + (int) ((value ^ Long.MIN_VALUE) >>> shift & DIGIT_MASK)]++] = value;
+            }
+            long[] sorted = target;
+            target = source;
+            source = sorted;
+            int sortedFrom = targetFrom;
+            targetFrom = sourceFrom;
+            sourceFrom = sortedFrom;
+        }
+        if (source != array) {
+            System.arraycopy(source, sourceFrom, array, fromIndex, length);
+        }
+    }
+}
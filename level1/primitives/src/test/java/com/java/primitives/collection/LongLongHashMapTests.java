@@ -0,0 +1,50 @@
+package com.java.primitives.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTests {
+
+    @Test
+    void behavesLikeAHashMapWhileGrowing() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(18);
+        for (int i = 0; i < 100_000; i++) {
+            // small keys collide on purpose, so values get replaced as well as added
+            long key = i % 3 == 0 ? random.nextInt(1000) : random.nextLong();
+            long value = random.nextLong();
+            map.put(key, value);
+            expected.put(key, value);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> {
+            assertThat(map.containsKey(key)).isTrue();
+            assertThat(map.get(key, 0)).isEqualTo(value);
+        });
+    }
+
+    @Test
+    void tellsAbsentKeysApart() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        map.put(0, 0);
+        map.put(Long.MIN_VALUE, -1);
+
+        assertThat(map.containsKey(0)).isTrue();
+        assertThat(map.get(Long.MIN_VALUE, 7)).isEqualTo(-1);
+        assertThat(map.containsKey(1)).isFalse();
+        assertThat(map.get(1, 7)).isEqualTo(7);
+
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.containsKey(0)).isFalse();
+        assertThatThrownBy(() -> new LongLongHashMap(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.java.primitives.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArrayPrinterTests {
+
+    @Test
+    void printsElementsFollowedBySpacesAndALineSeparator() throws IOException {
+        StringBuilder out = new StringBuilder();
+        ArrayPrinter.print(new int[]{64, -34, 25}, out);
+        assertThat(out.toString()).isEqualTo("64 -34 25 " + System.lineSeparator());
+
+        out.setLength(0);
+        ArrayPrinter.print(new long[0], out);
+        assertThat(out.toString()).isEqualTo(System.lineSeparator());
+    }
+
+    @Test
+    void printsArraysLongerThanAChunk() {
+        long[] array = LongStream.range(Long.MIN_VALUE, Long.MIN_VALUE + 5000).toArray();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ArrayPrinter.print(array, new PrintStream(bytes, false, StandardCharsets.UTF_8));
+
+        String expected = LongStream.of(array).mapToObj(value -> value + " ").collect(Collectors.joining())
+                + System.lineSeparator();
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).hasSizeGreaterThan(ChunkedAppender.CHUNK_SIZE).isEqualTo(expected);
+    }
+
+    @Test
+    void printsArraysTooLongForTheirTextLengthToFitAnInt() throws IOException {
+        int[] array = new int[Integer.MAX_VALUE / ChunkedAppender.LONGEST_ELEMENT + 1];
+        long[] written = new long[1];
+        Appendable discard = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                written[0] += csq.length();
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                written[0] += end - start;
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) {
+                written[0]++;
+                return this;
+            }
+        };
+
+        ArrayPrinter.print(array, discard);
+
+        assertThat(written[0]).isEqualTo(2L * array.length + System.lineSeparator().length());
+    }
+}
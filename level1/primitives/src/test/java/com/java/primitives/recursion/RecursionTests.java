@@ -0,0 +1,106 @@
+package com.java.primitives.recursion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.java.primitives.recursion.Trampoline.done;
+import static com.java.primitives.recursion.Trampoline.more;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecursionTests {
+
+    private final ForkJoinPool mPool = new ForkJoinPool(4);
+
+    @Test
+    void trampolineRunsDeeperThanTheStack() {
+        assertThat(sum(10_000_000, 0).run()).isEqualTo(50_000_005_000_000L);
+        assertThatThrownBy(() -> sum(1, 0).result()).isInstanceOf(NoSuchElementException.class);
+        assertThat(done("result").run()).isEqualTo("result");
+    }
+
+    @Test
+    void memoComputesEachArgumentOnce() {
+        AtomicLong calls = new AtomicLong();
+        LongMemo fibonacci = LongMemo.of((self, n) -> {
+            calls.incrementAndGet();
+            return n < 2 ? n : self.applyAsLong(n - 1) + self.applyAsLong(n - 2);
+        });
+
+        assertThat(fibonacci.applyAsLong(90)).isEqualTo(2880067194370816120L);
+        assertThat(calls).hasValue(91);
+        assertThat(fibonacci.size()).isEqualTo(91);
+        assertThat(fibonacci.applyAsLong(50)).isEqualTo(12586269025L);
+        assertThat(calls).hasValue(91);
+    }
+
+    @Test
+    void memoKeepsResultsEqualToItsAbsentMarker() {
+        AtomicLong calls = new AtomicLong();
+        LongMemo memo = LongMemo.of((self, n) -> {
+            calls.incrementAndGet();
+            return Long.MIN_VALUE;
+        });
+
+        memo.applyAsLong(7);
+        assertThat(memo.applyAsLong(7)).isEqualTo(Long.MIN_VALUE);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void divideAndConquerCombinesTheParts() {
+        DivideAndConquer divideAndConquer = new DivideAndConquer(mPool, 1000);
+
+        assertThat(divideAndConquer.computeLong(1, 10_000_001, RecursionTests::sumRange, Long::sum))
+                .isEqualTo(50_000_005_000_000L);
+        assertThat(divideAndConquer.computeLong(-500, 500, RecursionTests::sumRange, Long::sum)).isEqualTo(-500);
+        assertThat(divideAndConquer.computeLong(5, 5, RecursionTests::sumRange, Long::sum)).isZero();
+        assertThat(divideAndConquer.compute(0, 100_000, (from, to) -> to - from, Long::sum)).isEqualTo(100_000);
+
+        long[] squares = new long[100_000];
+        divideAndConquer.forEach(0, squares.length, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                squares[(int) i] = i * i;
+            }
+        });
+        assertThat(squares[99_999]).isEqualTo(99_999L * 99_999L);
+
+        assertThatThrownBy(() -> divideAndConquer.computeLong(2, 1, RecursionTests::sumRange, Long::sum))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DivideAndConquer(mPool, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void printNumVersionsPrintTheSameNumbers() {
+        List<Integer> naive = new ArrayList<>();
+        List<Integer> trampolined = new ArrayList<>();
+        List<Integer> iterative = new ArrayList<>();
+
+        PrintNum.naive(100, naive::add);
+        PrintNum.trampolined(100, trampolined::add);
+        PrintNum.iterative(100, iterative::add);
+
+        assertThat(naive).hasSize(100).startsWith(1, 2).endsWith(100).isEqualTo(trampolined).isEqualTo(iterative);
+
+        AtomicLong count = new AtomicLong();
+        PrintNum.trampolined(10_000_000, value -> count.incrementAndGet());
+        assertThat(count).hasValue(10_000_000);
+    }
+
+    private static Trampoline<Long> sum(long n, long total) {
+        return n == 0 ? done(total) : more(() -> sum(n - 1, total + n));
+    }
+
+    private static long sumRange(long from, long to) {
+        long sum = 0;
+        for (long i = from; i < to; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+}
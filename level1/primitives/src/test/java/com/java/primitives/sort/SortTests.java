@@ -0,0 +1,155 @@
+package com.java.primitives.sort;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SortTests {
+
+    private static final int[] SIZES = {0, 1, 2, 3, 63, 64, 65, 1000, 20000};
+
+    private final Random mRandom = new Random(17);
+    private final ForkJoinPool mPool = new ForkJoinPool(4);
+    private final ParallelMergeSort mParallelMergeSort = new ParallelMergeSort(mPool, 64);
+
+    @Test
+    void bubbleSortSortsInts() {
+        assertSortsInts(BubbleSort::sort, 1000);
+    }
+
+    @Test
+    void insertionSortSortsInts() {
+        assertSortsInts(InsertionSort::sort, 1000);
+    }
+
+    @Test
+    void radixSortSortsInts() {
+        assertSortsInts(RadixSort::sort, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void parallelMergeSortSortsInts() {
+        assertSortsInts(mParallelMergeSort::sort, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void bubbleSortSortsLongs() {
+        assertSortsLongs(BubbleSort::sort, 1000);
+    }
+
+    @Test
+    void insertionSortSortsLongs() {
+        assertSortsLongs(InsertionSort::sort, 1000);
+    }
+
+    @Test
+    void radixSortSortsLongs() {
+        assertSortsLongs(RadixSort::sort, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void parallelMergeSortSortsLongs() {
+        assertSortsLongs(mParallelMergeSort::sort, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void sortsOnlyTheRange() {
+        int[] array = randomInts(5000, 0);
+        int[] expected = array.clone();
+        Arrays.sort(expected, 100, 4900);
+
+        int[] radix = array.clone();
+        RadixSort.sort(radix, 100, 4900);
+        int[] merge = array.clone();
+        mParallelMergeSort.sort(merge, 100, 4900);
+        int[] insertion = array.clone();
+        InsertionSort.sort(insertion, 100, 4900);
+
+        assertThat(radix).isEqualTo(expected);
+        assertThat(merge).isEqualTo(expected);
+        assertThat(insertion).isEqualTo(expected);
+    }
+
+    @Test
+    void radixSortReusesACallerBuffer() {
+        long[] buffer = new long[1000];
+        for (int i = 0; i < 10; i++) {
+            long[] array = randomLongs(1000, 0);
+            long[] expected = array.clone();
+            Arrays.sort(expected);
+            RadixSort.sort(array, 0, array.length, buffer);
+            assertThat(array).isEqualTo(expected);
+        }
+        assertThatThrownBy(() -> RadixSort.sort(new int[100], 0, 100, new int[99]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsRangesOutsideTheArray() {
+        assertThatThrownBy(() -> BubbleSort.sort(new int[10], 5, 11)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> InsertionSort.sort(new long[10], 6, 5)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> RadixSort.sort(new int[10], -1, 5)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> mParallelMergeSort.sort(new long[10], 0, 11)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> new ParallelMergeSort(mPool, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertSortsInts(Consumer<int[]> sort, int maxSize) {
+        for (int size : SIZES) {
+            if (size > maxSize) {
+                continue;
+            }
+            // full range with negatives, small values, few distinct values, sorted and reversed
+            for (int[] array : new int[][]{randomInts(size, 0), randomInts(size, 100), randomInts(size, 4),
+                    sortedInts(size, false), sortedInts(size, true)}) {
+                int[] expected = array.clone();
+                Arrays.sort(expected);
+                sort.accept(array);
+                assertThat(array).as("size %d", size).isEqualTo(expected);
+            }
+        }
+    }
+
+    private void assertSortsLongs(Consumer<long[]> sort, int maxSize) {
+        for (int size : SIZES) {
+            if (size > maxSize) {
+                continue;
+            }
+            for (long[] array : new long[][]{randomLongs(size, 0), randomLongs(size, 100), randomLongs(size, 4)}) {
+                long[] expected = array.clone();
+                Arrays.sort(expected);
+                sort.accept(array);
+                assertThat(array).as("size %d", size).isEqualTo(expected);
+            }
+        }
+    }
+
+    private int[] randomInts(int size, int bound) {
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = bound == 0 ? mRandom.nextInt() : mRandom.nextInt(bound);
+        }
+        return array;
+    }
+
+    private long[] randomLongs(int size, int bound) {
+        long[] array = new long[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = bound == 0 ? mRandom.nextLong() : mRandom.nextInt(bound) - bound / 2;
+        }
+        return array;
+    }
+
+    private static int[] sortedInts(int size, boolean reversed) {
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = reversed ? size - i : i - size / 2;
+        }
+        return array;
+    }
+}
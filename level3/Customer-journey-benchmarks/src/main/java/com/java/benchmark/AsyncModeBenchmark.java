@@ -0,0 +1,175 @@
+package com.java.benchmark;
+
+import com.java.app.AccessingDataJpaApplication;
+import com.java.controller.CustomerRequestExecutor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the tail latency of cache-friendly GETs under a burst of concurrent writes for each
+ * {@code app.async.mode}, each mode in a fresh application context:
+ * <pre>
+ * java -jar target/benchmarks.jar async-modes [modes] [writers] [readers] [seconds]
+ * </pre>
+ * Arguments (all optional): modes (comma separated), writer threads, reader threads, seconds per mode.
+ * Tomcat is limited to 16 worker threads so that the writers can saturate it, as they do in production bursts.
+ */
+public class AsyncModeBenchmark {
+
+    private static final int TOMCAT_THREADS = 16;
+
+    public static void main(String[] args) throws Exception {
+        String[] modes = args.length > 0 ? args[0].split(",") : new String[]{"SYNC", "PLATFORM", "VIRTUAL"};
+        int writers = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int readers = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 15;
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-18s %10s %10s %10s %10s %10s %12s %8s", "mode", "reads", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "writes/s", "errors"));
+        for (String mode : modes) {
+            report.add(run(mode.trim(), writers, readers, seconds));
+        }
+        System.out.printf("%nGET /api/v1/customers/{id} latency with %d concurrent writers, %d readers, Java %s%n",
+                writers, readers, System.getProperty("java.version"));
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String mode, int writers, int readers, int seconds) throws Exception {
+        // arguments rather than builder properties, which application.yml would override
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AccessingDataJpaApplication.class).run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "--app.async.mode=" + mode,
+                "--logging.file.name=" + Files.createTempFile("benchmark", ".log"),
+                "--logging.level.com.java=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + mode);
+        try {
+            // VIRTUAL falls back to PLATFORM on a JDK without virtual threads, reported as VIRTUAL>PLATFORM
+            CustomerRequestExecutor.Mode actualMode = context.getBean(CustomerRequestExecutor.class).getMode();
+            String label = actualMode.name().equals(mode) ? mode : mode + ">" + actualMode;
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + "/api/v1/customers";
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            HttpRequest read = HttpRequest.newBuilder(URI.create(baseUrl + "/1")).GET().build();
+            HttpRequest write = HttpRequest.newBuilder(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"firstName\":\"Bench\",\"lastName\":\"Mark\"}"))
+                    .build();
+
+            // warm up the JIT, the connection pools and the customer cache
+            Load warmUp = new Load(client, read, write, writers, readers, 5);
+            warmUp.run();
+
+            Load load = new Load(client, read, write, writers, readers, seconds);
+            load.run();
+            long[] latencies = load.readLatencies();
+            Arrays.sort(latencies);
+            return String.format("%-18s %10d %10.2f %10.2f %10.2f %10.2f %12.0f %8d", label, latencies.length,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                    latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+                    load.writes.get() / (double) seconds, load.errors.get());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1)] / 1e6;
+    }
+
+    /**
+     * Closed-loop load: every thread sends its next request as soon as the previous one is answered.
+     */
+    private static class Load {
+
+        private final HttpClient client;
+        private final HttpRequest read;
+        private final HttpRequest write;
+        private final int writers;
+        private final int readers;
+        private final long deadline;
+        private final List<long[]> latenciesByReader = new ArrayList<>();
+        private final int[] countByReader;
+        private final AtomicLong writes = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        Load(HttpClient client, HttpRequest read, HttpRequest write, int writers, int readers, int seconds) {
+            this.client = client;
+            this.read = read;
+            this.write = write;
+            this.writers = writers;
+            this.readers = readers;
+            this.deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            this.countByReader = new int[readers];
+        }
+
+        void run() throws InterruptedException {
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                threads.add(new Thread(() -> {
+                    while (System.nanoTime() < deadline) {
+                        if (send(write)) {
+                            writes.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < readers; i++) {
+                long[] latencies = new long[1 << 20];
+                latenciesByReader.add(latencies);
+                int reader = i;
+                threads.add(new Thread(() -> {
+                    int count = 0;
+                    while (System.nanoTime() < deadline && count < latencies.length) {
+                        long startedAt = System.nanoTime();
+                        if (send(read)) {
+                            latencies[count++] = System.nanoTime() - startedAt;
+                        }
+                    }
+                    countByReader[reader] = count;
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        long[] readLatencies() {
+            long[] all = new long[Arrays.stream(countByReader).sum()];
+            int position = 0;
+            for (int i = 0; i < readers; i++) {
+                System.arraycopy(latenciesByReader.get(i), 0, all, position, countByReader[i]);
+                position += countByReader[i];
+            }
+            return all;
+        }
+
+        private boolean send(HttpRequest request) {
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() < 300) {
+                    return true;
+                }
+            } catch (Exception exception) {
+                // counted below
+            }
+            errors.incrementAndGet();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.java.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints the benchmarks two JMH JSON result files have in common, with the relative change of each score.
+ * A change is flagged when the two score error intervals (99.9% by default in JMH) do not overlap; anything
+ * else is within noise, as are runs with a single measurement iteration, which have no error interval. For
+ * throughput modes higher is better, for time modes lower is better.
+ */
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: compare <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> candidate = read(new File(args[1]));
+        System.out.printf("%-96s %24s %24s %9s%n", "Benchmark (mode)", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, JsonNode> entry : baseline.entrySet()) {
+            JsonNode after = candidate.get(entry.getKey());
+            if (after == null) {
+                continue;
+            }
+            JsonNode before = entry.getValue();
+            String mode = before.path("mode").asText();
+            JsonNode beforeMetric = before.path("primaryMetric");
+            JsonNode afterMetric = after.path("primaryMetric");
+            double beforeScore = beforeMetric.path("score").asDouble();
+            double afterScore = afterMetric.path("score").asDouble();
+            double change = beforeScore == 0 ? 0 : (afterScore - beforeScore) / beforeScore * 100;
+            boolean significant = hasError(beforeMetric) && hasError(afterMetric)
+                    && Math.abs(afterScore - beforeScore) > error(beforeMetric) + error(afterMetric);
+            String verdict = "";
+            if (significant) {
+                boolean higherIsBetter = mode.equals("thrpt");
+                verdict = (afterScore > beforeScore) == higherIsBetter ? " better" : " WORSE";
+            }
+            System.out.printf("%-96s %24s %24s %+8.1f%%%s%n", entry.getKey(), format(beforeMetric), format(afterMetric), change, verdict);
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText().replace("com.java.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(key.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key + " (" + result.path("mode").asText() + ")", result);
+        }
+        return results;
+    }
+
+    // JMH reports no error for a single measurement iteration, such a change cannot be judged
+    private static boolean hasError(JsonNode metric) {
+        return !Double.isNaN(metric.path("scoreError").asDouble(Double.NaN));
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(JsonNode metric) {
+        return String.format("%.3f +- %.3f %s", metric.path("score").asDouble(), error(metric), metric.path("scoreUnit").asText());
+    }
+}
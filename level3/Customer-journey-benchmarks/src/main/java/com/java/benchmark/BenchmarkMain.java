@@ -0,0 +1,59 @@
+package com.java.benchmark;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of {@code target/benchmarks.jar}.
+ * <pre>
+ * java -jar target/benchmarks.jar [JMH options] [benchmark regexps]
+ * java -jar target/benchmarks.jar compare baseline.json candidate.json
+ * java -jar target/benchmarks.jar footprint [jpa|offheap] [customers] [operations]
+ * java -jar target/benchmarks.jar startup [runs] [profiles]
+ * java -jar target/benchmarks.jar sizes [customers...]
+ * java -jar target/benchmarks.jar async-modes [modes] [writers] [readers] [seconds]
+ * </pre>
+ * Takes the usual JMH command line, but unless {@code -rf} or {@code -rff} is given the results are written as
+ * JSON to {@code results/jmh-<timestamp>.json}, so every run leaves a file that {@code compare} can diff
+ * against a later one.
+ */
+public class BenchmarkMain {
+
+    private static final DateTimeFormatter RESULT_FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("compare")) {
+            BenchmarkComparison.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("footprint")) {
+            StoreFootprint.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("startup")) {
+            StartupTime.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("sizes")) {
+            PayloadSizes.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("async-modes")) {
+            AsyncModeBenchmark.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf") && !jmhArgs.contains("-rff")) {
+            File resultFile = new File("results", "jmh-" + LocalDateTime.now().format(RESULT_FILE_TIMESTAMP) + ".json");
+            if (!resultFile.getParentFile().isDirectory() && !resultFile.getParentFile().mkdirs()) {
+                throw new IllegalStateException("Cannot create " + resultFile.getParentFile().getAbsolutePath());
+            }
+            jmhArgs.addAll(Arrays.asList("-rf", "json", "-rff", resultFile.getPath()));
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,93 @@
+package com.java.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.java.dao.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a list of customers, the body of the unpaged list request, in each format the controller
+ * negotiates: JSON, Smile and CBOR. The mappers are built like those of the service's message converters.
+ * {@code benchmarks.jar sizes} prints the payload sizes of the same lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerFormatBenchmark {
+
+    static final String[] FORMATS = {"json", "smile", "cbor"};
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"1", "100", "1000"})
+    int customers;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader listReader;
+    private List<Customer> list;
+    private byte[] listBytes;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(1 << 16);
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = objectMapper(format);
+        listReader = objectMapper.readerFor(TypeFactory.defaultInstance().constructCollectionType(List.class, Customer.class));
+        list = customers(customers);
+        listBytes = objectMapper.writeValueAsBytes(list);
+    }
+
+    static ObjectMapper objectMapper(String format) {
+        switch (format) {
+            case "json":
+                return Jackson2ObjectMapperBuilder.json().build();
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
+    static List<Customer> customers(int customers) {
+        List<Customer> list = new ArrayList<>(customers);
+        for (long id = 1; id <= customers; id++) {
+            list.add(new Customer(id, "First" + id, "Last" + (id % 97)));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public int writeCustomerList() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, list);
+        return output.size();
+    }
+
+    @Benchmark
+    public List<Customer> readCustomerList() throws IOException {
+        return listReader.readValue(listBytes);
+    }
+}
@@ -0,0 +1,96 @@
+package com.java.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.dao.Customer;
+import com.java.dao.CustomerPage;
+import com.java.dao.CustomerView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the payloads the controller returns: one customer, a keyset page of {@link CustomerView}
+ * projections and the unpaged list, as entities and as projections, plus reading a request body. The mapper is
+ * built like Spring Boot's, and output goes to a reused buffer so the numbers exclude the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int customers;
+
+    private ObjectMapper objectMapper;
+    private Customer customer;
+    private CustomerPage<Long> page;
+    private List<Customer> list;
+    private List<CustomerView> viewList;
+    private byte[] customerJson;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(1 << 16);
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        customer = new Customer(1L, "Johny", "Walker");
+        list = new ArrayList<>(customers);
+        viewList = new ArrayList<>(customers);
+        for (long id = 1; id <= customers; id++) {
+            list.add(new Customer(id, "First" + id, "Last" + (id % 97)));
+            viewList.add(new CustomerView(id, "First" + id, "Last" + (id % 97), 0));
+        }
+        page = new CustomerPage<>(viewList, (long) customers);
+        customerJson = objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public int writeCustomer() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, customer);
+        return output.size();
+    }
+
+    @Benchmark
+    public int writeCustomerPage() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, page);
+        return output.size();
+    }
+
+    @Benchmark
+    public int writeCustomerList() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, list);
+        return output.size();
+    }
+
+    @Benchmark
+    public int writeCustomerViewList() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, viewList);
+        return output.size();
+    }
+
+    @Benchmark
+    public Customer readCustomer() throws IOException {
+        return objectMapper.readValue(customerJson, Customer.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.java.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.java.controller.CustomerController;
+import com.java.dao.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The controller's logging of every customer it returns, {@code logger.info(LOG, customer.toString())}, with the
+ * CustomerController logger writing through Spring Boot's file pattern to a discarding stream. {@code level}
+ * is the logger level, so WARN measures what the call costs when the line is not written.
+ * {@code parameterizedInfo} passes the customer itself and leaves {@code toString} to the logger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerLoggingBenchmark {
+
+    private static final String FETCH_CUSTOMER_LOG = "Customer record fetched as : {}";
+    private static final String FILE_LOG_PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p 1 --- [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"INFO", "WARN"})
+    String level;
+
+    private Logger logger;
+    private Customer customer;
+
+    @Setup
+    public void setup() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(FILE_LOG_PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        logger = loggerContext.getLogger(CustomerController.class);
+        logger.setLevel(Level.valueOf(level));
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        customer = new Customer(1L, "Johny", "Walker");
+    }
+
+    @Benchmark
+    public String customerToString() {
+        return customer.toString();
+    }
+
+    @Benchmark
+    public void eagerToStringInfo() {
+        logger.info(FETCH_CUSTOMER_LOG, customer.toString());
+    }
+
+    @Benchmark
+    public void parameterizedInfo() {
+        logger.info(FETCH_CUSTOMER_LOG, customer);
+    }
+}
@@ -0,0 +1,192 @@
+package com.java.benchmark;
+
+import com.java.app.AccessingDataJpaApplication;
+import com.java.dao.Customer;
+import com.java.dao.CustomerBatchOperation;
+import com.java.dao.CustomerImportService;
+import com.java.dao.CustomerRepoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CustomerRepoService} against the application's in-memory H2 database, with its cache, transactions,
+ * outbox and name index. The web server is started on a random port, as the OpenAPI setup needs it, but
+ * requests do not go through it. The table is seeded with {@code seedCustomers} rows
+ * through the CSV import before measuring.
+ * <p>
+ * Reads pick a random customer per call. {@code createCustomers} and {@code applyBatchCreates} create the same
+ * number of customers per invocation, one transaction each versus one for the batch, and report the time per
+ * customer, so the two scores compare directly. {@code getAllCustomers} and {@code findByLastName} read managed
+ * entities, their {@code View} counterparts the projections mapped straight from the rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerRepoServiceBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"10000"})
+    int seedCustomers;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepoService customerRepoService;
+    private Cache customerCache;
+    private long maxId;
+    private List<CustomerBatchOperation> batch;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        File outbox = File.createTempFile("benchmark-outbox", ".ndjson");
+        File log = File.createTempFile("benchmark", ".log");
+        outbox.deleteOnExit();
+        log.deleteOnExit();
+        // arguments rather than builder properties, which application.yml would override
+        context = new SpringApplicationBuilder(AccessingDataJpaApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:repo-service-benchmark",
+                "--app.outbox.enabled=true",
+                "--app.outbox.sink=file",
+                "--app.outbox.file=" + outbox.getAbsolutePath(),
+                "--logging.file.name=" + log.getAbsolutePath(),
+                "--logging.level.root=WARN",
+                "--logging.level.com.java=WARN");
+        customerRepoService = context.getBean(CustomerRepoService.class);
+        customerCache = context.getBean(CacheManager.class).getCache(CustomerRepoService.CUSTOMER_CACHE);
+        StringBuilder csv = new StringBuilder("firstName,lastName\n");
+        for (int i = 0; i < seedCustomers; i++) {
+            csv.append("First").append(i).append(",Last").append(i % 500).append('\n');
+        }
+        context.getBean(CustomerImportService.class).importCustomers(new StringReader(csv.toString()));
+        awaitOutboxRelayed(new JdbcTemplate(context.getBean(DataSource.class)));
+        maxId = customerRepoService.getCustomers(null, 1).getCustomers().get(0).getId() + seedCustomers;
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new CustomerBatchOperation(CustomerBatchOperation.Type.CREATE, null, "Batch" + i, "Created"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Customer retrieveCustomerById_cached() {
+        // the first 1000 ids fit in the cache, so after warm up every read is a hit
+        return customerRepoService.retrieveCustomerById(1 + ThreadLocalRandom.current().nextLong(1000));
+    }
+
+    @Benchmark
+    public Customer retrieveCustomerById_uncached() {
+        long customerId = randomId();
+        customerCache.evict(customerId);
+        return customerRepoService.retrieveCustomerById(customerId);
+    }
+
+    @Benchmark
+    public Object getCustomers_page() {
+        return customerRepoService.getCustomers(randomId(), 100);
+    }
+
+    @Benchmark
+    public Object getAllCustomers() {
+        return customerRepoService.getAllCustomers();
+    }
+
+    @Benchmark
+    public Object getAllCustomerViews() {
+        return customerRepoService.getAllCustomerViews();
+    }
+
+    @Benchmark
+    public Object findByLastName() {
+        return customerRepoService.findByLastName("Last42");
+    }
+
+    @Benchmark
+    public Object findViewsByLastName() {
+        return customerRepoService.findViewsByLastName("Last42");
+    }
+
+    @Benchmark
+    public Object searchByLastName_prefix() {
+        return customerRepoService.searchByLastName(null, "Last4", null, 100);
+    }
+
+    @Benchmark
+    public Customer updateCustomer() {
+        return customerRepoService.updateCustomer(randomId(), new Customer("Updated", "Customer"));
+    }
+
+    @Benchmark
+    public Customer patchCustomer() {
+        return customerRepoService.patchCustomer(randomId(), new Customer(null, "Patched"), null);
+    }
+
+    @Benchmark
+    public void createAndDeleteCustomer() {
+        Customer created = customerRepoService.createCustomer(new Customer("Created", "Customer"));
+        customerRepoService.deleteCustomer(created.getId());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createCustomers() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            customerRepoService.createCustomer(new Customer("Single" + i, "Created"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Object applyBatchCreates() {
+        return customerRepoService.applyBatch(batch);
+    }
+
+    /**
+     * The relay delivers the import's outbox events in the background, which would otherwise compete with the
+     * first iterations for the CPU.
+     */
+    static void awaitOutboxRelayed(JdbcTemplate jdbcTemplate) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_outbox", Long.class) > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("The customer outbox was not relayed within 2 minutes");
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextLong(maxId);
+    }
+}
@@ -0,0 +1,55 @@
+package com.java.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.exception.apierror.ApiErrorSlim;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the size in bytes of customer lists and of an error body in each format of
+ * {@link CustomerFormatBenchmark}, next to the JSON size.
+ * <pre>
+ * java -jar target/benchmarks.jar sizes [customers...]
+ * </pre>
+ */
+public class PayloadSizes {
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> sizes = new ArrayList<>();
+        for (String arg : args) {
+            sizes.add(Integer.parseInt(arg));
+        }
+        if (sizes.isEmpty()) {
+            sizes = List.of(1, 100, 1000);
+        }
+        ApiErrorSlim error = new ApiErrorSlim(HttpStatus.BAD_REQUEST, "Customer was not found for parameters {id=42}");
+
+        System.out.printf("%-16s", "payload");
+        for (String format : CustomerFormatBenchmark.FORMATS) {
+            System.out.printf("%16s", format);
+        }
+        System.out.println();
+        for (int customers : sizes) {
+            print(customers + " customers", CustomerFormatBenchmark.customers(customers));
+        }
+        print("error", error);
+    }
+
+    private static void print(String payload, Object value) throws Exception {
+        System.out.printf("%-16s", payload);
+        int jsonSize = 0;
+        for (String format : CustomerFormatBenchmark.FORMATS) {
+            ObjectMapper objectMapper = CustomerFormatBenchmark.objectMapper(format);
+            int size = objectMapper.writeValueAsBytes(value).length;
+            if (jsonSize == 0) {
+                jsonSize = size;
+                System.out.printf("%16d", size);
+            } else {
+                System.out.printf("%9d (%3d%%)", size, Math.round(100.0 * size / jsonSize));
+            }
+        }
+        System.out.println();
+    }
+}
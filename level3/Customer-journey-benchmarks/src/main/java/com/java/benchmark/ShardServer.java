@@ -0,0 +1,25 @@
+package com.java.benchmark;
+
+import org.h2.tools.Server;
+
+/**
+ * One shard of {@link ShardedStoreBenchmark}: an H2 TCP server in a JVM of its own, so the shard has its own heap,
+ * garbage collector and threads, serving in-memory databases until its standard input is closed.
+ * <pre>
+ * java -cp target/benchmarks.jar com.java.benchmark.ShardServer
+ * </pre>
+ * The first line it prints is the port it listens on, chosen by the system.
+ */
+public class ShardServer {
+
+    public static void main(String[] args) throws Exception {
+        Server server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        System.out.println(server.getPort());
+        System.out.flush();
+        // end of input when the benchmark is done with the shard, or when it died
+        while (System.in.read() != -1) {
+            // nothing is sent
+        }
+        server.stop();
+    }
+}
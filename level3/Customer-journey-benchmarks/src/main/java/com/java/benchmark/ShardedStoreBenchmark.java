@@ -0,0 +1,120 @@
+package com.java.benchmark;
+
+import com.java.shard.ShardedCustomerStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of {@link ShardedCustomerStore} by shard count, with 8 threads creating customers; {@code
+ * findByLastName} reads every shard and shows the cost of the scatter-gather side.
+ * <p>
+ * Every shard is an in-memory H2 database served over TCP by a {@link ShardServer} in a child JVM, reached through
+ * its own Hikari pool, so the shards do not share a heap, a garbage collector or the database's locks with each
+ * other or with the benchmark. Write throughput then grows with the shard count as long as there are cores for the
+ * shard JVMs; on a machine with fewer cores than shards they take turns on them and it does not, see the README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ShardedStoreBenchmark {
+
+    private static final ShardedCustomerStore.RecordMapper<Long> TO_ID = (id, firstName, lastName, version) -> id;
+
+    @Param({"1", "2", "4"})
+    int shards;
+
+    private final List<Process> servers = new ArrayList<>();
+    private ShardedCustomerStore store;
+
+    @Setup
+    public void setup() throws IOException {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            int port = startServer();
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:tcp://localhost:" + port + "/mem:shard;DB_CLOSE_DELAY=-1");
+            dataSource.setUsername("sa");
+            dataSource.setPassword("sa");
+            dataSource.setMaximumPoolSize(8);
+            dataSources.add(dataSource);
+        }
+        store = new ShardedCustomerStore(dataSources, 1000, 8);
+        for (int i = 0; i < 10_000; i++) {
+            store.insert("First" + i, "Last" + (i % 500), TO_ID);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        if (store != null) {
+            store.close();
+        }
+        for (Process server : servers) {
+            try {
+                server.getOutputStream().close();
+            } catch (IOException ignored) {
+                // the server is gone already
+            }
+            if (!server.waitFor(10, TimeUnit.SECONDS)) {
+                server.destroyForcibly();
+            }
+        }
+        servers.clear();
+    }
+
+    @Benchmark
+    public Long insert() {
+        return store.insert("Created", "Customer", TO_ID);
+    }
+
+    @Benchmark
+    public List<Long> findByLastName() {
+        return store.findByLastName("Last42", TO_ID);
+    }
+
+    /**
+     * Starts a {@link ShardServer} in a child JVM on the class path of this one.
+     *
+     * @return the port it listens on
+     */
+    private int startServer() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-Xmx512m");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardServer.class.getName());
+        Process server = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        servers.add(server);
+        String port = new BufferedReader(new InputStreamReader(server.getInputStream())).readLine();
+        if (port == null) {
+            throw new IllegalStateException("The shard server exited without a port, see its output above");
+        }
+        return Integer.parseInt(port.trim());
+    }
+}
@@ -0,0 +1,121 @@
+package com.java.benchmark;
+
+import com.java.app.AccessingDataJpaApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the service takes from launching its JVM to answering requests, with the default profile and
+ * the {@code fast-startup} one.
+ * <pre>
+ * java -jar target/benchmarks.jar startup [runs] [profiles]
+ * </pre>
+ * Each run starts the service in a child JVM with this JVM's options and polls it every 5 ms until
+ * {@code GET /api/v1/customers} returns 200, the time to the first successful request, and then until
+ * {@code /actuator/health/readiness} does. {@code runs} (5 by default) runs of every profile are alternated, so a
+ * change in the machine's load affects both, and the fastest and median times are printed. {@code profiles} is
+ * a comma-separated list, {@code default,fast-startup} by default.
+ */
+public class StartupTime {
+
+    private static final int DEFAULT_RUNS = 5;
+    private static final long POLL_MILLIS = 5;
+    private static final long TIMEOUT_SECONDS = 300;
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        List<String> profiles = Arrays.asList((args.length > 1 ? args[1] : "default,fast-startup").split(","));
+        long[][] firstRequestMillis = new long[profiles.size()][runs];
+        long[][] readyMillis = new long[profiles.size()][runs];
+        for (int run = 0; run < runs; run++) {
+            for (int profile = 0; profile < profiles.size(); profile++) {
+                long[] millis = measure(profiles.get(profile));
+                firstRequestMillis[profile][run] = millis[0];
+                readyMillis[profile][run] = millis[1];
+                System.out.printf("run %d %-14s first request %6d ms, ready %6d ms%n",
+                        run + 1, profiles.get(profile), millis[0], millis[1]);
+            }
+        }
+        System.out.printf("%n%-14s %20s %20s %14s %14s%n",
+                "Profile", "First request (ms)", "Median (ms)", "Ready (ms)", "Median (ms)");
+        for (int profile = 0; profile < profiles.size(); profile++) {
+            Arrays.sort(firstRequestMillis[profile]);
+            Arrays.sort(readyMillis[profile]);
+            System.out.printf("%-14s %20d %20d %14d %14d%n", profiles.get(profile),
+                    firstRequestMillis[profile][0], firstRequestMillis[profile][runs / 2],
+                    readyMillis[profile][0], readyMillis[profile][runs / 2]);
+        }
+    }
+
+    /**
+     * @return the milliseconds from launching the JVM to the first successful request and to readiness
+     */
+    private static long[] measure(String profile) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        File log = File.createTempFile("startup", ".log");
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(AccessingDataJpaApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--spring.profiles.active=" + profile);
+        command.add("--spring.main.banner-mode=off");
+        command.add("--logging.file.name=" + log.getAbsolutePath());
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long firstRequest = awaitOk(process, start, URI.create("http://localhost:" + port + "/api/v1/customers"));
+            long ready = awaitOk(process, start, URI.create("http://localhost:" + port + "/actuator/health/readiness"));
+            return new long[]{firstRequest, ready};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            log.delete();
+        }
+    }
+
+    private static long awaitOk(Process process, long start, URI uri) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).build();
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The service exited with " + process.exitValue() + " before " + uri + " answered");
+            }
+            if (System.nanoTime() - start > TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS)) {
+                throw new IllegalStateException(uri + " did not answer within " + TIMEOUT_SECONDS + " s");
+            }
+            try {
+                if (CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            } catch (IOException notListeningYet) {
+                // retried below
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.java.benchmark;
+
+import com.java.app.AccessingDataJpaApplication;
+import com.java.dao.Customer;
+import com.java.dao.CustomerImportService;
+import com.java.dao.CustomerRepoService;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the memory footprint and GC pauses of the JPA customer store with the off-heap one of the
+ * {@code offheap} profile.
+ * <pre>
+ * java -Xmx1g -jar target/benchmarks.jar footprint [customers] [operations]
+ * java -Xmx1g -jar target/benchmarks.jar footprint jpa|offheap [customers] [operations]
+ * </pre>
+ * Each store is seeded with {@code customers} customers (200000 by default) through the CSV import, after which
+ * the heap in use and the direct memory are read following a full GC. Then {@code operations} random reads,
+ * cache evicted, and updates (one in ten) go through {@link CustomerRepoService} while the stop-the-world GC
+ * pauses are recorded. Without a store both are run, each in a child JVM with this JVM's options, so one does
+ * not inherit the other's heap. The fuzzy name index, which the {@code offheap} profile turns off, is turned off
+ * for the JPA store too, so that only the stores are compared.
+ */
+public class StoreFootprint {
+
+    private static final int DEFAULT_CUSTOMERS = 200_000;
+    private static final int DEFAULT_OPERATIONS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && (args[0].equals("jpa") || args[0].equals("offheap"))) {
+            int customers = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CUSTOMERS;
+            int operations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_OPERATIONS;
+            measure(args[0], customers, operations);
+            return;
+        }
+        System.out.printf("%-8s %10s %12s %14s %14s %8s %12s %12s%n",
+                "Store", "Customers", "Seed (ms)", "Heap (MB)", "Direct (MB)", "Pauses", "Total (ms)", "Max (ms)");
+        for (String store : new String[]{"jpa", "offheap"}) {
+            List<String> command = new ArrayList<>();
+            command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(StoreFootprint.class.getName());
+            command.add(store);
+            for (String arg : args) {
+                command.add(arg);
+            }
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    System.out.println(line);
+                }
+            }
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("The " + store + " run exited with " + process.exitValue());
+            }
+        }
+    }
+
+    private static void measure(String store, int customers, int operations) throws IOException, InterruptedException {
+        File log = File.createTempFile("footprint", ".log");
+        log.deleteOnExit();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AccessingDataJpaApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.profiles.active=" + (store.equals("offheap") ? "offheap" : "default"),
+                "--spring.datasource.url=jdbc:h2:mem:footprint",
+                "--app.search.fuzzy.enabled=false",
+                "--logging.file.name=" + log.getAbsolutePath(),
+                "--logging.level.root=WARN",
+                "--logging.level.com.java=WARN");
+        try {
+            CustomerRepoService customerRepoService = context.getBean(CustomerRepoService.class);
+            Cache customerCache = context.getBean(CacheManager.class).getCache(CustomerRepoService.CUSTOMER_CACHE);
+            long start = System.nanoTime();
+            StringBuilder csv = new StringBuilder("firstName,lastName\n");
+            for (int i = 0; i < customers; i++) {
+                csv.append("First").append(i).append(",Last").append(i % 500).append('\n');
+            }
+            context.getBean(CustomerImportService.class).importCustomers(new StringReader(csv.toString()));
+            CustomerRepoServiceBenchmark.awaitOutboxRelayed(new JdbcTemplate(context.getBean(DataSource.class)));
+            long seedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            csv = null;
+
+            System.gc();
+            long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            long direct = 0;
+            for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+                if (pool.getName().equals("direct")) {
+                    direct = pool.getMemoryUsed();
+                }
+            }
+
+            long firstId = customerRepoService.getCustomers(null, 1).getCustomers().get(0).getId();
+            PauseRecorder pauses = new PauseRecorder();
+            pauses.start();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < operations; i++) {
+                long customerId = firstId + random.nextLong(customers);
+                if (i % 10 == 0) {
+                    customerRepoService.updateCustomer(customerId, new Customer("Updated" + i, "Last" + (i % 500)));
+                } else {
+                    customerCache.evict(customerId);
+                    customerRepoService.retrieveCustomerById(customerId);
+                }
+            }
+            pauses.stop();
+            System.out.printf("%-8s %10d %12d %14.1f %14.1f %8d %12d %12d%n", store, customers, seedMillis,
+                    heap / 1048576.0, direct / 1048576.0, pauses.count.get(), pauses.totalMillis.get(), pauses.maxMillis.get());
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Adds up the pauses of the stop-the-world collections; the concurrent cycles of G1, ZGC and Shenandoah
+     * report their whole duration, most of which the application keeps running, so they are left out.
+     */
+    private static final class PauseRecorder {
+
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalMillis = new AtomicLong();
+        final AtomicLong maxMillis = new AtomicLong();
+
+        private final NotificationListener listener = (notification, handback) -> {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) {
+                return;
+            }
+            long duration = info.getGcInfo().getDuration();
+            count.incrementAndGet();
+            totalMillis.addAndGet(duration);
+            maxMillis.accumulateAndGet(duration, Math::max);
+        };
+
+        void start() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+            }
+        }
+
+        void stop() throws InterruptedException {
+            // notifications are sent asynchronously, give the last ones time to arrive
+            Thread.sleep(500);
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                try {
+                    ((NotificationEmitter) collector).removeNotificationListener(listener);
+                } catch (ListenerNotFoundException ignored) {
+                    // not registered
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.java.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.exception.apierror.ApiError;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link RestExceptionHandler} paths: creating the service exception, turning it into an
+ * {@link com.java.exception.apierror.ApiErrorSlim} or an {@link ApiError} response and writing the body. It lives
+ * in this package, in the benchmark module, to call the protected handler methods themselves.
+ * <p>
+ * {@code fast} compares the default exceptions with those of {@code app.errors.fast} (see {@link ExpectedErrors});
+ * {@code notFoundResponse} and {@code invalidValueResponse} are a whole error response, from the throw to the bytes
+ * of the body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    @Param({"false", "true"})
+    boolean fast;
+
+    // a field rather than a constant, so the message is built on every call as in the service
+    private long customerId = 42L;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+    private ExpectedErrors expectedErrors;
+    private RestExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private EntityNotFoundException notFound;
+
+    @Setup
+    public void setup() {
+        expectedErrors = new ExpectedErrors(fast);
+        handler = new RestExceptionHandler(expectedErrors);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        notFound = newNotFound();
+    }
+
+    @Benchmark
+    public EntityNotFoundException newEntityNotFoundException() {
+        return newNotFound();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> handleEntityNotFound() {
+        return handler.handleEntityNotFound(notFound);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> throwAndHandleEntityNotFound() {
+        try {
+            throw newNotFound();
+        } catch (EntityNotFoundException exception) {
+            return handler.handleEntityNotFound(exception);
+        }
+    }
+
+    @Benchmark
+    public int notFoundResponse() throws IOException {
+        ResponseEntity<Object> response;
+        try {
+            throw newNotFound();
+        } catch (EntityNotFoundException exception) {
+            response = handler.handleEntityNotFound(exception);
+        }
+        return write(response.getBody());
+    }
+
+    @Benchmark
+    public int invalidValueResponse() throws IOException {
+        ResponseEntity<Object> response;
+        try {
+            throw expectedErrors.constantInvalidPropertyValue("Exactly one of lastName or prefix must be provided");
+        } catch (InvalidPropertyValueException exception) {
+            response = handler.handleInvalidPropertyValueException(exception);
+        }
+        return write(response.getBody());
+    }
+
+    @Benchmark
+    public ApiError newApiError() {
+        return new ApiError(HttpStatus.BAD_REQUEST, "Malformed JSON request", notFound);
+    }
+
+    private int write(Object body) throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, body);
+        return output.size();
+    }
+
+    private EntityNotFoundException newNotFound() {
+        return expectedErrors.entityNotFound("No customer found with id: " + customerId + " Please try with a valid customer Id.");
+    }
+}
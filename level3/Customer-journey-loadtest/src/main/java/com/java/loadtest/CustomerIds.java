@@ -0,0 +1,49 @@
+package com.java.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ids of the customers that exist, to pick the target of reads, updates and deletes from. Creates add to it and
+ * deletes take their id out before the request is sent, so later requests do not pick it; a read already in
+ * flight for that id can still get a 404.
+ * <p>
+ * An array with swap-remove under one lock: picking and removing are O(1) and the lock is held for nanoseconds,
+ * well below the cost of the request that follows.
+ */
+public class CustomerIds {
+
+    private long[] mIds = new long[1024];
+    private int mSize;
+
+    public synchronized void add(long id) {
+        if (mSize == mIds.length) {
+            mIds = Arrays.copyOf(mIds, mSize * 2);
+        }
+        mIds[mSize++] = id;
+    }
+
+    /**
+     * @return a random id, or -1 when there is none
+     */
+    public synchronized long random() {
+        return mSize == 0 ? -1 : mIds[ThreadLocalRandom.current().nextInt(mSize)];
+    }
+
+    /**
+     * @return a random id, no longer in the pool, or -1 when there is none
+     */
+    public synchronized long removeRandom() {
+        if (mSize == 0) {
+            return -1;
+        }
+        int index = ThreadLocalRandom.current().nextInt(mSize);
+        long id = mIds[index];
+        mIds[index] = mIds[--mSize];
+        return id;
+    }
+
+    public synchronized int size() {
+        return mSize;
+    }
+}
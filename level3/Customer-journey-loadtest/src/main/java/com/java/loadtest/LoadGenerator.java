@@ -0,0 +1,188 @@
+package com.java.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: one thread starts a request every {@code 1 / rate} seconds, on a schedule fixed when the run
+ * starts, without waiting for earlier responses. A request that cannot start on time, because the thread was
+ * descheduled or {@code max-in-flight} requests are outstanding, starts as soon as it can and its response time
+ * still counts from when it was due (see {@link OperationStats}).
+ * <p>
+ * Requests go through one {@link HttpClient}, HTTP/1.1 over as many pooled connections as there are requests in
+ * flight.
+ */
+public class LoadGenerator {
+
+    private static final String CUSTOMERS_PATH = "/api/v1/customers";
+    private static final String JSON = "application/json";
+
+    private final HttpClient mHttpClient;
+    private final URI mBaseUri;
+    private final LoadTestOptions mOptions;
+    private final CustomerIds mCustomerIds;
+    private final ObjectMapper mObjectMapper;
+    private final Map<Operation, OperationStats> mStats = new EnumMap<>(Operation.class);
+    private final Semaphore mInFlight;
+    private final AtomicLong mNames = new AtomicLong();
+    private final Thread mScheduler;
+    private volatile boolean mRunning;
+    private volatile long mMaxStartDelayNanos;
+
+    public LoadGenerator(HttpClient httpClient, URI baseUri, LoadTestOptions options, CustomerIds customerIds,
+                         ObjectMapper objectMapper) {
+        this.mHttpClient = httpClient;
+        this.mBaseUri = baseUri;
+        this.mOptions = options;
+        this.mCustomerIds = customerIds;
+        this.mObjectMapper = objectMapper;
+        this.mInFlight = new Semaphore(options.getMaxInFlight());
+        for (Operation operation : Operation.values()) {
+            mStats.put(operation, new OperationStats(operation));
+        }
+        this.mScheduler = new Thread(this::schedule, "load-generator");
+        this.mScheduler.setDaemon(true);
+    }
+
+    public void start() {
+        mRunning = true;
+        mScheduler.start();
+    }
+
+    /**
+     * Stops starting requests and waits for the ones in flight, at most for the request timeout.
+     *
+     * @return true when every request in flight completed
+     */
+    public boolean stop() throws InterruptedException {
+        mRunning = false;
+        mScheduler.join();
+        long timeoutNanos = mOptions.getTimeout().toNanos() + TimeUnit.SECONDS.toNanos(1);
+        if (!mInFlight.tryAcquire(mOptions.getMaxInFlight(), timeoutNanos, TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        mInFlight.release(mOptions.getMaxInFlight());
+        return true;
+    }
+
+    public Collection<OperationStats> getStats() {
+        return mStats.values();
+    }
+
+    public int getInFlight() {
+        return mOptions.getMaxInFlight() - mInFlight.availablePermits();
+    }
+
+    /**
+     * Drops the start delays so far, at the end of the warmup.
+     */
+    public void resetMaxStartDelay() {
+        mMaxStartDelayNanos = 0;
+    }
+
+    /**
+     * @return the longest a request started after it was due; much more than a millisecond means the load
+     * generator could not keep up with the rate, or was held back by {@code max-in-flight}
+     */
+    public Duration getMaxStartDelay() {
+        return Duration.ofNanos(mMaxStartDelayNanos);
+    }
+
+    private void schedule() {
+        OperationMix mix = mOptions.getMix();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / mOptions.getRate();
+        long startedAt = System.nanoTime();
+        for (long sent = 0; mRunning; sent++) {
+            long dueAt = startedAt + (long) (sent * intervalNanos);
+            for (long wait = dueAt - System.nanoTime(); wait > 0; wait = dueAt - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+                if (!mRunning) {
+                    return;
+                }
+            }
+            mInFlight.acquireUninterruptibly();
+            long startDelay = System.nanoTime() - dueAt;
+            if (startDelay > mMaxStartDelayNanos) {
+                mMaxStartDelayNanos = startDelay;
+            }
+            send(mix.pick(ThreadLocalRandom.current().nextInt(mix.totalWeight())), dueAt);
+        }
+    }
+
+    private void send(Operation operation, long dueAt) {
+        long customerId = -1;
+        if (operation == Operation.DELETE) {
+            customerId = mCustomerIds.removeRandom();
+        } else if (operation != Operation.CREATE) {
+            customerId = mCustomerIds.random();
+        }
+        if (customerId < 0) {
+            // every customer has been deleted, recreate one rather than send a request bound to fail
+            operation = Operation.CREATE;
+        }
+        Operation sentOperation = operation;
+        HttpRequest request = request(operation, customerId);
+        long sentAt = System.nanoTime();
+        mHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, failure) -> completed(sentOperation, dueAt, sentAt, response, failure));
+    }
+
+    private HttpRequest request(Operation operation, long customerId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder().timeout(mOptions.getTimeout()).header("Accept", JSON);
+        switch (operation) {
+            case GET:
+                return request.uri(mBaseUri.resolve(CUSTOMERS_PATH + "/" + customerId)).GET().build();
+            case LIST:
+                return request.uri(mBaseUri.resolve(CUSTOMERS_PATH + "?after=" + customerId + "&limit=" + mOptions.getPageSize())).GET().build();
+            case CREATE:
+                return request.uri(mBaseUri.resolve(CUSTOMERS_PATH)).header("Content-Type", JSON)
+                        .POST(HttpRequest.BodyPublishers.ofString(customerJson())).build();
+            case UPDATE:
+                return request.uri(mBaseUri.resolve(CUSTOMERS_PATH + "/" + customerId)).header("Content-Type", JSON)
+                        .PUT(HttpRequest.BodyPublishers.ofString(customerJson())).build();
+            case DELETE:
+                return request.uri(mBaseUri.resolve(CUSTOMERS_PATH + "/" + customerId)).DELETE().build();
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+
+    private String customerJson() {
+        long name = mNames.incrementAndGet();
+        return "{\"firstName\":\"Load" + name + "\",\"lastName\":\"Test" + name % 500 + "\"}";
+    }
+
+    private void completed(Operation operation, long dueAt, long sentAt, HttpResponse<byte[]> response, Throwable failure) {
+        long completedAt = System.nanoTime();
+        mInFlight.release();
+        String error = null;
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            error = cause.getClass().getSimpleName();
+        } else if (response.statusCode() / 100 != 2) {
+            error = String.valueOf(response.statusCode());
+        } else if (operation == Operation.CREATE) {
+            try {
+                mCustomerIds.add(mObjectMapper.readTree(response.body()).path("id").asLong());
+            } catch (IOException e) {
+                error = e.getClass().getSimpleName();
+            }
+        }
+        mStats.get(operation).record(dueAt, sentAt, completedAt, error);
+    }
+}
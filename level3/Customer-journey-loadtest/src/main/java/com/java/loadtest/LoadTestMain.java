@@ -0,0 +1,184 @@
+package com.java.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.app.AccessingDataJpaApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of {@code target/loadtest.jar}, see {@link LoadTestOptions#USAGE}.
+ * <p>
+ * Unless {@code --target} is given the application is started in this JVM on a random port, with its own
+ * in-memory database and the arguments after {@code --}, so {@code -- --app.async.mode=PLATFORM} runs the same
+ * load against another configuration. It is then seeded through the CSV import, loaded for the warmup and the
+ * measured run while progress is printed, and the report is printed and saved. The exit code is 1 when a
+ * {@code --max-*} limit was broken, which makes the run usable as a regression gate, and 2 on bad options.
+ * <p>
+ * Load generator and application share the machine: pin them apart (taskset) when it has the cores to spare, and
+ * check the start delay in the report, which shows when the generator could not keep up.
+ */
+public class LoadTestMain {
+
+    private static final DateTimeFormatter RESULT_FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String CUSTOMERS_PATH = "/api/v1/customers";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].equals("--help")) {
+            System.out.println(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        ConfigurableApplicationContext context = null;
+        int exitCode;
+        try {
+            URI baseUri = options.getTarget();
+            if (baseUri == null) {
+                context = startApplication(options.getApplicationArgs());
+                baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            }
+            exitCode = run(options, baseUri);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestOptions options, URI baseUri) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.getTimeout())
+                .build();
+        CustomerIds customerIds = new CustomerIds();
+        seed(httpClient, baseUri, options.getSeed());
+        loadCustomerIds(httpClient, baseUri, objectMapper, customerIds);
+        System.out.printf("Loading %s at %.1f req/s with %s, %d customers%n", baseUri, options.getRate(), options.getMix(), customerIds.size());
+
+        LoadGenerator generator = new LoadGenerator(httpClient, baseUri, options, customerIds, objectMapper);
+        generator.start();
+        long startedAt = System.nanoTime();
+        report(generator, startedAt, startedAt + options.getWarmup().toNanos(), options.getReportInterval(), false);
+        generator.getStats().forEach(OperationStats::reset);
+        generator.resetMaxStartDelay();
+        long measuringFrom = System.nanoTime();
+        report(generator, startedAt, measuringFrom + options.getDuration().toNanos(), options.getReportInterval(), true);
+        Duration measured = Duration.ofNanos(System.nanoTime() - measuringFrom);
+        if (!generator.stop()) {
+            System.out.printf("%d requests still in flight after the timeout are not counted%n", generator.getInFlight());
+        }
+        generator.getStats().forEach(operationStats -> operationStats.nextInterval(true));
+
+        LoadTestReport report = new LoadTestReport(options, generator.getStats(), measured, generator.getMaxStartDelay());
+        report.print(System.out);
+        File saved = report.save(LocalDateTime.now().format(RESULT_FILE_TIMESTAMP), objectMapper);
+        System.out.printf("Saved %s%n", saved.getPath());
+        List<String> failures = report.failures();
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        return failures.isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * Prints a progress line per report interval until {@code until}.
+     */
+    private static void report(LoadGenerator generator, long startedAt, long until, Duration interval,
+                               boolean measured) throws InterruptedException {
+        Histogram responseTimes = new Histogram(3);
+        long intervalStartedAt = System.nanoTime();
+        for (long remaining = until - intervalStartedAt; remaining > 0; remaining = until - System.nanoTime()) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, interval.toNanos()));
+            long now = System.nanoTime();
+            responseTimes.reset();
+            long errors = 0;
+            for (OperationStats operationStats : generator.getStats()) {
+                responseTimes.add(operationStats.nextInterval(measured));
+                errors += operationStats.getIntervalErrors();
+            }
+            System.out.printf("%-7s %6ds %9.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  errors %d  in flight %d%n",
+                    measured ? "measure" : "warmup", TimeUnit.NANOSECONDS.toSeconds(now - startedAt),
+                    responseTimes.getTotalCount() * 1e9 / (now - intervalStartedAt),
+                    responseTimes.getValueAtPercentile(50) / 1e6, responseTimes.getValueAtPercentile(99) / 1e6,
+                    responseTimes.getMaxValue() / 1e6, errors, generator.getInFlight());
+            intervalStartedAt = now;
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(List<String> applicationArgs) throws IOException {
+        File log = File.createTempFile("loadtest", ".log");
+        log.deleteOnExit();
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("server.port", "0");
+        defaults.put("spring.datasource.url", "jdbc:h2:mem:loadtest");
+        defaults.put("logging.file.name", log.getAbsolutePath());
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("logging.level.com.java", "WARN");
+        // arguments rather than builder properties, which application.yml would override; a repeated argument
+        // would be read as a list, so the defaults given on the command line are left out
+        List<String> args = new ArrayList<>();
+        defaults.forEach((name, value) -> {
+            if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--" + name + "="))) {
+                args.add("--" + name + "=" + value);
+            }
+        });
+        args.addAll(applicationArgs);
+        return new SpringApplicationBuilder(AccessingDataJpaApplication.class).run(args.toArray(new String[0]));
+    }
+
+    private static void seed(HttpClient httpClient, URI baseUri, int count) throws IOException, InterruptedException {
+        if (count == 0) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder("firstName,lastName\n");
+        for (int i = 0; i < count; i++) {
+            csv.append("Seed").append(i).append(",Customer").append(i % 500).append('\n');
+        }
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve(CUSTOMERS_PATH + "/import"))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Seeding failed with " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private static void loadCustomerIds(HttpClient httpClient, URI baseUri, ObjectMapper objectMapper,
+                                        CustomerIds customerIds) throws IOException, InterruptedException {
+        long after = 0;
+        do {
+            HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve(CUSTOMERS_PATH + "?limit=1000&after=" + after)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Reading customer ids failed with " + response.statusCode());
+            }
+            JsonNode page = objectMapper.readTree(response.body());
+            page.path("customers").forEach(customer -> customerIds.add(customer.path("id").asLong()));
+            after = page.path("nextCursor").isNumber() ? page.path("nextCursor").asLong() : -1;
+        } while (after >= 0);
+    }
+}
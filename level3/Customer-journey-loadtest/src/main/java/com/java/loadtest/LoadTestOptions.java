@@ -0,0 +1,194 @@
+package com.java.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line of the load test, {@code --name=value} options followed by an optional {@code --} and the
+ * arguments to start the application with. Durations take the Spring Boot format, {@code 500ms}, {@code 30s},
+ * {@code 2m}.
+ */
+public class LoadTestOptions {
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar target/loadtest.jar [options] [-- application arguments]",
+            "  --rate=500             requests per second, started on schedule whatever the response times",
+            "  --duration=60s         measured run",
+            "  --warmup=15s           run before measuring, not reported",
+            "  --mix=get:70,list:10,create:10,update:5,delete:5",
+            "                         relative weights of the operations",
+            "  --seed=10000           customers imported before the run",
+            "  --page-size=100        customers per list request",
+            "  --max-in-flight=1000   requests outstanding at once, the schedule waits beyond that",
+            "  --timeout=10s          response timeout, a timed out request counts as an error",
+            "  --report-interval=5s   how often progress is printed",
+            "  --target=URL           load an application that is already running instead of starting one",
+            "  --results=results      folder for the JSON summary and the .hgrm percentile distributions",
+            "  --max-p99=DURATION     fail when the p99 of all operations is above this",
+            "  --max-p999=DURATION    fail when the p99.9 of all operations is above this",
+            "  --max-error-rate=RATIO fail when more than this fraction of requests fail, 0.01 for 1%",
+            "  --help                 print this");
+
+    private double mRate = 500;
+    private Duration mDuration = Duration.ofSeconds(60);
+    private Duration mWarmup = Duration.ofSeconds(15);
+    private OperationMix mMix = OperationMix.parse("get:70,list:10,create:10,update:5,delete:5");
+    private int mSeed = 10000;
+    private int mPageSize = 100;
+    private int mMaxInFlight = 1000;
+    private Duration mTimeout = Duration.ofSeconds(10);
+    private Duration mReportInterval = Duration.ofSeconds(5);
+    private URI mTarget;
+    private String mResults = "results";
+    private Duration mMaxP99;
+    private Duration mMaxP999;
+    private Double mMaxErrorRate;
+    private final List<String> mApplicationArgs = new ArrayList<>();
+
+    public static LoadTestOptions parse(String... args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--")) {
+                options.mApplicationArgs.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                break;
+            }
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got '" + arg + "'");
+            }
+            options.set(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        if (options.mRate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        if (options.mPageSize < 1 || options.mMaxInFlight < 1 || options.mSeed < 0) {
+            throw new IllegalArgumentException("--page-size and --max-in-flight must be positive and --seed not negative");
+        }
+        if (options.mTarget != null && !options.mApplicationArgs.isEmpty()) {
+            throw new IllegalArgumentException("Application arguments cannot be given with --target");
+        }
+        return options;
+    }
+
+    private void set(String name, String value) {
+        try {
+            switch (name) {
+                case "rate":
+                    mRate = Double.parseDouble(value);
+                    break;
+                case "duration":
+                    mDuration = DurationStyle.detectAndParse(value);
+                    break;
+                case "warmup":
+                    mWarmup = DurationStyle.detectAndParse(value);
+                    break;
+                case "mix":
+                    mMix = OperationMix.parse(value);
+                    break;
+                case "seed":
+                    mSeed = Integer.parseInt(value);
+                    break;
+                case "page-size":
+                    mPageSize = Integer.parseInt(value);
+                    break;
+                case "max-in-flight":
+                    mMaxInFlight = Integer.parseInt(value);
+                    break;
+                case "timeout":
+                    mTimeout = DurationStyle.detectAndParse(value);
+                    break;
+                case "report-interval":
+                    mReportInterval = DurationStyle.detectAndParse(value);
+                    break;
+                case "target":
+                    mTarget = URI.create(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+                    break;
+                case "results":
+                    mResults = value;
+                    break;
+                case "max-p99":
+                    mMaxP99 = DurationStyle.detectAndParse(value);
+                    break;
+                case "max-p999":
+                    mMaxP999 = DurationStyle.detectAndParse(value);
+                    break;
+                case "max-error-rate":
+                    mMaxErrorRate = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for --" + name + ": '" + value + "'", e);
+        }
+    }
+
+    public double getRate() {
+        return mRate;
+    }
+
+    public Duration getDuration() {
+        return mDuration;
+    }
+
+    public Duration getWarmup() {
+        return mWarmup;
+    }
+
+    public OperationMix getMix() {
+        return mMix;
+    }
+
+    public int getSeed() {
+        return mSeed;
+    }
+
+    public int getPageSize() {
+        return mPageSize;
+    }
+
+    public int getMaxInFlight() {
+        return mMaxInFlight;
+    }
+
+    public Duration getTimeout() {
+        return mTimeout;
+    }
+
+    public Duration getReportInterval() {
+        return mReportInterval;
+    }
+
+    /**
+     * @return base URL of a running application, or null to start one
+     */
+    public URI getTarget() {
+        return mTarget;
+    }
+
+    public String getResults() {
+        return mResults;
+    }
+
+    public Duration getMaxP99() {
+        return mMaxP99;
+    }
+
+    public Duration getMaxP999() {
+        return mMaxP999;
+    }
+
+    public Double getMaxErrorRate() {
+        return mMaxErrorRate;
+    }
+
+    public List<String> getApplicationArgs() {
+        return mApplicationArgs;
+    }
+}
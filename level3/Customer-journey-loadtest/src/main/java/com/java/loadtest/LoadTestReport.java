@@ -0,0 +1,193 @@
+package com.java.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of a measured run: throughput, errors and response time percentiles per operation and for all of them,
+ * printed, saved as JSON with the options of the run, and checked against the {@code --max-*} limits.
+ * <p>
+ * The response time distribution of each operation is also saved in HdrHistogram's {@code .hgrm} format, in
+ * milliseconds, which the HdrHistogram plotter reads to compare runs.
+ */
+public class LoadTestReport {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String ALL = "all";
+
+    private final LoadTestOptions mOptions;
+    private final Collection<OperationStats> mStats;
+    private final Duration mMeasured;
+    private final Duration mMaxStartDelay;
+    private final Histogram mAllResponseTimes = new Histogram(3);
+    private final Histogram mAllServiceTimes = new Histogram(3);
+    private long mAllErrors;
+
+    public LoadTestReport(LoadTestOptions options, Collection<OperationStats> stats, Duration measured, Duration maxStartDelay) {
+        this.mOptions = options;
+        this.mStats = stats;
+        this.mMeasured = measured;
+        this.mMaxStartDelay = maxStartDelay;
+        for (OperationStats operationStats : stats) {
+            mAllResponseTimes.add(operationStats.getTotalResponseTimes());
+            mAllServiceTimes.add(operationStats.getTotalServiceTimes());
+            mAllErrors += operationStats.getTotalErrors();
+        }
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%nTarget %.1f req/s for %s, achieved %.1f req/s, %d errors%n", mOptions.getRate(),
+                mMeasured.toMillis() / 1000.0 + "s", throughput(mAllResponseTimes), mAllErrors);
+        out.printf("Response times in ms, counted from when each request was due%n");
+        out.printf("%-8s %9s %8s %10s %9s %9s %9s %9s %9s %9s %13s%n", "", "count", "errors", "req/s",
+                "p50", "p90", "p99", "p99.9", "p99.99", "max", "service p99");
+        for (OperationStats operationStats : mStats) {
+            if (operationStats.getTotalResponseTimes().getTotalCount() > 0) {
+                printRow(out, operationStats.getOperation().name().toLowerCase(Locale.ROOT), operationStats.getTotalResponseTimes(),
+                        operationStats.getTotalServiceTimes(), operationStats.getTotalErrors());
+            }
+        }
+        printRow(out, ALL, mAllResponseTimes, mAllServiceTimes, mAllErrors);
+        for (OperationStats operationStats : mStats) {
+            if (!operationStats.getErrorsByCause().isEmpty()) {
+                out.printf("%s errors: %s%n", operationStats.getOperation().name().toLowerCase(Locale.ROOT), operationStats.getErrorsByCause());
+            }
+        }
+        if (mMaxStartDelay.toMillis() > 0) {
+            out.printf("Requests started up to %d ms late, the load generator or max-in-flight held them back%n", mMaxStartDelay.toMillis());
+        }
+    }
+
+    private void printRow(PrintStream out, String name, Histogram responseTimes, Histogram serviceTimes, long errors) {
+        out.printf("%-8s %9d %8d %10.1f", name, responseTimes.getTotalCount(), errors, throughput(responseTimes));
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.2f", millis(responseTimes.getValueAtPercentile(percentile)));
+        }
+        out.printf(" %9.2f %13.2f%n", millis(responseTimes.getMaxValue()), millis(serviceTimes.getValueAtPercentile(99)));
+    }
+
+    /**
+     * Writes {@code loadtest-<timestamp>.json} and one {@code loadtest-<timestamp>-<operation>.hgrm} per
+     * operation into the results folder.
+     *
+     * @return the JSON file
+     */
+    public File save(String timestamp, ObjectMapper objectMapper) throws IOException {
+        File folder = new File(mOptions.getResults());
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Cannot create " + folder.getAbsolutePath());
+        }
+        String prefix = "loadtest-" + timestamp;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (OperationStats operationStats : mStats) {
+            if (operationStats.getTotalResponseTimes().getTotalCount() > 0) {
+                String name = operationStats.getOperation().name().toLowerCase(Locale.ROOT);
+                operations.put(name, summary(operationStats.getTotalResponseTimes(), operationStats.getTotalServiceTimes(),
+                        operationStats.getTotalErrors(), operationStats.getErrorsByCause()));
+                writeDistribution(new File(folder, prefix + "-" + name + ".hgrm"), operationStats.getTotalResponseTimes());
+            }
+        }
+        operations.put(ALL, summary(mAllResponseTimes, mAllServiceTimes, mAllErrors, null));
+        writeDistribution(new File(folder, prefix + "-" + ALL + ".hgrm"), mAllResponseTimes);
+        writeDistribution(new File(folder, prefix + "-" + ALL + "-service.hgrm"), mAllServiceTimes);
+
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("rate", mOptions.getRate());
+        options.put("durationSeconds", mOptions.getDuration().getSeconds());
+        options.put("warmupSeconds", mOptions.getWarmup().getSeconds());
+        options.put("mix", mOptions.getMix().toString());
+        options.put("seed", mOptions.getSeed());
+        options.put("pageSize", mOptions.getPageSize());
+        options.put("maxInFlight", mOptions.getMaxInFlight());
+        options.put("target", mOptions.getTarget() == null ? "embedded" : mOptions.getTarget().toString());
+        options.put("applicationArgs", mOptions.getApplicationArgs());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("measuredSeconds", mMeasured.toMillis() / 1000.0);
+        report.put("maxStartDelayMs", millis(mMaxStartDelay.toNanos()));
+        report.put("operations", operations);
+        File file = new File(folder, prefix + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        return file;
+    }
+
+    /**
+     * @return a description of each {@code --max-*} limit the run broke, empty when it passed
+     */
+    public List<String> failures() {
+        List<String> failures = new ArrayList<>();
+        checkPercentile(failures, 99, mOptions.getMaxP99());
+        checkPercentile(failures, 99.9, mOptions.getMaxP999());
+        long count = mAllResponseTimes.getTotalCount();
+        double errorRate = count == 0 ? 0 : (double) mAllErrors / count;
+        if (mOptions.getMaxErrorRate() != null && errorRate > mOptions.getMaxErrorRate()) {
+            failures.add(String.format("error rate %.4f is above %.4f", errorRate, mOptions.getMaxErrorRate()));
+        }
+        if (count == 0) {
+            failures.add("no request completed");
+        }
+        return failures;
+    }
+
+    private void checkPercentile(List<String> failures, double percentile, Duration limit) {
+        if (limit != null && mAllResponseTimes.getValueAtPercentile(percentile) > limit.toNanos()) {
+            failures.add(String.format("p%s %.2f ms is above %d ms", plain(percentile), millis(mAllResponseTimes.getValueAtPercentile(percentile)), limit.toMillis()));
+        }
+    }
+
+    private Map<String, Object> summary(Histogram responseTimes, Histogram serviceTimes, long errors, Map<String, Long> errorsByCause) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", responseTimes.getTotalCount());
+        summary.put("errors", errors);
+        if (errorsByCause != null && !errorsByCause.isEmpty()) {
+            summary.put("errorsByCause", errorsByCause);
+        }
+        summary.put("throughput", throughput(responseTimes));
+        summary.put("responseTimeMs", percentiles(responseTimes));
+        summary.put("serviceTimeMs", percentiles(serviceTimes));
+        return summary;
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            // 99.9 -> p999
+            percentiles.put("p" + plain(percentile).replace(".", ""), millis(histogram.getValueAtPercentile(percentile)));
+        }
+        percentiles.put("mean", histogram.getMean() / NANOS_PER_MILLI);
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static String plain(double percentile) {
+        return BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+    }
+
+    private static void writeDistribution(File file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(file, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    private double throughput(Histogram histogram) {
+        return mMeasured.isZero() ? 0 : histogram.getTotalCount() * 1000.0 / mMeasured.toMillis();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,18 @@
+package com.java.loadtest;
+
+/**
+ * The customer API calls the load generator can make, named as they are given in {@code --mix}.
+ */
+public enum Operation {
+
+    /** GET /api/v1/customers/{id} of a random live customer */
+    GET,
+    /** GET /api/v1/customers?after={id}&amp;limit={page-size}, a page starting at a random live customer */
+    LIST,
+    /** POST /api/v1/customers */
+    CREATE,
+    /** PUT /api/v1/customers/{id} of a random live customer */
+    UPDATE,
+    /** DELETE /api/v1/customers/{id} of a random live customer, which then leaves the pool */
+    DELETE
+}
@@ -0,0 +1,83 @@
+package com.java.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Weighted choice of the next {@link Operation}, parsed from {@code get:70,list:10,create:10,update:5,delete:5}.
+ * Weights are relative, they do not have to add up to 100.
+ */
+public class OperationMix {
+
+    private final Map<Operation, Integer> mWeights;
+    private final Operation[] mOperations;
+    private final int[] mCumulativeWeights;
+
+    private OperationMix(Map<Operation, Integer> weights) {
+        this.mWeights = weights;
+        this.mOperations = weights.keySet().toArray(new Operation[0]);
+        this.mCumulativeWeights = new int[mOperations.length];
+        int total = 0;
+        for (int i = 0; i < mOperations.length; i++) {
+            total += weights.get(mOperations[i]);
+            mCumulativeWeights[i] = total;
+        }
+    }
+
+    public static OperationMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] operationAndWeight = entry.trim().split(":");
+            if (operationAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in the mix but got '" + entry + "'");
+            }
+            Operation operation;
+            int weight;
+            try {
+                operation = Operation.valueOf(operationAndWeight[0].trim().toUpperCase(Locale.ROOT));
+                weight = Integer.parseInt(operationAndWeight[1].trim());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown operation or weight in the mix: '" + entry + "'", e);
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative: '" + entry + "'");
+            }
+            if (weight > 0) {
+                weights.merge(operation, weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+        return new OperationMix(weights);
+    }
+
+    /**
+     * @param random uniformly distributed between 0 inclusive and {@link #totalWeight()} exclusive
+     */
+    public Operation pick(int random) {
+        for (int i = 0; i < mCumulativeWeights.length; i++) {
+            if (random < mCumulativeWeights[i]) {
+                return mOperations[i];
+            }
+        }
+        throw new IllegalArgumentException("Expected a value below " + totalWeight() + " but got " + random);
+    }
+
+    public int totalWeight() {
+        return mCumulativeWeights[mCumulativeWeights.length - 1];
+    }
+
+    public Map<Operation, Integer> getWeights() {
+        return mWeights;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder mix = new StringBuilder();
+        mWeights.forEach((operation, weight) -> mix.append(mix.length() == 0 ? "" : ",")
+                .append(operation.name().toLowerCase(Locale.ROOT)).append(':').append(weight));
+        return mix.toString();
+    }
+}
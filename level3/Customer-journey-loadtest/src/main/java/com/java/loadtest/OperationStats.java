@@ -0,0 +1,108 @@
+package com.java.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and errors of one {@link Operation}, recorded by the HTTP client threads in nanoseconds and collected
+ * by the reporting thread one interval at a time.
+ * <p>
+ * Two latencies are kept per request. The response time runs from when the request was due on the schedule and is
+ * what a client sending at the target rate sees: when the application, or the load generator, stalls the requests
+ * that should have been sent in the meantime are delayed and their wait is counted, which corrects for coordinated
+ * omission. The service time runs from when the request was actually sent, which is what a closed-loop tool
+ * reports; the gap between the two shows how much of the latency is queueing.
+ */
+public class OperationStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Operation mOperation;
+    private final Recorder mResponseTimes = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder mServiceTimes = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder mErrors = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> mErrorsByCause = new ConcurrentHashMap<>();
+    private final Histogram mTotalResponseTimes = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram mTotalServiceTimes = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram mIntervalResponseTimes;
+    private Histogram mIntervalServiceTimes;
+    private long mIntervalErrors;
+    private long mTotalErrors;
+
+    public OperationStats(Operation operation) {
+        this.mOperation = operation;
+    }
+
+    /**
+     * @param error the HTTP status or exception that failed the request, or null when it succeeded
+     */
+    public void record(long dueAt, long sentAt, long completedAt, String error) {
+        mResponseTimes.recordValue(completedAt - dueAt);
+        mServiceTimes.recordValue(completedAt - sentAt);
+        if (error != null) {
+            mErrors.increment();
+            mErrorsByCause.computeIfAbsent(error, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Drops what was recorded so far, at the end of the warmup.
+     */
+    public void reset() {
+        nextInterval(false);
+        mErrorsByCause.clear();
+    }
+
+    /**
+     * Collects what was recorded since the previous interval, adding it to the totals when it is {@code measured}.
+     * The returned histogram is reused by the next call.
+     *
+     * @return the response times of the interval
+     */
+    public Histogram nextInterval(boolean measured) {
+        mIntervalResponseTimes = mResponseTimes.getIntervalHistogram(mIntervalResponseTimes);
+        mIntervalServiceTimes = mServiceTimes.getIntervalHistogram(mIntervalServiceTimes);
+        mIntervalErrors = mErrors.sumThenReset();
+        if (measured) {
+            mTotalResponseTimes.add(mIntervalResponseTimes);
+            mTotalServiceTimes.add(mIntervalServiceTimes);
+            mTotalErrors += mIntervalErrors;
+        }
+        return mIntervalResponseTimes;
+    }
+
+    public Operation getOperation() {
+        return mOperation;
+    }
+
+    public long getIntervalErrors() {
+        return mIntervalErrors;
+    }
+
+    public Histogram getTotalResponseTimes() {
+        return mTotalResponseTimes;
+    }
+
+    public Histogram getTotalServiceTimes() {
+        return mTotalServiceTimes;
+    }
+
+    public long getTotalErrors() {
+        return mTotalErrors;
+    }
+
+    /**
+     * @return error counts since the end of the warmup, by HTTP status or exception
+     */
+    public Map<String, Long> getErrorsByCause() {
+        Map<String, Long> errorsByCause = new TreeMap<>();
+        mErrorsByCause.forEach((cause, count) -> errorsByCause.put(cause, count.sum()));
+        return errorsByCause;
+    }
+}
@@ -0,0 +1,47 @@
+package com.java.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LoadTestOptionsTests {
+
+    @Test
+    public void parse_readsOptions_andPassesArgumentsAfterSeparatorToTheApplication() {
+        LoadTestOptions options = LoadTestOptions.parse("--rate=250", "--duration=2m", "--max-p99=50ms",
+                "--mix=get:3,create:1", "--", "--app.async.mode=PLATFORM");
+
+        assertThat(options.getRate()).isEqualTo(250);
+        assertThat(options.getDuration()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(options.getMaxP99()).isEqualTo(Duration.ofMillis(50));
+        assertThat(options.getMix().toString()).isEqualTo("get:3,create:1");
+        assertThat(options.getApplicationArgs()).isEqualTo(Arrays.asList("--app.async.mode=PLATFORM"));
+    }
+
+    @Test
+    public void parse_rejectsUnknownOptions() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestOptions.parse("--rps=100"));
+    }
+
+    @Test
+    public void pick_followsTheWeightsOfTheMix() {
+        OperationMix mix = OperationMix.parse("get:70, update:0, list:20, delete:10");
+
+        assertThat(mix.totalWeight()).isEqualTo(100);
+        assertThat(mix.pick(0)).isEqualTo(Operation.GET);
+        assertThat(mix.pick(69)).isEqualTo(Operation.GET);
+        assertThat(mix.pick(70)).isEqualTo(Operation.LIST);
+        assertThat(mix.pick(99)).isEqualTo(Operation.DELETE);
+        assertThat(mix.getWeights()).doesNotContainKey(Operation.UPDATE);
+    }
+
+    @Test
+    public void parse_rejectsMixWithoutPositiveWeight() {
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("get:0"));
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("browse:10"));
+    }
+}
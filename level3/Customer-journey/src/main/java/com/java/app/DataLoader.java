@@ -2,30 +2,105 @@ package com.java.app;
 
 import com.java.dao.Customer;
 import com.java.dao.CustomerRepository;
+import com.java.dao.CustomerSeedGenerator;
+import com.java.search.CustomerNameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Seeds an empty store with sample customers, saved in one batch, followed by {@code app.seed.count} generated
+ * ones for benchmarks and load tests. The seeding runs once the beans are created, before the web server starts,
+ * so the generator has the table to itself. With {@code app.seed.async} it runs on a background thread once the
+ * application has started instead, while requests are served, and {@link SeedHealthIndicator} keeps the service
+ * out of the readiness group until it is done.
+ */
 @Component
-public class DataLoader implements CommandLineRunner {
+public class DataLoader implements SmartInitializingSingleton, CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
 
     @Autowired
     CustomerRepository customerRepository;
 
+    @Autowired
+    CustomerSeedGenerator customerSeedGenerator;
+
+    @Autowired
+    ObjectProvider<CustomerNameIndex> customerNameIndex;
+
+    @Value("${app.seed.async:false}")
+    boolean async;
+
+    @Value("${app.seed.count:0}")
+    long generatedCount;
+
+    private final CompletableFuture<Long> seeded = new CompletableFuture<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!async) {
+            loadUserData();
+        }
+    }
+
     @Override
     public void run(String... args) throws Exception {
-        loadUserData();
+        if (!async) {
+            return;
+        }
+        Thread seeder = new Thread(() -> {
+            try {
+                loadUserData();
+            } catch (RuntimeException exception) {
+                logger.error("Seeding customers failed", exception);
+            }
+        }, "customer-seed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    /**
+     * @return completes with the number of customers once the store is seeded
+     */
+    public CompletableFuture<Long> getSeeded() {
+        return seeded;
     }
 
     private void loadUserData() {
-        if (customerRepository.count() == 0) {
-            Customer customer1 = new Customer("John", "Doe");
-            Customer customer2 = new Customer("Johny", "Walker");
-            Customer customer3 = new Customer("Gulwal", "Manohar");
-            customerRepository.save(customer1);
-            customerRepository.save(customer2);
-            customerRepository.save(customer3);
+        try {
+            // the indexes a seed dropped and did not get to create again, as when the process died during it
+            customerSeedGenerator.restoreDroppedIndexes();
+            long count = customerRepository.count();
+            if (count == 0) {
+                List<Customer> customers = Arrays.asList(
+                        new Customer("John", "Doe"),
+                        new Customer("Johny", "Walker"),
+                        new Customer("Gulwal", "Manohar"));
+                customerRepository.saveAll(customers);
+                count = customers.size();
+                if (generatedCount > 0) {
+                    count += customerSeedGenerator.generate(generatedCount, !async);
+                }
+                if (async) {
+                    // the index may have been loaded before these were saved
+                    customerNameIndex.ifAvailable(CustomerNameIndex::load);
+                }
+            }
+            System.out.println(String.format("Seed Customer Count : %d", count));
+            seeded.complete(count);
+        } catch (RuntimeException exception) {
+            seeded.completeExceptionally(exception);
+            throw exception;
         }
-        System.out.println(String.format("Seed Customer Count : %d", customerRepository.count()));
     }
 }
@@ -0,0 +1,38 @@
+package com.java.app;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The {@code seed} health contributor, in the readiness group: out of service while {@link DataLoader} is still
+ * seeding, down if it failed.
+ */
+@Component
+public class SeedHealthIndicator implements HealthIndicator {
+
+    private final DataLoader dataLoader;
+
+    public SeedHealthIndicator(DataLoader dataLoader) {
+        this.dataLoader = dataLoader;
+    }
+
+    @Override
+    public Health health() {
+        CompletableFuture<Long> seeded = dataLoader.getSeeded();
+        if (!seeded.isDone()) {
+            return Health.outOfService().withDetail("seeding", "in progress").build();
+        }
+        try {
+            return Health.up().withDetail("customers", seeded.get()).build();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return Health.unknown().build();
+        } catch (ExecutionException exception) {
+            return Health.down().withException(exception.getCause()).build();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.java.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.java.dao.CustomerRepoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Size-bounded Caffeine (W-TinyLFU) cache for customers read by id, with an optional time to live.
+     * The transaction-aware proxy defers puts and evictions made inside a transaction until it commits,
+     * so a rolled back write never reaches the cache. Hit, miss and eviction counts are published as the
+     * cache.gets and cache.evictions actuator metrics.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.customers.maximum-size:10000}") long maximumSize,
+                                     @Value("${app.cache.customers.time-to-live:0s}") Duration timeToLive) {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (!timeToLive.isZero()) {
+            caffeine.expireAfterWrite(timeToLive);
+        }
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(CustomerRepoService.CUSTOMER_CACHE);
+        caffeineCacheManager.setCaffeine(caffeine);
+        caffeineCacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,23 @@
+package com.java.config;
+
+import com.java.controller.CustomerController;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The {@code fast-startup} profile, with its properties in application-fast-startup.yml, creates beans lazily.
+ * The customer API and the beans it depends on are still created at startup, so the first request does not wait
+ * for the database and the JPA bootstrap; anything else, such as the import and export services or the actuator
+ * endpoints, is created when first used.
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter customerApiInitializedEagerly() {
+        return LazyInitializationExcludeFilter.forBeanTypes(CustomerController.class);
+    }
+}
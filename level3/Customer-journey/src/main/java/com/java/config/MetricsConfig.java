@@ -0,0 +1,46 @@
+package com.java.config;
+
+import com.java.dao.CustomerRepoService;
+import com.java.metrics.LatencyTimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_METRIC = "customer.service.invocations";
+
+    /**
+     * Times every public {@link CustomerRepoService} method into customer.service.invocations. The advisor runs
+     * before the cache and transaction advice, so the time includes cache hits and the commit. HTTP requests and
+     * repository calls are timed by Spring Boot as http.server.requests and spring.data.repository.invocations.
+     * The registry is resolved on the first call, advisors are created before the registry is configured.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor customerServiceLatencyAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return method.getDeclaringClass() == CustomerRepoService.class && Modifier.isPublic(method.getModifiers());
+            }
+        };
+        pointcut.setClassFilter(new RootClassFilter(CustomerRepoService.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new LatencyTimingInterceptor(meterRegistry::getObject,
+                SERVICE_METRIC, "Latency of CustomerRepoService methods by outcome"));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
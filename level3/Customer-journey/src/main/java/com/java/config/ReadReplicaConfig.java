@@ -0,0 +1,95 @@
+package com.java.config;
+
+import com.java.datasource.ReadWriteRoutingDataSource;
+import com.java.datasource.ReadYourWrites;
+import com.java.datasource.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read replica, configured by setting {@code app.datasource.replica.url}; without it the application has the
+ * single data source of {@code spring.datasource}.
+ * <p>
+ * The primary pool is built from {@code spring.datasource} and the replica pool from
+ * {@code app.datasource.replica}, whose credentials default to the primary's. The data source everything else
+ * uses routes between them with {@link ReadWriteRoutingDataSource}: read-only transactions go to the replica
+ * unless their client wrote within {@code app.datasource.replica.read-your-writes} or the replica is down. Both
+ * pools are published as hikaricp metrics, tagged pool=primary and pool=replica, and customer.datasource.replica
+ * is 1 while the replica is in use and 0 while reads fall back to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    /**
+     * Unlike the primary, the pool starts even when the replica is down, and a connection is given up on after
+     * {@code connection-timeout} so that reads fall back quickly.
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:#{null}}") String username,
+                                              @Value("${app.datasource.replica.password:#{null}}") String password,
+                                              @Value("${app.datasource.replica.connection-timeout:1s}") Duration connectionTimeout) {
+        HikariDataSource replica = DataSourceBuilder.create(properties.getClassLoader())
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username == null ? properties.determineUsername() : username)
+                .password(password == null ? properties.determinePassword() : password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setConnectionTimeout(connectionTimeout.toMillis());
+        replica.setInitializationFailTimeout(-1);
+        return replica;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${app.datasource.replica.read-your-writes:5s}") Duration pinDuration,
+                                         @Value("${app.datasource.replica.read-your-writes-clients:100000}") long maximumClients) {
+        return new ReadYourWrites(pinDuration, maximumClients);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource, ReadYourWrites readYourWrites,
+                                 @Value("${app.datasource.replica.retry-interval:10s}") Duration retryInterval,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+                readYourWrites, retryInterval);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("customer.datasource.replica", routingDataSource,
+                        routing -> routing.isReplicaAvailable() ? 1 : 0)
+                .description("1 while read-only transactions use the replica, 0 while they fall back to the primary")
+                .register(registry));
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
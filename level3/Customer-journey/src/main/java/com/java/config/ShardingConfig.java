@@ -0,0 +1,46 @@
+package com.java.config;
+
+import com.java.shard.ShardedCustomerStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@Profile("sharded")
+public class ShardingConfig {
+
+    /**
+     * One Hikari pool per URL of {@code app.sharding.urls}, named shard-0, shard-1 and so on, with the driver and
+     * credentials of {@code spring.datasource}. The order of the URLs is the shard number the shard map refers to,
+     * so shards are only ever added at the end; the first one is the coordinator that hands out the ids.
+     */
+    @Bean(destroyMethod = "close")
+    public ShardedCustomerStore shardedCustomerStore(DataSourceProperties properties,
+                                                     @Value("${app.sharding.urls}") List<String> urls,
+                                                     @Value("${app.sharding.id-block-size:1000}") int idBlockSize,
+                                                     @Value("${app.sharding.scatter-pool-size:16}") int scatterPoolSize,
+                                                     @Value("${app.sharding.node-lease:30s}") Duration nodeLease) {
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource shard = DataSourceBuilder.create(properties.getClassLoader())
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            shard.setPoolName("shard-" + shards.size());
+            shards.add(shard);
+        }
+        return new ShardedCustomerStore(shards, idBlockSize, scatterPoolSize, nodeLease);
+    }
+}
@@ -0,0 +1,54 @@
+package com.java.config;
+
+import com.java.controller.CompletedFutureReturnValueHandler;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    /**
+     * Puts {@link CompletedFutureReturnValueHandler} first among the return value handlers, ahead of the one that
+     * starts async processing for every {@code CompletableFuture}. Handlers added with a WebMvcConfigurer would
+     * come after the built-in ones and never see a future.
+     */
+    @Bean
+    public SmartInitializingSingleton completedFutureReturnValueHandlerRegistrar(RequestMappingHandlerAdapter handlerAdapter) {
+        return () -> {
+            List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(handlerAdapter.getReturnValueHandlers());
+            handlers.add(0, new CompletedFutureReturnValueHandler(handlerAdapter.getReturnValueHandlers()));
+            handlerAdapter.setReturnValueHandlers(handlers);
+        };
+    }
+
+    /**
+     * Adds Vary: Accept to every customer response, as the Accept header picks JSON, Smile or CBOR for the body,
+     * error bodies and 304 responses included, so that shared caches keep the formats apart.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // preHandle runs again on the dispatch that completes an async request
+                if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                }
+                return true;
+            }
+        }).addPathPatterns("/api/v1/customers/**");
+    }
+}
@@ -0,0 +1,95 @@
+package com.java.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Handles a {@link CompletableFuture} that is already complete when the controller returns it, as every future
+ * of {@link CustomerRequestExecutor} is in SYNC mode, like the value or the exception it holds: the response is
+ * written on the calling worker, without starting Servlet async processing and dispatching the request a second
+ * time. Futures that are still running are passed on to Spring MVC's handlers, which wait for them.
+ */
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final HandlerMethodReturnValueHandlerComposite mHandlers;
+
+    /**
+     * @param handlers the handlers of the adapter, used for the values of completed futures and for running futures
+     */
+    public CompletedFutureReturnValueHandler(List<HandlerMethodReturnValueHandler> handlers) {
+        this.mHandlers = new HandlerMethodReturnValueHandlerComposite().addHandlers(handlers);
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        CompletableFuture<?> future = (CompletableFuture<?>) returnValue;
+        if (future == null || !future.isDone()) {
+            mHandlers.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
+        Object result;
+        try {
+            result = future.join();
+        } catch (CompletionException exception) {
+            // thrown as is, so the exception handlers see what the work threw, as after an async dispatch
+            Throwable cause = exception.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
+        mHandlers.handleReturnValue(result, new CompletedResultMethodParameter(returnType), mavContainer, webRequest);
+    }
+
+    /**
+     * The return type of the controller method with the future unwrapped, {@code ResponseEntity<Customer>} for a
+     * {@code CompletableFuture<ResponseEntity<Customer>>}.
+     */
+    private static class CompletedResultMethodParameter extends MethodParameter {
+
+        private final ResolvableType mResultType;
+
+        CompletedResultMethodParameter(MethodParameter returnType) {
+            super(returnType);
+            this.mResultType = ResolvableType.forMethodParameter(returnType).as(CompletableFuture.class).getGeneric();
+        }
+
+        private CompletedResultMethodParameter(CompletedResultMethodParameter original) {
+            super(original);
+            this.mResultType = original.mResultType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return mResultType.toClass();
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return mResultType.getType();
+        }
+
+        @Override
+        public CompletedResultMethodParameter clone() {
+            return new CompletedResultMethodParameter(this);
+        }
+    }
+}
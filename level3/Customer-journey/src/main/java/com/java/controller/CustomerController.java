@@ -1,8 +1,20 @@
 package com.java.controller;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import com.java.dao.Customer;
+import com.java.dao.CustomerBatchOperation;
+import com.java.dao.CustomerBatchResult;
+import com.java.dao.CustomerExportService;
+import com.java.dao.CustomerImportResult;
+import com.java.dao.CustomerImportService;
+import com.java.dao.CustomerPage;
 import com.java.dao.CustomerRepoService;
+import com.java.dao.CustomerView;
+import com.java.event.CustomerEventPublisher;
+import com.java.exception.EntityNotFoundException;
 import com.java.exception.UnableToSaveException;
+import com.java.search.CustomerMatch;
+import com.java.search.CustomerNameIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,54 +23,200 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
+// JSON unless the Accept header asks for Smile or CBOR, see BinaryFormatsConfig
 @RestController
-@RequestMapping(path = {"/api/v1/customers"}, produces = APPLICATION_JSON_VALUE)
+@RequestMapping(path = {"/api/v1/customers"}, produces = {APPLICATION_JSON_VALUE, CustomerController.APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
 public class CustomerController {
 
 	private static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
 
 	private static final String FETCH_CUSTOMERS_LOG = "Customer records fetched";
+	private static final String FETCH_CUSTOMER_PAGE_LOG = "{} customer records fetched after id : {}";
+	private static final String SEARCH_CUSTOMERS_LOG = "{} customer records found for last name : {}, prefix : {}";
+	private static final String FUZZY_SEARCH_CUSTOMERS_LOG = "{} customer records matched for query : {}";
+	private static final String FUZZY_SEARCH_DISABLED = "Fuzzy search is disabled, see app.search.fuzzy.enabled";
+	private static final String EXPORT_CUSTOMERS_LOG = "{} customer records exported";
+	private static final String EXPORT_CUSTOMERS_FAILED_LOG = "Customer export failed after the response was committed, ended with an error line";
+	private static final String BATCH_CUSTOMERS_LOG = "Customer batch of {} operations applied";
+	private static final String IMPORT_CUSTOMERS_LOG = "Customer records imported : {}, rejected : {}";
 	private static final String NEW_CUSTOMER_LOG = "New customer record created as :{}";
 	private static final String FETCH_CUSTOMER_LOG = "Customer record fetched as : {}";
+	private static final String NOT_MODIFIED_CUSTOMER_LOG = "Customer record not modified, id : {}";
 	private static final String UPDATE_CUSTOMER_LOG = "Customer record updated as :{}";
+	private static final String PATCH_CUSTOMER_LOG = "Customer record patched as :{}";
 	private static final String DELETE_CUSTOMER_LOG = "Customer record deleted as :{}";
+	private static final String DELETED_MESSAGE = "Customer successfully deleted";
+
+	private static final int DEFAULT_PAGE_SIZE = 100;
+	private static final int DEFAULT_MATCH_COUNT = 20;
+	static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+	private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+	private static final String TEXT_CSV_VALUE = "text/csv";
+	private static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
 
 	private final CustomerRepoService mCustomerRepoService;
+	private final CustomerExportService mCustomerExportService;
+	private final CustomerImportService mCustomerImportService;
+	private final CustomerNameIndex mCustomerNameIndex;
+	private final CustomerEventPublisher mCustomerEventPublisher;
+	private final CustomerRequestExecutor mRequestExecutor;
 
 	@Autowired
-	public CustomerController(CustomerRepoService customerRepoService) {
+	public CustomerController(CustomerRepoService customerRepoService, CustomerExportService customerExportService,
+							  CustomerImportService customerImportService, @Nullable CustomerNameIndex customerNameIndex,
+							  CustomerEventPublisher customerEventPublisher, CustomerRequestExecutor requestExecutor) {
 		this.mCustomerRepoService = customerRepoService;
+		this.mCustomerExportService = customerExportService;
+		this.mCustomerImportService = customerImportService;
+		this.mCustomerNameIndex = customerNameIndex;
+		this.mCustomerEventPublisher = customerEventPublisher;
+		this.mRequestExecutor = requestExecutor;
 	}
 
-	@Operation(summary = "Fetch all existing customer records")
+	@Operation(summary = "Fetch all existing customer records, or one page of them when 'after' or 'limit' is given")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Found the customer record", content = {@Content(mediaType = APPLICATION_JSON_VALUE)}),
 			@ApiResponse(responseCode = "400", description = "Customer record not found", content = @Content)})
 	@GetMapping
-	public ResponseEntity<Iterable<Customer>> getAllCustomers() {
-		Iterable<Customer> customers = mCustomerRepoService.getAllCustomers();
-		logger.info(FETCH_CUSTOMERS_LOG);
-		//Publish Event : Customers Retrieved with Fetched Message JSON
-		return ResponseEntity.ok(customers);
+	public CompletableFuture<ResponseEntity<?>> getAllCustomers(@RequestParam(value = "after", required = false) Long after,
+																@RequestParam(value = "limit", required = false) Integer limit,
+																@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		Representation representation = Representation.of(accept);
+		return mRequestExecutor.read(() -> {
+			if(after != null || limit != null) {
+				CustomerPage<Long> customerPage = mCustomerRepoService.getCustomers(after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+				logger.info(FETCH_CUSTOMER_PAGE_LOG, customerPage.getCustomers().size(), after);
+				mCustomerEventPublisher.customerViewsFetched(customerPage.getCustomers());
+				// a matching If-None-Match is answered with 304 by Spring, without serializing the page
+				return ResponseEntity.ok().eTag(ETags.of(customerPage.getCustomers(), customerPage.getNextCursor(), representation)).body(customerPage);
+			}
+			// projections rather than entities, the whole table can be a lot of them
+			List<CustomerView> customers = mCustomerRepoService.getAllCustomerViews();
+			logger.info(FETCH_CUSTOMERS_LOG);
+			mCustomerEventPublisher.customerViewsFetched(customers);
+			return ResponseEntity.ok(customers);
+		});
+	}
+
+	@Operation(summary = "Search customer records by exact last name or last name prefix, ignoring case, one page at a time")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Found the matching customer records", content = {@Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = CustomerPage.class))}),
+			@ApiResponse(responseCode = "400", description = "Bad input", content = @Content)})
+	@GetMapping("/search")
+	public CompletableFuture<ResponseEntity<CustomerPage<String>>> searchCustomers(@RequestParam(value = "lastName", required = false) String lastName,
+																		   @RequestParam(value = "prefix", required = false) String prefix,
+																		   @RequestParam(value = "after", required = false) String after,
+																		   @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+																		   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		Representation representation = Representation.of(accept);
+		return mRequestExecutor.read(() -> {
+			CustomerPage<String> customerPage = mCustomerRepoService.searchByLastName(lastName, prefix, after, limit);
+			logger.info(SEARCH_CUSTOMERS_LOG, customerPage.getCustomers().size(), lastName, prefix);
+			mCustomerEventPublisher.customerViewsFetched(customerPage.getCustomers());
+			return ResponseEntity.ok().eTag(ETags.of(customerPage.getCustomers(), customerPage.getNextCursor(), representation)).body(customerPage);
+		});
+	}
+
+	@Operation(summary = "Fuzzy search customer records by first and last name, tolerating typos, best matches first")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Found the matching customer records with their similarity score", content = {@Content(mediaType = APPLICATION_JSON_VALUE)}),
+			@ApiResponse(responseCode = "400", description = "Bad input, or fuzzy search disabled", content = @Content)})
+	@GetMapping("/search/fuzzy")
+	public CompletableFuture<ResponseEntity<List<CustomerMatch>>> fuzzySearchCustomers(@RequestParam(value = "q") String query,
+																					   @RequestParam(value = "limit", defaultValue = "" + DEFAULT_MATCH_COUNT) int limit) {
+		// there is no name index when app.search.fuzzy.enabled is false, as with the offheap profile
+		if(mCustomerNameIndex == null) {
+			throw new EntityNotFoundException(FUZZY_SEARCH_DISABLED, false);
+		}
+		return mRequestExecutor.read(() -> {
+			List<CustomerMatch> matches = mCustomerNameIndex.search(query, limit);
+			logger.info(FUZZY_SEARCH_CUSTOMERS_LOG, matches.size(), query);
+			matches.forEach(match -> mCustomerEventPublisher.customerFetched(match.getCustomer()));
+			return ResponseEntity.ok(matches);
+		});
+	}
+
+	@Operation(summary = "Export all customer records as newline-delimited JSON, streamed in id order")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Customer records streamed, ending with an {\"error\": ...} line when the export failed midway", content = {@Content(mediaType = APPLICATION_NDJSON_VALUE)})})
+	@GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+	public void exportCustomers(HttpServletResponse response) throws IOException {
+		response.setContentType(APPLICATION_NDJSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		try {
+			long exported = mCustomerExportService.exportCustomers(response.getOutputStream());
+			logger.info(EXPORT_CUSTOMERS_LOG, exported);
+		} catch (RuntimeException exception) {
+			// before the first flush RestExceptionHandler can still answer with an error status instead
+			if(!response.isCommitted()) {
+				throw exception;
+			}
+			// the 200 and the first lines are out, so the client is told by a last line that the export is incomplete
+			logger.error(EXPORT_CUSTOMERS_FAILED_LOG, exception);
+			String message = new String(JsonStringEncoder.getInstance().quoteAsString(String.valueOf(exception.getMessage())));
+			response.getOutputStream().write(("{\"error\":\"" + message + "\"}\n").getBytes(StandardCharsets.UTF_8));
+			response.flushBuffer();
+		}
+	}
+
+	@Operation(summary = "Import customer records from a CSV body with a firstName,lastName header")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "CSV processed, rejected records are listed in the result", content = {@Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = CustomerImportResult.class))}),
+			@ApiResponse(responseCode = "400", description = "Bad CSV header or unreadable body", content = @Content)})
+	@PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+	public ResponseEntity<CustomerImportResult> importCustomers(HttpServletRequest request) throws IOException {
+		Charset charset = request.getCharacterEncoding() == null ? StandardCharsets.UTF_8 : Charset.forName(request.getCharacterEncoding());
+		try (Reader reader = new InputStreamReader(request.getInputStream(), charset)) {
+			CustomerImportResult result = mCustomerImportService.importCustomers(reader);
+			logger.info(IMPORT_CUSTOMERS_LOG, result.getImported(), result.getFailed());
+			return ResponseEntity.ok(result);
+		}
 	}
 
-	@Operation(summary = "Get an existing customer record based on Id")
+	@Operation(summary = "Get an existing customer record based on Id, or 304 when If-None-Match has its current ETag")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Get the customer record", content = {@Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = Customer.class))}),
+			@ApiResponse(responseCode = "304", description = "The customer record has not changed", content = @Content),
 			@ApiResponse(responseCode = "400", description = "No such customer found", content = @Content)})
 	@GetMapping("/{id}")
-	public ResponseEntity<Customer> getCustomerById(@PathVariable("id") Long customerId) {
-		Customer existingCustomer = mCustomerRepoService.retrieveCustomerById(customerId);
-		logger.info(FETCH_CUSTOMER_LOG, existingCustomer.toString());
-		//Publish Event : Customer Retrieved with Fetched Message JSON
-		return new ResponseEntity(existingCustomer, HttpStatus.OK);
+	public CompletableFuture<ResponseEntity<Customer>> getCustomerById(@PathVariable("id") Long customerId,
+																	   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+																	   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		Representation representation = Representation.of(accept);
+		return mRequestExecutor.read(() -> {
+			if(ifNoneMatch != null) {
+				// only the version is read, the customer is neither loaded nor serialized
+				Long version = mCustomerRepoService.retrieveCustomerVersion(customerId);
+				if(version != null && ETags.noneMatchHits(ifNoneMatch, version, representation)) {
+					logger.debug(NOT_MODIFIED_CUSTOMER_LOG, customerId);
+					return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version, representation)).<Customer>build();
+				}
+			}
+			Customer existingCustomer = mCustomerRepoService.retrieveCustomerById(customerId);
+			logger.info(FETCH_CUSTOMER_LOG, existingCustomer.toString());
+			mCustomerEventPublisher.customerFetched(existingCustomer);
+			return ResponseEntity.ok().eTag(ETags.of(existingCustomer.getVersion(), representation)).body(existingCustomer);
+		});
 	}
 
 	@Operation(summary = "Creates a new customer record")
@@ -67,25 +225,72 @@ public class CustomerController {
 			@ApiResponse(responseCode = "400", description = "Bad input", content = @Content),
 	})
 	@PostMapping
-	public ResponseEntity<Customer> saveCustomer(@Valid @RequestBody Customer customerToSave) throws UnableToSaveException {
-		Customer savedCustomer = mCustomerRepoService.createCustomer(customerToSave);
-		logger.info(NEW_CUSTOMER_LOG, savedCustomer.toString());
-		//Publish Event : New customer record created event with JSON data to be published
-		return new ResponseEntity(savedCustomer, HttpStatus.CREATED);
+	public CompletableFuture<ResponseEntity<Customer>> saveCustomer(@Valid @RequestBody Customer customerToSave,
+																	@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws UnableToSaveException {
+		Representation representation = Representation.of(accept);
+		return mRequestExecutor.write(() -> {
+			Customer savedCustomer = mCustomerRepoService.createCustomer(customerToSave);
+			logger.info(NEW_CUSTOMER_LOG, savedCustomer.toString());
+			mCustomerEventPublisher.customerCreated(savedCustomer);
+			return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(savedCustomer.getVersion(), representation)).body(savedCustomer);
+		});
 	}
 
-	@Operation(summary = "Update an existing customer record based on Id")
+	@Operation(summary = "Update an existing customer record based on Id, only at the version named by If-Match when it is given")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Customer record updated", content = {@Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = Customer.class))}),
 			@ApiResponse(responseCode = "400", description = "Bad input", content = @Content),
+			@ApiResponse(responseCode = "412", description = "Customer record is not at the version named by If-Match", content = @Content),
 	})
 	@PutMapping("/{id}")
-	public ResponseEntity<Customer> updateCustomer(@PathVariable("id") Long customerId,
-												   @Valid @RequestBody Customer customerToUpdate) throws UnableToSaveException {
-		Customer updatedCustomer = mCustomerRepoService.updateCustomer(customerId, customerToUpdate);
-		logger.info(UPDATE_CUSTOMER_LOG, updatedCustomer.toString());
-		//Publish Event : Customer record updated event with JSON data to be published
-		return ResponseEntity.ok(updatedCustomer);
+	public CompletableFuture<ResponseEntity<Customer>> updateCustomer(@PathVariable("id") Long customerId,
+																	  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+																	  @Valid @RequestBody Customer customerToUpdate,
+																	  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws UnableToSaveException {
+		Representation representation = Representation.of(accept);
+		return mRequestExecutor.write(() -> {
+			Customer updatedCustomer = ifMatch == null
+					? mCustomerRepoService.updateCustomer(customerId, customerToUpdate)
+					: mCustomerRepoService.updateCustomer(customerId, customerToUpdate, ETags.versionsOf(ifMatch));
+			logger.info(UPDATE_CUSTOMER_LOG, updatedCustomer.toString());
+			mCustomerEventPublisher.customerUpdated(updatedCustomer);
+			return ResponseEntity.ok().eTag(ETags.of(updatedCustomer.getVersion(), representation)).body(updatedCustomer);
+		});
+	}
+
+	@Operation(summary = "Update only the names given in the body of an existing customer record, only at the version named by If-Match when it is given")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Customer record updated", content = {@Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = Customer.class))}),
+			@ApiResponse(responseCode = "400", description = "Bad input", content = @Content),
+			@ApiResponse(responseCode = "412", description = "Customer record is not at the version named by If-Match", content = @Content),
+	})
+	@PatchMapping(value = "/{id}", consumes = {APPLICATION_JSON_VALUE, APPLICATION_MERGE_PATCH_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+	public CompletableFuture<ResponseEntity<Customer>> patchCustomer(@PathVariable("id") Long customerId,
+																	 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+																	 @RequestBody Customer changes,
+																	 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws UnableToSaveException {
+		Representation representation = Representation.of(accept);
+		return mRequestExecutor.write(() -> {
+			Customer patchedCustomer = mCustomerRepoService.patchCustomer(customerId, changes, ifMatch == null ? null : ETags.versionsOf(ifMatch));
+			logger.info(PATCH_CUSTOMER_LOG, patchedCustomer.toString());
+			mCustomerEventPublisher.customerUpdated(patchedCustomer);
+			return ResponseEntity.ok().eTag(ETags.of(patchedCustomer.getVersion(), representation)).body(patchedCustomer);
+		});
+	}
+
+	@Operation(summary = "Apply a list of create, update and delete operations in one transaction")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Batch applied, one result per operation", content = {@Content(mediaType = APPLICATION_JSON_VALUE)}),
+			@ApiResponse(responseCode = "400", description = "Bad input", content = @Content),
+	})
+	@PostMapping("/batch")
+	public CompletableFuture<ResponseEntity<List<CustomerBatchResult>>> applyBatch(@RequestBody List<CustomerBatchOperation> operations) throws UnableToSaveException {
+		return mRequestExecutor.write(() -> {
+			List<CustomerBatchResult> results = mCustomerRepoService.applyBatch(operations);
+			logger.info(BATCH_CUSTOMERS_LOG, results.size());
+			mCustomerEventPublisher.batchApplied(operations, results);
+			return ResponseEntity.ok(results);
+		});
 	}
 
 	@Operation(summary = "Delete a Customer record based on Id")
@@ -94,10 +299,18 @@ public class CustomerController {
 			@ApiResponse(responseCode = "400", description = "Bad input", content = @Content),
 	})
 	@DeleteMapping("/{id}")
-	public ResponseEntity<String> deleteCustomer(@PathVariable("id") Long customerId) {
-		mCustomerRepoService.deleteCustomer(customerId);
-		logger.info(DELETE_CUSTOMER_LOG, customerId);
-		//Publish Event : Customer deleted Message JSON
-		return ResponseEntity.ok("Customer successfully deleted");
+	public CompletableFuture<ResponseEntity<?>> deleteCustomer(@PathVariable("id") Long customerId,
+															   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		Representation representation = Representation.of(accept);
+		return mRequestExecutor.write(() -> {
+			mCustomerRepoService.deleteCustomer(customerId);
+			logger.info(DELETE_CUSTOMER_LOG, customerId);
+			mCustomerEventPublisher.customerDeleted(customerId);
+			if(representation == Representation.JSON) {
+				return ResponseEntity.ok(DELETED_MESSAGE);
+			}
+			// a String would be written as raw text under the binary type, which its clients could not decode
+			return ResponseEntity.ok(Map.of("message", DELETED_MESSAGE));
+		});
 	}
 }
@@ -0,0 +1,171 @@
+package com.java.controller;
+
+import com.java.datasource.ReadYourWrites;
+import com.java.exception.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the work of {@link CustomerController} requests according to {@code app.async.mode}.
+ * <p>
+ * In {@link Mode#SYNC}, the default, work runs on the calling Tomcat worker as before, and the completed
+ * futures it returns are written by {@link CompletedFutureReturnValueHandler} without Servlet async processing.
+ * In the asynchronous modes the worker is released while the work runs on one of two bounded bulkheads, one for
+ * reads and one for writes, so a burst of slow writes cannot hold up reads that are served from the cache. Work
+ * that finds its bulkhead full fails fast with {@link ServiceBusyException} (503) instead of queueing without
+ * bound.
+ * <p>
+ * {@link Mode#PLATFORM} uses fixed thread pools. {@link Mode#VIRTUAL} starts a virtual thread per request and
+ * bounds each bulkhead with a semaphore; on a JDK without virtual threads it falls back to PLATFORM.
+ */
+@Component
+public class CustomerRequestExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerRequestExecutor.class);
+
+    public enum Mode { SYNC, PLATFORM, VIRTUAL }
+
+    private final Mode mMode;
+    private final Bulkhead mReads;
+    private final Bulkhead mWrites;
+
+    @Autowired
+    public CustomerRequestExecutor(@Value("${app.async.mode:SYNC}") Mode mode,
+                                   @Value("${app.async.read-pool-size:16}") int readPoolSize,
+                                   @Value("${app.async.write-pool-size:8}") int writePoolSize,
+                                   @Value("${app.async.queue-capacity:1000}") int queueCapacity,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        ExecutorService virtualThreads = mode == Mode.VIRTUAL ? newVirtualThreadPerTaskExecutor() : null;
+        if (mode == Mode.VIRTUAL && virtualThreads == null) {
+            logger.warn("Virtual threads are not supported by Java {}, using PLATFORM request execution", System.getProperty("java.version"));
+            mode = Mode.PLATFORM;
+        }
+        this.mMode = mode;
+        if (mode == Mode.SYNC) {
+            this.mReads = null;
+            this.mWrites = null;
+        } else if (mode == Mode.PLATFORM) {
+            this.mReads = Bulkhead.platform("customer-reads", readPoolSize, queueCapacity, meterRegistry);
+            this.mWrites = Bulkhead.platform("customer-writes", writePoolSize, queueCapacity, meterRegistry);
+        } else {
+            this.mReads = new Bulkhead("customer-reads", virtualThreads, new Semaphore(readPoolSize + queueCapacity));
+            this.mWrites = new Bulkhead("customer-writes", virtualThreads, new Semaphore(writePoolSize + queueCapacity));
+        }
+        logger.info("Customer requests run in {} mode", mode);
+    }
+
+    public Mode getMode() {
+        return mMode;
+    }
+
+    public <T> CompletableFuture<T> read(Supplier<T> work) {
+        return submit(mReads, work);
+    }
+
+    public <T> CompletableFuture<T> write(Supplier<T> work) {
+        return submit(mWrites, work);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (mReads != null) {
+            mReads.executor.shutdown();
+            mWrites.executor.shutdown();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Bulkhead bulkhead, Supplier<T> work) {
+        if (bulkhead == null) {
+            return CompletableFuture.completedFuture(work.get());
+        }
+        Supplier<T> clientWork = ReadYourWrites.propagate(work);
+        if (bulkhead.permits != null && !bulkhead.permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(bulkhead.busy());
+        }
+        // completed by hand rather than with supplyAsync, which would wrap a failure in a CompletionException and
+        // capture its stack trace, undoing the stackless exceptions of ExpectedErrors; Spring handles both the same
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            bulkhead.executor.execute(() -> {
+                try {
+                    result.complete(clientWork.get());
+                } catch (Throwable failure) {
+                    result.completeExceptionally(failure);
+                } finally {
+                    if (bulkhead.permits != null) {
+                        bulkhead.permits.release();
+                    }
+                }
+            });
+            return result;
+        } catch (RejectedExecutionException exception) {
+            if (bulkhead.permits != null) {
+                bulkhead.permits.release();
+            }
+            return CompletableFuture.failedFuture(bulkhead.busy());
+        }
+    }
+
+    /**
+     * Looked up reflectively as the service is built for Java 11, virtual threads need Java 21.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException exception) {
+            return null;
+        }
+    }
+
+    private static class Bulkhead {
+
+        private final String name;
+        private final ExecutorService executor;
+        // bounds in-flight work when the executor itself is unbounded, null for thread pools
+        private final Semaphore permits;
+
+        Bulkhead(String name, ExecutorService executor, Semaphore permits) {
+            this.name = name;
+            this.executor = executor;
+            this.permits = permits;
+        }
+
+        static Bulkhead platform(String name, int poolSize, int queueCapacity, ObjectProvider<MeterRegistry> meterRegistry) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            ExecutorService monitored = meterRegistry.stream()
+                    .findFirst()
+                    .map(registry -> ExecutorServiceMetrics.monitor(registry, executor, name, Collections.emptyList()))
+                    .orElse(executor);
+            return new Bulkhead(name, monitored, null);
+        }
+
+        ServiceBusyException busy() {
+            return new ServiceBusyException(String.format("Too many %s in progress, please retry later", name.replace('-', ' ')));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.java.controller;
+
+import com.java.dao.CustomerView;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Entity tags of customer responses. A single customer is tagged with its version as a strong ETag, so it can
+ * be used with If-Match; a page of customers gets a weak ETag hashed from the ids and versions it contains. Both
+ * end with the suffix of their {@link Representation}, as the same version is a different body in each format.
+ */
+final class ETags {
+
+    static final String ANY = "*";
+
+    private ETags() {
+    }
+
+    static String of(Long version, Representation representation) {
+        return "\"" + version + representation.getTagSuffix() + "\"";
+    }
+
+    static String of(List<CustomerView> customers, Object nextCursor, Representation representation) {
+        long hash = 1125899906842597L;
+        for (CustomerView customer : customers) {
+            hash = 31 * hash + customer.getId();
+            hash = 31 * hash + customer.getVersion();
+        }
+        hash = 31 * hash + (nextCursor == null ? 0 : nextCursor.hashCode());
+        return "W/\"" + Long.toHexString(hash) + representation.getTagSuffix() + "\"";
+    }
+
+    /**
+     * Weak comparison for If-None-Match: true if the header lists the tag of the version in this representation,
+     * with or without the W/ prefix, or is *.
+     */
+    static boolean noneMatchHits(String ifNoneMatch, Long version, Representation representation) {
+        if (ANY.equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(of(version, representation))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versions accepted by an If-Match header, by strong comparison, so weak tags are ignored. The tag of a version
+     * in any representation names that version, as the write replaces the customer whatever format it was read in.
+     *
+     * @return the versions, possibly empty so that nothing matches, or null when the header is * and any version matches
+     */
+    static Set<Long> versionsOf(String ifMatch) {
+        if (ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(withoutSuffix(tag.substring(1, tag.length() - 1))));
+                } catch (NumberFormatException exception) {
+                    // not one of our tags, it can never match
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static String withoutSuffix(String opaqueTag) {
+        for (Representation representation : Representation.values()) {
+            if (!representation.getTagSuffix().isEmpty() && opaqueTag.endsWith(representation.getTagSuffix())) {
+                return opaqueTag.substring(0, opaqueTag.length() - representation.getTagSuffix().length());
+            }
+        }
+        return opaqueTag;
+    }
+}
@@ -0,0 +1,56 @@
+package com.java.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * The formats {@link CustomerController} produces, in the order it prefers them. A customer is different bytes in
+ * each of them, so each has its own entity tag suffix, and a cache or an If-None-Match never hands a client the
+ * body of another format. JSON has none, so JSON clients keep the tags they always had.
+ */
+enum Representation {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+    SMILE(MediaType.parseMediaType(CustomerController.APPLICATION_SMILE_VALUE), "-smile"),
+    CBOR(MediaType.APPLICATION_CBOR, "-cbor");
+
+    private final MediaType mMediaType;
+    private final String mTagSuffix;
+
+    Representation(MediaType mediaType, String tagSuffix) {
+        this.mMediaType = mediaType;
+        this.mTagSuffix = tagSuffix;
+    }
+
+    String getTagSuffix() {
+        return mTagSuffix;
+    }
+
+    /**
+     * The format Spring MVC writes for this Accept header: the one the most specific and preferred accepted type
+     * includes, JSON first on a tie. JSON when there is no header, or none Spring MVC would answer with anything
+     * but an error.
+     */
+    static Representation of(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException exception) {
+            return JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            for (Representation representation : values()) {
+                if (type.includes(representation.mMediaType)) {
+                    return representation;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,172 @@
+package com.java.dao;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The part of a {@link StandaloneCustomerRepository} that only reads and writes customers by id, over a
+ * {@link CustomerStore}: saving with the {@code @Version} check, lookups by id, counting and the deletes. Name
+ * queries and views are left to the subclass, as the stores answer them differently.
+ * <p>
+ * A store rejects names it can not hold with an {@link IllegalArgumentException}, which is rethrown as the
+ * {@link DataIntegrityViolationException} the database would cause.
+ */
+public abstract class AbstractStandaloneCustomerRepository implements StandaloneCustomerRepository {
+
+	/**
+	 * The customers by id, as kept by a store such as the off-heap or the sharded one.
+	 */
+	interface CustomerStore {
+
+		Customer get(long id);
+
+		boolean contains(long id);
+
+		Long getVersion(long id);
+
+		/**
+		 * @return at most {@code limit} customers with an id greater than {@code after}, in id order
+		 */
+		List<Customer> pageById(long after, int limit);
+
+		long count();
+
+		Customer insert(String firstName, String lastName);
+
+		/**
+		 * @param firstName        new first name, or null to keep it
+		 * @param lastName         new last name, or null to keep it
+		 * @param expectedVersions versions the customer must be at, or null to update whatever the current version
+		 * @return the customer as updated, or null when there is none with this id at one of the expected versions
+		 */
+		Customer update(long id, String firstName, String lastName, Collection<Long> expectedVersions);
+
+		boolean delete(long id);
+
+		void clear();
+	}
+
+	private final CustomerStore mCustomers;
+
+	protected AbstractStandaloneCustomerRepository(CustomerStore customers) {
+		this.mCustomers = customers;
+	}
+
+	@Override
+	public <S extends Customer> S save(S customer) {
+		if(customer == null) {
+			throw new InvalidDataAccessApiUsageException("Entity must not be null");
+		}
+		try {
+			Customer saved = null;
+			if(customer.getId() != null) {
+				saved = mCustomers.update(customer.getId(), customer.getFirstName(), customer.getLastName(),
+						customer.getVersion() == null ? null : Set.of(customer.getVersion()));
+				if(saved == null && customer.getVersion() != null && mCustomers.contains(customer.getId())) {
+					throw new ObjectOptimisticLockingFailureException(Customer.class, customer.getId());
+				}
+			}
+			// as JPA merges a customer with an unknown id, it is stored as a new one
+			if(saved == null) {
+				saved = mCustomers.insert(customer.getFirstName(), customer.getLastName());
+			}
+			@SuppressWarnings("unchecked")
+			S result = (S) saved;
+			return result;
+		} catch (IllegalArgumentException exception) {
+			throw new DataIntegrityViolationException(exception.getMessage(), exception);
+		}
+	}
+
+	@Override
+	public <S extends Customer> Iterable<S> saveAll(Iterable<S> customers) {
+		List<S> saved = new ArrayList<>();
+		for(S customer : customers) {
+			saved.add(save(customer));
+		}
+		return saved;
+	}
+
+	@Override
+	public Optional<Customer> findById(Long id) {
+		return Optional.ofNullable(id == null ? null : mCustomers.get(id));
+	}
+
+	@Override
+	public Customer findById(long id) {
+		return mCustomers.get(id);
+	}
+
+	@Override
+	public boolean existsById(Long id) {
+		return id != null && mCustomers.contains(id);
+	}
+
+	@Override
+	public Iterable<Customer> findAll() {
+		return mCustomers.pageById(0, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable) {
+		int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+		return mCustomers.pageById(id == null ? 0 : id, limit);
+	}
+
+	@Override
+	public long count() {
+		return mCustomers.count();
+	}
+
+	@Override
+	public void deleteById(Long id) {
+		mCustomers.delete(id);
+	}
+
+	@Override
+	public void delete(Customer customer) {
+		mCustomers.delete(customer.getId());
+	}
+
+	@Override
+	public void deleteAllById(Iterable<? extends Long> ids) {
+		ids.forEach(mCustomers::delete);
+	}
+
+	@Override
+	public void deleteAll(Iterable<? extends Customer> customers) {
+		customers.forEach(customer -> mCustomers.delete(customer.getId()));
+	}
+
+	@Override
+	public void deleteAll() {
+		mCustomers.clear();
+	}
+
+	@Override
+	public Long findVersionById(Long id) {
+		return id == null ? null : mCustomers.getVersion(id);
+	}
+
+	@Override
+	public int deleteCustomerById(long id) {
+		return mCustomers.delete(id) ? 1 : 0;
+	}
+
+	@Override
+	public Customer updateColumns(long customerId, String firstName, String lastName, Set<Long> expectedVersions) {
+		try {
+			return mCustomers.update(customerId, firstName, lastName, expectedVersions);
+		} catch (IllegalArgumentException exception) {
+			throw new DataIntegrityViolationException(exception.getMessage(), exception);
+		}
+	}
+}
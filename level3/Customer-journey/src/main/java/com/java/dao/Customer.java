@@ -1,9 +1,12 @@
 package com.java.dao;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Version;
 
 @Entity
 public class Customer {
@@ -12,12 +15,27 @@ public class Customer {
 	private Long id;
 	private String firstName;
 	private String lastName;
+	// incremented by every update, read-only for clients that send it back
+	@Version
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long version;
 
 	public Customer(String firstName, String lastName) {
 		this.setFirstName(firstName);
 		this.setLastName(lastName);
 	}
 
+	public Customer(Long id, String firstName, String lastName) {
+		this(firstName, lastName);
+		this.id = id;
+	}
+
+	// a row read back by a statement that bypasses the persistence context
+	Customer(Long id, String firstName, String lastName, Long version) {
+		this(id, firstName, lastName);
+		this.version = version;
+	}
+
 	public Customer() {
 
 	}
@@ -39,6 +57,10 @@ public class Customer {
 		return lastName;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
 	public void setFirstName(String firstName) { this.firstName = firstName; }
 
 	public void setLastName(String lastName) { this.lastName = lastName; }
@@ -0,0 +1,49 @@
+package com.java.dao;
+
+/**
+ * One entry of a batch request: create a customer, or update or delete the customer with {@code id}.
+ */
+public class CustomerBatchOperation {
+
+	public enum Type { CREATE, UPDATE, DELETE }
+
+	private Type op;
+	private Long id;
+	private String firstName;
+	private String lastName;
+
+	public CustomerBatchOperation() {
+
+	}
+
+	public CustomerBatchOperation(Type op, Long id, String firstName, String lastName) {
+		this.op = op;
+		this.id = id;
+		this.firstName = firstName;
+		this.lastName = lastName;
+	}
+
+	public Type getOp() {
+		return op;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public void setOp(Type op) { this.op = op; }
+
+	public void setId(Long id) { this.id = id; }
+
+	public void setFirstName(String firstName) { this.firstName = firstName; }
+
+	public void setLastName(String lastName) { this.lastName = lastName; }
+}
@@ -0,0 +1,37 @@
+package com.java.dao;
+
+/**
+ * Outcome of one {@link CustomerBatchOperation}, reported at the same index as the operation in the request.
+ */
+public class CustomerBatchResult {
+
+	public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, INVALID }
+
+	private final int index;
+	private final Status status;
+	private final Long id;
+	private final String message;
+
+	public CustomerBatchResult(int index, Status status, Long id, String message) {
+		this.index = index;
+		this.status = status;
+		this.id = id;
+		this.message = message;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,18 @@
+package com.java.dao;
+
+/**
+ * Callback for customer writes made through {@link CustomerRepoService} and {@link CustomerImportService}.
+ * Listeners are called inside the writing transaction; a listener that must only see committed changes
+ * defers its work with a transaction synchronization.
+ */
+public interface CustomerChangeListener {
+
+	default void customerCreated(Customer customer) {
+	}
+
+	default void customerUpdated(Customer customer) {
+	}
+
+	default void customerDeleted(Long customerId) {
+	}
+}
@@ -0,0 +1,109 @@
+package com.java.dao;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.exception.UnableToGetException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Streams the whole CUSTOMER table as newline-delimited JSON, each customer with the fields of the customer
+ * resource, its version included.
+ * Rows are read through a forward-only JDBC cursor and written as soon as they are read, so no entity is
+ * hydrated and neither the result set nor the response body is held in memory. With a
+ * {@link StandaloneCustomerRepository} the customers are read from it instead, a page at a time.
+ */
+@Service
+public class CustomerExportService {
+
+	private static final String SELECT_ALL_CUSTOMERS = "SELECT id, first_name, last_name, version FROM customer ORDER BY id";
+
+	private final JdbcTemplate mJdbcTemplate;
+	private final ObjectMapper mObjectMapper;
+	private final int mFetchSize;
+	private final StandaloneCustomerRepository mStandaloneRepository;
+
+	public CustomerExportService(DataSource dataSource, ObjectMapper objectMapper, int fetchSize) {
+		this(dataSource, objectMapper, fetchSize, (StandaloneCustomerRepository) null);
+	}
+
+	@Autowired
+	public CustomerExportService(DataSource dataSource, ObjectMapper objectMapper,
+								 @Value("${app.export.fetch-size:1000}") int fetchSize,
+								 ObjectProvider<StandaloneCustomerRepository> standaloneRepository) {
+		this(dataSource, objectMapper, fetchSize, standaloneRepository.getIfAvailable());
+	}
+
+	/**
+	 * @param standaloneRepository the repository customers are then exported from in pages of {@code fetchSize}
+	 *                             instead of the database, or null
+	 */
+	public CustomerExportService(DataSource dataSource, ObjectMapper objectMapper, int fetchSize,
+								 StandaloneCustomerRepository standaloneRepository) {
+		this.mJdbcTemplate = new JdbcTemplate(dataSource);
+		this.mJdbcTemplate.setFetchSize(fetchSize);
+		this.mObjectMapper = objectMapper;
+		this.mFetchSize = fetchSize;
+		this.mStandaloneRepository = standaloneRepository;
+	}
+
+	/**
+	 * Writes one JSON object per customer, each followed by a new line, in id order.
+	 *
+	 * @param outputStream the stream to write to, left open
+	 * @return the number of customers written
+	 */
+	public long exportCustomers(OutputStream outputStream) throws UnableToGetException {
+		try (JsonGenerator generator = mObjectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.setRootValueSeparator(null);
+			long[] count = {0};
+			if(mStandaloneRepository != null) {
+				List<Customer> page;
+				long after = 0;
+				do {
+					page = mStandaloneRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, mFetchSize));
+					for(Customer customer : page) {
+						writeCustomer(generator, customer.getId(), customer.getFirstName(), customer.getLastName(), customer.getVersion());
+						count[0]++;
+						after = customer.getId();
+					}
+				} while(page.size() == mFetchSize);
+			} else {
+				mJdbcTemplate.query(SELECT_ALL_CUSTOMERS, resultSet -> {
+					try {
+						writeCustomer(generator, resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getLong(4));
+						count[0]++;
+					} catch (IOException exception) {
+						throw new UncheckedIOException(exception);
+					}
+				});
+			}
+			generator.flush();
+			return count[0];
+		} catch (IOException | UncheckedIOException exception) {
+			throw new UnableToGetException(exception.getMessage());
+		}
+	}
+
+	private static void writeCustomer(JsonGenerator generator, long id, String firstName, String lastName, long version) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("id", id);
+		generator.writeStringField("firstName", firstName);
+		generator.writeStringField("lastName", lastName);
+		generator.writeNumberField("version", version);
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+}
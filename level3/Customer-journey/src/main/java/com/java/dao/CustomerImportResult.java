@@ -0,0 +1,59 @@
+package com.java.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a CSV import: how many rows were stored, how many were rejected and why.
+ * Only the first {@link #MAX_REPORTED_ERRORS} row errors are kept; {@code failed} always counts all of them.
+ */
+public class CustomerImportResult {
+
+	public static final int MAX_REPORTED_ERRORS = 1000;
+
+	private long imported;
+	private long failed;
+	private final List<RowError> errors = new ArrayList<>();
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public List<RowError> getErrors() {
+		return errors;
+	}
+
+	void addImported(long count) {
+		imported += count;
+	}
+
+	void addError(long record, String message) {
+		failed++;
+		if(errors.size() < MAX_REPORTED_ERRORS) {
+			errors.add(new RowError(record, message));
+		}
+	}
+
+	public static class RowError {
+
+		private final long record;
+		private final String message;
+
+		RowError(long record, String message) {
+			this.record = record;
+			this.message = message;
+		}
+
+		public long getRecord() {
+			return record;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package com.java.dao;
+
+import com.java.exception.InvalidFileDataException;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Imports customers from a CSV stream with a {@code firstName,lastName} header.
+ * Records are parsed one at a time and inserted with JDBC batches, one transaction per chunk, so the upload
+ * never has to fit in memory. Invalid records are reported and skipped without aborting the rest of the file.
+ * With a {@link StandaloneCustomerRepository}, such as those of the offheap and sharded profiles, the records are
+ * stored through it instead.
+ */
+@Service
+public class CustomerImportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerImportService.class);
+
+	static final String FIRST_NAME_HEADER = "firstName";
+	static final String LAST_NAME_HEADER = "lastName";
+	static final int MAX_NAME_LENGTH = 200;
+
+	private static final String NEXT_CUSTOMER_IDS = "SELECT NEXT VALUE FOR hibernate_sequence FROM SYSTEM_RANGE(1, ?)";
+	private static final String INSERT_CUSTOMER = "INSERT INTO customer (id, first_name, last_name) VALUES (?, ?, ?)";
+	private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT
+			.withFirstRecordAsHeader()
+			.withIgnoreHeaderCase()
+			.withIgnoreEmptyLines()
+			.withTrim();
+
+	private final JdbcTemplate mJdbcTemplate;
+	private final TransactionTemplate mTransactionTemplate;
+	private final int mChunkSize;
+	private final List<CustomerChangeListener> mChangeListeners;
+	private final StandaloneCustomerRepository mStandaloneRepository;
+
+	public CustomerImportService(DataSource dataSource, PlatformTransactionManager transactionManager, int chunkSize) {
+		this(dataSource, transactionManager, chunkSize, Collections.emptyList(), null);
+	}
+
+	@Autowired
+	public CustomerImportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+								 @Value("${app.import.chunk-size:1000}") int chunkSize,
+								 ObjectProvider<CustomerChangeListener> changeListeners,
+								 ObjectProvider<StandaloneCustomerRepository> standaloneRepository) {
+		this(dataSource, transactionManager, chunkSize, changeListeners.orderedStream().collect(Collectors.toList()),
+				standaloneRepository.getIfAvailable());
+	}
+
+	/**
+	 * @param standaloneRepository the repository customers are then imported into instead of the database, or null
+	 */
+	public CustomerImportService(DataSource dataSource, PlatformTransactionManager transactionManager, int chunkSize,
+								 List<CustomerChangeListener> changeListeners, StandaloneCustomerRepository standaloneRepository) {
+		this.mJdbcTemplate = new JdbcTemplate(dataSource);
+		this.mTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.mChunkSize = chunkSize;
+		this.mChangeListeners = changeListeners;
+		this.mStandaloneRepository = standaloneRepository;
+	}
+
+	public CustomerImportResult importCustomers(Reader reader) throws InvalidFileDataException {
+		CustomerImportResult result = new CustomerImportResult();
+		try (CSVParser parser = CSV_FORMAT.parse(reader)) {
+			if(!parser.getHeaderMap().containsKey(FIRST_NAME_HEADER) || !parser.getHeaderMap().containsKey(LAST_NAME_HEADER)) {
+				throw new InvalidFileDataException(String.format("CSV header must contain %s and %s columns", FIRST_NAME_HEADER, LAST_NAME_HEADER));
+			}
+			List<Object[]> chunk = new ArrayList<>(mChunkSize);
+			List<Long> chunkRecords = new ArrayList<>(mChunkSize);
+			Iterator<CSVRecord> records = parser.iterator();
+			while(hasNextRecord(records, parser, result)) {
+				CSVRecord record = records.next();
+				String error = validate(record);
+				if(error != null) {
+					result.addError(record.getRecordNumber(), error);
+					continue;
+				}
+				chunk.add(new Object[]{null, record.get(FIRST_NAME_HEADER), record.get(LAST_NAME_HEADER)});
+				chunkRecords.add(record.getRecordNumber());
+				if(chunk.size() == mChunkSize) {
+					insertChunk(chunk, chunkRecords, result);
+				}
+			}
+			insertChunk(chunk, chunkRecords, result);
+		} catch (IOException | IllegalArgumentException exception) {
+			throw new InvalidFileDataException(String.format("Unable to read the CSV data: %s", exception.getMessage()));
+		}
+		logger.info("Customer import finished, imported: {}, failed: {}", result.getImported(), result.getFailed());
+		return result;
+	}
+
+	/**
+	 * A malformed record (e.g. an unterminated quote) leaves the parser in an unknown position,
+	 * so it is reported and the rest of the stream is not read.
+	 */
+	private boolean hasNextRecord(Iterator<CSVRecord> records, CSVParser parser, CustomerImportResult result) {
+		try {
+			return records.hasNext();
+		} catch (UncheckedIOException | IllegalStateException exception) {
+			result.addError(parser.getRecordNumber() + 1, String.format("Malformed CSV, import stopped: %s", exception.getMessage()));
+			return false;
+		}
+	}
+
+	private String validate(CSVRecord record) {
+		if(!record.isSet(FIRST_NAME_HEADER) || !record.isSet(LAST_NAME_HEADER)) {
+			return "Record must have both firstName and lastName values";
+		}
+		String firstName = record.get(FIRST_NAME_HEADER);
+		String lastName = record.get(LAST_NAME_HEADER);
+		if(firstName.isEmpty() || lastName.isEmpty()) {
+			return "firstName and lastName must not be empty";
+		}
+		if(firstName.length() > MAX_NAME_LENGTH || lastName.length() > MAX_NAME_LENGTH) {
+			return String.format("firstName and lastName must be at most %d characters", MAX_NAME_LENGTH);
+		}
+		return null;
+	}
+
+	/**
+	 * Inserts the chunk as one JDBC batch in its own transaction, with ids taken from the sequence in one query.
+	 * If the batch fails it is rolled back and retried row by row, so a single bad row only costs its own insert.
+	 */
+	private void insertChunk(List<Object[]> chunk, List<Long> chunkRecords, CustomerImportResult result) {
+		if(chunk.isEmpty()) {
+			return;
+		}
+		if(mStandaloneRepository != null) {
+			insertChunkStandalone(chunk, chunkRecords, result);
+			return;
+		}
+		try {
+			mTransactionTemplate.executeWithoutResult(status -> {
+				List<Long> ids = mJdbcTemplate.queryForList(NEXT_CUSTOMER_IDS, Long.class, chunk.size());
+				for(int i = 0; i < chunk.size(); i++) {
+					chunk.get(i)[0] = ids.get(i);
+				}
+				mJdbcTemplate.batchUpdate(INSERT_CUSTOMER, chunk);
+				chunk.forEach(this::notifyCreated);
+			});
+			result.addImported(chunk.size());
+		} catch (DataAccessException batchException) {
+			logger.warn("Customer import batch failed, retrying row by row: {}", batchException.getMessage());
+			for(int i = 0; i < chunk.size(); i++) {
+				Object[] row = chunk.get(i);
+				try {
+					mTransactionTemplate.executeWithoutResult(status -> {
+						row[0] = mJdbcTemplate.queryForObject(NEXT_CUSTOMER_IDS, Long.class, 1);
+						mJdbcTemplate.update(INSERT_CUSTOMER, row);
+						notifyCreated(row);
+					});
+					result.addImported(1);
+				} catch (DataAccessException rowException) {
+					result.addError(chunkRecords.get(i), rowException.getMostSpecificCause().getMessage());
+				}
+			}
+		}
+		chunk.clear();
+		chunkRecords.clear();
+	}
+
+	/**
+	 * Stores the chunk row by row in the standalone repository, so a row can only fail on its own, in the
+	 * transaction of the change listeners.
+	 */
+	private void insertChunkStandalone(List<Object[]> chunk, List<Long> chunkRecords, CustomerImportResult result) {
+		mTransactionTemplate.executeWithoutResult(status -> {
+			for(int i = 0; i < chunk.size(); i++) {
+				Object[] row = chunk.get(i);
+				try {
+					Customer customer = mStandaloneRepository.save(new Customer((String) row[1], (String) row[2]));
+					row[0] = customer.getId();
+					notifyCreated(row);
+					result.addImported(1);
+				} catch (DataAccessException rowException) {
+					result.addError(chunkRecords.get(i), rowException.getMostSpecificCause().getMessage());
+				}
+			}
+		});
+		chunk.clear();
+		chunkRecords.clear();
+	}
+
+	private void notifyCreated(Object[] row) {
+		if(mChangeListeners.isEmpty()) {
+			return;
+		}
+		Customer customer = new Customer((Long) row[0], (String) row[1], (String) row[2]);
+		mChangeListeners.forEach(listener -> listener.customerCreated(customer));
+	}
+}
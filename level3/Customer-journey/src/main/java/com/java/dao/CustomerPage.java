@@ -0,0 +1,29 @@
+package com.java.dao;
+
+import java.util.List;
+
+/**
+ * One page of customers read with keyset pagination, as read-only projections of their rows.
+ * {@code nextCursor} is what to pass as {@code after} for the next page, or null on the last page: the last id for
+ * pages in id order, an opaque token for last name searches.
+ *
+ * @param <C> the type of the cursor
+ */
+public class CustomerPage<C> {
+
+	private final List<CustomerView> customers;
+	private final C nextCursor;
+
+	public CustomerPage(List<CustomerView> customers, C nextCursor) {
+		this.customers = customers;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<CustomerView> getCustomers() {
+		return customers;
+	}
+
+	public C getNextCursor() {
+		return nextCursor;
+	}
+}
@@ -1,28 +1,72 @@
 package com.java.dao;
 
 import com.java.exception.EntityNotFoundException;
+import com.java.exception.ExpectedErrors;
+import com.java.exception.PreconditionFailedException;
 import com.java.exception.UnableToDeleteException;
 import com.java.exception.UnableToGetException;
 import com.java.exception.UnableToSaveException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
 public class CustomerRepoService {
 
+	public static final int MAX_PAGE_SIZE = 1000;
+	public static final int MAX_BATCH_OPERATIONS = 1000;
+	public static final String CUSTOMER_CACHE = "customers";
+
+	// ids come from a sequence starting at 1, so every id sorts after this cursor
+	private static final long FIRST_PAGE_CURSOR = 0L;
+
 	private final CustomerRepository mCustomerRepository;
+	private final Cache mCustomerCache;
+	private final List<CustomerChangeListener> mChangeListeners;
+	private final ExpectedErrors mExpectedErrors;
 
-	@Autowired
 	public CustomerRepoService(CustomerRepository mCustomerRepository) {
+		this(mCustomerRepository, new NoOpCacheManager(), Collections.emptyList(), new ExpectedErrors(false));
+	}
+
+	@Autowired
+	public CustomerRepoService(CustomerRepository mCustomerRepository, CacheManager cacheManager,
+							   ObjectProvider<CustomerChangeListener> changeListeners, ObjectProvider<ExpectedErrors> expectedErrors) {
+		this(mCustomerRepository, cacheManager, changeListeners.orderedStream().collect(Collectors.toList()),
+				expectedErrors.getIfAvailable(() -> new ExpectedErrors(false)));
+	}
+
+	public CustomerRepoService(CustomerRepository mCustomerRepository, CacheManager cacheManager,
+							   List<CustomerChangeListener> changeListeners, ExpectedErrors expectedErrors) {
 		this.mCustomerRepository = mCustomerRepository;
+		this.mCustomerCache = cacheManager.getCache(CUSTOMER_CACHE);
+		this.mChangeListeners = changeListeners;
+		this.mExpectedErrors = expectedErrors;
 	}
 
+	@Transactional(readOnly = true)
 	public Iterable<Customer> getAllCustomers() {
 		var result = mCustomerRepository.findAll();
 		if(result == null) {
@@ -31,7 +75,34 @@ public class CustomerRepoService {
 		return result;
 	}
 
+	/**
+	 * Like {@link #getAllCustomers()}, in id order, but as read-only projections mapped from the JDBC rows, so the
+	 * customers are neither hydrated as entities nor kept in the persistence context for the response.
+	 */
+	@Transactional(readOnly = true)
+	public List<CustomerView> getAllCustomerViews() {
+		return mCustomerRepository.findAllViews();
+	}
+
+	/**
+	 * Keyset pagination on id: reads at most {@code limit} customers with an id greater than {@code after}, as
+	 * read-only projections like {@link #getAllCustomerViews()}.
+	 * The query seeks on the primary key, so every page costs the same however deep the client reads.
+	 *
+	 * @param after last id of the previous page, or null for the first page
+	 * @param limit page size, between 1 and {@link #MAX_PAGE_SIZE}
+	 * @return the page and the cursor for the next one
+	 */
+	@Transactional(readOnly = true)
+	public CustomerPage<Long> getCustomers(Long after, int limit) {
+		checkPageLimit(limit);
+		// one extra row tells us whether there is a next page without a count query
+		List<CustomerView> customers = mCustomerRepository.findViewsAfter(after == null ? FIRST_PAGE_CURSOR : after, limit + 1);
+		return toPage(customers, limit, CustomerView::getId);
+	}
+
 	@Transactional
+	@CachePut(cacheNames = CUSTOMER_CACHE, key = "#result.id")
 	public Customer createCustomer(Customer customerToSave) throws UnableToSaveException {
 
 		if(customerToSave.getId() != null)
@@ -40,20 +111,47 @@ public class CustomerRepoService {
 		if(customerToSave == null) {
 			throw new UnableToSaveException("Data must not be null. Please provide valid customer details.");
 		}
+		Customer savedCustomer;
 		try {
-			return mCustomerRepository.save(customerToSave);
+			savedCustomer = mCustomerRepository.save(customerToSave);
 		} catch (Exception exception) {
 			throw new UnableToSaveException(exception.getMessage());
 		}
+		mChangeListeners.forEach(listener -> listener.customerCreated(savedCustomer));
+		return savedCustomer;
 	}
 
+	/**
+	 * Read from the replica when there is one. Updates put the customer they wrote into the cache rather than evict
+	 * it, so a miss here does not read a row the replica has not caught up with yet right after an update.
+	 */
+	@Transactional(readOnly = true)
+	@Cacheable(cacheNames = CUSTOMER_CACHE, key = "#customerId", condition = "#customerId != null")
 	public Customer retrieveCustomerById(Long customerId) throws EntityNotFoundException {
 		if(customerId == null) {
 			throw new UnableToGetException("Customer Id must not be null. Please provide a valid customer Id.");
 		}
-		return mCustomerRepository.findById(customerId).orElseThrow(() -> new EntityNotFoundException(String.format("No customer found with id: %d", customerId)));
+		return mCustomerRepository.findById(customerId).orElseThrow(() -> mExpectedErrors.entityNotFound("No customer found with id: " + customerId));
+	}
+
+	/**
+	 * Returns the version of a customer without loading it, from the cache when it holds the customer and
+	 * otherwise with a query on the version column alone. Used to answer conditional requests.
+	 *
+	 * @return the version, or null if there is no such customer
+	 */
+	public Long retrieveCustomerVersion(Long customerId) {
+		if(customerId == null) {
+			throw new UnableToGetException("Customer Id must not be null. Please provide a valid customer Id.");
+		}
+		Customer cachedCustomer = mCustomerCache.get(customerId, Customer.class);
+		if(cachedCustomer != null) {
+			return cachedCustomer.getVersion();
+		}
+		return mCustomerRepository.findVersionById(customerId);
 	}
 
+	@Transactional(readOnly = true)
 	public List<Customer> findByLastName(String lastName) throws EntityNotFoundException {
 		if(lastName == null) {
 			throw new UnableToGetException("Last Name must not be null. Please provide a valid customer last name.");
@@ -61,8 +159,62 @@ public class CustomerRepoService {
 		return mCustomerRepository.findByLastName(lastName);
 	}
 
+	/**
+	 * Like {@link #findByLastName(String)}, in id order, as read-only projections of the JDBC rows.
+	 */
+	@Transactional(readOnly = true)
+	public List<CustomerView> findViewsByLastName(String lastName) {
+		if(lastName == null) {
+			throw new UnableToGetException("Last Name must not be null. Please provide a valid customer last name.");
+		}
+		return mCustomerRepository.findViewsByLastName(lastName);
+	}
+
 	@Transactional
+	@CachePut(cacheNames = CUSTOMER_CACHE, key = "#customerId")
 	public Customer updateCustomer(Long customerId, Customer customerToUpdate) throws EntityNotFoundException, UnableToSaveException {
+		return update(customerId, customerToUpdate, null);
+	}
+
+	/**
+	 * Updates the customer only if its current version is one of {@code expectedVersions}, the versions named by
+	 * the If-Match header of the request. The version is checked by the UPDATE statement itself, so a concurrent
+	 * update that commits first fails this one.
+	 *
+	 * @param expectedVersions accepted versions, or null to update whatever the current version
+	 */
+	@Transactional
+	@CachePut(cacheNames = CUSTOMER_CACHE, key = "#customerId")
+	public Customer updateCustomer(Long customerId, Customer customerToUpdate, Set<Long> expectedVersions)
+			throws EntityNotFoundException, UnableToSaveException, PreconditionFailedException {
+		return update(customerId, customerToUpdate, expectedVersions);
+	}
+
+	/**
+	 * Partial update: writes only the names set in {@code changes}, a null name keeps its current value.
+	 * Like {@link #updateCustomer(Long, Customer, Set)} it takes one statement, which also reads back the whole
+	 * customer for the response, the cache and the change listeners.
+	 *
+	 * @param expectedVersions accepted versions, or null to update whatever the current version
+	 */
+	@Transactional
+	@CachePut(cacheNames = CUSTOMER_CACHE, key = "#customerId")
+	public Customer patchCustomer(Long customerId, Customer changes, Set<Long> expectedVersions)
+			throws EntityNotFoundException, UnableToSaveException, PreconditionFailedException {
+
+		if(customerId == null)
+			throw new UnableToSaveException("Id must not be null. Please provide valid customer Id.");
+
+		if(changes == null) {
+			throw new UnableToSaveException("Data must not be null. Please provide valid customer details.");
+		}
+		if(changes.getFirstName() == null && changes.getLastName() == null) {
+			throw mExpectedErrors.constantInvalidPropertyValue("At least one of firstName or lastName must be provided");
+		}
+		return updateColumns(customerId, changes.getFirstName(), changes.getLastName(), expectedVersions);
+	}
+
+	private Customer update(Long customerId, Customer customerToUpdate, Set<Long> expectedVersions) {
 
 		if(customerId == null)
 			throw new UnableToSaveException("Id must not be null. Please provide valid customer Id.");
@@ -70,34 +222,248 @@ public class CustomerRepoService {
 		if(customerToUpdate == null) {
 			throw new UnableToSaveException("Data must not be null. Please provide valid customer details.");
 		}
+		// a null name would keep the stored one, which is a partial update rather than a replacement
+		if(customerToUpdate.getFirstName() == null || customerToUpdate.getLastName() == null) {
+			throw new UnableToSaveException("First name and last name must not be null. Please provide valid customer details.");
+		}
+		return updateColumns(customerId, customerToUpdate.getFirstName(), customerToUpdate.getLastName(), expectedVersions);
+	}
+
+	private Customer updateColumns(Long customerId, String firstName, String lastName, Set<Long> expectedVersions) {
+		Customer updatedCustomer;
+		try {
+			updatedCustomer = mCustomerRepository.updateColumns(customerId, firstName, lastName, expectedVersions);
+		} catch (Exception exception) {
+			throw new UnableToSaveException(exception.getMessage());
+		}
+		if(updatedCustomer == null) {
+			// only an update that matched no row pays for this second query, to tell the two causes apart
+			Long currentVersion = mCustomerRepository.findVersionById(customerId);
+			if(currentVersion == null) {
+				throw mExpectedErrors.entityNotFound("No customer found with id: " + customerId + " Please try with a valid customer Id.");
+			}
+			throw mExpectedErrors.preconditionFailed("Customer with id: " + customerId + " is at version " + currentVersion + ", not the expected version");
+		}
+		mChangeListeners.forEach(listener -> listener.customerUpdated(updatedCustomer));
+		return updatedCustomer;
+	}
+
+	/**
+	 * Case-insensitive last name search with keyset pagination, either on the exact {@code lastName} or on a
+	 * {@code prefix} of it. Exact matches are ordered by id; prefix matches by last name and then id. The cursor
+	 * carries both the lower-cased last name and the id of the last customer of the page, so the next page never
+	 * reads that customer again. The customers are read as read-only projections like
+	 * {@link #findViewsByLastName(String)}.
+	 *
+	 * @param lastName exact last name, or null when searching by prefix
+	 * @param prefix   last name prefix, or null when searching by exact last name
+	 * @param after    {@code nextCursor} of the previous page, or null for the first page
+	 * @param limit    page size, between 1 and {@link #MAX_PAGE_SIZE}
+	 * @return the page and the cursor for the next one
+	 */
+	@Transactional(readOnly = true)
+	public CustomerPage<String> searchByLastName(String lastName, String prefix, String after, int limit) {
+		boolean exact = lastName != null && !lastName.isEmpty();
+		boolean byPrefix = prefix != null && !prefix.isEmpty();
+		if(exact == byPrefix) {
+			throw mExpectedErrors.constantInvalidPropertyValue("Exactly one of lastName or prefix must be provided");
+		}
+		checkPageLimit(limit);
+		String afterLastName = "";
+		long afterId = FIRST_PAGE_CURSOR;
+		if(after != null) {
+			LastNameCursor cursor;
+			try {
+				cursor = LastNameCursor.of(after);
+			} catch (IllegalArgumentException exception) {
+				throw mExpectedErrors.invalidPropertyValue("Invalid cursor: " + after);
+			}
+			afterLastName = cursor.getLastNameLower();
+			afterId = cursor.getId();
+		}
+		List<CustomerView> customers;
+		if(exact) {
+			customers = mCustomerRepository.findViewsByLastNameIgnoreCase(lastName, afterId, limit + 1);
+		} else {
+			customers = mCustomerRepository.findViewsByLastNameLikeIgnoreCase(escapeLike(prefix) + "%", afterLastName, afterId, limit + 1);
+		}
+		return toPage(customers, limit, customer -> LastNameCursor.after(customer).toToken());
+	}
+
+	private void checkPageLimit(int limit) {
+		if(limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw mExpectedErrors.constantInvalidPropertyValue("limit must be between 1 and " + MAX_PAGE_SIZE);
+		}
+	}
+
+	/**
+	 * Turns a query result of up to {@code limit + 1} rows into a page; the extra row only signals a next page.
+	 */
+	private static <C> CustomerPage<C> toPage(List<CustomerView> customers, int limit, Function<CustomerView, C> cursorOf) {
+		if(customers == null) {
+			throw new UnableToGetException("Unable to get the object");
+		}
+		if(customers.size() <= limit) {
+			return new CustomerPage<>(customers, null);
+		}
+		List<CustomerView> page = customers.subList(0, limit);
+		return new CustomerPage<>(page, cursorOf.apply(page.get(limit - 1)));
+	}
+
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	/**
+	 * Applies a list of create, update and delete operations in one transaction.
+	 * Update and delete targets are loaded with a single query; the resulting inserts, updates and deletes are
+	 * flushed at commit as ordered JDBC batches (see the hibernate.jdbc settings in application.yml).
+	 * Operations that are invalid or target a missing customer are reported and skipped, the others commit together.
+	 *
+	 * @param operations the operations, applied in list order
+	 * @return one result per operation, in the same order
+	 */
+	@Transactional
+	public List<CustomerBatchResult> applyBatch(List<CustomerBatchOperation> operations) throws UnableToSaveException {
+		if(operations == null || operations.isEmpty() || operations.size() > MAX_BATCH_OPERATIONS) {
+			throw mExpectedErrors.constantInvalidPropertyValue("A batch must contain between 1 and " + MAX_BATCH_OPERATIONS + " operations");
+		}
+
+		Set<Long> targetIds = new HashSet<>();
+		for(CustomerBatchOperation operation : operations) {
+			if(operation != null && operation.getOp() != CustomerBatchOperation.Type.CREATE && operation.getId() != null) {
+				targetIds.add(operation.getId());
+			}
+		}
+		Map<Long, Customer> existingCustomers = new HashMap<>();
+		if(!targetIds.isEmpty()) {
+			mCustomerRepository.findAllById(targetIds).forEach(customer -> existingCustomers.put(customer.getId(), customer));
+		}
+
+		CustomerBatchResult[] results = new CustomerBatchResult[operations.size()];
+		List<Customer> customersToCreate = new ArrayList<>();
+		List<Integer> createIndexes = new ArrayList<>();
+		// a customer updated twice is saved once; Customer has identity equality
+		Set<Customer> customersToUpdate = new LinkedHashSet<>();
+		List<Customer> customersToDelete = new ArrayList<>();
+		for(int index = 0; index < operations.size(); index++) {
+			CustomerBatchOperation operation = operations.get(index);
+			if(operation == null || operation.getOp() == null) {
+				results[index] = new CustomerBatchResult(index, CustomerBatchResult.Status.INVALID, null, "op must be one of CREATE, UPDATE, DELETE");
+				continue;
+			}
+			switch (operation.getOp()) {
+				case CREATE:
+					if(operation.getId() != null) {
+						results[index] = new CustomerBatchResult(index, CustomerBatchResult.Status.INVALID, operation.getId(), "Id must be null. Please provide Customer details without an Id.");
+						break;
+					}
+					String createError = invalidNames(operation);
+					if(createError != null) {
+						results[index] = new CustomerBatchResult(index, CustomerBatchResult.Status.INVALID, null, createError);
+						break;
+					}
+					customersToCreate.add(new Customer(operation.getFirstName(), operation.getLastName()));
+					createIndexes.add(index);
+					break;
+				case UPDATE:
+				case DELETE:
+					Customer existingCustomer = operation.getId() == null ? null : existingCustomers.get(operation.getId());
+					if(existingCustomer == null) {
+						results[index] = notFoundResult(index, operation.getId());
+						break;
+					}
+					String updateError = operation.getOp() == CustomerBatchOperation.Type.UPDATE ? invalidNames(operation) : null;
+					if(updateError != null) {
+						results[index] = new CustomerBatchResult(index, CustomerBatchResult.Status.INVALID, operation.getId(), updateError);
+						break;
+					}
+					if(operation.getOp() == CustomerBatchOperation.Type.UPDATE) {
+						// managed entity, written by dirty checking at flush
+						existingCustomer.setFirstName(operation.getFirstName());
+						existingCustomer.setLastName(operation.getLastName());
+						customersToUpdate.add(existingCustomer);
+						mChangeListeners.forEach(listener -> listener.customerUpdated(existingCustomer));
+						results[index] = new CustomerBatchResult(index, CustomerBatchResult.Status.UPDATED, existingCustomer.getId(), null);
+					} else {
+						// deferred until commit by the transaction-aware cache
+						mCustomerCache.evict(existingCustomer.getId());
+						existingCustomers.remove(operation.getId());
+						customersToDelete.add(existingCustomer);
+						mChangeListeners.forEach(listener -> listener.customerDeleted(existingCustomer.getId()));
+						results[index] = new CustomerBatchResult(index, CustomerBatchResult.Status.DELETED, existingCustomer.getId(), null);
+					}
+					break;
+			}
+		}
 
-		Customer existingCustomer = mCustomerRepository
-				.findById(customerId)
-				.orElseThrow(() -> new EntityNotFoundException(String.format("No customer found with id: %d Please try with a valid customer Id.", customerId)));
 		try {
-			existingCustomer.setFirstName(customerToUpdate.getFirstName());
-			existingCustomer.setLastName(customerToUpdate.getLastName());
-			return mCustomerRepository.save(existingCustomer);
+			Iterable<Customer> createdCustomers = mCustomerRepository.saveAll(customersToCreate);
+			int created = 0;
+			for(Customer createdCustomer : createdCustomers) {
+				int index = createIndexes.get(created++);
+				results[index] = new CustomerBatchResult(index, CustomerBatchResult.Status.CREATED, createdCustomer.getId(), null);
+				mChangeListeners.forEach(listener -> listener.customerCreated(createdCustomer));
+			}
+			// already managed with JPA, but a repository without a persistence context needs them saved
+			if(!customersToUpdate.isEmpty()) {
+				// put rather than evicted, like updateCustomer, so a read by id does not fetch them from a lagging replica
+				for(Customer updatedCustomer : mCustomerRepository.saveAll(customersToUpdate)) {
+					mCustomerCache.put(updatedCustomer.getId(), updatedCustomer);
+				}
+			}
+			if(!customersToDelete.isEmpty()) {
+				mCustomerRepository.deleteAll(customersToDelete);
+			}
 		} catch (Exception exception) {
 			throw new UnableToSaveException(exception.getMessage());
 		}
+		return Arrays.asList(results);
 	}
 
+	/**
+	 * Checks the names of a create or update against the NOT NULL VARCHAR(200) columns, so a bad operation is
+	 * reported on its own instead of failing the whole batch at flush.
+	 *
+	 * @return why the names are invalid, or null if they are valid
+	 */
+	private static String invalidNames(CustomerBatchOperation operation) {
+		String firstName = operation.getFirstName();
+		String lastName = operation.getLastName();
+		if(firstName == null || lastName == null || firstName.isEmpty() || lastName.isEmpty()) {
+			return "firstName and lastName must not be empty";
+		}
+		if(firstName.length() > CustomerImportService.MAX_NAME_LENGTH || lastName.length() > CustomerImportService.MAX_NAME_LENGTH) {
+			return String.format("firstName and lastName must be at most %d characters", CustomerImportService.MAX_NAME_LENGTH);
+		}
+		return null;
+	}
+
+	private CustomerBatchResult notFoundResult(int index, Long customerId) {
+		return new CustomerBatchResult(index, CustomerBatchResult.Status.NOT_FOUND, customerId,
+				customerId == null ? "Id must not be null. Please provide a valid customer Id." : String.format("No customer found with id: %d", customerId));
+	}
+
+	/**
+	 * Deletes with one statement; a customer that does not exist is reported from the deleted row count.
+	 */
 	@Transactional
-	public Customer deleteCustomer(Long customerId) throws EntityNotFoundException, UnableToDeleteException {
+	@CacheEvict(cacheNames = CUSTOMER_CACHE, key = "#customerId")
+	public void deleteCustomer(Long customerId) throws EntityNotFoundException, UnableToDeleteException {
 
 		if(customerId == null) {
 			throw new UnableToDeleteException("Id must not be null. Please provide a valid customer Id.");
 		}
 
-		Customer existingCustomer = mCustomerRepository
-				.findById(customerId)
-				.orElseThrow(() -> new EntityNotFoundException(String.format("No customer found with id: %d Please try with a valid customer Id.", customerId)));
+		int deletedCount;
 		try {
-			mCustomerRepository.delete(existingCustomer);
-			return existingCustomer;
+			deletedCount = mCustomerRepository.deleteCustomerById(customerId);
 		} catch (Exception exception) {
 			throw new UnableToDeleteException(exception.getMessage());
 		}
+		if(deletedCount == 0) {
+			throw mExpectedErrors.entityNotFound("No customer found with id: " + customerId + " Please try with a valid customer Id.");
+		}
+		mChangeListeners.forEach(listener -> listener.customerDeleted(customerId));
 	}
 }
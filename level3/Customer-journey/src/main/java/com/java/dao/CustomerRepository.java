@@ -1,14 +1,35 @@
 package com.java.dao;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface CustomerRepository extends CrudRepository<Customer, Long> {
+public interface CustomerRepository extends CrudRepository<Customer, Long>, CustomerUpdateRepository, CustomerViewRepository {
 
 	List<Customer> findByLastName(String lastName);
 
 	Customer findById(long id);
+
+	List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	/**
+	 * Reads only the version column, for conditional requests that do not need the customer itself.
+	 */
+	@Query("SELECT c.version FROM Customer c WHERE c.id = :id")
+	Long findVersionById(@Param("id") Long id);
+
+	/**
+	 * Deletes with one statement, without loading the customer first.
+	 *
+	 * @return the number of customers deleted, 0 or 1
+	 */
+	@Modifying
+	@Query("DELETE FROM Customer c WHERE c.id = :id")
+	int deleteCustomerById(@Param("id") long id);
 }
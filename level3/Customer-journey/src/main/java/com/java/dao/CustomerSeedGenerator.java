@@ -0,0 +1,227 @@
+package com.java.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Generates synthetic customers, so local benchmarks and load tests can run against a production-sized table.
+ * Names come from {@link SyntheticNames}, with many duplicate surnames, and are the same for the same random seed.
+ * <p>
+ * The rows are made by the database: the names are written once to two small tables keyed by the upper bound of
+ * their share of the Zipf distribution, then each batch is a single {@code INSERT ... SELECT} over
+ * {@code SYSTEM_RANGE} that takes ids from the sequence and draws the names there, so no row crosses JDBC. Rows
+ * are inserted without change notifications, so they are neither in the outbox nor in the name index until it is
+ * loaded. Updating the secondary indexes of CUSTOMER row by row takes most of the time of such a load in H2, so
+ * when nothing else uses the table during the load they are dropped first and created again from their
+ * definitions at the end, in one sorted pass each. The definitions are saved to a table of their own before the
+ * first index is dropped, and {@link #restoreDroppedIndexes()} creates the indexes saved there again, so a load
+ * that did not finish, as when the process died, does not leave the schema without them. With a
+ * {@link StandaloneCustomerRepository} the customers are drawn in Java and saved through it instead.
+ */
+@Service
+public class CustomerSeedGenerator {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerSeedGenerator.class);
+
+	// the draws are ((row mod DRAW_RANGE) * multiplier + offset) mod DRAW_RANGE, a prime, which visits every value
+	private static final long DRAW_RANGE = Integer.MAX_VALUE;
+	// golden ratio and silver ratio fractions of the range, which spread consecutive draws evenly over it
+	private static final long FIRST_NAME_MULTIPLIER = Math.round(DRAW_RANGE * 0.6180339887498949);
+	private static final long LAST_NAME_MULTIPLIER = Math.round(DRAW_RANGE * 0.4142135623730951);
+	private static final String FIRST_NAME_TABLE = "customer_seed_first_name";
+	private static final String LAST_NAME_TABLE = "customer_seed_last_name";
+	private static final String CREATE_NAME_TABLE = "CREATE TABLE %s (upper_bound INT PRIMARY KEY, name VARCHAR(200) NOT NULL)";
+	// all names of a table in one statement, from two arrays
+	private static final String INSERT_NAMES = "INSERT INTO %s (upper_bound, name) SELECT * FROM TABLE(upper_bound INT = ?, name VARCHAR = ?)";
+	private static final String DROP_TABLE = "DROP TABLE IF EXISTS %s";
+	// the name drawn is the first whose upper bound is above the draw, one seek on the primary key of its table
+	private static final String DRAW_NAME = "(SELECT name FROM %s WHERE upper_bound > MOD(MOD(x, " + DRAW_RANGE + ") * ? + ?, "
+			+ DRAW_RANGE + ") ORDER BY upper_bound LIMIT 1)";
+	private static final String INSERT_CUSTOMERS = "INSERT INTO customer (id, first_name, last_name) SELECT NEXT VALUE FOR hibernate_sequence, "
+			+ String.format(DRAW_NAME, FIRST_NAME_TABLE) + ", " + String.format(DRAW_NAME, LAST_NAME_TABLE) + " FROM SYSTEM_RANGE(?, ?)";
+	private static final String DROPPED_INDEX_TABLE = "customer_seed_dropped_index";
+	private static final String CREATE_DROPPED_INDEX_TABLE = "CREATE TABLE IF NOT EXISTS " + DROPPED_INDEX_TABLE
+			+ " (index_name VARCHAR(200) PRIMARY KEY, sql VARCHAR NOT NULL)";
+	private static final String INSERT_DROPPED_INDEX = "INSERT INTO " + DROPPED_INDEX_TABLE + " (index_name, sql) VALUES (?, ?)";
+	private static final String SELECT_DROPPED_INDEXES = "SELECT index_name, sql FROM " + DROPPED_INDEX_TABLE;
+	private static final String DELETE_DROPPED_INDEX = "DELETE FROM " + DROPPED_INDEX_TABLE + " WHERE index_name = ?";
+	private static final String COUNT_DROPPED_INDEX_TABLES = "SELECT COUNT(*) FROM information_schema.tables "
+			+ "WHERE table_schema = SCHEMA() AND table_name = UPPER('" + DROPPED_INDEX_TABLE + "')";
+	private static final String COUNT_INDEXES = "SELECT COUNT(*) FROM information_schema.indexes "
+			+ "WHERE table_schema = SCHEMA() AND table_name = 'CUSTOMER' AND index_name = ?";
+	private static final String SELECT_SECONDARY_INDEXES = "SELECT DISTINCT index_name, sql FROM information_schema.indexes "
+			+ "WHERE table_schema = SCHEMA() AND table_name = 'CUSTOMER' AND primary_key = FALSE AND constraint_name IS NULL";
+	private static final int PROGRESS_STEPS = 10;
+
+	private final JdbcTemplate mJdbcTemplate;
+	private final TransactionTemplate mTransactionTemplate;
+	private final int mBatchSize;
+	private final long mRandomSeed;
+	private final StandaloneCustomerRepository mStandaloneRepository;
+
+	public CustomerSeedGenerator(DataSource dataSource, PlatformTransactionManager transactionManager, int batchSize, long randomSeed) {
+		this(dataSource, transactionManager, batchSize, randomSeed, (StandaloneCustomerRepository) null);
+	}
+
+	@Autowired
+	public CustomerSeedGenerator(DataSource dataSource, PlatformTransactionManager transactionManager,
+								 @Value("${app.seed.batch-size:10000}") int batchSize,
+								 @Value("${app.seed.random-seed:42}") long randomSeed,
+								 ObjectProvider<StandaloneCustomerRepository> standaloneRepository) {
+		this(dataSource, transactionManager, batchSize, randomSeed, standaloneRepository.getIfAvailable());
+	}
+
+	/**
+	 * @param standaloneRepository the repository customers are then generated into instead of the database, or null
+	 */
+	public CustomerSeedGenerator(DataSource dataSource, PlatformTransactionManager transactionManager, int batchSize,
+								 long randomSeed, StandaloneCustomerRepository standaloneRepository) {
+		this.mJdbcTemplate = new JdbcTemplate(dataSource);
+		this.mTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.mBatchSize = batchSize;
+		this.mRandomSeed = randomSeed;
+		this.mStandaloneRepository = standaloneRepository;
+	}
+
+	/**
+	 * Inserts {@code count} generated customers, logging the progress every tenth of them.
+	 *
+	 * @param exclusive whether nothing else reads or writes CUSTOMER until this returns, as before the web server
+	 *                  starts; only then are the secondary indexes dropped for the load
+	 * @return the number of customers inserted
+	 */
+	public long generate(long count, boolean exclusive) {
+		SyntheticNames names = new SyntheticNames(mRandomSeed);
+		long startedAt = System.nanoTime();
+		long progressStep = Math.max(mBatchSize, count / PROGRESS_STEPS);
+		long nextProgress = progressStep;
+		long generated = 0;
+		if(mStandaloneRepository == null) {
+			createNameTables(names);
+		}
+		// where the draws of this seed start, so another seed draws other names
+		SplittableRandom offsets = new SplittableRandom(mRandomSeed);
+		long firstNameOffset = offsets.nextLong(DRAW_RANGE);
+		long lastNameOffset = offsets.nextLong(DRAW_RANGE);
+		boolean dropIndexes = exclusive && mStandaloneRepository == null;
+		if(dropIndexes) {
+			dropSecondaryIndexes();
+		}
+		try {
+			while(generated < count) {
+				int batch = (int) Math.min(mBatchSize, count - generated);
+				if(mStandaloneRepository != null) {
+					insertBatchStandalone(names, batch);
+				} else {
+					insertBatch(generated, batch, firstNameOffset, lastNameOffset);
+				}
+				generated += batch;
+				if(generated >= nextProgress && generated < count) {
+					logger.info("Generated {} of {} customers, {} per second", generated, count, perSecond(generated, startedAt));
+					nextProgress += progressStep;
+				}
+			}
+		} finally {
+			if(mStandaloneRepository == null) {
+				mJdbcTemplate.execute(String.format(DROP_TABLE, FIRST_NAME_TABLE));
+				mJdbcTemplate.execute(String.format(DROP_TABLE, LAST_NAME_TABLE));
+			}
+			if(dropIndexes) {
+				restoreDroppedIndexes();
+			}
+		}
+		logger.info("Generated {} customers in {} ms, {} per second", generated,
+				(System.nanoTime() - startedAt) / 1_000_000, perSecond(generated, startedAt));
+		return generated;
+	}
+
+	/**
+	 * Creates the indexes of CUSTOMER that a load dropped again, from the definitions it saved, and drops the table
+	 * they were saved in. Each definition is deleted once its index exists, so this can be repeated after it failed.
+	 *
+	 * @return the number of indexes created
+	 */
+	public int restoreDroppedIndexes() {
+		if(mJdbcTemplate.queryForObject(COUNT_DROPPED_INDEX_TABLES, Long.class) == 0) {
+			return 0;
+		}
+		long startedAt = System.nanoTime();
+		int created = 0;
+		List<String[]> droppedIndexes = mJdbcTemplate.query(SELECT_DROPPED_INDEXES,
+				(resultSet, rowNumber) -> new String[]{resultSet.getString(1), resultSet.getString(2)});
+		for(String[] droppedIndex : droppedIndexes) {
+			if(mJdbcTemplate.queryForObject(COUNT_INDEXES, Long.class, droppedIndex[0]) == 0) {
+				mJdbcTemplate.execute(droppedIndex[1]);
+				created++;
+			}
+			mJdbcTemplate.update(DELETE_DROPPED_INDEX, droppedIndex[0]);
+		}
+		mJdbcTemplate.execute(String.format(DROP_TABLE, DROPPED_INDEX_TABLE));
+		logger.info("Created {} customer indexes again in {} ms", created, (System.nanoTime() - startedAt) / 1_000_000);
+		return created;
+	}
+
+	/**
+	 * Saves the definitions of the secondary indexes of CUSTOMER, then drops the indexes.
+	 */
+	private void dropSecondaryIndexes() {
+		// an earlier load that did not finish left its indexes to create first
+		restoreDroppedIndexes();
+		List<String[]> indexes = mJdbcTemplate.query(SELECT_SECONDARY_INDEXES,
+				(resultSet, rowNumber) -> new String[]{resultSet.getString(1), resultSet.getString(2)});
+		mJdbcTemplate.execute(CREATE_DROPPED_INDEX_TABLE);
+		mJdbcTemplate.batchUpdate(INSERT_DROPPED_INDEX, indexes.stream().map(index -> (Object[]) index).collect(Collectors.toList()));
+		for(String[] index : indexes) {
+			mJdbcTemplate.execute(String.format("DROP INDEX \"%s\"", index[0]));
+		}
+	}
+
+	private void createNameTables(SyntheticNames names) {
+		createNameTable(FIRST_NAME_TABLE, names.getFirstNames(), names.getFirstNameCdf());
+		createNameTable(LAST_NAME_TABLE, names.getLastNames(), names.getLastNameCdf());
+	}
+
+	/**
+	 * Writes each name with the upper bound of the draws that pick it, its cumulative probability scaled to
+	 * {@link #DRAW_RANGE}; the last name of the table takes every draw left.
+	 */
+	private void createNameTable(String table, String[] names, double[] cdf) {
+		mJdbcTemplate.execute(String.format(DROP_TABLE, table));
+		mJdbcTemplate.execute(String.format(CREATE_NAME_TABLE, table));
+		Integer[] upperBounds = new Integer[names.length];
+		for(int rank = 0; rank < names.length; rank++) {
+			upperBounds[rank] = rank == names.length - 1 ? (int) DRAW_RANGE : (int) Math.round(cdf[rank] * DRAW_RANGE);
+		}
+		mJdbcTemplate.update(String.format(INSERT_NAMES, table), upperBounds, names);
+	}
+
+	private void insertBatch(long generated, int batch, long firstNameOffset, long lastNameOffset) {
+		mTransactionTemplate.executeWithoutResult(status -> mJdbcTemplate.update(INSERT_CUSTOMERS,
+				FIRST_NAME_MULTIPLIER, firstNameOffset, LAST_NAME_MULTIPLIER, lastNameOffset, generated + 1, generated + batch));
+	}
+
+	private void insertBatchStandalone(SyntheticNames names, int batch) {
+		List<Customer> customers = new ArrayList<>(batch);
+		for(int i = 0; i < batch; i++) {
+			customers.add(new Customer(names.nextFirstName(), names.nextLastName()));
+		}
+		mStandaloneRepository.saveAll(customers);
+	}
+
+	private static long perSecond(long generated, long startedAt) {
+		return generated * 1_000_000_000L / Math.max(1, System.nanoTime() - startedAt);
+	}
+}
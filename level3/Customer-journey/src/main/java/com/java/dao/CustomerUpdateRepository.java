@@ -0,0 +1,21 @@
+package com.java.dao;
+
+import java.util.Set;
+
+/**
+ * Single-statement writes for {@link CustomerRepository}, which need the JDBC generated keys API that Spring Data
+ * queries cannot express.
+ */
+public interface CustomerUpdateRepository {
+
+	/**
+	 * Sets the given columns and increments the version with one UPDATE statement that also returns the updated
+	 * row, so neither a read before the write nor one after it is needed. Columns given as null keep their value.
+	 *
+	 * @param firstName        new first name, or null to keep it
+	 * @param lastName         new last name, or null to keep it
+	 * @param expectedVersions versions the customer must be at, or null to update whatever the current version
+	 * @return the customer as updated, or null when no customer has this id at one of the expected versions
+	 */
+	Customer updateColumns(long customerId, String firstName, String lastName, Set<Long> expectedVersions);
+}
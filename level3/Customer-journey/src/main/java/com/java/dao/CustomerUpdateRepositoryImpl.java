@@ -0,0 +1,27 @@
+package com.java.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Set;
+
+/**
+ * JDBC implementation of {@link CustomerUpdateRepository}, picked up by Spring Data as a fragment of
+ * {@link CustomerRepository}. The {@link CustomerUpdateStatement} runs on the connection of the surrounding JPA
+ * transaction.
+ */
+public class CustomerUpdateRepositoryImpl implements CustomerUpdateRepository {
+
+	private final JdbcTemplate mJdbcTemplate;
+
+	@Autowired
+	public CustomerUpdateRepositoryImpl(DataSource dataSource) {
+		this.mJdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@Override
+	public Customer updateColumns(long customerId, String firstName, String lastName, Set<Long> expectedVersions) {
+		return CustomerUpdateStatement.execute(mJdbcTemplate, customerId, firstName, lastName, expectedVersions);
+	}
+}
@@ -0,0 +1,75 @@
+package com.java.dao;
+
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+
+/**
+ * The single UPDATE that sets the names given and increments the version of a customer, for
+ * {@link CustomerUpdateRepositoryImpl} on the database and {@link ShardedCustomerRepository} on the shard of the
+ * customer.
+ * <p>
+ * The updated row comes back through {@link java.sql.Statement#getGeneratedKeys()} on the UPDATE itself, which
+ * H2 answers with the new column values and PostgreSQL with an appended RETURNING clause.
+ */
+final class CustomerUpdateStatement {
+
+	private static final String[] RETURNED_COLUMNS = {"version", "first_name", "last_name"};
+
+	private CustomerUpdateStatement() {
+	}
+
+	/**
+	 * @param firstName        new first name, or null to keep it
+	 * @param lastName         new last name, or null to keep it
+	 * @param expectedVersions versions the customer must be at, or null to update whatever the current version
+	 * @return the customer as updated, or null when there is none with this id at one of the expected versions
+	 */
+	static Customer execute(JdbcOperations jdbcOperations, long customerId, String firstName, String lastName,
+							Collection<Long> expectedVersions) {
+		if(expectedVersions != null && expectedVersions.isEmpty()) {
+			return null;
+		}
+		Object[] parameters = new Object[3 + (expectedVersions == null ? 0 : expectedVersions.size())];
+		int parameterCount = 0;
+		StringBuilder sql = new StringBuilder("UPDATE customer SET ");
+		if(firstName != null) {
+			sql.append("first_name = ?, ");
+			parameters[parameterCount++] = firstName;
+		}
+		if(lastName != null) {
+			sql.append("last_name = ?, ");
+			parameters[parameterCount++] = lastName;
+		}
+		sql.append("version = version + 1 WHERE id = ?");
+		parameters[parameterCount++] = customerId;
+		if(expectedVersions != null) {
+			sql.append(" AND version IN (");
+			String separator = "";
+			for(Long expectedVersion : expectedVersions) {
+				sql.append(separator).append('?');
+				separator = ", ";
+				parameters[parameterCount++] = expectedVersion;
+			}
+			sql.append(')');
+		}
+		int boundParameters = parameterCount;
+		return jdbcOperations.execute(connection -> connection.prepareStatement(sql.toString(), RETURNED_COLUMNS), (PreparedStatement statement) -> {
+			for(int index = 0; index < boundParameters; index++) {
+				statement.setObject(index + 1, parameters[index]);
+			}
+			if(statement.executeUpdate() == 0) {
+				return null;
+			}
+			try (ResultSet updatedRow = statement.getGeneratedKeys()) {
+				if(!updatedRow.next()) {
+					throw new IncorrectUpdateSemanticsDataAccessException(String.format("Customer with id: %d was updated but not returned by the database", customerId));
+				}
+				return new Customer(customerId, updatedRow.getString(2), updatedRow.getString(3), updatedRow.getLong(1));
+			}
+		});
+	}
+}
@@ -0,0 +1,67 @@
+package com.java.dao;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Read-only projection of a customer row, for list and search responses. It is built straight from the JDBC
+ * row, so no entity is hydrated, snapshotted for dirty checking or kept in the persistence context, and it is
+ * written to JSON field by field, with the same properties as {@link Customer}, instead of through reflection.
+ */
+@JsonSerialize(using = CustomerView.Serializer.class)
+public final class CustomerView {
+
+	private final long id;
+	private final String firstName;
+	private final String lastName;
+	private final long version;
+
+	public CustomerView(long id, String firstName, String lastName, long version) {
+		this.id = id;
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.version = version;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CustomerView[id=%d, firstName='%s', lastName='%s']", id, firstName, lastName);
+	}
+
+	static final class Serializer extends StdSerializer<CustomerView> {
+
+		Serializer() {
+			super(CustomerView.class);
+		}
+
+		@Override
+		public void serialize(CustomerView customer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeStartObject(customer);
+			generator.writeNumberField("id", customer.id);
+			generator.writeStringField("firstName", customer.firstName);
+			generator.writeStringField("lastName", customer.lastName);
+			generator.writeNumberField("version", customer.version);
+			generator.writeEndObject();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.java.dao;
+
+import java.util.List;
+
+/**
+ * Projection reads for {@link CustomerRepository}, returning {@link CustomerView} rows rather than managed
+ * entities for responses that only serialize them.
+ */
+public interface CustomerViewRepository {
+
+	/**
+	 * @return every customer, in id order
+	 */
+	List<CustomerView> findAllViews();
+
+	/**
+	 * Exact, case-sensitive match like {@link CustomerRepository#findByLastName(String)}.
+	 *
+	 * @return the customers with this last name, in id order
+	 */
+	List<CustomerView> findViewsByLastName(String lastName);
+
+	/**
+	 * @return at most {@code limit} customers with an id greater than {@code after}, in id order
+	 */
+	List<CustomerView> findViewsAfter(long after, int limit);
+
+	/**
+	 * Case-insensitive exact match on last name, paged by id.
+	 *
+	 * @return at most {@code limit} matching customers with an id greater than {@code after}, in id order
+	 */
+	List<CustomerView> findViewsByLastNameIgnoreCase(String lastName, long after, int limit);
+
+	/**
+	 * Case-insensitive LIKE match on last name, paged on (lower-cased last name, id) after the given position.
+	 *
+	 * @param pattern            LIKE pattern, with backslash as escape
+	 * @param afterLastNameLower lower-cased last name of the last customer of the previous page, "" for the first
+	 * @return at most {@code limit} matching customers after the position, in order of lower-cased last name and id
+	 */
+	List<CustomerView> findViewsByLastNameLikeIgnoreCase(String pattern, String afterLastNameLower, long after, int limit);
+}
@@ -0,0 +1,63 @@
+package com.java.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link CustomerViewRepository}, picked up by Spring Data as a fragment of
+ * {@link CustomerRepository}. Statements run on the connection of the surrounding JPA transaction, without
+ * going through the persistence context.
+ */
+public class CustomerViewRepositoryImpl implements CustomerViewRepository {
+
+	private static final String SELECT_ALL_CUSTOMERS = "SELECT id, first_name, last_name, version FROM customer ORDER BY id";
+	// the last_name_lower condition lets idx_customer_last_name_lower find the rows, already in id order
+	private static final String SELECT_CUSTOMERS_BY_LAST_NAME = "SELECT id, first_name, last_name, version FROM customer "
+			+ "WHERE last_name_lower = LOWER(?) AND last_name = ? ORDER BY id";
+	private static final String SELECT_CUSTOMERS_AFTER = "SELECT id, first_name, last_name, version FROM customer "
+			+ "WHERE id > ? ORDER BY id LIMIT ?";
+	// both backed by idx_customer_last_name_lower, the LIKE one as a range scan from the cursor that needs no sort
+	private static final String SELECT_CUSTOMERS_BY_LAST_NAME_LOWER = "SELECT id, first_name, last_name, version FROM customer "
+			+ "WHERE last_name_lower = LOWER(?) AND id > ? ORDER BY id LIMIT ?";
+	private static final String SELECT_CUSTOMERS_BY_LAST_NAME_LIKE = "SELECT id, first_name, last_name, version FROM customer "
+			+ "WHERE last_name_lower LIKE LOWER(?) ESCAPE '\\' AND last_name_lower >= ? AND (last_name_lower > ? OR id > ?) "
+			+ "ORDER BY last_name_lower, id LIMIT ?";
+	private static final RowMapper<CustomerView> TO_VIEW = (resultSet, rowNum) ->
+			new CustomerView(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getLong(4));
+
+	private final JdbcTemplate mJdbcTemplate;
+
+	@Autowired
+	public CustomerViewRepositoryImpl(DataSource dataSource) {
+		this.mJdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@Override
+	public List<CustomerView> findAllViews() {
+		return mJdbcTemplate.query(SELECT_ALL_CUSTOMERS, TO_VIEW);
+	}
+
+	@Override
+	public List<CustomerView> findViewsByLastName(String lastName) {
+		return mJdbcTemplate.query(SELECT_CUSTOMERS_BY_LAST_NAME, TO_VIEW, lastName, lastName);
+	}
+
+	@Override
+	public List<CustomerView> findViewsAfter(long after, int limit) {
+		return mJdbcTemplate.query(SELECT_CUSTOMERS_AFTER, TO_VIEW, after, limit);
+	}
+
+	@Override
+	public List<CustomerView> findViewsByLastNameIgnoreCase(String lastName, long after, int limit) {
+		return mJdbcTemplate.query(SELECT_CUSTOMERS_BY_LAST_NAME_LOWER, TO_VIEW, lastName, after, limit);
+	}
+
+	@Override
+	public List<CustomerView> findViewsByLastNameLikeIgnoreCase(String pattern, String afterLastNameLower, long after, int limit) {
+		return mJdbcTemplate.query(SELECT_CUSTOMERS_BY_LAST_NAME_LIKE, TO_VIEW, pattern, afterLastNameLower, afterLastNameLower, after, limit);
+	}
+}
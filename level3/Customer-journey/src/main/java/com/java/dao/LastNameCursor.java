@@ -0,0 +1,53 @@
+package com.java.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Where a last name search page ended: the lower-cased last name and the id of its last customer, handed to the
+ * client as an opaque token. The next page seeks from these values rather than from the row, so it continues at the
+ * same place whether that customer has since been renamed, deleted or left alone.
+ */
+final class LastNameCursor {
+
+	private final String lastNameLower;
+	private final long id;
+
+	private LastNameCursor(String lastNameLower, long id) {
+		this.lastNameLower = lastNameLower;
+		this.id = id;
+	}
+
+	/**
+	 * The cursor after this customer, lower-casing the name like the last_name_lower column does.
+	 */
+	static LastNameCursor after(CustomerView customer) {
+		return new LastNameCursor(customer.getLastName().toLowerCase(Locale.ROOT), customer.getId());
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the token was not made by {@link #toToken()}
+	 */
+	static LastNameCursor of(String token) {
+		String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		// the id comes first, a last name may contain the separator
+		int separator = decoded.indexOf(':');
+		if(separator < 0) {
+			throw new IllegalArgumentException("No separator in cursor " + token);
+		}
+		return new LastNameCursor(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+	}
+
+	String toToken() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString((id + ":" + lastNameLower).getBytes(StandardCharsets.UTF_8));
+	}
+
+	String getLastNameLower() {
+		return lastNameLower;
+	}
+
+	long getId() {
+		return id;
+	}
+}
@@ -0,0 +1,182 @@
+package com.java.dao;
+
+import com.java.offheap.OffHeapCustomerStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link CustomerRepository} kept in an {@link OffHeapCustomerStore} instead of the database, for read-heavy nodes
+ * whose customers would otherwise need a heap of many gigabytes. Active with the {@code offheap} profile, where it
+ * takes the place of the JPA repository for {@link CustomerRepoService} and everything else that injects a
+ * {@link CustomerRepository}; {@link CustomerImportService} and {@link CustomerExportService} also use it then.
+ * <p>
+ * Writes apply at once and are not part of the surrounding transaction: a rollback does not undo them. Saving a
+ * customer with a version checks it as {@code @Version} would, and every update increments it. The customers are
+ * lost when the application stops, like those of the in-memory database.
+ */
+@Repository
+@Primary
+@Profile("offheap")
+public class OffHeapCustomerRepository extends AbstractStandaloneCustomerRepository {
+
+	private static final OffHeapCustomerStore.RecordMapper<Customer> TO_CUSTOMER = Customer::new;
+	private static final OffHeapCustomerStore.RecordMapper<CustomerView> TO_VIEW = CustomerView::new;
+
+	private final OffHeapCustomerStore mStore;
+
+	@Autowired
+	public OffHeapCustomerRepository(@Value("${app.offheap.slab-size:64MB}") DataSize slabSize, ObjectProvider<MeterRegistry> meterRegistry) {
+		this(new OffHeapCustomerStore(Math.toIntExact(slabSize.toBytes())), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+	}
+
+	public OffHeapCustomerRepository(OffHeapCustomerStore store, MeterRegistry meterRegistry) {
+		super(customers(store));
+		this.mStore = store;
+		Gauge.builder("customer.offheap.memory", store, OffHeapCustomerStore::getReservedBytes)
+				.description("Bytes reserved outside the heap by the customer store")
+				.baseUnit("bytes")
+				.tag("area", "reserved")
+				.register(meterRegistry);
+		Gauge.builder("customer.offheap.memory", store, OffHeapCustomerStore::getRecordBytes)
+				.description("Bytes taken by the records of stored customers")
+				.baseUnit("bytes")
+				.tag("area", "records")
+				.register(meterRegistry);
+		Gauge.builder("customer.offheap.customers", store, OffHeapCustomerStore::count)
+				.description("Customers in the off-heap store")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public Iterable<Customer> findAllById(Iterable<Long> ids) {
+		List<Customer> customers = new ArrayList<>();
+		for(Long id : ids) {
+			Customer customer = id == null ? null : mStore.get(id, TO_CUSTOMER);
+			if(customer != null) {
+				customers.add(customer);
+			}
+		}
+		return customers;
+	}
+
+	@Override
+	public List<Customer> findByLastName(String lastName) {
+		List<Customer> customers = mStore.findByLastNameLower(lower(lastName), 0, Integer.MAX_VALUE, TO_CUSTOMER);
+		customers.removeIf(customer -> !customer.getLastName().equals(lastName));
+		return customers;
+	}
+
+	@Override
+	public List<CustomerView> findAllViews() {
+		return mStore.pageById(0, Integer.MAX_VALUE, TO_VIEW);
+	}
+
+	@Override
+	public List<CustomerView> findViewsByLastName(String lastName) {
+		List<CustomerView> customers = mStore.findByLastNameLower(lower(lastName), 0, Integer.MAX_VALUE, TO_VIEW);
+		customers.removeIf(customer -> !customer.getLastName().equals(lastName));
+		return customers;
+	}
+
+	@Override
+	public List<CustomerView> findViewsAfter(long after, int limit) {
+		return mStore.pageById(after, limit, TO_VIEW);
+	}
+
+	@Override
+	public List<CustomerView> findViewsByLastNameIgnoreCase(String lastName, long after, int limit) {
+		return mStore.findByLastNameLower(lower(lastName), after, limit, TO_VIEW);
+	}
+
+	/**
+	 * Supports the patterns {@link CustomerRepoService} builds, an escaped prefix followed by {@code %}.
+	 */
+	@Override
+	public List<CustomerView> findViewsByLastNameLikeIgnoreCase(String pattern, String afterLastNameLower, long after, int limit) {
+		return mStore.findByLastNamePrefix(lower(prefixOf(pattern)), afterLastNameLower, after, limit, TO_VIEW);
+	}
+
+	private static CustomerStore customers(OffHeapCustomerStore store) {
+		return new CustomerStore() {
+			@Override
+			public Customer get(long id) {
+				return store.get(id, TO_CUSTOMER);
+			}
+
+			@Override
+			public boolean contains(long id) {
+				return store.contains(id);
+			}
+
+			@Override
+			public Long getVersion(long id) {
+				return store.getVersion(id);
+			}
+
+			@Override
+			public List<Customer> pageById(long after, int limit) {
+				return store.pageById(after, limit, TO_CUSTOMER);
+			}
+
+			@Override
+			public long count() {
+				return store.count();
+			}
+
+			@Override
+			public Customer insert(String firstName, String lastName) {
+				return store.insert(firstName, lastName, TO_CUSTOMER);
+			}
+
+			@Override
+			public Customer update(long id, String firstName, String lastName, Collection<Long> expectedVersions) {
+				return store.update(id, firstName, lastName, expectedVersions, TO_CUSTOMER);
+			}
+
+			@Override
+			public boolean delete(long id) {
+				return store.delete(id);
+			}
+
+			@Override
+			public void clear() {
+				store.clear();
+			}
+		};
+	}
+
+	private static String prefixOf(String pattern) {
+		if(!pattern.endsWith("%")) {
+			throw new InvalidDataAccessApiUsageException("Only prefix patterns ending with % are supported, not: " + pattern);
+		}
+		StringBuilder prefix = new StringBuilder(pattern.length());
+		for(int index = 0; index < pattern.length() - 1; index++) {
+			char character = pattern.charAt(index);
+			if(character == '\\' && index + 1 < pattern.length() - 1) {
+				character = pattern.charAt(++index);
+			} else if(character == '%' || character == '_') {
+				throw new InvalidDataAccessApiUsageException("Only prefix patterns ending with % are supported, not: " + pattern);
+			}
+			prefix.append(character);
+		}
+		return prefix.toString();
+	}
+
+	private static String lower(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+}
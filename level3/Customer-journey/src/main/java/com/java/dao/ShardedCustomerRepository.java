@@ -0,0 +1,129 @@
+package com.java.dao;
+
+import com.java.shard.ShardedCustomerStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link CustomerRepository} over a {@link ShardedCustomerStore}, the customers spread by id over the databases
+ * of {@code app.sharding.urls}. Active with the {@code sharded} profile, where it takes the place of the JPA
+ * repository for {@link CustomerRepoService} and everything else that injects a {@link CustomerRepository}.
+ * <p>
+ * Writes go to the shard in auto-commit and are not part of the surrounding transaction, so a rollback does not
+ * undo them and a batch touching several shards is not atomic. Saving a customer with a version checks it as
+ * {@code @Version} would, and every update increments it. {@code findAll}, {@code findByLastName} and the paged
+ * queries read all shards in parallel and merge their results in order.
+ */
+@Repository
+@Primary
+@Profile("sharded")
+public class ShardedCustomerRepository extends AbstractStandaloneCustomerRepository {
+
+	private static final ShardedCustomerStore.RecordMapper<Customer> TO_CUSTOMER = Customer::new;
+	private static final ShardedCustomerStore.RecordMapper<CustomerView> TO_VIEW = CustomerView::new;
+
+	private final ShardedCustomerStore mStore;
+
+	@Autowired
+	public ShardedCustomerRepository(ShardedCustomerStore store) {
+		super(customers(store));
+		this.mStore = store;
+	}
+
+	@Override
+	public Iterable<Customer> findAllById(Iterable<Long> ids) {
+		List<Long> idList = new ArrayList<>();
+		for(Long id : ids) {
+			if(id != null) {
+				idList.add(id);
+			}
+		}
+		return mStore.getAll(idList, TO_CUSTOMER);
+	}
+
+	@Override
+	public List<Customer> findByLastName(String lastName) {
+		return mStore.findByLastName(lastName, TO_CUSTOMER);
+	}
+
+	@Override
+	public List<CustomerView> findAllViews() {
+		return mStore.pageById(0, Integer.MAX_VALUE, TO_VIEW);
+	}
+
+	@Override
+	public List<CustomerView> findViewsByLastName(String lastName) {
+		return mStore.findByLastName(lastName, TO_VIEW);
+	}
+
+	@Override
+	public List<CustomerView> findViewsAfter(long after, int limit) {
+		return mStore.pageById(after, limit, TO_VIEW);
+	}
+
+	@Override
+	public List<CustomerView> findViewsByLastNameIgnoreCase(String lastName, long after, int limit) {
+		return mStore.findByLastNameLower(lastName.toLowerCase(Locale.ROOT), after, limit, TO_VIEW);
+	}
+
+	@Override
+	public List<CustomerView> findViewsByLastNameLikeIgnoreCase(String pattern, String afterLastNameLower, long after, int limit) {
+		return mStore.findByLastNameLike(pattern, afterLastNameLower, after, limit, TO_VIEW);
+	}
+
+	private static CustomerStore customers(ShardedCustomerStore store) {
+		return new CustomerStore() {
+			@Override
+			public Customer get(long id) {
+				return store.get(id, TO_CUSTOMER);
+			}
+
+			@Override
+			public boolean contains(long id) {
+				return store.contains(id);
+			}
+
+			@Override
+			public Long getVersion(long id) {
+				return store.getVersion(id);
+			}
+
+			@Override
+			public List<Customer> pageById(long after, int limit) {
+				return store.pageById(after, limit, TO_CUSTOMER);
+			}
+
+			@Override
+			public long count() {
+				return store.count();
+			}
+
+			@Override
+			public Customer insert(String firstName, String lastName) {
+				return store.insert(firstName, lastName, TO_CUSTOMER);
+			}
+
+			@Override
+			public Customer update(long id, String firstName, String lastName, Collection<Long> expectedVersions) {
+				return store.onShardOf(id, shard -> CustomerUpdateStatement.execute(shard, id, firstName, lastName, expectedVersions));
+			}
+
+			@Override
+			public boolean delete(long id) {
+				return store.delete(id);
+			}
+
+			@Override
+			public void clear() {
+				store.clear();
+			}
+		};
+	}
+}
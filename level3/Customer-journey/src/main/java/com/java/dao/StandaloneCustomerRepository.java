@@ -0,0 +1,12 @@
+package com.java.dao;
+
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * {@link CustomerRepository} that keeps its customers somewhere other than the CUSTOMER table of the application's
+ * database, such as {@link OffHeapCustomerRepository} and {@link ShardedCustomerRepository}. When one is active,
+ * {@link CustomerImportService} and {@link CustomerExportService} go through it rather than through JDBC.
+ */
+@NoRepositoryBean
+public interface StandaloneCustomerRepository extends CustomerRepository {
+}
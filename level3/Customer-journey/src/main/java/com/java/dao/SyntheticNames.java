@@ -0,0 +1,109 @@
+package com.java.dao;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws first and last names from Zipf distributions, so a few surnames are shared by a large part of the
+ * customers and most by very few, as in real data. The most frequent names are common real ones, the long tail
+ * is built from syllables. The names drawn only depend on the random seed.
+ * <p>
+ * The names and their cumulative probabilities, in rank order, are also handed out as they are, for a generator
+ * that draws them itself, and must not be modified.
+ */
+final class SyntheticNames {
+
+	static final int LAST_NAMES = 100_000;
+	static final int FIRST_NAMES = 5_000;
+
+	private static final double ZIPF_EXPONENT = 1.0;
+
+	private static final String[] COMMON_LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+			"Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+			"Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark",
+			"Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen",
+			"Hill", "Flores", "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter", "Roberts"};
+	private static final String[] COMMON_FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer",
+			"Michael", "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+			"Thomas", "Sarah", "Charles", "Karen", "Christopher", "Lisa", "Daniel", "Nancy", "Matthew", "Betty"};
+	private static final String[] CONSONANTS = {"b", "c", "d", "f", "g", "h", "j", "k", "l", "m", "n", "p", "r", "s", "t", "v", "w", "z"};
+	private static final String[] VOWELS = {"a", "e", "i", "o", "u"};
+	private static final String[] LAST_NAME_ENDINGS = {"son", "man", "er", "ez", "ski", "ov", "ini", "ard", "ley", "ton",
+			"berg", "ford", "well", "ing", "ova", "es"};
+	private static final String[] FIRST_NAME_ENDINGS = {"a", "o", "en", "ie", "an", "el", "is", "us"};
+
+	private final SplittableRandom mRandom;
+	private final String[] mLastNames = names(LAST_NAMES, COMMON_LAST_NAMES, LAST_NAME_ENDINGS);
+	private final String[] mFirstNames = names(FIRST_NAMES, COMMON_FIRST_NAMES, FIRST_NAME_ENDINGS);
+	private final double[] mLastNameCdf = zipfCdf(LAST_NAMES);
+	private final double[] mFirstNameCdf = zipfCdf(FIRST_NAMES);
+
+	SyntheticNames(long randomSeed) {
+		this.mRandom = new SplittableRandom(randomSeed);
+	}
+
+	String nextFirstName() {
+		return mFirstNames[rank(mFirstNameCdf)];
+	}
+
+	String nextLastName() {
+		return mLastNames[rank(mLastNameCdf)];
+	}
+
+	String[] getFirstNames() {
+		return mFirstNames;
+	}
+
+	double[] getFirstNameCdf() {
+		return mFirstNameCdf;
+	}
+
+	String[] getLastNames() {
+		return mLastNames;
+	}
+
+	double[] getLastNameCdf() {
+		return mLastNameCdf;
+	}
+
+	private int rank(double[] cdf) {
+		int rank = Arrays.binarySearch(cdf, mRandom.nextDouble());
+		return Math.min(rank < 0 ? -rank - 1 : rank, cdf.length - 1);
+	}
+
+	/**
+	 * The name of rank {@code i}: the common names first, then two syllables and an ending picked by the digits
+	 * of {@code i} in mixed radix, which keeps them distinct.
+	 */
+	private static String[] names(int count, String[] common, String[] endings) {
+		int syllables = CONSONANTS.length * VOWELS.length;
+		if((long) syllables * syllables * endings.length < count) {
+			throw new IllegalArgumentException("Not enough syllables for " + count + " names");
+		}
+		String[] names = Arrays.copyOf(common, count);
+		for(int i = common.length; i < count; i++) {
+			int first = i % syllables;
+			int second = (i / syllables) % syllables;
+			String name = syllable(first) + syllable(second) + endings[i / syllables / syllables];
+			names[i] = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		}
+		return names;
+	}
+
+	private static String syllable(int index) {
+		return CONSONANTS[index / VOWELS.length] + VOWELS[index % VOWELS.length];
+	}
+
+	private static double[] zipfCdf(int count) {
+		double[] cdf = new double[count];
+		double total = 0;
+		for(int rank = 0; rank < count; rank++) {
+			total += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+			cdf[rank] = total;
+		}
+		for(int rank = 0; rank < count; rank++) {
+			cdf[rank] /= total;
+		}
+		return cdf;
+	}
+}
@@ -0,0 +1,119 @@
+package com.java.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Sends the connections of read-only transactions to a replica and all others to the primary.
+ * <p>
+ * The decision is made when the connection is taken, from the transaction Spring has started on the thread, so
+ * this data source must sit behind a {@link LazyConnectionDataSourceProxy}: transaction managers take their
+ * connection before they mark the transaction read-only, the proxy holds off until the first statement. Reads
+ * outside of a transaction go to the primary.
+ * <p>
+ * A read-only transaction still goes to the primary when its client is pinned by {@link ReadYourWrites}, which
+ * happens when a transaction of that client commits on the primary after changing rows, or when the replica is
+ * unavailable. The replica is taken as unavailable when it fails to give a connection; reads then stay on the
+ * primary until the retry interval has passed, after which reads try the replica again.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource mPrimary;
+    private final DataSource mReplica;
+    private final ReadYourWrites mReadYourWrites;
+    private final long mRetryIntervalNanos;
+    // System.nanoTime() before which reads skip the replica, 0 while it is available
+    private volatile long mReplicaRetryAt;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites, Duration retryInterval) {
+        this.mPrimary = primary;
+        this.mReplica = replica;
+        this.mReadYourWrites = readYourWrites;
+        this.mRetryIntervalNanos = retryInterval.toNanos();
+    }
+
+    public boolean isReplicaAvailable() {
+        return mReplicaRetryAt == 0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionFactory factory) throws SQLException {
+        if (!useReplica()) {
+            return pinOnWrite(factory.connect(mPrimary));
+        }
+        Connection connection;
+        try {
+            connection = factory.connect(mReplica);
+        } catch (SQLException exception) {
+            mReplicaRetryAt = Math.max(System.nanoTime() + mRetryIntervalNanos, 1);
+            logger.warn("The replica is unavailable, reading from the primary for the next {} ms: {}",
+                    Duration.ofNanos(mRetryIntervalNanos).toMillis(), exception.getMessage());
+            return factory.connect(mPrimary);
+        }
+        if (mReplicaRetryAt != 0) {
+            mReplicaRetryAt = 0;
+            logger.info("The replica is available again");
+        }
+        return connection;
+    }
+
+    private boolean useReplica() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        if (mReadYourWrites.isPinned(ReadYourWrites.currentClient())) {
+            return false;
+        }
+        long retryAt = mReplicaRetryAt;
+        return retryAt == 0 || System.nanoTime() - retryAt >= 0;
+    }
+
+    /**
+     * Pins the client once the read-write transaction the connection is taken for commits, if its statements
+     * changed any row: a read-write transaction that only read leaves the client's reads on the replica.
+     */
+    private Connection pinOnWrite(Connection connection) {
+        String client = ReadYourWrites.currentClient();
+        if (client == null || !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return connection;
+        }
+        WriteTracker writes = new WriteTracker();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (writes.hasWritten()) {
+                    mReadYourWrites.pin(client);
+                }
+            }
+        });
+        return writes.track(connection);
+    }
+
+    private interface ConnectionFactory {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
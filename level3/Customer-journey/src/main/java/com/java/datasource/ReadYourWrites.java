@@ -0,0 +1,71 @@
+package com.java.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a client on the primary database for a while after it wrote, so that it reads its own writes even when
+ * the replica lags behind.
+ * <p>
+ * The client of the current thread is set by {@link ReadYourWritesFilter} from the request, and carried over to
+ * other threads with {@link #propagate(Supplier)}. A pin expires the given duration after the client's last
+ * committed write; at most {@code maximumClients} are tracked, beyond that the least used pins are dropped.
+ */
+public class ReadYourWrites {
+
+    private static final ThreadLocal<String> CURRENT_CLIENT = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> mPinnedClients;
+
+    public ReadYourWrites(Duration pinDuration, long maximumClients) {
+        this.mPinnedClients = Caffeine.newBuilder()
+                .expireAfterWrite(pinDuration)
+                .maximumSize(maximumClients)
+                .build();
+    }
+
+    /**
+     * @return the client the current thread works for, or null outside of a request
+     */
+    public static String currentClient() {
+        return CURRENT_CLIENT.get();
+    }
+
+    static void setCurrentClient(String client) {
+        if (client == null) {
+            CURRENT_CLIENT.remove();
+        } else {
+            CURRENT_CLIENT.set(client);
+        }
+    }
+
+    /**
+     * @return work that runs for the client of the calling thread, on whichever thread it runs
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        String client = currentClient();
+        if (client == null) {
+            return work;
+        }
+        return () -> {
+            String previous = currentClient();
+            setCurrentClient(client);
+            try {
+                return work.get();
+            } finally {
+                setCurrentClient(previous);
+            }
+        };
+    }
+
+    public void pin(String client) {
+        mPinnedClients.put(client, Boolean.TRUE);
+    }
+
+    public boolean isPinned(String client) {
+        return client != null && mPinnedClients.getIfPresent(client) != null;
+    }
+}
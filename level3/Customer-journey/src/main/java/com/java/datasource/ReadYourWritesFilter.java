@@ -0,0 +1,30 @@
+package com.java.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Identifies the client of a request for {@link ReadYourWrites}: the {@value #CLIENT_HEADER} header when it is
+ * sent, which clients behind a shared proxy should do, and otherwise the remote address.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = request.getHeader(CLIENT_HEADER);
+        ReadYourWrites.setCurrentClient(client == null || client.isEmpty() ? request.getRemoteAddr() : client);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.setCurrentClient(null);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.java.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Notes whether the statements of a connection changed any row, so that only a transaction that wrote pins its
+ * client to the primary. A statement counts as a write when an update or batch reports a changed row, or when
+ * {@code execute} returns an update count rather than a result set; queries never do.
+ */
+final class WriteTracker {
+
+    private volatile boolean mWritten;
+
+    boolean hasWritten() {
+        return mWritten;
+    }
+
+    /**
+     * @return the connection, with the statements it creates reporting their writes to this tracker
+     */
+    Connection track(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = delegate(proxy, connection, method, args);
+            // createStatement, prepareStatement and prepareCall
+            return result instanceof Statement ? trackStatement((Connection) proxy, (Statement) result) : result;
+        });
+    }
+
+    private Statement trackStatement(Connection connection, Statement statement) {
+        Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return proxy(type, (proxy, method, args) -> {
+            if (method.getName().equals("getConnection")) {
+                return connection;
+            }
+            Object result = delegate(proxy, statement, method, args);
+            if (!mWritten && isWrite(method.getName(), result)) {
+                mWritten = true;
+            }
+            return result;
+        });
+    }
+
+    private static boolean isWrite(String method, Object result) {
+        switch (method) {
+            case "executeUpdate":
+            case "executeLargeUpdate":
+                return ((Number) result).longValue() != 0;
+            case "executeBatch":
+                for (int count : (int[]) result) {
+                    if (count != 0) {
+                        return true;
+                    }
+                }
+                return false;
+            case "executeLargeBatch":
+                for (long count : (long[]) result) {
+                    if (count != 0) {
+                        return true;
+                    }
+                }
+                return false;
+            case "execute":
+                return Boolean.FALSE.equals(result);
+            default:
+                return false;
+        }
+    }
+
+    private static Object delegate(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException exception) {
+                    throw exception.getCause();
+                }
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(WriteTracker.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
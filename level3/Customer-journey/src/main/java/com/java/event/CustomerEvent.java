@@ -0,0 +1,56 @@
+package com.java.event;
+
+/**
+ * A customer event, as a preallocated ring buffer slot that publishers overwrite in place.
+ * Names are null for {@link CustomerEventType#DELETED} events.
+ */
+public class CustomerEvent {
+
+    private CustomerEventType type;
+    private long customerId;
+    private String firstName;
+    private String lastName;
+    private long timestamp;
+
+    void set(CustomerEventType type, long customerId, String firstName, String lastName, long timestamp) {
+        this.type = type;
+        this.customerId = customerId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.timestamp = timestamp;
+    }
+
+    public CustomerEventType getType() {
+        return type;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * Wall clock time of publication, in epoch milliseconds.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerEvent{" +
+                "type=" + type +
+                ", customerId=" + customerId +
+                ", firstName='" + firstName + '\'' +
+                ", lastName='" + lastName + '\'' +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,11 @@
+package com.java.event;
+
+/**
+ * Consumer of customer events. Every handler runs on its own thread and sees every published event in order.
+ * The event is a reused ring buffer slot: copy what must outlive the call. {@code endOfBatch} is true for the
+ * last event currently available, the natural point to flush work accumulated over the batch.
+ */
+public interface CustomerEventHandler {
+
+    void onEvent(CustomerEvent event, long sequence, boolean endOfBatch) throws Exception;
+}
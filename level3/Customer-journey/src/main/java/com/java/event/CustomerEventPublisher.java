@@ -0,0 +1,137 @@
+package com.java.event;
+
+import com.java.dao.Customer;
+import com.java.dao.CustomerBatchOperation;
+import com.java.dao.CustomerBatchResult;
+import com.java.dao.CustomerView;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Typed entry point for customer events, backed by a {@link CustomerEventRingBuffer} that feeds every
+ * {@link CustomerEventHandler} bean. Publishing never allocates or locks on the calling thread; when no handler
+ * is registered or events are disabled, every method returns at once.
+ * <p>
+ * Fetched events are off by default because reads outnumber writes by far.
+ */
+@Component
+public class CustomerEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerEventPublisher.class);
+
+    private final CustomerEventRingBuffer mRingBuffer;
+    private final boolean mPublishFetched;
+
+    @Autowired
+    public CustomerEventPublisher(ObjectProvider<CustomerEventHandler> handlers,
+                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${app.events.enabled:true}") boolean enabled,
+                                  @Value("${app.events.buffer-size:8192}") int bufferSize,
+                                  @Value("${app.events.wait-strategy:SLEEPING}") WaitStrategy waitStrategy,
+                                  @Value("${app.events.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                                  @Value("${app.events.sample-rate:10}") int sampleRate,
+                                  @Value("${app.events.publish-fetched:false}") boolean publishFetched) {
+        List<CustomerEventHandler> eventHandlers = handlers.orderedStream().collect(Collectors.toList());
+        if (!enabled || eventHandlers.isEmpty()) {
+            this.mRingBuffer = null;
+            this.mPublishFetched = false;
+            logger.info("Customer events are not published, enabled: {}, handlers: {}", enabled, eventHandlers.size());
+            return;
+        }
+        this.mRingBuffer = new CustomerEventRingBuffer(bufferSize, waitStrategy, overflowPolicy, sampleRate, eventHandlers);
+        this.mPublishFetched = publishFetched;
+        meterRegistry.ifAvailable(this::registerMetrics);
+        logger.info("Customer events published to {} handlers, buffer size: {}, wait strategy: {}, overflow policy: {}",
+                eventHandlers.size(), bufferSize, waitStrategy, overflowPolicy);
+    }
+
+    public void customerCreated(Customer customer) {
+        publish(CustomerEventType.CREATED, customer);
+    }
+
+    public void customerUpdated(Customer customer) {
+        publish(CustomerEventType.UPDATED, customer);
+    }
+
+    public void customerDeleted(Long customerId) {
+        if (mRingBuffer != null) {
+            mRingBuffer.publish(CustomerEventType.DELETED, customerId, null, null);
+        }
+    }
+
+    public void customerFetched(Customer customer) {
+        if (mPublishFetched) {
+            publish(CustomerEventType.FETCHED, customer);
+        }
+    }
+
+    public void customerViewsFetched(Iterable<CustomerView> customers) {
+        if (mPublishFetched && mRingBuffer != null) {
+            for (CustomerView customer : customers) {
+                mRingBuffer.publish(CustomerEventType.FETCHED, customer.getId(), customer.getFirstName(), customer.getLastName());
+            }
+        }
+    }
+
+    /**
+     * Publishes one event per applied operation of a batch; operations that were not applied publish nothing.
+     * Names come from the operation, as the results only carry ids.
+     */
+    public void batchApplied(List<CustomerBatchOperation> operations, List<CustomerBatchResult> results) {
+        if (mRingBuffer == null) {
+            return;
+        }
+        for (CustomerBatchResult result : results) {
+            CustomerBatchOperation operation = operations.get(result.getIndex());
+            switch (result.getStatus()) {
+                case CREATED:
+                    mRingBuffer.publish(CustomerEventType.CREATED, result.getId(), operation.getFirstName(), operation.getLastName());
+                    break;
+                case UPDATED:
+                    mRingBuffer.publish(CustomerEventType.UPDATED, result.getId(), operation.getFirstName(), operation.getLastName());
+                    break;
+                case DELETED:
+                    mRingBuffer.publish(CustomerEventType.DELETED, result.getId(), null, null);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (mRingBuffer != null) {
+            mRingBuffer.close();
+        }
+    }
+
+    private void publish(CustomerEventType type, Customer customer) {
+        if (mRingBuffer != null) {
+            mRingBuffer.publish(type, customer.getId(), customer.getFirstName(), customer.getLastName());
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("customer.events.published", mRingBuffer, CustomerEventRingBuffer::getPublished)
+                .description("Customer events accepted by the ring buffer")
+                .register(registry);
+        FunctionCounter.builder("customer.events.dropped", mRingBuffer, CustomerEventRingBuffer::getDropped)
+                .description("Customer events discarded by the overflow policy")
+                .register(registry);
+        Gauge.builder("customer.events.backlog", mRingBuffer, CustomerEventRingBuffer::getBacklog)
+                .description("Customer events waiting for the slowest handler")
+                .register(registry);
+    }
+}
@@ -0,0 +1,269 @@
+package com.java.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer ring buffer of preallocated {@link CustomerEvent} slots, each handler consuming on
+ * its own thread.
+ * <p>
+ * A publisher claims the next sequence with a compare-and-set on the cursor, fills the slot in place and marks
+ * it published by storing the sequence's lap number in the slot's entry of {@link #publishedLaps}. Publishing
+ * allocates nothing and takes no lock. A sequence can only be claimed once every consumer is past the slot it
+ * reuses; what happens when they are not is decided by the {@link OverflowPolicy}.
+ * <p>
+ * Consumers read every contiguous published event in one batch and then advance their sequence once, so a
+ * consumer that fell behind catches up without paying per-event coordination.
+ */
+public class CustomerEventRingBuffer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerEventRingBuffer.class);
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    // bounds the rare missed wake-up of a BLOCKING consumer, see publish()
+    private static final long BLOCKING_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final CustomerEvent[] events;
+    private final AtomicIntegerArray publishedLaps;
+    private final int mask;
+    private final int lapShift;
+    private final WaitStrategy waitStrategy;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final long highWaterMark;
+
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private volatile long cachedGatingSequence = -1;
+    private final AtomicLong overflowCounter = new AtomicLong();
+    private final AtomicInteger parkedConsumers = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Consumer[] consumers;
+    private volatile boolean running = true;
+
+    /**
+     * @param bufferSize number of slots, a power of two
+     * @param sampleRate for {@link OverflowPolicy#SAMPLE}, one event in this many is kept past the high-water mark
+     */
+    public CustomerEventRingBuffer(int bufferSize, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy,
+                                   int sampleRate, List<CustomerEventHandler> handlers) {
+        if (bufferSize < 2 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two, was " + bufferSize);
+        }
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be at least 1, was " + sampleRate);
+        }
+        if (handlers.isEmpty()) {
+            throw new IllegalArgumentException("At least one handler is required");
+        }
+        this.events = new CustomerEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            events[i] = new CustomerEvent();
+        }
+        this.publishedLaps = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            publishedLaps.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.lapShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+        this.highWaterMark = bufferSize - (bufferSize >> 2);
+        this.consumers = new Consumer[handlers.size()];
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = new Consumer(handlers.get(i));
+        }
+        for (int i = 0; i < consumers.length; i++) {
+            Thread thread = new Thread(consumers[i], "customer-events-" + i);
+            thread.setDaemon(true);
+            consumers[i].thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Publishes an event unless the overflow policy discards it.
+     *
+     * @return false if the event was dropped
+     */
+    public boolean publish(CustomerEventType type, long customerId, String firstName, String lastName) {
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return false;
+        }
+        int index = (int) sequence & mask;
+        events[index].set(type, customerId, firstName, lastName, System.currentTimeMillis());
+        // a release store: consumers that see the lap also see the slot contents written above
+        publishedLaps.lazySet(index, (int) (sequence >>> lapShift));
+        published.increment();
+        // Without a full fence a consumer parking at this moment can miss the wake-up,
+        // it then sleeps for at most BLOCKING_TIMEOUT_NANOS.
+        if (waitStrategy == WaitStrategy.BLOCKING && parkedConsumers.get() > 0) {
+            for (Consumer consumer : consumers) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+        return true;
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Events claimed but not yet processed by the slowest consumer.
+     */
+    public long getBacklog() {
+        return Math.max(0, cursor.get() - minimumConsumerSequence());
+    }
+
+    public int getBufferSize() {
+        return events.length;
+    }
+
+    /**
+     * Stops accepting events, lets the consumers drain what was published and waits for them to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+        }
+        for (Consumer consumer : consumers) {
+            try {
+                consumer.thread.join(CLOSE_TIMEOUT_MILLIS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the claimed sequence, or -1 if the overflow policy drops the event.
+     */
+    private long claim() {
+        int tries = 0;
+        while (running) {
+            long current = cursor.get();
+            long next = current + 1;
+            long gatingSequence = cachedGatingSequence;
+            if (next - events.length > gatingSequence) {
+                gatingSequence = minimumConsumerSequence();
+                cachedGatingSequence = gatingSequence;
+                if (next - events.length > gatingSequence) {
+                    if (overflowPolicy != OverflowPolicy.BLOCK) {
+                        return -1;
+                    }
+                    tries = idle(tries);
+                    continue;
+                }
+            }
+            // the cached gating sequence only lags, so this overestimates the backlog and samples early if anything
+            if (overflowPolicy == OverflowPolicy.SAMPLE && next - gatingSequence > highWaterMark
+                    && overflowCounter.getAndIncrement() % sampleRate != 0) {
+                return -1;
+            }
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+        return -1;
+    }
+
+    private long minimumConsumerSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Returns the highest sequence from {@code from} up to {@code claimed} below which every event is published.
+     * Publishers claim in order but may finish out of order, so a claimed slot can still be in flight.
+     */
+    private long highestPublished(long from, long claimed) {
+        for (long sequence = from; sequence <= claimed; sequence++) {
+            if (publishedLaps.get((int) sequence & mask) != (int) (sequence >>> lapShift)) {
+                return sequence - 1;
+            }
+        }
+        return claimed;
+    }
+
+    private int idle(int tries) {
+        if (tries < SPIN_TRIES || waitStrategy == WaitStrategy.BUSY_SPIN) {
+            Thread.onSpinWait();
+        } else if (tries < YIELD_TRIES || waitStrategy == WaitStrategy.YIELDING) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(SLEEP_NANOS);
+        }
+        return tries + 1;
+    }
+
+    private final class Consumer implements Runnable {
+
+        private final CustomerEventHandler handler;
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private Thread thread;
+
+        Consumer(CustomerEventHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void run() {
+            long next = 0;
+            int tries = 0;
+            while (true) {
+                long available = highestPublished(next, cursor.get());
+                if (available >= next) {
+                    for (long current = next; current <= available; current++) {
+                        handle(current, current == available);
+                    }
+                    sequence.lazySet(available);
+                    next = available + 1;
+                    tries = 0;
+                } else if (!running) {
+                    return;
+                } else if (waitStrategy == WaitStrategy.BLOCKING) {
+                    parkedConsumers.incrementAndGet();
+                    if (highestPublished(next, cursor.get()) < next && running) {
+                        LockSupport.parkNanos(BLOCKING_TIMEOUT_NANOS);
+                    }
+                    parkedConsumers.decrementAndGet();
+                } else {
+                    tries = idle(tries);
+                }
+            }
+        }
+
+        private void handle(long current, boolean endOfBatch) {
+            try {
+                handler.onEvent(events[(int) current & mask], current, endOfBatch);
+            } catch (Exception exception) {
+                logger.warn("Customer event handler {} failed on event {}", handler.getClass().getSimpleName(), current, exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.java.event;
+
+public enum CustomerEventType {
+    CREATED, UPDATED, DELETED, FETCHED
+}
@@ -0,0 +1,21 @@
+package com.java.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes every customer event to the log, on the event consumer thread rather than the request thread.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.log.enabled", havingValue = "true")
+public class LoggingCustomerEventHandler implements CustomerEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingCustomerEventHandler.class);
+
+    @Override
+    public void onEvent(CustomerEvent event, long sequence, boolean endOfBatch) {
+        logger.info("Customer event {} : {}", sequence, event);
+    }
+}
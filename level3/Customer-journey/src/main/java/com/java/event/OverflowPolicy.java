@@ -0,0 +1,23 @@
+package com.java.event;
+
+/**
+ * What a publisher does with an event when the ring buffer is full, because a consumer has fallen behind.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Discards the event and counts it as dropped. The request thread never waits.
+     */
+    DROP,
+
+    /**
+     * Waits for a consumer to free a slot. No event is lost, but a slow consumer slows down requests.
+     */
+    BLOCK,
+
+    /**
+     * Once the buffer is past its high-water mark, publishes only one event in every {@code sampleRate} and
+     * drops the rest, so a burst still leaves a representative trail. A full buffer drops like {@link #DROP}.
+     */
+    SAMPLE
+}
@@ -0,0 +1,29 @@
+package com.java.event;
+
+/**
+ * How an event consumer thread waits when the ring buffer has nothing new for it.
+ * The strategies trade consumer latency for CPU: a busy spinning consumer sees an event within nanoseconds
+ * but keeps a core busy, a blocking one costs nothing while idle but takes microseconds to wake up.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Spins on the cursor. Only for a machine with a spare core per consumer.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Spins briefly, then yields the core to other threads between checks.
+     */
+    YIELDING,
+
+    /**
+     * Spins, yields, then parks for short intervals. A good default for bursty traffic.
+     */
+    SLEEPING,
+
+    /**
+     * Parks until a publisher wakes the consumer. Publishers only pay for a wake-up when a consumer is parked.
+     */
+    BLOCKING
+}
@@ -12,6 +12,13 @@ public class EntityNotFoundException extends RuntimeException {
         super(message);
     }
 
+    /**
+     * @param writableStackTrace false for an expected outcome, which skips capturing the stack trace
+     */
+    public EntityNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
     public EntityNotFoundException(Class clazz, String... searchParamsMap) {
         super(EntityNotFoundException.generateMessage(clazz.getSimpleName(), toMap(String.class, String.class, searchParamsMap)));
     }
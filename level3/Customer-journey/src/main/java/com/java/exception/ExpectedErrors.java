@@ -0,0 +1,85 @@
+package com.java.exception;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates the exceptions of expected outcomes, a customer that does not exist, a version that does not match or an
+ * invalid parameter, which clients probing for ids can make as frequent as successful requests.
+ * <p>
+ * With {@code app.errors.fast} these exceptions are stackless, as their stack trace only ever shows the same service
+ * method, and capturing it is most of their cost. Exceptions with a constant message are then also preallocated,
+ * one instance per message, and {@link RestExceptionHandler} builds their response once. Without it every call
+ * creates a new exception with its stack trace, as before.
+ */
+@Component
+public class ExpectedErrors {
+
+    private final boolean mFast;
+    private final ConcurrentMap<String, InvalidPropertyValueException> mInvalidPropertyValues = new ConcurrentHashMap<>();
+    private final Set<Throwable> mPreallocated = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Throwable, ResponseEntity<Object>> mResponses = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ExpectedErrors(@Value("${app.errors.fast:false}") boolean fast) {
+        this.mFast = fast;
+    }
+
+    public boolean isFast() {
+        return mFast;
+    }
+
+    public EntityNotFoundException entityNotFound(String message) {
+        return mFast ? new EntityNotFoundException(message, false) : new EntityNotFoundException(message);
+    }
+
+    public PreconditionFailedException preconditionFailed(String message) {
+        return mFast ? new PreconditionFailedException(message, false) : new PreconditionFailedException(message);
+    }
+
+    public InvalidPropertyValueException invalidPropertyValue(String message) {
+        return mFast ? new InvalidPropertyValueException(message, false) : new InvalidPropertyValueException(message);
+    }
+
+    /**
+     * Like {@link #invalidPropertyValue(String)}, for a message that is a constant: in fast mode the same instance
+     * is returned for it every time.
+     */
+    public InvalidPropertyValueException constantInvalidPropertyValue(String message) {
+        if (!mFast) {
+            return new InvalidPropertyValueException(message);
+        }
+        InvalidPropertyValueException exception = mInvalidPropertyValues.get(message);
+        if (exception == null) {
+            exception = mInvalidPropertyValues.computeIfAbsent(message, key -> {
+                InvalidPropertyValueException preallocated = new InvalidPropertyValueException(key, false);
+                mPreallocated.add(preallocated);
+                return preallocated;
+            });
+        }
+        return exception;
+    }
+
+    /**
+     * @return the response built for this preallocated exception, or null when it has none yet or is not preallocated
+     */
+    public ResponseEntity<Object> cachedResponse(Throwable exception) {
+        return mResponses.get(exception);
+    }
+
+    /**
+     * Keeps the response of a preallocated exception for {@link #cachedResponse(Throwable)}, and ignores any other.
+     * The response and its body are shared between requests from then on, so they must not be modified.
+     */
+    public void cacheResponse(Throwable exception, ResponseEntity<Object> response) {
+        if (mPreallocated.contains(exception)) {
+            mResponses.putIfAbsent(exception, response);
+        }
+    }
+}
@@ -4,4 +4,11 @@ public class InvalidPropertyValueException extends RuntimeException {
     public InvalidPropertyValueException(String message) {
         super(message);
     }
+
+    /**
+     * @param writableStackTrace false for an expected outcome, which skips capturing the stack trace
+     */
+    public InvalidPropertyValueException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,18 @@
+package com.java.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    /**
+     * @param writableStackTrace false for an expected outcome, which skips capturing the stack trace
+     */
+    public PreconditionFailedException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+}
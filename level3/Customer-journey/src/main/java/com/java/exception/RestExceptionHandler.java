@@ -5,6 +5,7 @@ import com.java.exception.apierror.ApiError;
 import com.java.exception.apierror.ApiErrorSlim;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -13,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -26,12 +28,25 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @Order(Ordered.HIGHEST_PRECEDENCE)
 @ControllerAdvice
 @Slf4j
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private final ExpectedErrors mExpectedErrors;
+
+    public RestExceptionHandler() {
+        this(new ExpectedErrors(false));
+    }
+
+    @Autowired
+    public RestExceptionHandler(ExpectedErrors expectedErrors) {
+        this.mExpectedErrors = expectedErrors;
+    }
+
     /**
      * Handle MissingServletRequestParameterException. Triggered when a 'required' request parameter is missing.
      *
@@ -106,8 +121,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
      */
     @ExceptionHandler(EntityNotFoundException.class)
     protected ResponseEntity<Object> handleEntityNotFound(EntityNotFoundException ex) {
-        ApiErrorSlim apiErrorSlim = new ApiErrorSlim(BAD_REQUEST, ex.getMessage());
-        return buildResponseEntity(apiErrorSlim);
+        return buildExpectedResponseEntity(BAD_REQUEST, ex);
     }
 
     @ExceptionHandler(ResourceAlreadyExistsException.class)
@@ -118,8 +132,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(InvalidPropertyValueException.class)
     protected ResponseEntity<Object> handleInvalidPropertyValueException(InvalidPropertyValueException ex) {
-        ApiErrorSlim apiErrorSlim = new ApiErrorSlim(BAD_REQUEST, ex.getMessage());
-        return buildResponseEntity(apiErrorSlim);
+        return buildExpectedResponseEntity(BAD_REQUEST, ex);
     }
 
     @ExceptionHandler(InvalidFileDataException.class)
@@ -128,6 +141,29 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return buildResponseEntity(apiErrorSlim);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    protected ResponseEntity<Object> handlePreconditionFailedException(PreconditionFailedException ex) {
+        return buildExpectedResponseEntity(PRECONDITION_FAILED, ex);
+    }
+
+    /**
+     * Handles a batch write that lost a race with a concurrent update of the same customer, detected by its version.
+     *
+     * @param ex the ObjectOptimisticLockingFailureException
+     * @return the ApiErrorSlim object
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    protected ResponseEntity<Object> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        ApiErrorSlim apiErrorSlim = new ApiErrorSlim(CONFLICT, "The customer was modified concurrently, please fetch it and retry");
+        return buildResponseEntity(apiErrorSlim);
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    protected ResponseEntity<Object> handleServiceBusyException(ServiceBusyException ex) {
+        ApiErrorSlim apiErrorSlim = new ApiErrorSlim(SERVICE_UNAVAILABLE, ex.getMessage());
+        return buildResponseEntity(apiErrorSlim);
+    }
+
     /**
      * Handle HttpMessageNotReadableException. Happens when request JSON is malformed.
      *
@@ -213,4 +249,16 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(apiErrorSlim, apiErrorSlim.getStatus());
     }
 
+    /**
+     * Builds the response of an exception from {@link ExpectedErrors}, once only for a preallocated one.
+     */
+    private ResponseEntity<Object> buildExpectedResponseEntity(HttpStatus status, RuntimeException ex) {
+        ResponseEntity<Object> response = mExpectedErrors.cachedResponse(ex);
+        if (response == null) {
+            response = buildResponseEntity(new ApiErrorSlim(status, ex.getMessage()));
+            mExpectedErrors.cacheResponse(ex, response);
+        }
+        return response;
+    }
+
 }
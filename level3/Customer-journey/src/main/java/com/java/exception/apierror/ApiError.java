@@ -26,7 +26,7 @@ public class ApiError {
     private List<ApiSubError> subErrors;
 
     private ApiError() {
-        timestamp = LocalDateTime.now();
+        timestamp = SecondClock.now();
     }
 
     public ApiError(HttpStatus status) {
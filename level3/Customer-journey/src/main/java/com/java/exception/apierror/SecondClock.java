@@ -0,0 +1,38 @@
+package com.java.exception.apierror;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * The current time to the second, which is all the {@link ApiError} timestamp shows. It is computed once per second
+ * and shared until the next, so reading it costs one {@link System#currentTimeMillis()} call and no allocation.
+ */
+final class SecondClock {
+
+    private static volatile Second current = new Second(Long.MIN_VALUE, null);
+
+    private SecondClock() {
+    }
+
+    static LocalDateTime now() {
+        long epochSecond = Math.floorDiv(System.currentTimeMillis(), 1000L);
+        Second second = current;
+        if (second.epochSecond != epochSecond) {
+            second = new Second(epochSecond, LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault()));
+            current = second;
+        }
+        return second.time;
+    }
+
+    private static final class Second {
+
+        private final long epochSecond;
+        private final LocalDateTime time;
+
+        Second(long epochSecond, LocalDateTime time) {
+            this.epochSecond = epochSecond;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.java.metrics;
+
+import com.java.config.MetricsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code /actuator/latency} endpoint: the latency of the customer API broken down by layer, so a slow
+ * percentile can be traced from the HTTP request to the service method and to the repository query.
+ * <p>
+ * One row per timer, that is per endpoint or method, outcome and exception, slowest p99 first. Percentiles and the
+ * maximum cover the last {@code management.metrics.distribution.expiry}, the count and the mean the whole uptime.
+ * {@code /actuator/latency/{layer}} returns the rows of one layer: http, service or repository.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private static final String HTTP_METRIC = "http.server.requests";
+    private static final String REPOSITORY_METRIC = "spring.data.repository.invocations";
+    private static final String ACTUATOR_URI_PREFIX = "/actuator";
+
+    private final MeterRegistry mMeterRegistry;
+
+    @Autowired
+    public LatencyEndpoint(MeterRegistry meterRegistry) {
+        this.mMeterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, List<LatencySummary>> latency() {
+        Map<String, List<LatencySummary>> layers = new LinkedHashMap<>();
+        for (String layer : new String[]{"http", "service", "repository"}) {
+            layers.put(layer, layer(layer));
+        }
+        return layers;
+    }
+
+    @ReadOperation
+    public List<LatencySummary> layer(@Selector String layer) {
+        List<LatencySummary> summaries = new ArrayList<>();
+        switch (layer) {
+            case "http":
+                for (Timer timer : mMeterRegistry.find(HTTP_METRIC).timers()) {
+                    String uri = timer.getId().getTag("uri");
+                    if (uri != null && !uri.startsWith(ACTUATOR_URI_PREFIX)) {
+                        summaries.add(summarize(timer, timer.getId().getTag("method") + " " + uri + " " + timer.getId().getTag("status"), "outcome"));
+                    }
+                }
+                break;
+            case "service":
+                mMeterRegistry.find(MetricsConfig.SERVICE_METRIC).timers()
+                        .forEach(timer -> summaries.add(summarize(timer, timer.getId().getTag("method"), "outcome")));
+                break;
+            case "repository":
+                mMeterRegistry.find(REPOSITORY_METRIC).timers().forEach(timer -> summaries.add(summarize(timer,
+                        timer.getId().getTag("repository") + "." + timer.getId().getTag("method"), "state")));
+                break;
+            default:
+                return null;
+        }
+        summaries.sort(Comparator.comparingDouble(LatencySummary::sortKey).reversed());
+        return summaries;
+    }
+
+    private static LatencySummary summarize(Timer timer, String name, String outcomeTag) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            percentiles.put(label(percentile.percentile()), percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return new LatencySummary(name, timer.getId().getTag(outcomeTag), timer.getId().getTag("exception"), snapshot.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS), percentiles);
+    }
+
+    // 0.5 -> p50, 0.999 -> p999
+    static String label(double percentile) {
+        return "p" + BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros().toPlainString().replace(".", "");
+    }
+
+    public static class LatencySummary {
+
+        private final String name;
+        private final String outcome;
+        private final String exception;
+        private final long count;
+        private final double meanMs;
+        private final double maxMs;
+        private final Map<String, Double> percentilesMs;
+
+        LatencySummary(String name, String outcome, String exception, long count, double meanMs, double maxMs,
+                       Map<String, Double> percentilesMs) {
+            this.name = name;
+            this.outcome = outcome;
+            this.exception = exception;
+            this.count = count;
+            this.meanMs = meanMs;
+            this.maxMs = maxMs;
+            this.percentilesMs = percentilesMs;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOutcome() {
+            return outcome;
+        }
+
+        public String getException() {
+            return exception;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMs() {
+            return meanMs;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        public Map<String, Double> getPercentilesMs() {
+            return percentilesMs;
+        }
+
+        private double sortKey() {
+            return percentilesMs.getOrDefault("p99", maxMs);
+        }
+    }
+}
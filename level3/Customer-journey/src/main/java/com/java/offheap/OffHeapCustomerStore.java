@@ -0,0 +1,542 @@
+package com.java.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Customers kept outside the Java heap, so millions of them cost the garbage collector nothing to trace or copy.
+ * <p>
+ * Each customer is a record in a direct {@link ByteBuffer} slab: id, version, the links of its last name chain
+ * and both names as UTF-8. Records are allocated in 16 byte size classes, and a deleted record, or one outgrown by
+ * an update, goes on the free list of its class for the next record of that size. Ids are assigned by the store,
+ * from 1 up, and an off-heap directory indexed by id holds the address of each record, so a lookup is two reads
+ * and paging by id a scan of the directory.
+ * <p>
+ * Customers with the same lower-cased last name are linked in id order, and the chains are found through a sorted
+ * map of the distinct last names, the only per-name objects on the heap. That serves exact last name searches and,
+ * ordered by last name and id, prefix searches.
+ * <p>
+ * Reads share a read lock and writes take the write lock. Results are built by a {@link RecordMapper}, so the
+ * store does not depend on the entity class.
+ */
+public class OffHeapCustomerStore {
+
+    /**
+     * Builds a result from a record, called with the read or the write lock held.
+     */
+    @FunctionalInterface
+    public interface RecordMapper<T> {
+
+        T map(long id, String firstName, String lastName, long version);
+    }
+
+    public static final int MAX_NAME_LENGTH = 200;
+    public static final int MIN_SLAB_SIZE = 1 << 16;
+    public static final int MAX_SLAB_SIZE = 1 << 30;
+
+    private static final int ID = 0;
+    private static final int VERSION = 8;
+    private static final int PREVIOUS = 16;
+    private static final int NEXT = 24;
+    private static final int SIZE = 32;
+    private static final int FIRST_NAME_LENGTH = 36;
+    private static final int LAST_NAME_LENGTH = 38;
+    private static final int NAMES = 40;
+    private static final int SIZE_CLASS_SHIFT = 4;
+    // a UTF-8 character takes at most 3 bytes, 4 only for a surrogate pair that counts as 2 chars
+    private static final int MAX_RECORD_SIZE = NAMES + 2 * 3 * MAX_NAME_LENGTH;
+    // addresses are never 0, which marks the end of a chain and an empty directory entry
+    private static final int SLAB_START = 16;
+    private static final int DIRECTORY_SEGMENT_SHIFT = 17;
+    private static final int DIRECTORY_SEGMENT_MASK = (1 << DIRECTORY_SEGMENT_SHIFT) - 1;
+    private static final int NO_ADDRESS = 0;
+
+    private final int mSlabSize;
+    private final int mSlabShift;
+    private final ReadWriteLock mLock = new ReentrantReadWriteLock();
+    private final List<ByteBuffer> mSlabs = new ArrayList<>();
+    private final List<ByteBuffer> mDirectory = new ArrayList<>();
+    private final NavigableMap<String, NameChain> mLastNames = new TreeMap<>();
+    private final long[] mFreeLists = new long[(MAX_RECORD_SIZE >>> SIZE_CLASS_SHIFT) + 2];
+    private int mSlabTop;
+    private long mNextId;
+    private long mCount;
+    private long mRecordBytes;
+
+    /**
+     * @param slabSize bytes of each slab, a power of two from {@link #MIN_SLAB_SIZE} to {@link #MAX_SLAB_SIZE}
+     */
+    public OffHeapCustomerStore(int slabSize) {
+        if (slabSize < MIN_SLAB_SIZE || slabSize > MAX_SLAB_SIZE || Integer.bitCount(slabSize) != 1) {
+            throw new IllegalArgumentException("The slab size must be a power of two from " + MIN_SLAB_SIZE + " to " + MAX_SLAB_SIZE
+                    + " bytes but was " + slabSize);
+        }
+        this.mSlabSize = slabSize;
+        this.mSlabShift = Integer.numberOfTrailingZeros(slabSize);
+        reset();
+    }
+
+    /**
+     * @return the customer, or null when there is none with this id
+     */
+    public <T> T get(long id, RecordMapper<T> mapper) {
+        mLock.readLock().lock();
+        try {
+            long address = address(id);
+            return address == NO_ADDRESS ? null : read(address, mapper);
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the version, or null when there is no customer with this id
+     */
+    public Long getVersion(long id) {
+        mLock.readLock().lock();
+        try {
+            long address = address(id);
+            return address == NO_ADDRESS ? null : slab(address).getLong(offset(address) + VERSION);
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the last name lower-cased as it is indexed, or null when there is no customer with this id
+     */
+    public String getLastNameLower(long id) {
+        mLock.readLock().lock();
+        try {
+            long address = address(id);
+            return address == NO_ADDRESS ? null : lower(readLastName(address));
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        mLock.readLock().lock();
+        try {
+            return address(id) != NO_ADDRESS;
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    public long count() {
+        mLock.readLock().lock();
+        try {
+            return mCount;
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} customers with an id greater than {@code after}, in id order
+     */
+    public <T> List<T> pageById(long after, int limit, RecordMapper<T> mapper) {
+        List<T> page = new ArrayList<>(Math.min(limit, 1024));
+        mLock.readLock().lock();
+        try {
+            for (long id = after < 1 ? 1 : after + 1; after < mNextId && id < mNextId && page.size() < limit; id++) {
+                long address = directoryEntry(id);
+                if (address != NO_ADDRESS) {
+                    page.add(read(address, mapper));
+                }
+            }
+        } finally {
+            mLock.readLock().unlock();
+        }
+        return page;
+    }
+
+    /**
+     * Customers whose lower-cased last name is {@code lastNameLower}, in id order.
+     *
+     * @param after id of the last customer of the previous page, 0 for the first
+     */
+    public <T> List<T> findByLastNameLower(String lastNameLower, long after, int limit, RecordMapper<T> mapper) {
+        List<T> page = new ArrayList<>(Math.min(limit, 1024));
+        mLock.readLock().lock();
+        try {
+            NameChain chain = mLastNames.get(lastNameLower);
+            if (chain != null) {
+                collect(chain, after, limit, mapper, page);
+            }
+        } finally {
+            mLock.readLock().unlock();
+        }
+        return page;
+    }
+
+    /**
+     * Customers whose lower-cased last name starts with {@code prefixLower}, ordered by lower-cased last name and
+     * then id, after the position ({@code afterLastNameLower}, {@code after}) of the previous page.
+     *
+     * @param afterLastNameLower lower-cased last name of the last customer of the previous page, "" for the first
+     * @param after              id of that customer, 0 for the first page
+     */
+    public <T> List<T> findByLastNamePrefix(String prefixLower, String afterLastNameLower, long after, int limit,
+                                            RecordMapper<T> mapper) {
+        List<T> page = new ArrayList<>(Math.min(limit, 1024));
+        String from = prefixLower.compareTo(afterLastNameLower) >= 0 ? prefixLower : afterLastNameLower;
+        mLock.readLock().lock();
+        try {
+            for (Map.Entry<String, NameChain> entry : mLastNames.tailMap(from, true).entrySet()) {
+                if (!entry.getKey().startsWith(prefixLower) || page.size() == limit) {
+                    break;
+                }
+                collect(entry.getValue(), entry.getKey().equals(afterLastNameLower) ? after : 0, limit, mapper, page);
+            }
+        } finally {
+            mLock.readLock().unlock();
+        }
+        return page;
+    }
+
+    /**
+     * Stores a new customer at version 0 under the next id.
+     *
+     * @throws IllegalArgumentException if a name is null or longer than {@link #MAX_NAME_LENGTH}
+     */
+    public <T> T insert(String firstName, String lastName, RecordMapper<T> mapper) {
+        byte[] firstNameBytes = encode(firstName);
+        byte[] lastNameBytes = encode(lastName);
+        mLock.writeLock().lock();
+        try {
+            long id = mNextId++;
+            long address = allocate(recordSize(firstNameBytes, lastNameBytes));
+            write(address, id, 0, firstNameBytes, lastNameBytes);
+            setDirectoryEntry(id, address);
+            link(address, id, lower(lastName));
+            mCount++;
+            return read(address, mapper);
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the names given and increments the version, if the customer is at one of the expected versions.
+     *
+     * @param firstName        new first name, or null to keep it
+     * @param lastName         new last name, or null to keep it
+     * @param expectedVersions versions the customer must be at, or null to update whatever the current version
+     * @return the customer as updated, or null when there is none with this id at one of the expected versions
+     * @throws IllegalArgumentException if a name is longer than {@link #MAX_NAME_LENGTH}
+     */
+    public <T> T update(long id, String firstName, String lastName, Collection<Long> expectedVersions, RecordMapper<T> mapper) {
+        byte[] newFirstNameBytes = firstName == null ? null : encode(firstName);
+        byte[] newLastNameBytes = lastName == null ? null : encode(lastName);
+        mLock.writeLock().lock();
+        try {
+            long address = address(id);
+            if (address == NO_ADDRESS) {
+                return null;
+            }
+            ByteBuffer slab = slab(address);
+            int offset = offset(address);
+            long version = slab.getLong(offset + VERSION);
+            if (expectedVersions != null && !expectedVersions.contains(version)) {
+                return null;
+            }
+            String oldLastName = readLastName(address);
+            byte[] firstNameBytes = newFirstNameBytes != null ? newFirstNameBytes : readBytes(slab, offset + NAMES, slab.getShort(offset + FIRST_NAME_LENGTH));
+            byte[] lastNameBytes = newLastNameBytes != null ? newLastNameBytes : encode(oldLastName);
+            String oldLastNameLower = lower(oldLastName);
+            String newLastNameLower = lastName == null ? oldLastNameLower : lower(lastName);
+            boolean sameChain = newLastNameLower.equals(oldLastNameLower);
+            long newAddress = sizeClass(recordSize(firstNameBytes, lastNameBytes)) == sizeClass(slab.getInt(offset + SIZE))
+                    ? address : allocate(recordSize(firstNameBytes, lastNameBytes));
+            if (sameChain) {
+                write(newAddress, id, version + 1, firstNameBytes, lastNameBytes, slab.getLong(offset + PREVIOUS), slab.getLong(offset + NEXT));
+                if (newAddress != address) {
+                    relink(address, newAddress, oldLastNameLower);
+                }
+            } else {
+                unlink(address, oldLastNameLower);
+                write(newAddress, id, version + 1, firstNameBytes, lastNameBytes);
+                link(newAddress, id, newLastNameLower);
+            }
+            if (newAddress != address) {
+                free(address);
+                setDirectoryEntry(id, newAddress);
+            }
+            return read(newAddress, mapper);
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return whether there was a customer with this id
+     */
+    public boolean delete(long id) {
+        mLock.writeLock().lock();
+        try {
+            long address = address(id);
+            if (address == NO_ADDRESS) {
+                return false;
+            }
+            unlink(address, lower(readLastName(address)));
+            free(address);
+            setDirectoryEntry(id, NO_ADDRESS);
+            mCount--;
+            return true;
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes every customer and releases the slabs; ids start again from 1.
+     */
+    public void clear() {
+        mLock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes reserved outside the heap, by slabs and the id directory
+     */
+    public long getReservedBytes() {
+        mLock.readLock().lock();
+        try {
+            return (long) mSlabs.size() * mSlabSize + (long) mDirectory.size() * (8 << DIRECTORY_SEGMENT_SHIFT);
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes of the slabs taken by the records of stored customers
+     */
+    public long getRecordBytes() {
+        mLock.readLock().lock();
+        try {
+            return mRecordBytes;
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    private void reset() {
+        mSlabs.clear();
+        mDirectory.clear();
+        mLastNames.clear();
+        Arrays.fill(mFreeLists, NO_ADDRESS);
+        mSlabs.add(ByteBuffer.allocateDirect(mSlabSize));
+        mSlabTop = SLAB_START;
+        mNextId = 1;
+        mCount = 0;
+        mRecordBytes = 0;
+    }
+
+    private <T> void collect(NameChain chain, long after, int limit, RecordMapper<T> mapper, List<T> page) {
+        for (long address = chain.head; address != NO_ADDRESS && page.size() < limit; address = slab(address).getLong(offset(address) + NEXT)) {
+            if (slab(address).getLong(offset(address) + ID) > after) {
+                page.add(read(address, mapper));
+            }
+        }
+    }
+
+    private <T> T read(long address, RecordMapper<T> mapper) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        int firstNameLength = slab.getShort(offset + FIRST_NAME_LENGTH);
+        int lastNameLength = slab.getShort(offset + LAST_NAME_LENGTH);
+        return mapper.map(slab.getLong(offset + ID),
+                decode(slab, offset + NAMES, firstNameLength),
+                decode(slab, offset + NAMES + firstNameLength, lastNameLength),
+                slab.getLong(offset + VERSION));
+    }
+
+    private String readLastName(long address) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        return decode(slab, offset + NAMES + slab.getShort(offset + FIRST_NAME_LENGTH), slab.getShort(offset + LAST_NAME_LENGTH));
+    }
+
+    private void write(long address, long id, long version, byte[] firstName, byte[] lastName) {
+        write(address, id, version, firstName, lastName, NO_ADDRESS, NO_ADDRESS);
+    }
+
+    private void write(long address, long id, long version, byte[] firstName, byte[] lastName, long previous, long next) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        slab.putLong(offset + ID, id);
+        slab.putLong(offset + VERSION, version);
+        slab.putLong(offset + PREVIOUS, previous);
+        slab.putLong(offset + NEXT, next);
+        slab.putShort(offset + FIRST_NAME_LENGTH, (short) firstName.length);
+        slab.putShort(offset + LAST_NAME_LENGTH, (short) lastName.length);
+        for (int i = 0; i < firstName.length; i++) {
+            slab.put(offset + NAMES + i, firstName[i]);
+        }
+        for (int i = 0; i < lastName.length; i++) {
+            slab.put(offset + NAMES + firstName.length + i, lastName[i]);
+        }
+    }
+
+    /**
+     * Links the record into the chain of its last name, at its place in id order. New customers have the highest
+     * id, so they are appended without walking the chain.
+     */
+    private void link(long address, long id, String lastNameLower) {
+        NameChain chain = mLastNames.computeIfAbsent(lastNameLower, key -> new NameChain());
+        long previous = chain.tail;
+        while (previous != NO_ADDRESS && slab(previous).getLong(offset(previous) + ID) > id) {
+            previous = slab(previous).getLong(offset(previous) + PREVIOUS);
+        }
+        long next = previous == NO_ADDRESS ? chain.head : slab(previous).getLong(offset(previous) + NEXT);
+        slab(address).putLong(offset(address) + PREVIOUS, previous);
+        slab(address).putLong(offset(address) + NEXT, next);
+        setNext(chain, previous, address);
+        setPrevious(chain, next, address);
+    }
+
+    private void unlink(long address, String lastNameLower) {
+        NameChain chain = mLastNames.get(lastNameLower);
+        long previous = slab(address).getLong(offset(address) + PREVIOUS);
+        long next = slab(address).getLong(offset(address) + NEXT);
+        setNext(chain, previous, next);
+        setPrevious(chain, next, previous);
+        if (chain.head == NO_ADDRESS) {
+            mLastNames.remove(lastNameLower);
+        }
+    }
+
+    /**
+     * Points the neighbours of a record that moved, already written at its new address, to that address.
+     */
+    private void relink(long oldAddress, long newAddress, String lastNameLower) {
+        NameChain chain = mLastNames.get(lastNameLower);
+        setNext(chain, slab(oldAddress).getLong(offset(oldAddress) + PREVIOUS), newAddress);
+        setPrevious(chain, slab(oldAddress).getLong(offset(oldAddress) + NEXT), newAddress);
+    }
+
+    private void setNext(NameChain chain, long address, long next) {
+        if (address == NO_ADDRESS) {
+            chain.head = next;
+        } else {
+            slab(address).putLong(offset(address) + NEXT, next);
+        }
+    }
+
+    private void setPrevious(NameChain chain, long address, long previous) {
+        if (address == NO_ADDRESS) {
+            chain.tail = previous;
+        } else {
+            slab(address).putLong(offset(address) + PREVIOUS, previous);
+        }
+    }
+
+    private long allocate(int size) {
+        int sizeClass = sizeClass(size);
+        int classSize = sizeClass << SIZE_CLASS_SHIFT;
+        long address = mFreeLists[sizeClass];
+        if (address != NO_ADDRESS) {
+            mFreeLists[sizeClass] = slab(address).getLong(offset(address) + NEXT);
+        } else {
+            if (mSlabTop + classSize > mSlabSize) {
+                mSlabs.add(ByteBuffer.allocateDirect(mSlabSize));
+                mSlabTop = SLAB_START;
+            }
+            address = ((long) (mSlabs.size() - 1) << mSlabShift) | mSlabTop;
+            mSlabTop += classSize;
+        }
+        slab(address).putInt(offset(address) + SIZE, classSize);
+        mRecordBytes += classSize;
+        return address;
+    }
+
+    private void free(long address) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        int sizeClass = sizeClass(slab.getInt(offset + SIZE));
+        slab.putLong(offset + ID, 0);
+        slab.putLong(offset + NEXT, mFreeLists[sizeClass]);
+        mFreeLists[sizeClass] = address;
+        mRecordBytes -= sizeClass << SIZE_CLASS_SHIFT;
+    }
+
+    private long address(long id) {
+        return id < 1 || id >= mNextId ? NO_ADDRESS : directoryEntry(id);
+    }
+
+    private long directoryEntry(long id) {
+        return mDirectory.get((int) (id >>> DIRECTORY_SEGMENT_SHIFT)).getLong((int) (id & DIRECTORY_SEGMENT_MASK) << 3);
+    }
+
+    private void setDirectoryEntry(long id, long address) {
+        int segment = (int) (id >>> DIRECTORY_SEGMENT_SHIFT);
+        while (mDirectory.size() <= segment) {
+            mDirectory.add(ByteBuffer.allocateDirect(8 << DIRECTORY_SEGMENT_SHIFT));
+        }
+        mDirectory.get(segment).putLong((int) (id & DIRECTORY_SEGMENT_MASK) << 3, address);
+    }
+
+    private ByteBuffer slab(long address) {
+        return mSlabs.get((int) (address >>> mSlabShift));
+    }
+
+    private int offset(long address) {
+        return (int) address & (mSlabSize - 1);
+    }
+
+    private static int recordSize(byte[] firstName, byte[] lastName) {
+        return NAMES + firstName.length + lastName.length;
+    }
+
+    private static int sizeClass(int size) {
+        return (size + (1 << SIZE_CLASS_SHIFT) - 1) >>> SIZE_CLASS_SHIFT;
+    }
+
+    private static byte[] encode(String name) {
+        if (name == null || name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Names must not be null and at most " + MAX_NAME_LENGTH + " characters");
+        }
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ByteBuffer slab, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = slab.get(offset + i);
+        }
+        return bytes;
+    }
+
+    private static String decode(ByteBuffer slab, int offset, int length) {
+        return new String(readBytes(slab, offset, length), StandardCharsets.UTF_8);
+    }
+
+    private static String lower(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * First and last record of the customers sharing a lower-cased last name.
+     */
+    private static final class NameChain {
+
+        long head;
+        long tail;
+    }
+}
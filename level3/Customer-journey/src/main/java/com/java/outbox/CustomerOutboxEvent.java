@@ -0,0 +1,51 @@
+package com.java.outbox;
+
+import com.java.event.CustomerEventType;
+
+import java.time.Instant;
+
+/**
+ * A customer change read back from the outbox table. {@code id} increases with the order the events were written.
+ */
+public class CustomerOutboxEvent {
+
+    private final long id;
+    private final CustomerEventType type;
+    private final long customerId;
+    private final String firstName;
+    private final String lastName;
+    private final Instant createdAt;
+
+    public CustomerOutboxEvent(long id, CustomerEventType type, long customerId, String firstName, String lastName, Instant createdAt) {
+        this.id = id;
+        this.type = type;
+        this.customerId = customerId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public CustomerEventType getType() {
+        return type;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,147 @@
+package com.java.outbox;
+
+import com.java.event.CustomerEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves events from the CUSTOMER_OUTBOX table to the {@link CustomerOutboxSink} on a background thread.
+ * <p>
+ * Each round reads the oldest events in id order, hands them to the sink as one batch and deletes them once
+ * the sink returns. Full batches are relayed back to back; when the table runs dry the relay sleeps for the
+ * poll interval. Rows are always read from the head of the table rather than after a cursor, so an event whose
+ * transaction commits after a later id was relayed is picked up in the next round instead of being skipped.
+ * <p>
+ * Metrics: customer.outbox.delivered counts relayed events, customer.outbox.relay times each batch and
+ * customer.outbox.lag is the age of the oldest event still in the table when it was last read.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true")
+public class CustomerOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerOutboxRelay.class);
+
+    private static final String SELECT_EVENTS = "SELECT id, event_type, customer_id, first_name, last_name, created_at " +
+            "FROM customer_outbox ORDER BY id LIMIT ?";
+    private static final String DELETE_EVENT = "DELETE FROM customer_outbox WHERE id = ?";
+
+    private final JdbcTemplate mJdbcTemplate;
+    private final CustomerOutboxSink mSink;
+    private final int mBatchSize;
+    private final Duration mPollInterval;
+    private final Counter mDeliveredCounter;
+    private final Timer mRelayTimer;
+    private final ScheduledExecutorService mExecutor;
+    private volatile long mLagMillis;
+
+    @Autowired
+    public CustomerOutboxRelay(DataSource dataSource, CustomerOutboxSink sink, ObjectProvider<MeterRegistry> meterRegistry,
+                               @Value("${app.outbox.batch-size:1000}") int batchSize,
+                               @Value("${app.outbox.poll-interval:500ms}") Duration pollInterval) {
+        this(dataSource, sink, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), batchSize, pollInterval);
+    }
+
+    public CustomerOutboxRelay(DataSource dataSource, CustomerOutboxSink sink, MeterRegistry meterRegistry,
+                               int batchSize, Duration pollInterval) {
+        this.mJdbcTemplate = new JdbcTemplate(dataSource);
+        this.mSink = sink;
+        this.mBatchSize = batchSize;
+        this.mPollInterval = pollInterval;
+        this.mDeliveredCounter = Counter.builder("customer.outbox.delivered")
+                .description("Customer outbox events delivered to the sink")
+                .register(meterRegistry);
+        this.mRelayTimer = Timer.builder("customer.outbox.relay")
+                .description("Time to deliver and delete one batch of customer outbox events")
+                .register(meterRegistry);
+        TimeGauge.builder("customer.outbox.lag", this, TimeUnit.MILLISECONDS, CustomerOutboxRelay::getLagMillis)
+                .description("Age of the oldest undelivered customer outbox event")
+                .register(meterRegistry);
+        this.mExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        mExecutor.scheduleWithFixedDelay(this::relay, 0, mPollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Customer outbox relay started, batch size: {}, poll interval: {}", mBatchSize, mPollInterval);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        mExecutor.shutdown();
+        mExecutor.awaitTermination(mPollInterval.toMillis() + 5000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Relays batches until the table holds less than a full batch. A failing sink ends the round, the events
+     * stay in the table and are retried on the next one.
+     *
+     * @return the number of events delivered
+     */
+    public long relay() {
+        long delivered = 0;
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+                delivered += relayed;
+            } while(relayed == mBatchSize);
+        } catch (Exception exception) {
+            logger.warn("Customer outbox relay failed, retrying in {}: {}", mPollInterval, exception.getMessage());
+        }
+        return delivered;
+    }
+
+    public long getLagMillis() {
+        return mLagMillis;
+    }
+
+    private int relayBatch() throws Exception {
+        List<CustomerOutboxEvent> events = mJdbcTemplate.query(SELECT_EVENTS, (resultSet, rowNum) -> new CustomerOutboxEvent(
+                resultSet.getLong(1),
+                CustomerEventType.valueOf(resultSet.getString(2)),
+                resultSet.getLong(3),
+                resultSet.getString(4),
+                resultSet.getString(5),
+                resultSet.getTimestamp(6).toInstant()), mBatchSize);
+        if(events.isEmpty()) {
+            mLagMillis = 0;
+            return 0;
+        }
+        mLagMillis = Math.max(0, System.currentTimeMillis() - events.get(0).getCreatedAt().toEpochMilli());
+        long startedAt = System.nanoTime();
+        mSink.deliver(events);
+        List<Object[]> ids = new ArrayList<>(events.size());
+        events.forEach(event -> ids.add(new Object[]{event.getId()}));
+        // a crash between delivery and this delete redelivers the batch, hence at-least-once
+        mJdbcTemplate.batchUpdate(DELETE_EVENT, ids);
+        mRelayTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        mDeliveredCounter.increment(events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,12 @@
+package com.java.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of the outbox relay. A batch counts as delivered when {@link #deliver} returns; if it throws,
+ * the same events are offered again later, so a sink must tolerate duplicates (delivery is at least once).
+ */
+public interface CustomerOutboxSink {
+
+    void deliver(List<CustomerOutboxEvent> events) throws Exception;
+}
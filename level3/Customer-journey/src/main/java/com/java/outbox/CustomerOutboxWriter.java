@@ -0,0 +1,81 @@
+package com.java.outbox;
+
+import com.java.dao.Customer;
+import com.java.dao.CustomerChangeListener;
+import com.java.event.CustomerEventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records customer changes in the CUSTOMER_OUTBOX table as part of the transaction that makes them.
+ * <p>
+ * Changes are collected for the duration of the transaction and inserted as one JDBC batch just before it
+ * commits, on the transaction's own connection. The events therefore commit or roll back with the change, and
+ * a failed insert rolls the change back rather than losing its event.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true")
+public class CustomerOutboxWriter implements CustomerChangeListener {
+
+    static final String INSERT_EVENT = "INSERT INTO customer_outbox (event_type, customer_id, first_name, last_name) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate mJdbcTemplate;
+
+    @Autowired
+    public CustomerOutboxWriter(DataSource dataSource) {
+        this.mJdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void customerCreated(Customer customer) {
+        append(CustomerEventType.CREATED, customer.getId(), customer.getFirstName(), customer.getLastName());
+    }
+
+    @Override
+    public void customerUpdated(Customer customer) {
+        append(CustomerEventType.UPDATED, customer.getId(), customer.getFirstName(), customer.getLastName());
+    }
+
+    @Override
+    public void customerDeleted(Long customerId) {
+        append(CustomerEventType.DELETED, customerId, null, null);
+    }
+
+    private void append(CustomerEventType type, Long customerId, String firstName, String lastName) {
+        Object[] row = {type.name(), customerId, firstName, lastName};
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            mJdbcTemplate.update(INSERT_EVENT, row);
+            return;
+        }
+        PendingEvents pendingEvents = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if(pendingEvents == null) {
+            pendingEvents = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pendingEvents);
+            TransactionSynchronizationManager.registerSynchronization(pendingEvents);
+        }
+        pendingEvents.rows.add(row);
+    }
+
+    private class PendingEvents implements TransactionSynchronization {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            mJdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CustomerOutboxWriter.this);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.java.outbox;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Appends outbox events to a local file, one JSON object per line. Every batch is flushed and synced to disk
+ * before it is reported delivered. Meant for local runs and tests, in place of a message broker.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+public class NdjsonFileOutboxSink implements CustomerOutboxSink {
+
+    private final FileOutputStream mFileOutputStream;
+    private final BufferedOutputStream mOutputStream;
+    private final ObjectMapper mObjectMapper;
+
+    @Autowired
+    public NdjsonFileOutboxSink(@Value("${app.outbox.file:customer-outbox.ndjson}") String file, ObjectMapper objectMapper) throws IOException {
+        this.mFileOutputStream = new FileOutputStream(file, true);
+        this.mOutputStream = new BufferedOutputStream(mFileOutputStream, 64 * 1024);
+        this.mObjectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void deliver(List<CustomerOutboxEvent> events) throws IOException {
+        try (JsonGenerator generator = mObjectMapper.getFactory().createGenerator(mOutputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (CustomerOutboxEvent event : events) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", event.getId());
+                generator.writeStringField("type", event.getType().name());
+                generator.writeNumberField("customerId", event.getCustomerId());
+                generator.writeStringField("firstName", event.getFirstName());
+                generator.writeStringField("lastName", event.getLastName());
+                generator.writeStringField("createdAt", event.getCreatedAt().toString());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        mOutputStream.flush();
+        mFileOutputStream.getFD().sync();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        mOutputStream.close();
+    }
+}
@@ -0,0 +1,25 @@
+package com.java.search;
+
+import com.java.dao.Customer;
+
+/**
+ * A customer found by fuzzy name search, with its trigram similarity to the query between 0 and 1.
+ */
+public class CustomerMatch {
+
+    private final Customer customer;
+    private final double score;
+
+    public CustomerMatch(Customer customer, double score) {
+        this.customer = customer;
+        this.score = score;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,214 @@
+package com.java.search;
+
+import com.java.dao.Customer;
+import com.java.dao.CustomerChangeListener;
+import com.java.dao.CustomerRepository;
+import com.java.exception.ExpectedErrors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over customer first and last names for typo-tolerant search.
+ * <p>
+ * The index is loaded from {@link CustomerRepository} in id pages once the application is ready, and kept up
+ * to date from customer writes after they commit. Each page is read and indexed under the write lock, so a
+ * change committed while loading is either already in the page or applied after it, never lost.
+ * <p>
+ * Changes are applied from after-commit callbacks, which run on the threads of the writing requests in no
+ * particular order: two updates of one customer, serialized by its row lock, may reach the index the other way
+ * round. So the version of every indexed customer is kept with its names in the {@link TrigramIndex} and a
+ * change older than the one indexed is ignored. A deleted customer is kept in {@link Tombstones} for
+ * {@link #TOMBSTONE_TTL}, long enough for any callback of an earlier write to arrive, so that a late update cannot
+ * bring it back. Both are primitive arrays, so they add a long per indexed customer and two per recent deletion.
+ * <p>
+ * The whole index is on the heap, so it is left out with {@code app.search.fuzzy.enabled=false}, as the
+ * {@code offheap} profile does to keep customers off the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.fuzzy.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerNameIndex implements CustomerChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerNameIndex.class);
+
+    public static final int MAX_MATCHES = 100;
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final String INVALID_QUERY = "q must be between 1 and " + MAX_QUERY_LENGTH + " characters";
+    private static final String INVALID_LIMIT = "limit must be between 1 and " + MAX_MATCHES;
+    private static final long FIRST_PAGE_CURSOR = 0L;
+    private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(1);
+
+    private final CustomerRepository mCustomerRepository;
+    private final int mLoadPageSize;
+    private final double mMinSimilarity;
+    private final TrigramIndex mIndex;
+    private final ExpectedErrors mExpectedErrors;
+    private final ReadWriteLock mLock = new ReentrantReadWriteLock();
+    // guarded by mLock like mIndex
+    private final Tombstones mTombstones = new Tombstones(TOMBSTONE_TTL.toNanos());
+
+    @Autowired
+    public CustomerNameIndex(CustomerRepository customerRepository,
+                             @Value("${app.search.fuzzy.load-page-size:10000}") int loadPageSize,
+                             @Value("${app.search.fuzzy.min-similarity:0.3}") double minSimilarity,
+                             @Value("${app.search.fuzzy.expected-customers:100000}") int expectedCustomers,
+                             ExpectedErrors expectedErrors) {
+        this.mCustomerRepository = customerRepository;
+        this.mLoadPageSize = loadPageSize;
+        this.mMinSimilarity = minSimilarity;
+        this.mIndex = new TrigramIndex(expectedCustomers);
+        this.mExpectedErrors = expectedErrors;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startedAt = System.nanoTime();
+        long after = FIRST_PAGE_CURSOR;
+        List<Customer> page;
+        do {
+            mLock.writeLock().lock();
+            try {
+                page = mCustomerRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, mLoadPageSize));
+                for(Customer customer : page) {
+                    put(customer.getId(), customer.getFirstName(), customer.getLastName(), customer.getVersion());
+                }
+            } finally {
+                mLock.writeLock().unlock();
+            }
+            if(!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while(page.size() == mLoadPageSize);
+        logger.info("Customer name index loaded with {} customers in {} ms", size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Returns the customers whose names are most similar to the query, best first.
+     *
+     * @param query free text matched against first and last names, e.g. "jon smiht"
+     * @param limit number of matches, between 1 and {@link #MAX_MATCHES}
+     */
+    public List<CustomerMatch> search(String query, int limit) {
+        if(query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw mExpectedErrors.constantInvalidPropertyValue(INVALID_QUERY);
+        }
+        if(limit < 1 || limit > MAX_MATCHES) {
+            throw mExpectedErrors.constantInvalidPropertyValue(INVALID_LIMIT);
+        }
+        List<TrigramIndex.Match> matches;
+        mLock.readLock().lock();
+        try {
+            matches = mIndex.search(query, limit, mMinSimilarity);
+        } finally {
+            mLock.readLock().unlock();
+        }
+        if(matches.isEmpty()) {
+            return List.of();
+        }
+        List<Long> customerIds = new ArrayList<>(matches.size());
+        matches.forEach(match -> customerIds.add(match.getCustomerId()));
+        Map<Long, Customer> customers = new HashMap<>();
+        mCustomerRepository.findAllById(customerIds).forEach(customer -> customers.put(customer.getId(), customer));
+        List<CustomerMatch> result = new ArrayList<>(matches.size());
+        for(TrigramIndex.Match match : matches) {
+            Customer customer = customers.get(match.getCustomerId());
+            // a customer deleted after the index was read is simply left out
+            if(customer != null) {
+                result.add(new CustomerMatch(customer, match.getSimilarity()));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        mLock.readLock().lock();
+        try {
+            return mIndex.size();
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void customerCreated(Customer customer) {
+        index(customer);
+    }
+
+    @Override
+    public void customerUpdated(Customer customer) {
+        index(customer);
+    }
+
+    @Override
+    public void customerDeleted(Long customerId) {
+        afterCommit(() -> {
+            mLock.writeLock().lock();
+            try {
+                mIndex.remove(customerId);
+                mTombstones.add(customerId, System.nanoTime());
+            } finally {
+                mLock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void index(Customer customer) {
+        // the names are read now, the entity may change again before the transaction commits
+        long customerId = customer.getId();
+        String firstName = customer.getFirstName();
+        String lastName = customer.getLastName();
+        afterCommit(() -> {
+            // and the version at commit, as a managed entity only gets its new version when it is flushed
+            Long version = customer.getVersion();
+            mLock.writeLock().lock();
+            try {
+                put(customerId, firstName, lastName, version);
+            } finally {
+                mLock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Indexes the names unless a newer version of the customer, or its deletion, is already indexed. Two changes
+     * at the same version come from one transaction, through callbacks run in order, so the later one wins.
+     * Called with the write lock held.
+     */
+    private void put(long customerId, String firstName, String lastName, Long version) {
+        long newVersion = version == null ? 0L : version;
+        if(mIndex.version(customerId) > newVersion || mTombstones.contains(customerId, System.nanoTime())) {
+            return;
+        }
+        mIndex.put(customerId, firstName, lastName, newVersion);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
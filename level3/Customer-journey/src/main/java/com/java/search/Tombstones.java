@@ -0,0 +1,75 @@
+package com.java.search;
+
+import java.util.Arrays;
+
+/**
+ * The customers deleted in the last {@code ttlNanos}, without boxing: a ring of ids and expiry times in deletion
+ * order, and a {@link LongIntHashMap} from each id to the number of its entries in the ring. Expired entries are
+ * dropped from the head of the ring whenever the tombstones are read or added to. Not thread-safe.
+ */
+class Tombstones {
+
+    private final long ttlNanos;
+    private final LongIntHashMap entries = new LongIntHashMap(16);
+    private long[] customerIds = new long[16];
+    private long[] expiresAt = new long[16];
+    private int head;
+    private int size;
+
+    Tombstones(long ttlNanos) {
+        this.ttlNanos = ttlNanos;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void add(long customerId, long now) {
+        expire(now);
+        if (size == customerIds.length) {
+            grow();
+        }
+        int tail = (head + size++) & (customerIds.length - 1);
+        customerIds[tail] = customerId;
+        expiresAt[tail] = now + ttlNanos;
+        int count = entries.get(customerId);
+        entries.put(customerId, count == LongIntHashMap.NO_VALUE ? 1 : count + 1);
+    }
+
+    boolean contains(long customerId, long now) {
+        expire(now);
+        return entries.get(customerId) != LongIntHashMap.NO_VALUE;
+    }
+
+    private void expire(long now) {
+        int mask = customerIds.length - 1;
+        while (size > 0 && now - expiresAt[head] >= 0) {
+            long customerId = customerIds[head];
+            int count = entries.get(customerId);
+            if (count == 1) {
+                entries.remove(customerId);
+            } else {
+                entries.put(customerId, count - 1);
+            }
+            head = (head + 1) & mask;
+            size--;
+        }
+    }
+
+    /**
+     * Doubles the ring, which stays a power of two, moving the entries to its start in order.
+     */
+    private void grow() {
+        int capacity = customerIds.length;
+        long[] grownIds = Arrays.copyOf(customerIds, capacity << 1);
+        long[] grownExpiries = Arrays.copyOf(expiresAt, capacity << 1);
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) & (capacity - 1);
+            grownIds[i] = customerIds[slot];
+            grownExpiries[i] = expiresAt[slot];
+        }
+        customerIds = grownIds;
+        expiresAt = grownExpiries;
+        head = 0;
+    }
+}
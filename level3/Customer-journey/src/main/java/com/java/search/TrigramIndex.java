@@ -0,0 +1,474 @@
+package com.java.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Inverted index from character trigrams to the customers whose names contain them, for typo-tolerant search.
+ * <p>
+ * Every indexed customer gets a dense document number. Each trigram owns a posting list of document numbers,
+ * kept in ascending order and stored as delta-encoded varints in a growable byte array, so a posting usually
+ * costs one or two bytes and nothing is boxed. Removed customers are only marked dead and skipped while
+ * searching; once they make up a quarter of the index, the posting lists are rewritten without them and the
+ * remaining documents are renumbered, so a customer updated again and again does not grow the index. The version
+ * of the indexed names is kept with each document, in a primitive array like the rest of the document.
+ * <p>
+ * Similarity is the Dice coefficient of the trigram sets, {@code 2 * shared / (query + name)}.
+ * Searches do not write to the index, so they can run concurrently; {@link #put} and {@link #remove} must not
+ * run alongside anything else. {@link CustomerNameIndex} guards it with a read/write lock.
+ */
+public class TrigramIndex {
+
+    public static final long NO_VERSION = -1L;
+
+    private static final int MIN_DEAD_DOCS_TO_COMPACT = 1024;
+
+    private final LongIntHashMap trigramLists = new LongIntHashMap(1 << 14);
+    private byte[][] postings = new byte[1024][];
+    private int[] postingLengths = new int[1024];
+    private int[] postingLastDocs = new int[1024];
+    private int lists;
+
+    private final LongIntHashMap customerDocs;
+    private long[] docCustomerIds;
+    private short[] docTrigramCounts;
+    private long[] docVersions;
+    private final BitSet deadDocs = new BitSet();
+    private int docs;
+    private int deadDocsInPostings;
+
+    // trigrams of the names being indexed, searches extract theirs into a Trigrams of their own
+    private final Trigrams indexTrigrams = new Trigrams();
+
+    public TrigramIndex(int expectedCustomers) {
+        int capacity = Math.max(16, expectedCustomers);
+        customerDocs = new LongIntHashMap(capacity);
+        docCustomerIds = new long[capacity];
+        docTrigramCounts = new short[capacity];
+        docVersions = new long[capacity];
+    }
+
+    public int size() {
+        return customerDocs.size();
+    }
+
+    public boolean contains(long customerId) {
+        return customerDocs.get(customerId) != LongIntHashMap.NO_VALUE;
+    }
+
+    /**
+     * @return the version the names of the customer were indexed at, or {@link #NO_VERSION} if it is not indexed
+     */
+    public long version(long customerId) {
+        int doc = customerDocs.get(customerId);
+        return doc == LongIntHashMap.NO_VALUE ? NO_VERSION : docVersions[doc];
+    }
+
+    /**
+     * Indexes the names of a customer at version 0, replacing what was indexed for it before.
+     */
+    public void put(long customerId, String firstName, String lastName) {
+        put(customerId, firstName, lastName, 0L);
+    }
+
+    /**
+     * Indexes the names of a customer at the given version, replacing what was indexed for it before.
+     */
+    public void put(long customerId, String firstName, String lastName, long version) {
+        remove(customerId);
+        int trigrams = indexTrigrams.extract(firstName, lastName);
+        int doc = docs++;
+        if (doc == docCustomerIds.length) {
+            int capacity = doc + (doc >> 1);
+            docCustomerIds = Arrays.copyOf(docCustomerIds, capacity);
+            docTrigramCounts = Arrays.copyOf(docTrigramCounts, capacity);
+            docVersions = Arrays.copyOf(docVersions, capacity);
+        }
+        docCustomerIds[doc] = customerId;
+        docVersions[doc] = version;
+        docTrigramCounts[doc] = (short) Math.min(trigrams, Short.MAX_VALUE);
+        customerDocs.put(customerId, doc);
+        for (int i = 0; i < trigrams; i++) {
+            int list = trigramLists.get(indexTrigrams.values[i]);
+            if (list == LongIntHashMap.NO_VALUE) {
+                list = newList();
+                trigramLists.put(indexTrigrams.values[i], list);
+            }
+            append(list, doc);
+        }
+    }
+
+    public boolean remove(long customerId) {
+        int doc = customerDocs.remove(customerId);
+        if (doc == LongIntHashMap.NO_VALUE) {
+            return false;
+        }
+        deadDocs.set(doc);
+        deadDocsInPostings++;
+        if (deadDocsInPostings >= MIN_DEAD_DOCS_TO_COMPACT && deadDocsInPostings * 4L >= docs) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Returns up to {@code limit} customers whose names are at least {@code minSimilarity} similar to the
+     * query, best first. The posting lists of the query trigrams are merged by document number, so every
+     * candidate is scored once without a per-candidate accumulator.
+     */
+    public List<Match> search(String query, int limit, double minSimilarity) {
+        Trigrams trigrams = new Trigrams();
+        int queryTrigrams = trigrams.extract(query, null);
+        int[] cursorLists = new int[queryTrigrams];
+        int cursors = 0;
+        for (int i = 0; i < queryTrigrams; i++) {
+            int list = trigramLists.get(trigrams.values[i]);
+            if (list != LongIntHashMap.NO_VALUE && postingLengths[list] > 0) {
+                cursorLists[cursors++] = list;
+            }
+        }
+        PostingMerge merge = new PostingMerge(cursorLists, cursors);
+        TopMatches top = new TopMatches(limit);
+        while (merge.hasNext()) {
+            int doc = merge.nextDoc();
+            int shared = merge.sharedByLastDoc();
+            if (deadDocs.get(doc)) {
+                continue;
+            }
+            double similarity = 2.0 * shared / (queryTrigrams + docTrigramCounts[doc]);
+            if (similarity >= minSimilarity) {
+                top.offer(doc, similarity);
+            }
+        }
+        return top.toMatches();
+    }
+
+    private int newList() {
+        if (lists == postings.length) {
+            int capacity = lists + (lists >> 1);
+            postings = Arrays.copyOf(postings, capacity);
+            postingLengths = Arrays.copyOf(postingLengths, capacity);
+            postingLastDocs = Arrays.copyOf(postingLastDocs, capacity);
+        }
+        postings[lists] = new byte[8];
+        postingLastDocs[lists] = -1;
+        return lists++;
+    }
+
+    private void append(int list, int doc) {
+        byte[] bytes = postings[list];
+        int length = postingLengths[list];
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + 5, bytes.length + (bytes.length >> 1)));
+            postings[list] = bytes;
+        }
+        int delta = doc - postingLastDocs[list];
+        while ((delta & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        bytes[length++] = (byte) delta;
+        postingLengths[list] = length;
+        postingLastDocs[list] = doc;
+    }
+
+    int docCapacity() {
+        return docCustomerIds.length;
+    }
+
+    /**
+     * Renumbers the documents of the remaining customers from 0, in their current order, and rewrites every
+     * posting list with the new numbers and without the documents of removed customers.
+     */
+    private void compact() {
+        int[] newDocs = new int[docs];
+        int liveDocs = 0;
+        for (int doc = 0; doc < docs; doc++) {
+            if (deadDocs.get(doc)) {
+                newDocs[doc] = -1;
+                continue;
+            }
+            newDocs[doc] = liveDocs;
+            docCustomerIds[liveDocs] = docCustomerIds[doc];
+            docTrigramCounts[liveDocs] = docTrigramCounts[doc];
+            docVersions[liveDocs] = docVersions[doc];
+            customerDocs.put(docCustomerIds[liveDocs], liveDocs);
+            liveDocs++;
+        }
+        for (int list = 0; list < lists; list++) {
+            byte[] bytes = postings[list];
+            int length = postingLengths[list];
+            postings[list] = new byte[Math.max(8, length)];
+            postingLengths[list] = 0;
+            postingLastDocs[list] = -1;
+            int doc = -1;
+            for (int position = 0; position < length; ) {
+                int delta = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = bytes[position++];
+                    delta |= (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                doc += delta;
+                if (newDocs[doc] >= 0) {
+                    append(list, newDocs[doc]);
+                }
+            }
+        }
+        docs = liveDocs;
+        deadDocs.clear();
+        deadDocsInPostings = 0;
+    }
+
+    public static class Match {
+
+        private final long customerId;
+        private final double similarity;
+
+        Match(long customerId, double similarity) {
+            this.customerId = customerId;
+            this.similarity = similarity;
+        }
+
+        public long getCustomerId() {
+            return customerId;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    /**
+     * Growable buffer of the trigrams of a text.
+     */
+    private static class Trigrams {
+
+        private long[] values = new long[64];
+
+        /**
+         * Extracts the distinct trigrams of the given texts into {@link #values}, sorted, and returns their
+         * count. Text is lower-cased and split into words on anything that is not a letter or a digit; each word
+         * is padded with two leading blanks and one trailing blank, so short words and word starts weigh more.
+         */
+        int extract(String first, String second) {
+            int count = append(first, 0);
+            count = append(second, count);
+            Arrays.sort(values, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || values[distinct - 1] != values[i]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            return distinct;
+        }
+
+        private int append(String text, int count) {
+            if (text == null) {
+                return count;
+            }
+            char previous2 = ' ';
+            char previous1 = ' ';
+            boolean inWord = false;
+            for (int i = 0; i <= text.length(); i++) {
+                char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+                boolean wordChar = Character.isLetterOrDigit(c);
+                if (!wordChar && !inWord) {
+                    continue;
+                }
+                if (!wordChar) {
+                    c = ' ';
+                }
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count << 1);
+                }
+                values[count++] = ((long) previous2 << 32) | ((long) previous1 << 16) | c;
+                if (wordChar) {
+                    previous2 = previous1;
+                    previous1 = c;
+                    inWord = true;
+                } else {
+                    previous2 = ' ';
+                    previous1 = ' ';
+                    inWord = false;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * K-way merge of posting lists on a binary heap of cursors ordered by their current document.
+     */
+    private class PostingMerge {
+
+        private final int[] lists;
+        private final int[] positions;
+        private final int[] currentDocs;
+        private final int[] heap;
+        private int heapSize;
+        private int shared;
+
+        PostingMerge(int[] cursorLists, int cursors) {
+            lists = cursorLists;
+            positions = new int[cursors];
+            currentDocs = new int[cursors];
+            heap = new int[cursors];
+            for (int cursor = 0; cursor < cursors; cursor++) {
+                currentDocs[cursor] = -1;
+                advance(cursor);
+                heap[heapSize] = cursor;
+                siftUp(heapSize++);
+            }
+        }
+
+        boolean hasNext() {
+            return heapSize > 0;
+        }
+
+        /**
+         * Returns the smallest current document and moves past it in every list that contains it.
+         */
+        int nextDoc() {
+            int doc = currentDocs[heap[0]];
+            shared = 0;
+            while (heapSize > 0 && currentDocs[heap[0]] == doc) {
+                shared++;
+                int cursor = heap[0];
+                if (advance(cursor)) {
+                    siftDown(0);
+                } else {
+                    heap[0] = heap[--heapSize];
+                    siftDown(0);
+                }
+            }
+            return doc;
+        }
+
+        int sharedByLastDoc() {
+            return shared;
+        }
+
+        private boolean advance(int cursor) {
+            int list = lists[cursor];
+            int position = positions[cursor];
+            if (position >= postingLengths[list]) {
+                return false;
+            }
+            byte[] bytes = postings[list];
+            int delta = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                delta |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            positions[cursor] = position;
+            currentDocs[cursor] += delta;
+            return true;
+        }
+
+        private void siftUp(int index) {
+            int cursor = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (currentDocs[heap[parent]] <= currentDocs[cursor]) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = cursor;
+        }
+
+        private void siftDown(int index) {
+            if (heapSize == 0) {
+                return;
+            }
+            int cursor = heap[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && currentDocs[heap[child + 1]] < currentDocs[heap[child]]) {
+                    child++;
+                }
+                if (currentDocs[heap[child]] >= currentDocs[cursor]) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = cursor;
+        }
+    }
+
+    /**
+     * Bounded min-heap on similarity that keeps the best {@code limit} documents seen so far.
+     */
+    private class TopMatches {
+
+        private final int[] docs;
+        private final double[] similarities;
+        private int size;
+
+        TopMatches(int limit) {
+            docs = new int[limit];
+            similarities = new double[limit];
+        }
+
+        void offer(int doc, double similarity) {
+            if (size < docs.length) {
+                int index = size++;
+                while (index > 0) {
+                    int parent = (index - 1) >>> 1;
+                    if (similarities[parent] <= similarity) {
+                        break;
+                    }
+                    docs[index] = docs[parent];
+                    similarities[index] = similarities[parent];
+                    index = parent;
+                }
+                docs[index] = doc;
+                similarities[index] = similarity;
+            } else if (similarity > similarities[0]) {
+                int index = 0;
+                while (true) {
+                    int child = 2 * index + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && similarities[child + 1] < similarities[child]) {
+                        child++;
+                    }
+                    if (similarities[child] >= similarity) {
+                        break;
+                    }
+                    docs[index] = docs[child];
+                    similarities[index] = similarities[child];
+                    index = child;
+                }
+                docs[index] = doc;
+                similarities[index] = similarity;
+            }
+        }
+
+        List<Match> toMatches() {
+            List<Match> matches = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                matches.add(new Match(docCustomerIds[docs[i]], similarities[i]));
+            }
+            matches.sort((left, right) -> left.similarity != right.similarity
+                    ? Double.compare(right.similarity, left.similarity)
+                    : Long.compare(left.customerId, right.customerId));
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.java.shard;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The {@code /actuator/shards} endpoint of the sharded profile, listing the buckets and customers of every shard.
+ * Rebalancing is left to the JMX-only {@link ShardRebalanceEndpoint}.
+ */
+@Component
+@Profile("sharded")
+@Endpoint(id = "shards")
+public class ShardEndpoint {
+
+    private final ShardedCustomerStore mStore;
+
+    @Autowired
+    public ShardEndpoint(ShardedCustomerStore store) {
+        this.mStore = store;
+    }
+
+    @ReadOperation
+    public List<ShardedCustomerStore.ShardStatus> shards() {
+        return mStore.getStatus();
+    }
+}
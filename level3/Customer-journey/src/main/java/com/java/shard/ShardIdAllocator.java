@@ -0,0 +1,36 @@
+package com.java.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Hands out customer ids that are unique across all shards, taken from the hibernate_sequence of the coordinator a
+ * block at a time, so the coordinator sees one query per block rather than one per insert. Ids left in the block
+ * when the application stops are never used.
+ */
+public class ShardIdAllocator {
+
+    private static final String NEXT_IDS = "SELECT NEXT VALUE FOR hibernate_sequence FROM SYSTEM_RANGE(1, ?)";
+
+    private final JdbcTemplate mCoordinator;
+    private final int mBlockSize;
+    private List<Long> mBlock = List.of();
+    private int mNext;
+
+    public ShardIdAllocator(JdbcTemplate coordinator, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("The id block size must be at least 1 but was " + blockSize);
+        }
+        this.mCoordinator = coordinator;
+        this.mBlockSize = blockSize;
+    }
+
+    public synchronized long next() {
+        if (mNext == mBlock.size()) {
+            mBlock = mCoordinator.queryForList(NEXT_IDS, Long.class, mBlockSize);
+            mNext = 0;
+        }
+        return mBlock.get(mNext++);
+    }
+}
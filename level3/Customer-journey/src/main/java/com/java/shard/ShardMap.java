@@ -0,0 +1,131 @@
+package com.java.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Assigns customers to shards in two steps: the id gives the bucket, one of {@link #BUCKETS}, and each bucket is
+ * owned by one shard. Moving a bucket moves about 1/1024 of the customers, so shards can be added and the load
+ * evened out a bucket at a time.
+ * <p>
+ * The bucket is the low bits of the id. Ids are handed out in consecutive blocks, so consecutive customers land in
+ * consecutive buckets and every bucket fills at the same rate; unlike a mixing hash, the same bucket can also be
+ * computed by the shard databases, whose shard_bucket column is indexed for moves.
+ * <p>
+ * The owners are kept in the CUSTOMER_SHARD_BUCKET table of the coordinator, the first shard. A new map spreads
+ * the buckets round robin over the shards.
+ */
+public final class ShardMap {
+
+    public static final int BUCKETS = 1024;
+
+    private static final String SELECT_OWNERS = "SELECT bucket, shard FROM customer_shard_bucket";
+    private static final String MERGE_OWNER = "MERGE INTO customer_shard_bucket (bucket, shard) KEY (bucket) VALUES (?, ?)";
+
+    private final JdbcTemplate mCoordinator;
+    private final int mShardCount;
+    private final AtomicIntegerArray mOwners;
+
+    private ShardMap(JdbcTemplate coordinator, int shardCount, int[] owners) {
+        this.mCoordinator = coordinator;
+        this.mShardCount = shardCount;
+        this.mOwners = new AtomicIntegerArray(owners);
+    }
+
+    /**
+     * Reads the map from the coordinator, creating it there when it does not exist.
+     *
+     * @throws IllegalStateException if a bucket is owned by a shard that is not configured
+     */
+    public static ShardMap load(JdbcTemplate coordinator, int shardCount) {
+        int[] owners = new int[BUCKETS];
+        Arrays.fill(owners, -1);
+        coordinator.query(SELECT_OWNERS, resultSet -> {
+            owners[resultSet.getInt(1)] = resultSet.getInt(2);
+        });
+        List<Object[]> missing = new ArrayList<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (owners[bucket] == -1) {
+                owners[bucket] = bucket % shardCount;
+                missing.add(new Object[]{bucket, owners[bucket]});
+            } else if (owners[bucket] >= shardCount) {
+                throw new IllegalStateException(String.format("Bucket %d is owned by shard %d but only %d shards are configured",
+                        bucket, owners[bucket], shardCount));
+            }
+        }
+        coordinator.batchUpdate(MERGE_OWNER, missing);
+        return new ShardMap(coordinator, shardCount, owners);
+    }
+
+    public static int bucketOf(long id) {
+        return (int) (id & (BUCKETS - 1));
+    }
+
+    public int getShardCount() {
+        return mShardCount;
+    }
+
+    public int shardOf(long id) {
+        return mOwners.get(bucketOf(id));
+    }
+
+    public int ownerOf(int bucket) {
+        return mOwners.get(bucket);
+    }
+
+    /**
+     * @return the buckets owned by the shard, in order
+     */
+    public List<Integer> bucketsOf(int shard) {
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (mOwners.get(bucket) == shard) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Records the new owner on the coordinator, then here.
+     */
+    void assign(int bucket, int shard) {
+        mCoordinator.update(MERGE_OWNER, bucket, shard);
+        mOwners.set(bucket, shard);
+    }
+
+    /**
+     * Owners that give every shard {@code BUCKETS / shards} buckets, one more for the first {@code BUCKETS % shards},
+     * moving as few buckets as possible: only shards above their share give buckets away, their highest first.
+     */
+    int[] balancedOwners() {
+        int[] owners = new int[BUCKETS];
+        int[] counts = new int[mShardCount];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            owners[bucket] = mOwners.get(bucket);
+            counts[owners[bucket]]++;
+        }
+        int receiver = 0;
+        for (int bucket = BUCKETS - 1; bucket >= 0; bucket--) {
+            int owner = owners[bucket];
+            if (counts[owner] <= share(owner)) {
+                continue;
+            }
+            while (counts[receiver] >= share(receiver)) {
+                receiver++;
+            }
+            owners[bucket] = receiver;
+            counts[owner]--;
+            counts[receiver]++;
+        }
+        return owners;
+    }
+
+    private int share(int shard) {
+        return BUCKETS / mShardCount + (shard < BUCKETS % mShardCount ? 1 : 0);
+    }
+}
@@ -0,0 +1,105 @@
+package com.java.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stores serving the same shards, the nodes, each with a row in the CUSTOMER_SHARD_NODE table of the
+ * coordinator that it touches every third of the lease; a node whose row was not touched for a lease is gone.
+ * <p>
+ * Every node routes by its own copy of the shard map, read when it starts, so buckets may only move while a single
+ * node is running: {@link #startRebalancing()} fails while another node is alive, and a node does not start while
+ * another one is rebalancing. The coordinator's clock is used throughout, so the nodes' clocks do not matter.
+ */
+final class ShardNodes implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardNodes.class);
+
+    private static final String MERGE_NODE = "MERGE INTO customer_shard_node (node_id, seen_at) KEY (node_id) VALUES (?, CURRENT_TIMESTAMP)";
+    private static final String DELETE_GONE = "DELETE FROM customer_shard_node WHERE seen_at <= DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP)";
+    private static final String SELECT_OTHERS = "SELECT node_id FROM customer_shard_node " +
+            "WHERE node_id <> ? AND seen_at > DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP)";
+    private static final String SET_REBALANCING = "UPDATE customer_shard_node SET rebalancing = ? WHERE node_id = ?";
+    private static final String DELETE_NODE = "DELETE FROM customer_shard_node WHERE node_id = ?";
+
+    private final JdbcTemplate mCoordinator;
+    private final long mLeaseMillis;
+    private final String mNodeId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService mHeartbeat;
+
+    /**
+     * Adds this node, dropping the rows of nodes that are gone.
+     *
+     * @throws IllegalStateException if another node is rebalancing
+     */
+    ShardNodes(JdbcTemplate coordinator, Duration lease) {
+        if (lease.toMillis() < 3) {
+            throw new IllegalArgumentException("The node lease must be at least 3 ms but was " + lease);
+        }
+        this.mCoordinator = coordinator;
+        this.mLeaseMillis = lease.toMillis();
+        mCoordinator.update(DELETE_GONE, -mLeaseMillis);
+        mCoordinator.update(MERGE_NODE, mNodeId);
+        List<String> rebalancing = others(" AND rebalancing");
+        if (!rebalancing.isEmpty()) {
+            mCoordinator.update(DELETE_NODE, mNodeId);
+            throw new IllegalStateException("The shards are being rebalanced by node " + rebalancing.get(0) + ", start once it is done");
+        }
+        this.mHeartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-shard-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        mHeartbeat.scheduleWithFixedDelay(this::touch, mLeaseMillis / 3, mLeaseMillis / 3, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marks this node as rebalancing, so that no other node starts until {@link #stopRebalancing()}.
+     *
+     * @throws IllegalStateException if another node is alive
+     */
+    void startRebalancing() {
+        // marked before looking, so of a node starting meanwhile either it sees the mark or this sees its row
+        mCoordinator.update(SET_REBALANCING, true, mNodeId);
+        List<String> others = others("");
+        if (!others.isEmpty()) {
+            stopRebalancing();
+            throw new IllegalStateException(String.format("Buckets only move while a single node serves the shards, " +
+                    "but %d other nodes such as %s are running", others.size(), others.get(0)));
+        }
+    }
+
+    void stopRebalancing() {
+        mCoordinator.update(SET_REBALANCING, false, mNodeId);
+    }
+
+    @Override
+    public void close() {
+        mHeartbeat.shutdownNow();
+        try {
+            mCoordinator.update(DELETE_NODE, mNodeId);
+        } catch (RuntimeException exception) {
+            logger.warn("Unable to remove node {} from the coordinator: {}", mNodeId, exception.getMessage());
+        }
+    }
+
+    private List<String> others(String condition) {
+        return mCoordinator.queryForList(SELECT_OTHERS + condition, String.class, mNodeId, -mLeaseMillis);
+    }
+
+    private void touch() {
+        try {
+            mCoordinator.update(MERGE_NODE, mNodeId);
+        } catch (RuntimeException exception) {
+            logger.warn("Unable to renew the lease of node {}: {}", mNodeId, exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.java.shard;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebalances the buckets over the shards while the application keeps serving, and answers with what was moved.
+ * After adding a URL to {@code app.sharding.urls} and restarting, the new shard owns no bucket until it is
+ * rebalanced.
+ * <p>
+ * Only available over JMX, with {@code spring.jmx.enabled}, as the web endpoints are not authenticated. The
+ * operation fails while another instance of the application serves the same shards: stop the others, rebalance,
+ * then start them again so they read the new shard map.
+ */
+@Component
+@Profile("sharded")
+@JmxEndpoint(id = "shardrebalance")
+public class ShardRebalanceEndpoint {
+
+    private final ShardedCustomerStore mStore;
+
+    @Autowired
+    public ShardRebalanceEndpoint(ShardedCustomerStore store) {
+        this.mStore = store;
+    }
+
+    @WriteOperation
+    public ShardedCustomerStore.RebalanceResult rebalance() {
+        return mStore.rebalance();
+    }
+}
@@ -0,0 +1,571 @@
+package com.java.shard;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Customers spread over several databases, the shards, by the {@link ShardMap} bucket of their id.
+ * <p>
+ * Reads and writes of one customer go to its shard alone. Reads of many customers are scatter-gather: the query
+ * runs on every shard in parallel, each returning its rows in order, and the lists are merged into one, so a page
+ * of {@code limit} customers needs at most {@code limit} rows from each shard. Ids come from a
+ * {@link ShardIdAllocator} on the first shard, the coordinator, and are unique across shards.
+ * <p>
+ * Every shard has the schema of the application's database plus the shard_bucket column of db/shard; both sets of
+ * migrations are applied when the store is created. {@link #rebalance()} moves buckets between shards while the
+ * store serves: each bucket is copied, handed over and deleted from its old shard while reads and writes wait,
+ * which takes as long as copying about 1/1024 of a shard. Every store keeps its own copy of the shard map, so
+ * buckets only move while a single store serves the shards, which {@link ShardNodes} enforces. Statements run in
+ * auto-commit on the shards, so a write is not part of any transaction of the caller, and a write of several
+ * customers is not atomic.
+ */
+public class ShardedCustomerStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedCustomerStore.class);
+
+    private static final Duration DEFAULT_NODE_LEASE = Duration.ofSeconds(30);
+
+    private static final String COLUMNS = "SELECT id, first_name, last_name, version, last_name_lower FROM customer ";
+    private static final String SELECT_BY_ID = COLUMNS + "WHERE id = ?";
+    private static final String SELECT_PAGE = COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_BY_LAST_NAME = COLUMNS + "WHERE last_name_lower = LOWER(?) AND last_name = ? ORDER BY id";
+    private static final String SELECT_BY_LAST_NAME_LOWER = COLUMNS + "WHERE last_name_lower = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_BY_LAST_NAME_LIKE = COLUMNS + "WHERE last_name_lower LIKE LOWER(?) ESCAPE '\\' " +
+            "AND last_name_lower >= ? AND (last_name_lower > ? OR id > ?) ORDER BY last_name_lower, id LIMIT ?";
+    private static final String SELECT_BUCKET = COLUMNS + "WHERE shard_bucket = ?";
+    private static final String SELECT_VERSION = "SELECT version FROM customer WHERE id = ?";
+    private static final String COUNT_BY_BUCKET = "SELECT shard_bucket, COUNT(*) FROM customer GROUP BY shard_bucket";
+    private static final String INSERT = "INSERT INTO customer (id, first_name, last_name, version) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_BY_ID = "DELETE FROM customer WHERE id = ?";
+    private static final String DELETE_BUCKET = "DELETE FROM customer WHERE shard_bucket = ?";
+    private static final String DELETE_ALL = "DELETE FROM customer";
+    private static final String SELECT_MOVES = "SELECT bucket, source_shard, target_shard FROM customer_shard_move";
+    private static final String MERGE_MOVE = "MERGE INTO customer_shard_move (bucket, source_shard, target_shard) KEY (bucket) VALUES (?, ?, ?)";
+    private static final String DELETE_MOVE = "DELETE FROM customer_shard_move WHERE bucket = ?";
+
+    private static final RowMapper<Row> ROW_MAPPER = (resultSet, rowNumber) -> new Row(resultSet.getLong(1), resultSet.getString(2),
+            resultSet.getString(3), resultSet.getLong(4), resultSet.getString(5));
+    private static final Comparator<Row> BY_ID = Comparator.comparingLong(row -> row.id);
+    private static final Comparator<Row> BY_LAST_NAME_LOWER = Comparator.<Row, String>comparing(row -> row.lastNameLower).thenComparing(BY_ID);
+
+    /**
+     * Builds the caller's representation of a customer read from a shard.
+     */
+    @FunctionalInterface
+    public interface RecordMapper<T> {
+        T map(long id, String firstName, String lastName, long version);
+    }
+
+    private final List<DataSource> mDataSources;
+    private final List<JdbcTemplate> mShards;
+    private final ShardNodes mNodes;
+    private final ShardMap mShardMap;
+    private final ShardIdAllocator mIdAllocator;
+    private final ExecutorService mScatterExecutor;
+    // held for reading by every operation and for writing while a bucket moves
+    private final ReentrantReadWriteLock mMoveLock = new ReentrantReadWriteLock();
+
+    public ShardedCustomerStore(List<DataSource> dataSources, int idBlockSize, int scatterPoolSize) {
+        this(dataSources, idBlockSize, scatterPoolSize, DEFAULT_NODE_LEASE);
+    }
+
+    /**
+     * Migrates the shards, joins the nodes serving them, loads the shard map from the first one and drops the copy
+     * of a bucket left behind by a move that did not finish. The store takes over the data sources, closing those
+     * that are {@link AutoCloseable} when it is closed.
+     *
+     * @param idBlockSize      ids taken from the coordinator at a time
+     * @param scatterPoolSize  threads running the per-shard queries of scatter-gather reads
+     * @param nodeLease        how long the store counts as running after it last renewed its row on the coordinator
+     * @throws IllegalStateException if another node is rebalancing, or if a shard holds customers of a bucket it
+     *                               does not own, as when the URLs were reordered; nothing is deleted then
+     */
+    public ShardedCustomerStore(List<DataSource> dataSources, int idBlockSize, int scatterPoolSize, Duration nodeLease) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is needed");
+        }
+        this.mDataSources = List.copyOf(dataSources);
+        List<JdbcTemplate> shards = new ArrayList<>();
+        for (DataSource dataSource : mDataSources) {
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration", "classpath:db/shard")
+                    .baselineOnMigrate(true)
+                    .load()
+                    .migrate();
+            shards.add(new JdbcTemplate(dataSource));
+        }
+        this.mShards = List.copyOf(shards);
+        // joined before the map is read, so a rebalance can not start in between unnoticed
+        this.mNodes = new ShardNodes(mShards.get(0), nodeLease);
+        this.mShardMap = ShardMap.load(mShards.get(0), mShards.size());
+        this.mIdAllocator = new ShardIdAllocator(mShards.get(0), idBlockSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.mScatterExecutor = Executors.newFixedThreadPool(scatterPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "customer-shard-scatter-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            finishMoves();
+            checkOwnership();
+        } catch (RuntimeException exception) {
+            close();
+            throw exception;
+        }
+    }
+
+    public int getShardCount() {
+        return mShards.size();
+    }
+
+    public ShardMap getShardMap() {
+        return mShardMap;
+    }
+
+    public <T> T get(long id, RecordMapper<T> mapper) {
+        return withReadLock(() -> map(single(shardOf(id).query(SELECT_BY_ID, ROW_MAPPER, id)), mapper));
+    }
+
+    public Long getVersion(long id) {
+        return withReadLock(() -> single(shardOf(id).queryForList(SELECT_VERSION, Long.class, id)));
+    }
+
+    public boolean contains(long id) {
+        return getVersion(id) != null;
+    }
+
+    /**
+     * @return the customers with these ids, grouped by shard; ids without a customer are left out
+     */
+    public <T> List<T> getAll(Collection<Long> ids, RecordMapper<T> mapper) {
+        List<List<Long>> idsByShard = new ArrayList<>();
+        for (int shard = 0; shard < mShards.size(); shard++) {
+            idsByShard.add(new ArrayList<>());
+        }
+        return withReadLock(() -> {
+            ids.forEach(id -> idsByShard.get(mShardMap.shardOf(id)).add(id));
+            List<List<Row>> rows = scatter(shard -> {
+                List<Long> shardIds = idsByShard.get(mShards.indexOf(shard));
+                if (shardIds.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                String placeholders = String.join(", ", Collections.nCopies(shardIds.size(), "?"));
+                return shard.query(COLUMNS + "WHERE id IN (" + placeholders + ")", ROW_MAPPER, shardIds.toArray());
+            });
+            List<T> customers = new ArrayList<>();
+            rows.forEach(shardRows -> shardRows.forEach(row -> customers.add(row.map(mapper))));
+            return customers;
+        });
+    }
+
+    public long count() {
+        return withReadLock(() -> {
+            long count = 0;
+            for (List<long[]> counts : scatter(shard -> shard.query(COUNT_BY_BUCKET,
+                    (resultSet, rowNumber) -> new long[]{resultSet.getInt(1), resultSet.getLong(2)}))) {
+                for (long[] bucketCount : counts) {
+                    count += bucketCount[1];
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * @param after id of the last customer of the previous page, 0 for the first
+     * @return at most {@code limit} customers with an id greater than {@code after}, in id order
+     */
+    public <T> List<T> pageById(long after, int limit, RecordMapper<T> mapper) {
+        return withReadLock(() -> merge(scatter(shard -> shard.query(SELECT_PAGE, ROW_MAPPER, after, limit)), BY_ID, limit, mapper));
+    }
+
+    /**
+     * @return the customers with exactly this last name, in id order
+     */
+    public <T> List<T> findByLastName(String lastName, RecordMapper<T> mapper) {
+        return withReadLock(() -> merge(scatter(shard -> shard.query(SELECT_BY_LAST_NAME, ROW_MAPPER, lastName, lastName)),
+                BY_ID, Integer.MAX_VALUE, mapper));
+    }
+
+    /**
+     * @return at most {@code limit} customers whose lower-cased last name is {@code lastNameLower}, in id order
+     */
+    public <T> List<T> findByLastNameLower(String lastNameLower, long after, int limit, RecordMapper<T> mapper) {
+        return withReadLock(() -> merge(scatter(shard -> shard.query(SELECT_BY_LAST_NAME_LOWER, ROW_MAPPER, lastNameLower, after, limit)),
+                BY_ID, limit, mapper));
+    }
+
+    /**
+     * @param pattern            LIKE pattern matched against the lower-cased last name, with backslash as escape
+     * @param afterLastNameLower lower-cased last name of the last customer of the previous page, "" for the first
+     * @return at most {@code limit} matching customers after the cursor, in order of lower-cased last name and id
+     */
+    public <T> List<T> findByLastNameLike(String pattern, String afterLastNameLower, long after, int limit, RecordMapper<T> mapper) {
+        return withReadLock(() -> merge(scatter(shard -> shard.query(SELECT_BY_LAST_NAME_LIKE, ROW_MAPPER, pattern,
+                afterLastNameLower, afterLastNameLower, after, limit)), BY_LAST_NAME_LOWER, limit, mapper));
+    }
+
+    /**
+     * Stores a new customer at version 0 under the next id.
+     */
+    public <T> T insert(String firstName, String lastName, RecordMapper<T> mapper) {
+        long id = mIdAllocator.next();
+        return withReadLock(() -> {
+            shardOf(id).update(INSERT, id, firstName, lastName, 0L);
+            return mapper.map(id, firstName, lastName, 0L);
+        });
+    }
+
+    /**
+     * Runs statements on the shard holding the customer with this id, which stays its shard until they return.
+     */
+    public <T> T onShardOf(long id, Function<JdbcTemplate, T> statements) {
+        return withReadLock(() -> statements.apply(shardOf(id)));
+    }
+
+    /**
+     * @return whether there was a customer with this id
+     */
+    public boolean delete(long id) {
+        return withReadLock(() -> shardOf(id).update(DELETE_BY_ID, id) > 0);
+    }
+
+    public void clear() {
+        withReadLock(() -> scatter(shard -> shard.update(DELETE_ALL)));
+    }
+
+    /**
+     * @return for each shard, the buckets it owns and the customers it holds
+     */
+    public List<ShardStatus> getStatus() {
+        return withReadLock(() -> {
+            List<List<long[]>> counts = scatter(shard -> shard.query(COUNT_BY_BUCKET,
+                    (resultSet, rowNumber) -> new long[]{resultSet.getInt(1), resultSet.getLong(2)}));
+            List<ShardStatus> status = new ArrayList<>();
+            for (int shard = 0; shard < mShards.size(); shard++) {
+                long customers = 0;
+                for (long[] bucketCount : counts.get(shard)) {
+                    customers += bucketCount[1];
+                }
+                status.add(new ShardStatus(shard, mShardMap.bucketsOf(shard).size(), customers));
+            }
+            return status;
+        });
+    }
+
+    /**
+     * Moves buckets until every shard owns its share of them, for instance after a shard was added to the
+     * configuration; buckets that are already in place do not move.
+     *
+     * @throws IllegalStateException if another store serves the same shards
+     */
+    public RebalanceResult rebalance() {
+        long start = System.nanoTime();
+        int movedBuckets = 0;
+        long movedCustomers = 0;
+        mNodes.startRebalancing();
+        try {
+            int[] owners = mShardMap.balancedOwners();
+            for (int bucket = 0; bucket < ShardMap.BUCKETS; bucket++) {
+                if (owners[bucket] != mShardMap.ownerOf(bucket)) {
+                    movedCustomers += move(bucket, owners[bucket]);
+                    movedBuckets++;
+                }
+            }
+        } finally {
+            mNodes.stopRebalancing();
+        }
+        RebalanceResult result = new RebalanceResult(movedBuckets, movedCustomers, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Shards rebalanced, moved {} buckets with {} customers in {} ms", movedBuckets, movedCustomers, result.getMillis());
+        return result;
+    }
+
+    /**
+     * Copies the customers of the bucket to the shard, hands the bucket over and deletes them from their old
+     * shard, while every other operation waits. The move is recorded on the coordinator until it is done, so that
+     * the copy an interrupted move leaves behind is dropped when the store is next created.
+     *
+     * @return the number of customers moved
+     * @throws IllegalStateException if another store serves the same shards
+     */
+    public int moveBucket(int bucket, int targetShard) {
+        mNodes.startRebalancing();
+        try {
+            return move(bucket, targetShard);
+        } finally {
+            mNodes.stopRebalancing();
+        }
+    }
+
+    private int move(int bucket, int targetShard) {
+        Lock lock = mMoveLock.writeLock();
+        lock.lock();
+        try {
+            int sourceShard = mShardMap.ownerOf(bucket);
+            if (sourceShard == targetShard) {
+                return 0;
+            }
+            JdbcTemplate source = mShards.get(sourceShard);
+            JdbcTemplate target = mShards.get(targetShard);
+            JdbcTemplate coordinator = mShards.get(0);
+            coordinator.update(MERGE_MOVE, bucket, sourceShard, targetShard);
+            List<Row> rows = source.query(SELECT_BUCKET, ROW_MAPPER, bucket);
+            target.update(DELETE_BUCKET, bucket);
+            List<Object[]> inserts = new ArrayList<>(rows.size());
+            rows.forEach(row -> inserts.add(new Object[]{row.id, row.firstName, row.lastName, row.version}));
+            target.batchUpdate(INSERT, inserts);
+            mShardMap.assign(bucket, targetShard);
+            source.update(DELETE_BUCKET, bucket);
+            coordinator.update(DELETE_MOVE, bucket);
+            return rows.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        mScatterExecutor.shutdownNow();
+        mNodes.close();
+        for (DataSource dataSource : mDataSources) {
+            if (dataSource instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) dataSource).close();
+                } catch (Exception exception) {
+                    logger.warn("Unable to close a shard data source: {}", exception.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes the moves recorded on the coordinator: the shard the map names as the owner keeps the bucket, and
+     * the other one of the move, holding either a partial copy or rows not yet deleted, loses its rows of it.
+     */
+    private void finishMoves() {
+        JdbcTemplate coordinator = mShards.get(0);
+        coordinator.query(SELECT_MOVES, resultSet -> {
+            int bucket = resultSet.getInt(1);
+            int sourceShard = resultSet.getInt(2);
+            int targetShard = resultSet.getInt(3);
+            int owner = mShardMap.ownerOf(bucket);
+            if ((owner != sourceShard && owner != targetShard) || Math.max(sourceShard, targetShard) >= mShards.size()) {
+                throw new IllegalStateException(String.format("The move of bucket %d from shard %d to shard %d does not match the shard map, " +
+                        "which gives it to shard %d of %d", bucket, sourceShard, targetShard, owner, mShards.size()));
+            }
+            int leftBehind = owner == targetShard ? sourceShard : targetShard;
+            int deleted = mShards.get(leftBehind).update(DELETE_BUCKET, bucket);
+            logger.info("Finished the interrupted move of bucket {} to shard {}, dropped {} customers from shard {}", bucket, owner, deleted, leftBehind);
+        });
+        coordinator.update("DELETE FROM customer_shard_move");
+    }
+
+    /**
+     * Fails unless every shard only holds customers of the buckets it owns: any other rows mean the shards are not
+     * the ones, or not in the order, the shard map was made for.
+     */
+    private void checkOwnership() {
+        List<List<long[]>> counts = scatter(shard -> shard.query(COUNT_BY_BUCKET,
+                (resultSet, rowNumber) -> new long[]{resultSet.getInt(1), resultSet.getLong(2)}));
+        for (int shard = 0; shard < mShards.size(); shard++) {
+            long customers = 0;
+            int bucket = -1;
+            for (long[] bucketCount : counts.get(shard)) {
+                if (mShardMap.ownerOf((int) bucketCount[0]) != shard) {
+                    customers += bucketCount[1];
+                    bucket = (int) bucketCount[0];
+                }
+            }
+            if (customers > 0) {
+                throw new IllegalStateException(String.format("Shard %d holds %d customers of buckets it does not own, such as bucket %d of shard %d; " +
+                        "check that app.sharding.urls lists the shards in their original order", shard, customers, bucket, mShardMap.ownerOf(bucket)));
+            }
+        }
+    }
+
+    private JdbcTemplate shardOf(long id) {
+        return mShards.get(mShardMap.shardOf(id));
+    }
+
+    private <R> R withReadLock(Supplier<R> work) {
+        Lock lock = mMoveLock.readLock();
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the query on every shard, all but the first on the scatter pool, and returns the results in shard order.
+     */
+    private <R> List<R> scatter(Function<JdbcTemplate, R> query) {
+        List<Future<R>> futures = new ArrayList<>(mShards.size());
+        for (int shard = 1; shard < mShards.size(); shard++) {
+            JdbcTemplate template = mShards.get(shard);
+            futures.add(mScatterExecutor.submit(() -> query.apply(template)));
+        }
+        List<R> results = new ArrayList<>(mShards.size());
+        results.add(query.apply(mShards.get(0)));
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException exception) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", exception);
+        } catch (ExecutionException exception) {
+            futures.forEach(future -> future.cancel(true));
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Merges lists that are each sorted in {@code order} into the first {@code limit} rows overall.
+     */
+    private static <T> List<T> merge(List<List<Row>> sortedLists, Comparator<Row> order, int limit, RecordMapper<T> mapper) {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, sortedLists.size()), (left, right) -> order.compare(left.current(), right.current()));
+        int total = 0;
+        for (List<Row> rows : sortedLists) {
+            if (!rows.isEmpty()) {
+                cursors.add(new Cursor(rows));
+                total += rows.size();
+            }
+        }
+        List<T> merged = new ArrayList<>(Math.min(limit, total));
+        while (merged.size() < limit && !cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            merged.add(cursor.current().map(mapper));
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static <T> T single(List<T> results) {
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    private static <T> T map(Row row, RecordMapper<T> mapper) {
+        return row == null ? null : row.map(mapper);
+    }
+
+    private static final class Row {
+
+        private final long id;
+        private final String firstName;
+        private final String lastName;
+        private final long version;
+        private final String lastNameLower;
+
+        Row(long id, String firstName, String lastName, long version, String lastNameLower) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.version = version;
+            this.lastNameLower = lastNameLower;
+        }
+
+        <T> T map(RecordMapper<T> mapper) {
+            return mapper.map(id, firstName, lastName, version);
+        }
+    }
+
+    private static final class Cursor {
+
+        private final List<Row> rows;
+        private int index;
+
+        Cursor(List<Row> rows) {
+            this.rows = rows;
+        }
+
+        Row current() {
+            return rows.get(index);
+        }
+
+        boolean advance() {
+            return ++index < rows.size();
+        }
+    }
+
+    public static final class ShardStatus {
+
+        private final int shard;
+        private final int buckets;
+        private final long customers;
+
+        ShardStatus(int shard, int buckets, long customers) {
+            this.shard = shard;
+            this.buckets = buckets;
+            this.customers = customers;
+        }
+
+        public int getShard() {
+            return shard;
+        }
+
+        public int getBuckets() {
+            return buckets;
+        }
+
+        public long getCustomers() {
+            return customers;
+        }
+    }
+
+    public static final class RebalanceResult {
+
+        private final int movedBuckets;
+        private final long movedCustomers;
+        private final long millis;
+
+        RebalanceResult(int movedBuckets, long movedCustomers, long millis) {
+            this.movedBuckets = movedBuckets;
+            this.movedCustomers = movedCustomers;
+            this.millis = millis;
+        }
+
+        public int getMovedBuckets() {
+            return movedBuckets;
+        }
+
+        public long getMovedCustomers() {
+            return movedCustomers;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+}
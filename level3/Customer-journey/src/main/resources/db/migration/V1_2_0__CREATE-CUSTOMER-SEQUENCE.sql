@@ -0,0 +1,5 @@
+-- Ids of the Customer entity (GenerationType.AUTO) and of the JDBC bulk inserts come from hibernate_sequence.
+-- Redefining id drops its AUTO_INCREMENT, which H2 would otherwise re-sync on every insert of an explicit id,
+-- and widens it to match the Long id of the entity.
+CREATE SEQUENCE IF NOT EXISTS hibernate_sequence START WITH 1 INCREMENT BY 1;
+ALTER TABLE CUSTOMER ALTER COLUMN id BIGINT NOT NULL;
@@ -0,0 +1,7 @@
+-- Case-insensitive name lookups: lower-cased computed columns indexed together with id,
+-- so exact and prefix matches seek on the index and page on (name, id) without a sort.
+ALTER TABLE CUSTOMER ADD COLUMN IF NOT EXISTS last_name_lower VARCHAR(200) AS LOWER(last_name);
+ALTER TABLE CUSTOMER ADD COLUMN IF NOT EXISTS first_name_lower VARCHAR(200) AS LOWER(first_name);
+
+CREATE INDEX IF NOT EXISTS idx_customer_last_name_lower ON CUSTOMER (last_name_lower, id);
+CREATE INDEX IF NOT EXISTS idx_customer_first_name_lower ON CUSTOMER (first_name_lower, id);
@@ -0,0 +1,9 @@
+-- Customer change events written in the same transaction as the change, relayed in id order and deleted once delivered.
+CREATE TABLE IF NOT EXISTS CUSTOMER_OUTBOX (
+                          id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                          event_type VARCHAR(16) NOT NULL,
+                          customer_id BIGINT NOT NULL,
+                          first_name VARCHAR(200),
+                          last_name VARCHAR(200),
+                          created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
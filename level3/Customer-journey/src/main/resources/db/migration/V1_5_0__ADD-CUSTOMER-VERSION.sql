@@ -0,0 +1,2 @@
+-- Optimistic locking version of the Customer entity, also served as the ETag of a customer.
+ALTER TABLE CUSTOMER ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,10 @@
+-- Shards only: the bucket of a customer is the low 10 bits of its id, and buckets are what the shard map assigns to
+-- shards. Indexed so a bucket can be moved to another shard without scanning the table.
+ALTER TABLE CUSTOMER ADD COLUMN IF NOT EXISTS shard_bucket INT AS BITAND(id, 1023);
+CREATE INDEX IF NOT EXISTS idx_customer_shard_bucket ON CUSTOMER (shard_bucket, id);
+
+-- The shard owning each bucket, kept on the first shard.
+CREATE TABLE IF NOT EXISTS CUSTOMER_SHARD_BUCKET (
+                          bucket INT PRIMARY KEY,
+                          shard INT NOT NULL
+);
@@ -0,0 +1,7 @@
+-- The bucket being moved between shards, kept on the first shard while the move runs, so a store started after
+-- an interrupted move knows which copy of the bucket to drop.
+CREATE TABLE IF NOT EXISTS CUSTOMER_SHARD_MOVE (
+                          bucket INT PRIMARY KEY,
+                          source_shard INT NOT NULL,
+                          target_shard INT NOT NULL
+);
@@ -0,0 +1,7 @@
+-- The stores serving the shards, each touching its row while it runs, kept on the first shard. Buckets are only
+-- moved while a single store is running, as the others would keep routing by their copy of the shard map.
+CREATE TABLE IF NOT EXISTS CUSTOMER_SHARD_NODE (
+                          node_id VARCHAR(36) PRIMARY KEY,
+                          seen_at TIMESTAMP NOT NULL,
+                          rebalancing BOOLEAN DEFAULT FALSE NOT NULL
+);
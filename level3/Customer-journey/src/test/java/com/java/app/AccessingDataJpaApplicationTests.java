@@ -1,10 +1,13 @@
 package com.java.app;
 
 import com.java.controller.CustomerController;
+import com.java.outbox.CustomerOutboxSink;
+import com.java.outbox.CustomerOutboxWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -17,9 +20,18 @@ class AccessingDataJpaApplicationTests {
 	@Autowired
 	private CustomerController controller;
 
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 		assertThat(controller).isNotNull();
 	}
 
+	@Test
+	void outboxIsOptIn() {
+		assertThat(context.getBeanNamesForType(CustomerOutboxWriter.class)).isEmpty();
+		assertThat(context.getBeanNamesForType(CustomerOutboxSink.class)).isEmpty();
+	}
+
 }
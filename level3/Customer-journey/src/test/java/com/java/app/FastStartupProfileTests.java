@@ -0,0 +1,44 @@
+package com.java.app;
+
+import com.java.dao.CustomerImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.datasource.url=jdbc:h2:mem:faststartup")
+@ActiveProfiles("fast-startup")
+class FastStartupProfileTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private DataLoader dataLoader;
+
+	@Autowired
+	private ConfigurableApplicationContext context;
+
+	@Test
+	void servesCustomers_andIsReadyOnceSeeded() throws Exception {
+		assertThat(restTemplate.getForEntity("/api/v1/customers", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+		assertThat(dataLoader.getSeeded().get(30, TimeUnit.SECONDS)).isEqualTo(3L);
+		assertThat(restTemplate.getForEntity("/actuator/health/readiness", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(restTemplate.getForEntity("/api/v1/customers/search/fuzzy?q=walker", String.class).getBody()).contains("Johny");
+	}
+
+	@Test
+	void createsTheBeansOffTheRequestPathLazily_withoutApiDocs() {
+		assertThat(context.getBeanFactory().getBeanDefinition("customerImportService").isLazyInit()).isTrue();
+		assertThat(restTemplate.getForEntity("/v3/api-docs", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+}
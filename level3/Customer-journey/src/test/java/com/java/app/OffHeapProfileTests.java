@@ -0,0 +1,56 @@
+package com.java.app;
+
+import com.java.dao.Customer;
+import com.java.dao.CustomerRepoService;
+import com.java.dao.CustomerRepository;
+import com.java.dao.OffHeapCustomerRepository;
+import com.java.search.CustomerNameIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.datasource.url=jdbc:h2:mem:offheapprofile")
+@ActiveProfiles("offheap")
+class OffHeapProfileTests {
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerRepoService customerRepoService;
+
+	@Autowired
+	private ObjectProvider<CustomerNameIndex> customerNameIndex;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void customersAreKeptOffHeap() {
+		assertThat(customerRepository).isInstanceOf(OffHeapCustomerRepository.class);
+
+		Customer created = customerRepoService.createCustomer(new Customer("Off", "Heap"));
+
+		assertThat(customerRepoService.retrieveCustomerById(created.getId()).getLastName()).isEqualTo("Heap");
+		// the customers of DataLoader are off-heap too
+		assertThat(customerRepository.count()).isGreaterThanOrEqualTo(4);
+	}
+
+	@Test
+	void namesAreNotIndexedOnTheHeap() {
+		assertThat(customerNameIndex.getIfAvailable()).isNull();
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/customers/search/fuzzy?q=heap", String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(response.getBody()).contains("Fuzzy search is disabled");
+	}
+}
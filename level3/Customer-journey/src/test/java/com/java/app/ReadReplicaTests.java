@@ -0,0 +1,111 @@
+package com.java.app;
+
+import com.java.dao.Customer;
+import com.java.dao.CustomerBatchOperation;
+import com.java.dao.CustomerRepoService;
+import com.java.datasource.ReadYourWrites;
+import com.java.datasource.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the replica is a database of its own that only has the rows the tests copy into it, as a replica lagging
+// behind the primary would
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"spring.datasource.url=jdbc:h2:mem:readreplica", "app.datasource.replica.url=jdbc:h2:mem:readreplica-lagging;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'"})
+class ReadReplicaTests {
+
+	@Autowired
+	private CustomerRepoService customerRepoService;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private HikariDataSource replicaDataSource;
+
+	@Autowired
+	private ReadYourWrites readYourWrites;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Cache customerCache;
+
+	@BeforeEach
+	void setup() {
+		customerCache = cacheManager.getCache(CustomerRepoService.CUSTOMER_CACHE);
+	}
+
+	@Test
+	void reads_useReplicaPool() {
+		customerRepoService.findByLastName("Doe");
+
+		assertThat(replicaDataSource.getHikariPoolMXBean().getTotalConnections()).isPositive();
+	}
+
+	@Test
+	void write_pinsItsClientToPrimary() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.set(ReadYourWritesFilter.CLIENT_HEADER, "replica-test-client");
+
+		ResponseEntity<Customer> created = restTemplate.exchange("/api/v1/customers", HttpMethod.POST,
+				new HttpEntity<>("{\"firstName\":\"Read\",\"lastName\":\"Replica\"}", headers), Customer.class);
+
+		assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(readYourWrites.isPinned("replica-test-client")).isTrue();
+		assertThat(readYourWrites.isPinned("another-client")).isFalse();
+	}
+
+	@Test
+	void readById_readsReplica_withoutPinningItsClient() {
+		Customer customer = customerRepoService.createCustomer(new Customer("Only", "Replica"));
+		new JdbcTemplate(replicaDataSource).update("INSERT INTO customer (id, first_name, last_name) VALUES (?, ?, ?)",
+				customer.getId(), "Only", "OnReplica");
+		customerCache.evict(customer.getId());
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(ReadYourWritesFilter.CLIENT_HEADER, "reading-client");
+
+		ResponseEntity<Customer> read = restTemplate.exchange("/api/v1/customers/" + customer.getId(), HttpMethod.GET,
+				new HttpEntity<>(headers), Customer.class);
+
+		assertThat(read.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(read.getBody().getLastName()).isEqualTo("OnReplica");
+		assertThat(readYourWrites.isPinned("reading-client")).isFalse();
+	}
+
+	@Test
+	void cachedReads_doNotServeTheLaggingReplica() {
+		Customer customer = customerRepoService.createCustomer(new Customer("Before", "Update"));
+		new JdbcTemplate(replicaDataSource).update("INSERT INTO customer (id, first_name, last_name) VALUES (?, ?, ?)",
+				customer.getId(), "Before", "Update");
+
+		// evicts the customer from the cache, the replica does not see the update
+		customerRepoService.applyBatch(List.of(
+				new CustomerBatchOperation(CustomerBatchOperation.Type.UPDATE, customer.getId(), "After", "Update")));
+
+		assertThat(customerRepoService.findByLastName("Update")).extracting(Customer::getFirstName).containsExactly("Before");
+		assertThat(customerRepoService.retrieveCustomerById(customer.getId()).getFirstName()).isEqualTo("After");
+		// and from the cache
+		assertThat(customerRepoService.retrieveCustomerById(customer.getId()).getFirstName()).isEqualTo("After");
+	}
+}
@@ -0,0 +1,47 @@
+package com.java.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.java.dao.Customer;
+import com.java.dao.CustomerRepoService;
+import com.java.dao.CustomerRepository;
+import com.java.dao.ShardedCustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"spring.datasource.url=jdbc:h2:mem:shardedprofile",
+				"app.sharding.urls=jdbc:h2:mem:shardedprofile0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shardedprofile1;DB_CLOSE_DELAY=-1"})
+@ActiveProfiles("sharded")
+class ShardedProfileTests {
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerRepoService customerRepoService;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void customersAreSharded() {
+		assertThat(customerRepository).isInstanceOf(ShardedCustomerRepository.class);
+
+		Customer created = customerRepoService.createCustomer(new Customer("Sharded", "Customer"));
+
+		assertThat(customerRepoService.retrieveCustomerById(created.getId()).getLastName()).isEqualTo("Customer");
+		// the customers of DataLoader are on the shards too
+		JsonNode shards = restTemplate.getForObject("/actuator/shards", JsonNode.class);
+		assertThat(shards).hasSize(2);
+		assertThat(shards.get(0).path("customers").asLong() + shards.get(1).path("customers").asLong()).isEqualTo(customerRepository.count());
+		assertThat(customerRepository.count()).isGreaterThanOrEqualTo(4);
+		// rebalancing is only exposed over JMX
+		assertThat(restTemplate.postForEntity("/actuator/shards", null, String.class).getStatusCode()).isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+	}
+}
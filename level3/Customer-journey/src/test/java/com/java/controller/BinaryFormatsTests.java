@@ -0,0 +1,149 @@
+package com.java.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.java.app.AccessingDataJpaApplication;
+import com.java.dao.Customer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = AccessingDataJpaApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.datasource.url=jdbc:h2:mem:binaryformats")
+class BinaryFormatsTests {
+
+	private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(CustomerController.APPLICATION_SMILE_VALUE);
+
+	private final ObjectMapper mSmileMapper = new ObjectMapper(new SmileFactory());
+	private final ObjectMapper mCborMapper = new ObjectMapper(new CBORFactory());
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void customersAreExchangedInTheNegotiatedFormat_andJsonStaysTheDefault() throws IOException {
+		HttpHeaders cborHeaders = new HttpHeaders();
+		cborHeaders.setContentType(MediaType.APPLICATION_CBOR);
+		cborHeaders.setAccept(List.of(MediaType.APPLICATION_CBOR));
+		ResponseEntity<byte[]> created = restTemplate.exchange("/api/v1/customers", HttpMethod.POST,
+				new HttpEntity<>(mCborMapper.writeValueAsBytes(new Customer("Binary", "Formats")), cborHeaders), byte[].class);
+		long id = mCborMapper.readTree(created.getBody()).get("id").asLong();
+		HttpHeaders smileHeaders = new HttpHeaders();
+		smileHeaders.setAccept(List.of(APPLICATION_SMILE));
+
+		ResponseEntity<byte[]> smile = restTemplate.exchange("/api/v1/customers/" + id, HttpMethod.GET, new HttpEntity<>(smileHeaders), byte[].class);
+		ResponseEntity<String> json = restTemplate.getForEntity("/api/v1/customers/" + id, String.class);
+
+		assertThat(created.getStatusCodeValue()).isEqualTo(201);
+		assertThat(created.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+		assertThat(smile.getHeaders().getContentType()).isEqualTo(APPLICATION_SMILE);
+		assertThat(mSmileMapper.readTree(smile.getBody()).get("lastName").asText()).isEqualTo("Formats");
+		assertThat(json.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(json.getBody()).contains("\"lastName\":\"Formats\"");
+	}
+
+	@Test
+	void patchAcceptsSmile() throws IOException, InterruptedException {
+		Customer customer = restTemplate.postForObject("/api/v1/customers", new Customer("Binary", "Patch"), Customer.class);
+
+		// RestTemplate's default request factory cannot send PATCH
+		HttpRequest request = HttpRequest.newBuilder(URI.create(restTemplate.getRootUri() + "/api/v1/customers/" + customer.getId()))
+				.header(HttpHeaders.CONTENT_TYPE, CustomerController.APPLICATION_SMILE_VALUE)
+				.header(HttpHeaders.ACCEPT, CustomerController.APPLICATION_SMILE_VALUE)
+				.method("PATCH", HttpRequest.BodyPublishers.ofByteArray(mSmileMapper.writeValueAsBytes(new Customer("Smile", null))))
+				.build();
+		HttpResponse<byte[]> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+		JsonNode patched = mSmileMapper.readTree(response.body());
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(patched.get("firstName").asText()).isEqualTo("Smile");
+		assertThat(patched.get("lastName").asText()).isEqualTo("Patch");
+	}
+
+	@Test
+	void errorsAreReturnedInTheNegotiatedFormat() throws IOException {
+		HttpHeaders smileHeaders = new HttpHeaders();
+		smileHeaders.setAccept(List.of(APPLICATION_SMILE));
+
+		ResponseEntity<byte[]> response = restTemplate.exchange("/api/v1/customers/" + Long.MAX_VALUE, HttpMethod.GET,
+				new HttpEntity<>(smileHeaders), byte[].class);
+
+		JsonNode error = mSmileMapper.readTree(response.getBody());
+		assertThat(response.getStatusCodeValue()).isEqualTo(400);
+		assertThat(response.getHeaders().getContentType()).isEqualTo(APPLICATION_SMILE);
+		assertThat(error.get("message").asText()).isNotEmpty();
+	}
+
+	@Test
+	void deleteAnswersInTheNegotiatedFormat() throws IOException {
+		Customer customer = restTemplate.postForObject("/api/v1/customers", new Customer("Binary", "Delete"), Customer.class);
+		HttpHeaders cborHeaders = new HttpHeaders();
+		cborHeaders.setAccept(List.of(MediaType.APPLICATION_CBOR));
+
+		ResponseEntity<byte[]> cbor = restTemplate.exchange("/api/v1/customers/" + customer.getId(), HttpMethod.DELETE,
+				new HttpEntity<>(cborHeaders), byte[].class);
+		ResponseEntity<String> json = restTemplate.exchange("/api/v1/customers/" + customer.getId(), HttpMethod.DELETE,
+				HttpEntity.EMPTY, String.class);
+
+		assertThat(cbor.getStatusCodeValue()).isEqualTo(200);
+		assertThat(cbor.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+		assertThat(mCborMapper.readTree(cbor.getBody()).get("message").asText()).isEqualTo("Customer successfully deleted");
+		// already deleted, so an error, in JSON by default
+		assertThat(json.getStatusCodeValue()).isEqualTo(400);
+		assertThat(json.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+	}
+
+	@Test
+	void deleteKeepsItsPlainMessage_forJsonClients() {
+		Customer customer = restTemplate.postForObject("/api/v1/customers", new Customer("Json", "Delete"), Customer.class);
+
+		ResponseEntity<String> json = restTemplate.exchange("/api/v1/customers/" + customer.getId(), HttpMethod.DELETE,
+				HttpEntity.EMPTY, String.class);
+
+		assertThat(json.getStatusCodeValue()).isEqualTo(200);
+		assertThat(json.getBody()).isEqualTo("Customer successfully deleted");
+	}
+
+	@Test
+	void eachFormatHasItsOwnETag_andResponsesVaryByAccept() {
+		Customer customer = restTemplate.postForObject("/api/v1/customers", new Customer("Binary", "Tags"), Customer.class);
+		HttpHeaders cborHeaders = new HttpHeaders();
+		cborHeaders.setAccept(List.of(MediaType.APPLICATION_CBOR));
+		ResponseEntity<byte[]> cbor = restTemplate.exchange("/api/v1/customers/" + customer.getId(), HttpMethod.GET,
+				new HttpEntity<>(cborHeaders), byte[].class);
+		HttpHeaders jsonHeaders = new HttpHeaders();
+		jsonHeaders.setIfNoneMatch(cbor.getHeaders().getETag());
+
+		ResponseEntity<String> json = restTemplate.exchange("/api/v1/customers/" + customer.getId(), HttpMethod.GET,
+				new HttpEntity<>(jsonHeaders), String.class);
+		cborHeaders.setIfNoneMatch(cbor.getHeaders().getETag());
+		ResponseEntity<byte[]> notModified = restTemplate.exchange("/api/v1/customers/" + customer.getId(), HttpMethod.GET,
+				new HttpEntity<>(cborHeaders), byte[].class);
+
+		assertThat(cbor.getHeaders().getETag()).isEqualTo("\"0-cbor\"");
+		assertThat(cbor.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT);
+		assertThat(json.getStatusCodeValue()).isEqualTo(200);
+		assertThat(json.getHeaders().getETag()).isEqualTo("\"0\"");
+		assertThat(json.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(json.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT);
+		assertThat(notModified.getStatusCodeValue()).isEqualTo(304);
+		assertThat(notModified.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT);
+	}
+}
@@ -0,0 +1,51 @@
+package com.java.controller;
+
+import com.java.app.AccessingDataJpaApplication;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// SYNC is the default app.async.mode
+@SpringBootTest(classes = AccessingDataJpaApplication.class, properties = "spring.datasource.url=jdbc:h2:mem:completedfutures")
+@AutoConfigureMockMvc
+class CompletedFutureReturnValueHandlerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void syncRequestsAreAnsweredWithoutAsyncDispatch() throws Exception {
+		MvcResult created = mockMvc.perform(post("/api/v1/customers").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"firstName\":\"Sync\",\"lastName\":\"Mode\"}"))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isCreated())
+				.andReturn();
+		long id = JsonPath.<Number>read(created.getResponse().getContentAsString(), "$.id").longValue();
+
+		mockMvc.perform(get("/api/v1/customers/" + id))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.lastName").value("Mode"));
+	}
+
+	@Test
+	void failuresReachTheExceptionHandlers() throws Exception {
+		mockMvc.perform(get("/api/v1/customers/" + Long.MAX_VALUE))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").isNotEmpty());
+	}
+}
@@ -0,0 +1,52 @@
+package com.java.controller;
+
+import com.java.dao.CustomerExportService;
+import com.java.dao.CustomerImportService;
+import com.java.dao.CustomerRepoService;
+import com.java.event.CustomerEventPublisher;
+import com.java.exception.UnableToGetException;
+import com.java.search.CustomerNameIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CustomerControllerExportTests {
+
+    private final CustomerExportService customerExportService = mock(CustomerExportService.class);
+    private final CustomerController customerController = new CustomerController(mock(CustomerRepoService.class), customerExportService,
+            mock(CustomerImportService.class), mock(CustomerNameIndex.class), mock(CustomerEventPublisher.class), mock(CustomerRequestExecutor.class));
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void exportCustomers_rethrows_whenExportFailsBeforeResponseIsCommitted() {
+        when(customerExportService.exportCustomers(any())).thenThrow(new UnableToGetException("connection lost"));
+
+        assertThrows(UnableToGetException.class, () -> customerController.exportCustomers(response));
+        assertThat(response.isCommitted()).isFalse();
+    }
+
+    @Test
+    public void exportCustomers_endsWithErrorLine_whenExportFailsAfterResponseIsCommitted() throws Exception {
+        when(customerExportService.exportCustomers(any())).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"version\":0}\n".getBytes(StandardCharsets.UTF_8));
+            response.flushBuffer();
+            throw new UnableToGetException("connection \"lost\"");
+        });
+
+        customerController.exportCustomers(response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"version\":0}\n" +
+                "{\"error\":\"Unable to get the object. Error: connection \\\"lost\\\"\"}\n");
+    }
+}
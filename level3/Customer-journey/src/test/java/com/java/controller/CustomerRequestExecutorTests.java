@@ -0,0 +1,82 @@
+package com.java.controller;
+
+import com.java.exception.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CustomerRequestExecutorTests {
+
+    private CustomerRequestExecutor requestExecutor;
+
+    @AfterEach
+    public void tearDown() {
+        requestExecutor.shutdown();
+    }
+
+    @Test
+    public void read_runsOnCallingThread_inSyncMode() {
+        requestExecutor = createExecutor(CustomerRequestExecutor.Mode.SYNC, 1);
+
+        CompletableFuture<String> result = requestExecutor.read(() -> Thread.currentThread().getName());
+
+        assertThat(result).isCompletedWithValue(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void readAndWrite_runOnSeparateExecutors_inPlatformMode() throws Exception {
+        requestExecutor = createExecutor(CustomerRequestExecutor.Mode.PLATFORM, 1);
+
+        assertThat(requestExecutor.read(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS)).startsWith("customer-reads-");
+        assertThat(requestExecutor.write(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS)).startsWith("customer-writes-");
+    }
+
+    @Test
+    public void write_failsWithServiceBusy_whenWriteExecutorIsFull_whileReadsStillRun() throws Exception {
+        requestExecutor = createExecutor(CustomerRequestExecutor.Mode.PLATFORM, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = requestExecutor.write(() -> await(release));
+        CompletableFuture<Boolean> queued = requestExecutor.write(() -> await(release));
+
+        CompletableFuture<Boolean> rejected = requestExecutor.write(() -> true);
+        String read = requestExecutor.read(() -> "read").get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertThat(exception.getCause()).isInstanceOf(ServiceBusyException.class);
+        assertThat(read).isEqualTo("read");
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void virtualMode_fallsBackToPlatform_whenVirtualThreadsAreNotSupported() {
+        requestExecutor = createExecutor(CustomerRequestExecutor.Mode.VIRTUAL, 1);
+
+        CustomerRequestExecutor.Mode expectedMode = Runtime.version().feature() >= 21
+                ? CustomerRequestExecutor.Mode.VIRTUAL : CustomerRequestExecutor.Mode.PLATFORM;
+        assertThat(requestExecutor.getMode()).isEqualTo(expectedMode);
+    }
+
+    private static CustomerRequestExecutor createExecutor(CustomerRequestExecutor.Mode mode, int queueCapacity) {
+        return new CustomerRequestExecutor(mode, 1, 1, queueCapacity, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.java.controller;
+
+import com.java.dao.CustomerView;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ETagsTests {
+
+    @Test
+    public void noneMatchHits_comparesWeakly_andAcceptsAnyTagInTheList() {
+        assertThat(ETags.noneMatchHits("\"3\"", 3L, Representation.JSON)).isTrue();
+        assertThat(ETags.noneMatchHits("\"1\", W/\"3\"", 3L, Representation.JSON)).isTrue();
+        assertThat(ETags.noneMatchHits("*", 3L, Representation.JSON)).isTrue();
+        assertThat(ETags.noneMatchHits("\"2\"", 3L, Representation.JSON)).isFalse();
+    }
+
+    @Test
+    public void noneMatchHits_onlyForTheTagOfTheSameRepresentation() {
+        assertThat(ETags.of(3L, Representation.CBOR)).isEqualTo("\"3-cbor\"");
+        assertThat(ETags.noneMatchHits("\"3-cbor\"", 3L, Representation.CBOR)).isTrue();
+        assertThat(ETags.noneMatchHits("\"3-cbor\"", 3L, Representation.JSON)).isFalse();
+        assertThat(ETags.noneMatchHits("\"3\"", 3L, Representation.SMILE)).isFalse();
+        assertThat(ETags.noneMatchHits("*", 3L, Representation.SMILE)).isTrue();
+    }
+
+    @Test
+    public void versionsOf_keepsStrongTagsOnly() {
+        assertThat(ETags.versionsOf("\"1\", W/\"2\", \"abc\", \"3\"")).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(ETags.versionsOf("W/\"2\"")).isEmpty();
+        assertThat(ETags.versionsOf(" * ")).isNull();
+        assertThat(ETags.versionsOf("\"4-cbor\", \"5-smile\", \"6-xml\"")).containsExactlyInAnyOrder(4L, 5L);
+    }
+
+    @Test
+    public void pageTag_changes_whenAnyVersionChanges() {
+        CustomerView jane = new CustomerView(2L, "Jane", "Doe", 0L);
+        List<CustomerView> page = List.of(new CustomerView(1L, "John", "Doe", 0L), jane);
+        String before = ETags.of(page, 2L, Representation.JSON);
+
+        assertThat(before).startsWith("W/\"");
+        assertThat(ETags.of(List.of(new CustomerView(1L, "John", "Doe", 1L), jane), 2L, Representation.JSON)).isNotEqualTo(before);
+        assertThat(ETags.of(page, null, Representation.JSON)).isNotEqualTo(before);
+        assertThat(ETags.of(page, 2L, Representation.SMILE)).isNotEqualTo(before);
+    }
+
+    @Test
+    public void representation_followsTheMostPreferredAcceptedType_andDefaultsToJson() {
+        assertThat(Representation.of(null)).isEqualTo(Representation.JSON);
+        assertThat(Representation.of("*/*")).isEqualTo(Representation.JSON);
+        assertThat(Representation.of("application/cbor")).isEqualTo(Representation.CBOR);
+        assertThat(Representation.of("application/json;q=0.5, application/x-jackson-smile")).isEqualTo(Representation.SMILE);
+        assertThat(Representation.of("application/cbor, */*;q=0.1")).isEqualTo(Representation.CBOR);
+        assertThat(Representation.of("not a media type")).isEqualTo(Representation.JSON);
+    }
+}
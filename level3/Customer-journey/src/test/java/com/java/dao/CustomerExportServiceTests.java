@@ -0,0 +1,52 @@
+package com.java.dao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerExportServiceTests {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:exporttest;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private final CustomerExportService customerExportService = new CustomerExportService(dataSource, new ObjectMapper(), 2);
+
+    @BeforeEach
+    public void setup() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customer");
+        jdbcTemplate.execute("CREATE TABLE customer (id BIGINT PRIMARY KEY, first_name VARCHAR(200), last_name VARCHAR(200), version BIGINT DEFAULT 0 NOT NULL)");
+    }
+
+    @Test
+    public void exportCustomers_writesOneJsonLinePerCustomerInIdOrder() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO customer VALUES (3, 'Gulwal', 'Manohar', 0)");
+        jdbcTemplate.update("INSERT INTO customer VALUES (1, 'John', 'Doe', 4)");
+        jdbcTemplate.update("INSERT INTO customer VALUES (2, 'Johny', 'Walker \"JW\"', 1)");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long exported = customerExportService.exportCustomers(outputStream);
+
+        assertThat(exported).isEqualTo(3);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"version\":4}\n" +
+                "{\"id\":2,\"firstName\":\"Johny\",\"lastName\":\"Walker \\\"JW\\\"\",\"version\":1}\n" +
+                "{\"id\":3,\"firstName\":\"Gulwal\",\"lastName\":\"Manohar\",\"version\":0}\n");
+    }
+
+    @Test
+    public void exportCustomers_writesNothing_whenThereAreNoCustomers() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long exported = customerExportService.exportCustomers(outputStream);
+
+        assertThat(exported).isZero();
+        assertThat(outputStream.size()).isZero();
+    }
+}
@@ -0,0 +1,77 @@
+package com.java.dao;
+
+import com.java.exception.InvalidFileDataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CustomerImportServiceTests {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:importtest;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final CustomerImportService customerImportService = new CustomerImportService(dataSource, new DataSourceTransactionManager(dataSource), 2);
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customer");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS hibernate_sequence");
+        jdbcTemplate.execute("CREATE SEQUENCE hibernate_sequence START WITH 1 INCREMENT BY 1");
+        jdbcTemplate.execute("CREATE TABLE customer (id BIGINT PRIMARY KEY, first_name VARCHAR(200) NOT NULL, " +
+                "last_name VARCHAR(200) NOT NULL, CHECK (first_name <> 'Rejected'))");
+    }
+
+    @Test
+    public void importCustomers_insertsAllRecords_acrossSeveralChunks() {
+        String csv = "firstName,lastName\nJohn,Doe\nJohny,Walker\n\"Gulwal\", Manohar \nHello,World\nJane,Doe\n";
+
+        CustomerImportResult result = customerImportService.importCustomers(new StringReader(csv));
+
+        assertThat(result.getImported()).isEqualTo(5);
+        assertThat(result.getFailed()).isZero();
+        List<String> lastNames = jdbcTemplate.queryForList("SELECT last_name FROM customer ORDER BY id", String.class);
+        assertThat(lastNames).containsExactly("Doe", "Walker", "Manohar", "World", "Doe");
+    }
+
+    @Test
+    public void importCustomers_reportsInvalidRecords_andImportsTheRest() {
+        String csv = "LASTNAME,FIRSTNAME\nDoe,John\n,Johny\nWalker\nManohar,Gulwal\n";
+
+        CustomerImportResult result = customerImportService.importCustomers(new StringReader(csv));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(CustomerImportResult.RowError::getRecord).containsExactly(2L, 3L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("firstName and lastName must not be empty");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Record must have both firstName and lastName values");
+    }
+
+    @Test
+    public void importCustomers_retriesFailedBatchRowByRow_andReportsOnlyTheRejectedRow() {
+        String csv = "firstName,lastName\nJohn,Doe\nRejected,Row\nJohny,Walker\n";
+
+        CustomerImportResult result = customerImportService.importCustomers(new StringReader(csv));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getRecord()).isEqualTo(2L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Long.class)).isEqualTo(2L);
+    }
+
+    @Test
+    public void importCustomers_throwsInvalidFileDataException_whenHeaderIsMissingAColumn() {
+        InvalidFileDataException exceptionThrown = assertThrows(
+                InvalidFileDataException.class,
+                () -> customerImportService.importCustomers(new StringReader("firstName,surname\nJohn,Doe\n"))
+        );
+
+        assertThat(exceptionThrown.getMessage()).isEqualTo("CSV header must contain firstName and lastName columns");
+    }
+}
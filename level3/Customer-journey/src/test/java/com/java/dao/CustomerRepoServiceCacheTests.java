@@ -0,0 +1,112 @@
+package com.java.dao;
+
+import com.java.config.CacheConfig;
+import com.java.exception.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static com.java.helper.TestHelper.createACustomer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+
+@SpringBootTest(classes = {CacheConfig.class, CustomerRepoService.class})
+public class CustomerRepoServiceCacheTests {
+
+    private static final Long CUSTOMER_ID_1 = 1L;
+    private static final Long CUSTOMER_ID_2 = 2L;
+    private static final Long CUSTOMER_ID_3 = 3L;
+    private static final Long CUSTOMER_ID_4 = 4L;
+    private static final Long CUSTOMER_ID_5 = 5L;
+
+    @MockBean
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerRepoService customerRepoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(CustomerRepoService.CUSTOMER_CACHE).clear();
+    }
+
+    @Test
+    public void retrieveCustomerById_readsRepositoryOnce_forRepeatedReads() {
+        Customer existingCustomerInRepo = createACustomerWithId(CUSTOMER_ID_1);
+        Mockito.when(customerRepository.findById(CUSTOMER_ID_1)).thenReturn(Optional.of(existingCustomerInRepo));
+
+        customerRepoService.retrieveCustomerById(CUSTOMER_ID_1);
+        Customer cachedCustomer = customerRepoService.retrieveCustomerById(CUSTOMER_ID_1);
+
+        assertThat(cachedCustomer).isEqualTo(existingCustomerInRepo);
+        Mockito.verify(customerRepository, times(1)).findById(CUSTOMER_ID_1);
+    }
+
+    @Test
+    public void retrieveCustomerById_doesNotCacheMisses() {
+        Mockito.when(customerRepository.findById(CUSTOMER_ID_2)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> customerRepoService.retrieveCustomerById(CUSTOMER_ID_2));
+        assertThrows(EntityNotFoundException.class, () -> customerRepoService.retrieveCustomerById(CUSTOMER_ID_2));
+
+        Mockito.verify(customerRepository, times(2)).findById(CUSTOMER_ID_2);
+    }
+
+    @Test
+    public void updateCustomer_refreshesCachedCustomer() {
+        Customer existingCustomerInRepo = createACustomerWithId(CUSTOMER_ID_3);
+        Mockito.when(customerRepository.findById(CUSTOMER_ID_3)).thenReturn(Optional.of(existingCustomerInRepo));
+        Mockito.when(customerRepository.updateColumns(CUSTOMER_ID_3, "Updated", "Name", null))
+                .thenReturn(new Customer(CUSTOMER_ID_3, "Updated", "Name", 1L));
+        customerRepoService.retrieveCustomerById(CUSTOMER_ID_3);
+
+        customerRepoService.updateCustomer(CUSTOMER_ID_3, new Customer("Updated", "Name"));
+        Customer cachedCustomer = customerRepoService.retrieveCustomerById(CUSTOMER_ID_3);
+
+        assertThat(cachedCustomer.getFirstName()).isEqualTo("Updated");
+        assertThat(cachedCustomer.getVersion()).isEqualTo(1L);
+        Mockito.verify(customerRepository, times(1)).findById(CUSTOMER_ID_3);
+    }
+
+    @Test
+    public void deleteCustomer_evictsCachedCustomer() {
+        Customer existingCustomerInRepo = createACustomerWithId(CUSTOMER_ID_4);
+        Mockito.when(customerRepository.findById(CUSTOMER_ID_4)).thenReturn(Optional.of(existingCustomerInRepo));
+        Mockito.when(customerRepository.deleteCustomerById(CUSTOMER_ID_4)).thenReturn(1);
+        customerRepoService.retrieveCustomerById(CUSTOMER_ID_4);
+
+        customerRepoService.deleteCustomer(CUSTOMER_ID_4);
+
+        assertThat(cacheManager.getCache(CustomerRepoService.CUSTOMER_CACHE).get(CUSTOMER_ID_4)).isNull();
+    }
+
+    @Test
+    public void retrieveCustomerVersion_readsCachedCustomer_withoutQueryingRepository() {
+        Customer existingCustomerInRepo = createACustomerWithId(CUSTOMER_ID_5);
+        ReflectionTestUtils.setField(existingCustomerInRepo, "version", 2L);
+        Mockito.when(customerRepository.findById(CUSTOMER_ID_5)).thenReturn(Optional.of(existingCustomerInRepo));
+        customerRepoService.retrieveCustomerById(CUSTOMER_ID_5);
+
+        Long version = customerRepoService.retrieveCustomerVersion(CUSTOMER_ID_5);
+
+        assertThat(version).isEqualTo(2L);
+        Mockito.verify(customerRepository, Mockito.never()).findVersionById(CUSTOMER_ID_5);
+    }
+
+    private Customer createACustomerWithId(Long customerId) {
+        Customer customer = createACustomer();
+        ReflectionTestUtils.setField(customer, "id", customerId);
+        return customer;
+    }
+}
@@ -1,6 +1,8 @@
 package com.java.dao;
 
 import com.java.exception.EntityNotFoundException;
+import com.java.exception.InvalidPropertyValueException;
+import com.java.exception.PreconditionFailedException;
 import com.java.exception.UnableToDeleteException;
 import com.java.exception.UnableToGetException;
 import com.java.exception.UnableToSaveException;
@@ -9,8 +11,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.java.helper.TestHelper.createACustomer;
 import static com.java.helper.TestHelper.createRandomLong;
@@ -18,6 +25,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 
@@ -48,6 +57,95 @@ public class CustomerRepoServiceTests {
         assertThat(exceptionThrown.getMessage()).isEqualTo("Test Runtime exception with find all");
     }
 
+    @Test
+    public void getCustomers_returnsPageWithNextCursor_whenMoreCustomersExist() {
+        List<CustomerView> customersInRepo = Arrays.asList(createACustomerView(11L), createACustomerView(12L), createACustomerView(13L));
+        Mockito.when(customerRepository.findViewsAfter(10L, 3)).thenReturn(customersInRepo);
+
+        CustomerPage<Long> customerPage = customerRepoService.getCustomers(10L, 2);
+
+        assertThat(customerPage.getCustomers()).containsExactly(customersInRepo.get(0), customersInRepo.get(1));
+        assertThat(customerPage.getNextCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    public void getCustomers_returnsLastPageWithoutNextCursor_whenNoMoreCustomersExist() {
+        List<CustomerView> customersInRepo = Arrays.asList(createACustomerView(1L), createACustomerView(2L));
+        Mockito.when(customerRepository.findViewsAfter(0L, 3)).thenReturn(customersInRepo);
+
+        CustomerPage<Long> customerPage = customerRepoService.getCustomers(null, 2);
+
+        assertThat(customerPage.getCustomers()).isEqualTo(customersInRepo);
+        assertThat(customerPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void getCustomers_throwsInvalidPropertyValueException_whenLimitIsOutOfRange() {
+        InvalidPropertyValueException exceptionThrown = assertThrows(
+                InvalidPropertyValueException.class,
+                () -> customerRepoService.getCustomers(null, CustomerRepoService.MAX_PAGE_SIZE + 1)
+        );
+
+        assertThat(exceptionThrown.getMessage()).isEqualTo("limit must be between 1 and 1000");
+    }
+
+    @Test
+    public void searchByLastName_returnsExactMatchesPagedById() {
+        List<CustomerView> customersInRepo = Arrays.asList(createACustomerView(5L), createACustomerView(8L));
+        Mockito.when(customerRepository.findViewsByLastNameIgnoreCase("Doe", 4L, 2)).thenReturn(customersInRepo);
+
+        CustomerPage<String> customerPage = customerRepoService.searchByLastName("Doe", null, LastNameCursor.after(createACustomerView(4L)).toToken(), 1);
+
+        assertThat(customerPage.getCustomers()).containsExactly(customersInRepo.get(0));
+        assertThat(LastNameCursor.of(customerPage.getNextCursor()).getId()).isEqualTo(5L);
+    }
+
+    @Test
+    public void searchByLastName_continuesPrefixSearchFromLastNameAndIdOfCursor_andEscapesLikeWildcards() {
+        List<CustomerView> customersInRepo = Collections.singletonList(createACustomerView(9L));
+        Mockito.when(customerRepository.findViewsByLastNameLikeIgnoreCase("Do\\_%", "do_e:x", 7L, 11)).thenReturn(customersInRepo);
+        String cursor = LastNameCursor.after(new CustomerView(7L, "John", "Do_E:X", 0L)).toToken();
+
+        CustomerPage<String> customerPage = customerRepoService.searchByLastName(null, "Do_", cursor, 10);
+
+        assertThat(customerPage.getCustomers()).isEqualTo(customersInRepo);
+        assertThat(customerPage.getNextCursor()).isNull();
+        // the customer the cursor points at is not read again, it may have been renamed or deleted since
+        Mockito.verify(customerRepository).findViewsByLastNameLikeIgnoreCase("Do\\_%", "do_e:x", 7L, 11);
+        Mockito.verifyNoMoreInteractions(customerRepository);
+    }
+
+    @Test
+    public void searchByLastName_returnsCursorOfLastNameAndIdOfLastCustomer() {
+        List<CustomerView> customersInRepo = Arrays.asList(new CustomerView(3L, "Jane", "Doe", 0L), new CustomerView(2L, "John", "Dorsey", 0L));
+        Mockito.when(customerRepository.findViewsByLastNameLikeIgnoreCase("Do%", "", 0L, 2)).thenReturn(customersInRepo);
+
+        LastNameCursor cursor = LastNameCursor.of(customerRepoService.searchByLastName(null, "Do", null, 1).getNextCursor());
+
+        assertThat(cursor.getLastNameLower()).isEqualTo("doe");
+        assertThat(cursor.getId()).isEqualTo(3L);
+    }
+
+    @Test
+    public void searchByLastName_throwsInvalidPropertyValueException_whenCursorIsNotAToken() {
+        InvalidPropertyValueException exceptionThrown = assertThrows(
+                InvalidPropertyValueException.class,
+                () -> customerRepoService.searchByLastName(null, "Do", "7", 10)
+        );
+
+        assertThat(exceptionThrown.getMessage()).isEqualTo("Invalid cursor: 7");
+    }
+
+    @Test
+    public void searchByLastName_throwsInvalidPropertyValueException_whenBothLastNameAndPrefixAreGiven() {
+        InvalidPropertyValueException exceptionThrown = assertThrows(
+                InvalidPropertyValueException.class,
+                () -> customerRepoService.searchByLastName("Doe", "Do", null, 10)
+        );
+
+        assertThat(exceptionThrown.getMessage()).isEqualTo("Exactly one of lastName or prefix must be provided");
+    }
+
     @Test
     public void getCustomerById_returnsCustomer_whenSuccessfullyRetrievedFromRepository() {
         Customer existingCustomerInRepo = createACustomer();
@@ -137,21 +235,17 @@ public class CustomerRepoServiceTests {
 
     @Test
     public void updateExistingCustomer_returnsUpdatedCustomer_whenSuccessfullyUpdatedInRepository() {
-        Customer existingCustomerInRepo = createACustomer();
         Long customerId = createRandomLong();
-
-        ArgumentCaptor<Customer> customerSaveArgument = ArgumentCaptor.forClass(Customer.class);
         Customer customerToUpdate = createACustomer();
-        Customer expectedUpdatedCustomer = new Customer(customerToUpdate.getFirstName(), customerToUpdate.getLastName());
-
-        Mockito.when(customerRepository.findById(customerId)).thenReturn(Optional.of(existingCustomerInRepo));
-        Mockito.when(customerRepository.save(any(Customer.class))).thenAnswer(i -> i.getArguments()[0]);
+        Customer updatedCustomerInRepo = new Customer(customerId, customerToUpdate.getFirstName(), customerToUpdate.getLastName(), 1L);
+        Mockito.when(customerRepository.updateColumns(customerId, customerToUpdate.getFirstName(), customerToUpdate.getLastName(), null))
+                .thenReturn(updatedCustomerInRepo);
 
         Customer actualUpdatedCustomer = customerRepoService.updateCustomer(customerId, customerToUpdate);
 
-        Mockito.verify(customerRepository).save(customerSaveArgument.capture());
-        assertCustomerObjectFieldsEqual(customerSaveArgument.getValue(), expectedUpdatedCustomer);
-        assertCustomerObjectFieldsEqual(actualUpdatedCustomer, expectedUpdatedCustomer);
+        assertThat(actualUpdatedCustomer).isEqualTo(updatedCustomerInRepo);
+        Mockito.verify(customerRepository, Mockito.never()).findById(any(Long.class));
+        Mockito.verify(customerRepository, Mockito.never()).save(any(Customer.class));
     }
 
     @Test
@@ -180,11 +274,23 @@ public class CustomerRepoServiceTests {
                 .isEqualTo("Unable to save the object. Error: Data must not be null. Please provide valid customer details.");
     }
 
+    @Test
+    public void updateExistingCustomer_throwsUnableToSaveException_whenANameIsNull() {
+        Long customerId = createRandomLong();
+        UnableToSaveException exceptionThrown = assertThrows(
+                UnableToSaveException.class,
+                () -> customerRepoService.updateCustomer(customerId, new Customer("First", null))
+        );
+
+        assertThat(exceptionThrown.getMessage())
+                .isEqualTo("Unable to save the object. Error: First name and last name must not be null. Please provide valid customer details.");
+    }
+
     @Test
     public void updateExistingCustomer_throwsNotFoundException_whenUnableToFindInRepository() {
         Customer customerToUpdate = createACustomer();
         Long customerId = createRandomLong();
-        Mockito.when(customerRepository.findById(customerId)).thenReturn(Optional.empty());
+        Mockito.when(customerRepository.findVersionById(customerId)).thenReturn(null);
 
         EntityNotFoundException exceptionThrown = assertThrows(
                 EntityNotFoundException.class,
@@ -196,13 +302,11 @@ public class CustomerRepoServiceTests {
 
     @Test
     public void updateExistingCustomer_throwsUnableToSaveException_whenRepositoryThrowsExceptionWhileSaving() {
-        Customer existingCustomerInRepo = createACustomer();
         Long customerId = createRandomLong();
 
         Customer customerToUpdate = createACustomer();
         String errorMessage = "Error message";
-        Mockito.when(customerRepository.findById(customerId)).thenReturn(Optional.of(existingCustomerInRepo));
-        Mockito.when(customerRepository.save(any(Customer.class))).thenThrow(new RuntimeException(errorMessage));
+        Mockito.when(customerRepository.updateColumns(eq(customerId.longValue()), any(), any(), any())).thenThrow(new RuntimeException(errorMessage));
 
         UnableToSaveException exceptionThrown = assertThrows(
                 UnableToSaveException.class,
@@ -213,18 +317,175 @@ public class CustomerRepoServiceTests {
     }
 
     @Test
-    public void deleteExistingCustomer_doesNotThrowException_whenSuccessfullyDeletedFromRepository() {
-        Customer existingCustomerInRepo = createACustomer();
+    public void updateExistingCustomer_passesExpectedVersionsToTheUpdateStatement() {
         Long customerId = createRandomLong();
+        Customer customerToUpdate = createACustomer();
+        Mockito.when(customerRepository.updateColumns(customerId, customerToUpdate.getFirstName(), customerToUpdate.getLastName(), Set.of(2L, 3L)))
+                .thenReturn(new Customer(customerId, customerToUpdate.getFirstName(), customerToUpdate.getLastName(), 4L));
 
-        ArgumentCaptor<Customer> customerDeleteArgument = ArgumentCaptor.forClass(Customer.class);
-        Mockito.when(customerRepository.findById(customerId)).thenReturn(Optional.of(existingCustomerInRepo));
-        doNothing().when(customerRepository).delete(any(Customer.class));
+        Customer actualUpdatedCustomer = customerRepoService.updateCustomer(customerId, customerToUpdate, Set.of(2L, 3L));
+
+        assertThat(actualUpdatedCustomer.getVersion()).isEqualTo(4L);
+        Mockito.verify(customerRepository, Mockito.never()).findVersionById(customerId);
+    }
+
+    @Test
+    public void updateExistingCustomer_throwsPreconditionFailedException_whenCurrentVersionIsNotExpected() {
+        Long customerId = createRandomLong();
+        Mockito.when(customerRepository.findVersionById(customerId)).thenReturn(4L);
+
+        PreconditionFailedException exceptionThrown = assertThrows(
+                PreconditionFailedException.class,
+                () -> customerRepoService.updateCustomer(customerId, createACustomer(), Set.of(3L))
+        );
+
+        assertThat(exceptionThrown.getMessage()).isEqualTo(String.format("Customer with id: %d is at version 4, not the expected version", customerId));
+    }
+
+    @Test
+    public void patchCustomer_writesOnlyTheGivenName() {
+        Long customerId = createRandomLong();
+        Customer patchedCustomerInRepo = new Customer(customerId, "Stored", "Patched", 2L);
+        Mockito.when(customerRepository.updateColumns(customerId, null, "Patched", null)).thenReturn(patchedCustomerInRepo);
+
+        Customer actualPatchedCustomer = customerRepoService.patchCustomer(customerId, new Customer(null, "Patched"), null);
+
+        assertThat(actualPatchedCustomer).isEqualTo(patchedCustomerInRepo);
+    }
+
+    @Test
+    public void patchCustomer_throwsInvalidPropertyValueException_whenNoNameIsGiven() {
+        InvalidPropertyValueException exceptionThrown = assertThrows(
+                InvalidPropertyValueException.class,
+                () -> customerRepoService.patchCustomer(createRandomLong(), new Customer(), null)
+        );
+
+        assertThat(exceptionThrown.getMessage()).isEqualTo("At least one of firstName or lastName must be provided");
+        Mockito.verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    public void patchCustomer_throwsNotFoundException_whenUnableToFindInRepository() {
+        Long customerId = createRandomLong();
+        Mockito.when(customerRepository.findVersionById(customerId)).thenReturn(null);
+
+        assertThrows(EntityNotFoundException.class, () -> customerRepoService.patchCustomer(customerId, new Customer("First", null), Set.of(1L)));
+    }
+
+    @Test
+    public void retrieveCustomerVersion_readsOnlyTheVersion_whenCustomerIsNotCached() {
+        Long customerId = createRandomLong();
+        Mockito.when(customerRepository.findVersionById(customerId)).thenReturn(7L);
+
+        assertThat(customerRepoService.retrieveCustomerVersion(customerId)).isEqualTo(7L);
+        Mockito.verify(customerRepository, Mockito.never()).findById(customerId);
+    }
+
+    @Test
+    public void applyBatch_returnsOneResultPerOperation_andLoadsTargetsInOneQuery() {
+        Customer customerToUpdate = createACustomerWithId(1L);
+        Customer customerToDelete = createACustomerWithId(2L);
+        Mockito.when(customerRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(customerToUpdate, customerToDelete));
+        Mockito.when(customerRepository.saveAll(anyIterable())).thenAnswer(i -> {
+            Iterable<Customer> customers = i.getArgument(0);
+            customers.forEach(customer -> ReflectionTestUtils.setField(customer, "id", 10L));
+            return customers;
+        });
+        List<CustomerBatchOperation> operations = Arrays.asList(
+                new CustomerBatchOperation(CustomerBatchOperation.Type.CREATE, null, "New", "Customer"),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.UPDATE, 1L, "Updated", "Customer"),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.DELETE, 2L, null, null),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.DELETE, 3L, null, null),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.CREATE, 4L, "With", "Id"));
+
+        List<CustomerBatchResult> results = customerRepoService.applyBatch(operations);
+
+        Mockito.verify(customerRepository).findAllById(new HashSet<>(Arrays.asList(1L, 2L, 3L)));
+        Mockito.verify(customerRepository).deleteAll(Collections.singletonList(customerToDelete));
+        assertThat(results).extracting(CustomerBatchResult::getStatus).containsExactly(
+                CustomerBatchResult.Status.CREATED, CustomerBatchResult.Status.UPDATED, CustomerBatchResult.Status.DELETED,
+                CustomerBatchResult.Status.NOT_FOUND, CustomerBatchResult.Status.INVALID);
+        assertThat(results).extracting(CustomerBatchResult::getId).containsExactly(10L, 1L, 2L, 3L, 4L);
+        assertThat(customerToUpdate.getFirstName()).isEqualTo("Updated");
+    }
+
+    @Test
+    public void applyBatch_reportsNotFound_whenCustomerWasDeletedEarlierInTheBatch() {
+        Customer existingCustomerInRepo = createACustomerWithId(1L);
+        Mockito.when(customerRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(existingCustomerInRepo));
+        Mockito.when(customerRepository.saveAll(anyIterable())).thenAnswer(i -> i.getArgument(0));
+        List<CustomerBatchOperation> operations = Arrays.asList(
+                new CustomerBatchOperation(CustomerBatchOperation.Type.DELETE, 1L, null, null),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.UPDATE, 1L, "Too", "Late"));
+
+        List<CustomerBatchResult> results = customerRepoService.applyBatch(operations);
+
+        assertThat(results).extracting(CustomerBatchResult::getStatus).containsExactly(
+                CustomerBatchResult.Status.DELETED, CustomerBatchResult.Status.NOT_FOUND);
+    }
+
+    @Test
+    public void applyBatch_reportsInvalidNames_perOperation_andSavesTheOthers() {
+        Customer customerToUpdate = createACustomerWithId(1L);
+        Mockito.when(customerRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(customerToUpdate));
+        List<Customer> created = new ArrayList<>();
+        Mockito.when(customerRepository.saveAll(anyIterable())).thenAnswer(i -> {
+            Iterable<Customer> customers = i.getArgument(0);
+            customers.forEach(created::add);
+            return customers;
+        });
+        String firstName = customerToUpdate.getFirstName();
+        List<CustomerBatchOperation> operations = Arrays.asList(
+                new CustomerBatchOperation(CustomerBatchOperation.Type.CREATE, null, "New", null),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.CREATE, null, "Valid", "Customer"),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.UPDATE, 1L, "", "Customer"),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.CREATE, null, "x".repeat(201), "Customer"));
+
+        List<CustomerBatchResult> results = customerRepoService.applyBatch(operations);
+
+        assertThat(results).extracting(CustomerBatchResult::getStatus).containsExactly(
+                CustomerBatchResult.Status.INVALID, CustomerBatchResult.Status.CREATED,
+                CustomerBatchResult.Status.INVALID, CustomerBatchResult.Status.INVALID);
+        assertThat(results.get(0).getMessage()).isEqualTo("firstName and lastName must not be empty");
+        assertThat(results.get(3).getMessage()).isEqualTo("firstName and lastName must be at most 200 characters");
+        assertThat(created).extracting(Customer::getFirstName).containsExactly("Valid");
+        assertThat(customerToUpdate.getFirstName()).isEqualTo(firstName);
+    }
+
+    @Test
+    public void applyBatch_throwsInvalidPropertyValueException_whenBatchIsEmpty() {
+        InvalidPropertyValueException exceptionThrown = assertThrows(
+                InvalidPropertyValueException.class,
+                () -> customerRepoService.applyBatch(Collections.emptyList())
+        );
+
+        assertThat(exceptionThrown.getMessage()).isEqualTo("A batch must contain between 1 and 1000 operations");
+    }
+
+    @Test
+    public void applyBatch_throwsUnableToSaveException_whenRepositoryThrowsExceptionWhileSaving() {
+        String errorMessage = "Error message";
+        Mockito.when(customerRepository.saveAll(anyIterable())).thenThrow(new RuntimeException(errorMessage));
+        List<CustomerBatchOperation> operations = Collections.singletonList(
+                new CustomerBatchOperation(CustomerBatchOperation.Type.CREATE, null, "New", "Customer"));
+
+        UnableToSaveException exceptionThrown = assertThrows(
+                UnableToSaveException.class,
+                () -> customerRepoService.applyBatch(operations)
+        );
+
+        assertThat(exceptionThrown.getMessage()).isEqualTo(String.format("Unable to save the object. Error: %s", errorMessage));
+    }
+
+    @Test
+    public void deleteExistingCustomer_doesNotThrowException_whenSuccessfullyDeletedFromRepository() {
+        Long customerId = createRandomLong();
+        Mockito.when(customerRepository.deleteCustomerById(customerId)).thenReturn(1);
 
         assertDoesNotThrow(() -> customerRepoService.deleteCustomer(customerId));
 
-        Mockito.verify(customerRepository).delete(customerDeleteArgument.capture());
-        assertThat(customerDeleteArgument.getValue()).isEqualTo(existingCustomerInRepo);
+        Mockito.verify(customerRepository).deleteCustomerById(customerId);
+        Mockito.verify(customerRepository, Mockito.never()).findById(any(Long.class));
     }
 
     @Test
@@ -241,7 +502,7 @@ public class CustomerRepoServiceTests {
     @Test
     public void deleteExistingCustomer_throwsNotFoundException_whenUnableToFindInRepository() {
         Long customerId = createRandomLong();
-        Mockito.when(customerRepository.findById(customerId)).thenReturn(Optional.empty());
+        Mockito.when(customerRepository.deleteCustomerById(customerId)).thenReturn(0);
 
         EntityNotFoundException exceptionThrown = assertThrows(
                 EntityNotFoundException.class,
@@ -253,12 +514,10 @@ public class CustomerRepoServiceTests {
 
     @Test
     public void deleteExistingCustomer_throwsUnableToDeleteException_whenRepositoryThrowsExceptionWhileDeleting() {
-        Customer existingCustomerInRepo = createACustomer();
         Long customerId = createRandomLong();
 
         String errorMessage = "Error message";
-        Mockito.when(customerRepository.findById(customerId)).thenReturn(Optional.of(existingCustomerInRepo));
-        doThrow(new RuntimeException(errorMessage)).when(customerRepository).delete(any(Customer.class));
+        Mockito.when(customerRepository.deleteCustomerById(customerId)).thenThrow(new RuntimeException(errorMessage));
 
         UnableToDeleteException exceptionThrown = assertThrows(
                 UnableToDeleteException.class,
@@ -268,6 +527,22 @@ public class CustomerRepoServiceTests {
         assertThat(exceptionThrown.getMessage()).isEqualTo(String.format("Unable to delete the object. Error: %s", errorMessage));
     }
 
+    private Customer createACustomerWithId(Long customerId) {
+        Customer customer = createACustomer();
+        ReflectionTestUtils.setField(customer, "id", customerId);
+        return customer;
+    }
+
+    private CustomerView createACustomerView(long customerId) {
+        return new CustomerView(customerId, "John", "Doe", 0L);
+    }
+
+    private Customer createACustomerWithVersion(Long version) {
+        Customer customer = createACustomer();
+        ReflectionTestUtils.setField(customer, "version", version);
+        return customer;
+    }
+
     private void assertCustomerObjectFieldsEqual(Customer actualCustomer, Customer expectedCustomer) {
         assertThat(actualCustomer.getId()).isEqualTo(expectedCustomer.getId());
         assertThat(actualCustomer.getFirstName()).isEqualTo(expectedCustomer.getFirstName());
@@ -0,0 +1,103 @@
+package com.java.dao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerSeedGeneratorTests {
+
+    @Test
+    public void generate_insertsCustomersWithSequenceIds_andZipfDistributedSurnames() {
+        JdbcTemplate jdbcTemplate = generate("seedtest", 25_000, 42);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Long.class)).isEqualTo(25_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT MAX(id) FROM customer", Long.class)).isEqualTo(25_000);
+        List<Map<String, Object>> surnames = jdbcTemplate.queryForList(
+                "SELECT last_name, COUNT(*) customers FROM customer GROUP BY last_name ORDER BY customers DESC");
+        // about 1 / H(100000), 8%, share the most common surname, while most surnames are drawn once
+        assertThat(surnames.get(0).get("last_name")).isEqualTo("Smith");
+        assertThat((Long) surnames.get(0).get("customers")).isBetween(1_800L, 2_300L);
+        assertThat((Long) surnames.get(1).get("customers")).isLessThan((Long) surnames.get(0).get("customers"));
+        assertThat(surnames.size()).isGreaterThan(8_000);
+        assertThat(surnames.stream().filter(row -> (Long) row.get("customers") == 1).count()).isGreaterThan(surnames.size() / 2);
+    }
+
+    @Test
+    public void generate_drawsTheSameNames_forTheSameSeed() {
+        String query = "SELECT first_name || ' ' || last_name FROM customer ORDER BY id";
+        List<String> names = generate("seedtest1", 1_000, 7).queryForList(query, String.class);
+
+        assertThat(generate("seedtest2", 1_000, 7).queryForList(query, String.class)).isEqualTo(names);
+        assertThat(generate("seedtest3", 1_000, 8).queryForList(query, String.class)).isNotEqualTo(names);
+    }
+
+    @Test
+    public void generate_keepsTheIndexes_whenTheTableIsInUse() throws SQLException {
+        JdbcTemplate jdbcTemplate = createTable("seedtest4");
+        CustomerSeedGenerator generator = generator(jdbcTemplate, 7);
+        try (Connection user = jdbcTemplate.getDataSource().getConnection()) {
+            // an open transaction of another user of the table, which dropping an index would wait for
+            user.setAutoCommit(false);
+            user.createStatement().execute("INSERT INTO customer (id, first_name, last_name) VALUES (-1, 'In', 'Flight')");
+
+            assertThat(generator.generate(2_000, false)).isEqualTo(2_000);
+
+            user.rollback();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Long.class)).isEqualTo(2_000);
+    }
+
+    @Test
+    public void restoreDroppedIndexes_createsTheIndexesOfALoadThatDidNotFinish() {
+        JdbcTemplate jdbcTemplate = createTable("seedtest5");
+        // what a load leaves behind when the process dies before it creates the indexes again
+        jdbcTemplate.execute("CREATE TABLE customer_seed_dropped_index (index_name VARCHAR(200) PRIMARY KEY, sql VARCHAR NOT NULL)");
+        jdbcTemplate.update("INSERT INTO customer_seed_dropped_index (index_name, sql) SELECT DISTINCT index_name, sql FROM information_schema.indexes "
+                + "WHERE table_name = 'CUSTOMER' AND index_name = 'IDX_CUSTOMER_LAST_NAME'");
+        jdbcTemplate.execute("DROP INDEX idx_customer_last_name");
+
+        assertThat(generator(jdbcTemplate, 7).restoreDroppedIndexes()).isEqualTo(1);
+
+        assertThat(secondaryIndexes(jdbcTemplate)).containsExactly("IDX_CUSTOMER_LAST_NAME");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE table_name = 'CUSTOMER_SEED_DROPPED_INDEX'", Long.class)).isZero();
+        assertThat(generator(jdbcTemplate, 7).restoreDroppedIndexes()).isZero();
+    }
+
+    private static JdbcTemplate generate(String database, long count, long randomSeed) {
+        JdbcTemplate jdbcTemplate = createTable(database);
+        assertThat(generator(jdbcTemplate, randomSeed).generate(count, true)).isEqualTo(count);
+        // dropped for the load and created again
+        assertThat(secondaryIndexes(jdbcTemplate)).containsExactly("IDX_CUSTOMER_LAST_NAME");
+        return jdbcTemplate;
+    }
+
+    private static List<String> secondaryIndexes(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT index_name FROM information_schema.indexes "
+                + "WHERE table_name = 'CUSTOMER' AND primary_key = FALSE", String.class);
+    }
+
+    private static JdbcTemplate createTable(String database) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "sa"));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customer");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS hibernate_sequence");
+        jdbcTemplate.execute("CREATE SEQUENCE hibernate_sequence START WITH 1 INCREMENT BY 1");
+        jdbcTemplate.execute("CREATE TABLE customer (id BIGINT PRIMARY KEY, first_name VARCHAR(200) NOT NULL, last_name VARCHAR(200) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_customer_last_name ON customer (last_name, id)");
+        return jdbcTemplate;
+    }
+
+    private static CustomerSeedGenerator generator(JdbcTemplate jdbcTemplate, long randomSeed) {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        return new CustomerSeedGenerator(dataSource, new DataSourceTransactionManager(dataSource), 1_000, randomSeed);
+    }
+}
@@ -0,0 +1,67 @@
+package com.java.dao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerViewRepositoryImplTests {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:viewtest;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private final CustomerViewRepositoryImpl customerViewRepository = new CustomerViewRepositoryImpl(dataSource);
+
+    @BeforeEach
+    public void setup() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate();
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customer");
+        jdbcTemplate.execute("CREATE TABLE customer (id BIGINT PRIMARY KEY, first_name VARCHAR(200), last_name VARCHAR(200), " +
+                "version BIGINT DEFAULT 0 NOT NULL, last_name_lower VARCHAR(200) AS LOWER(last_name))");
+        jdbcTemplate.update("INSERT INTO customer (id, first_name, last_name, version) VALUES (3, 'Gulwal', 'Doe', 2)");
+        jdbcTemplate.update("INSERT INTO customer (id, first_name, last_name) VALUES (1, 'John', 'Doe')");
+        jdbcTemplate.update("INSERT INTO customer (id, first_name, last_name) VALUES (2, 'Jane', 'DOE')");
+    }
+
+    @Test
+    public void findViews_mapTheRowsInIdOrder_matchingTheLastNameExactly() {
+        assertThat(customerViewRepository.findAllViews()).extracting(CustomerView::getId).containsExactly(1L, 2L, 3L);
+
+        List<CustomerView> does = customerViewRepository.findViewsByLastName("Doe");
+        assertThat(does).extracting(CustomerView::getFirstName).containsExactly("John", "Gulwal");
+        assertThat(does.get(1).getVersion()).isEqualTo(2L);
+        assertThat(customerViewRepository.findViewsByLastName("doe")).isEmpty();
+    }
+
+    @Test
+    public void pagedViews_seekPastTheCursor() {
+        jdbcTemplate().update("INSERT INTO customer (id, first_name, last_name) VALUES (4, 'Jim', 'Doe_2')");
+
+        assertThat(customerViewRepository.findViewsAfter(1L, 2)).extracting(CustomerView::getId).containsExactly(2L, 3L);
+        assertThat(customerViewRepository.findViewsByLastNameIgnoreCase("dOE", 1L, 10)).extracting(CustomerView::getId)
+                .containsExactly(2L, 3L);
+        assertThat(customerViewRepository.findViewsByLastNameLikeIgnoreCase("DOE%", "", 0L, 3)).extracting(CustomerView::getId)
+                .containsExactly(1L, 2L, 3L);
+        assertThat(customerViewRepository.findViewsByLastNameLikeIgnoreCase("doe%", "doe", 3L, 3)).extracting(CustomerView::getId)
+                .containsExactly(4L);
+        assertThat(customerViewRepository.findViewsByLastNameLikeIgnoreCase("doe\\_%", "", 0L, 3)).extracting(CustomerView::getFirstName)
+                .containsExactly("Jim");
+    }
+
+    @Test
+    public void views_serializeLikeCustomers() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        CustomerView view = new CustomerView(7L, "Johny", "Walker \"JW\"", 3L);
+
+        assertThat(objectMapper.writeValueAsString(view))
+                .isEqualTo(objectMapper.writeValueAsString(new Customer(7L, "Johny", "Walker \"JW\"", 3L)))
+                .isEqualTo("{\"id\":7,\"firstName\":\"Johny\",\"lastName\":\"Walker \\\"JW\\\"\",\"version\":3}");
+    }
+
+    private JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,110 @@
+package com.java.dao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.exception.PreconditionFailedException;
+import com.java.offheap.OffHeapCustomerStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffHeapCustomerRepositoryTests {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:offheaptest;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private final OffHeapCustomerRepository customerRepository =
+            new OffHeapCustomerRepository(new OffHeapCustomerStore(OffHeapCustomerStore.MIN_SLAB_SIZE), new SimpleMeterRegistry());
+    private final CustomerRepoService customerRepoService = new CustomerRepoService(customerRepository);
+
+    @Test
+    public void save_createsAndUpdates_checkingTheVersionLikeJpa() {
+        Customer created = customerRepository.save(new Customer("John", "Doe"));
+        assertThat(created.getId()).isEqualTo(1L);
+        assertThat(created.getVersion()).isZero();
+
+        created.setFirstName("Johnny");
+        Customer updated = customerRepository.save(created);
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(customerRepository.findById(1L).getFirstName()).isEqualTo("Johnny");
+
+        // created still holds version 0
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> customerRepository.save(created));
+    }
+
+    @Test
+    public void repoService_runsOnTheOffHeapRepository() {
+        Customer john = customerRepoService.createCustomer(new Customer("John", "Doe"));
+        customerRepoService.createCustomer(new Customer("Jane", "doe"));
+        customerRepoService.createCustomer(new Customer("Jim", "Doe_2"));
+
+        assertThat(customerRepoService.retrieveCustomerById(john.getId()).getLastName()).isEqualTo("Doe");
+        assertThat(customerRepoService.findByLastName("Doe")).extracting(Customer::getFirstName).containsExactly("John");
+        assertThat(customerRepoService.findViewsByLastName("Doe")).extracting(CustomerView::getFirstName).containsExactly("John");
+        assertThat(customerRepoService.searchByLastName("DOE", null, null, 10).getCustomers())
+                .extracting(CustomerView::getFirstName).containsExactly("John", "Jane");
+        CustomerPage<String> firstPage = customerRepoService.searchByLastName(null, "doe", null, 2);
+        assertThat(firstPage.getCustomers()).extracting(CustomerView::getFirstName).containsExactly("John", "Jane");
+        assertThat(customerRepoService.searchByLastName(null, "doe", firstPage.getNextCursor(), 2).getCustomers())
+                .extracting(CustomerView::getFirstName).containsExactly("Jim");
+        assertThat(customerRepoService.searchByLastName(null, "doe_", null, 2).getCustomers())
+                .extracting(CustomerView::getFirstName).containsExactly("Jim");
+
+        Customer patched = customerRepoService.patchCustomer(john.getId(), new Customer(null, "Smith"), Set.of(0L));
+        assertThat(patched.getVersion()).isEqualTo(1L);
+        assertThrows(PreconditionFailedException.class,
+                () -> customerRepoService.patchCustomer(john.getId(), new Customer("Jo", null), Set.of(0L)));
+
+        customerRepoService.deleteCustomer(john.getId());
+        assertThat(customerRepoService.getCustomers(null, 10).getCustomers()).extracting(CustomerView::getFirstName).containsExactly("Jane", "Jim");
+    }
+
+    @Test
+    public void applyBatch_savesUpdates_withoutAPersistenceContext() {
+        Customer john = customerRepository.save(new Customer("John", "Doe"));
+        Customer jane = customerRepository.save(new Customer("Jane", "Doe"));
+
+        List<CustomerBatchResult> results = customerRepoService.applyBatch(Arrays.asList(
+                new CustomerBatchOperation(CustomerBatchOperation.Type.UPDATE, john.getId(), "Johnny", "Doe"),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.UPDATE, john.getId(), "Jonathan", "Doe"),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.DELETE, jane.getId(), null, null),
+                new CustomerBatchOperation(CustomerBatchOperation.Type.CREATE, null, "Jim", "Beam")));
+
+        assertThat(results).extracting(CustomerBatchResult::getStatus).containsExactly(CustomerBatchResult.Status.UPDATED,
+                CustomerBatchResult.Status.UPDATED, CustomerBatchResult.Status.DELETED, CustomerBatchResult.Status.CREATED);
+        assertThat(customerRepository.findById(john.getId().longValue()).getFirstName()).isEqualTo("Jonathan");
+        assertThat(customerRepository.existsById(jane.getId())).isFalse();
+        assertThat(customerRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10)))
+                .extracting(Customer::getFirstName).containsExactly("Jonathan", "Jim");
+    }
+
+    @Test
+    public void importAndExport_useTheOffHeapRepository() {
+        CustomerImportService importService = new CustomerImportService(dataSource, new DataSourceTransactionManager(dataSource), 2,
+                Collections.emptyList(), customerRepository);
+        CustomerExportService exportService = new CustomerExportService(dataSource, new ObjectMapper(), 2, customerRepository);
+
+        CustomerImportResult result = importService.importCustomers(new StringReader("firstName,lastName\nJohn,Doe\nJane,Doe\nJim,Beam\n"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = exportService.exportCustomers(output);
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(customerRepository.count()).isEqualTo(3);
+        assertThat(exported).isEqualTo(3);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"version\":0}\n" +
+                "{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"version\":0}\n" +
+                "{\"id\":3,\"firstName\":\"Jim\",\"lastName\":\"Beam\",\"version\":0}\n");
+    }
+}
@@ -0,0 +1,104 @@
+package com.java.dao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.exception.PreconditionFailedException;
+import com.java.shard.ShardedCustomerStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardedCustomerRepositoryTests {
+
+    private static final AtomicInteger SHARDS = new AtomicInteger();
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:shardedrepositorytest;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private final List<DataSource> shards = List.of(newShard(), newShard());
+    private final ShardedCustomerStore store = new ShardedCustomerStore(shards, 1000, 2);
+    private final ShardedCustomerRepository customerRepository = new ShardedCustomerRepository(store);
+    private final CustomerRepoService customerRepoService = new CustomerRepoService(customerRepository);
+
+    @AfterEach
+    public void tearDown() {
+        store.close();
+    }
+
+    private static DataSource newShard() {
+        return new DriverManagerDataSource("jdbc:h2:mem:shardedrepositorytest" + SHARDS.incrementAndGet() + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+    }
+
+    @Test
+    public void save_createsAndUpdates_checkingTheVersionLikeJpa() {
+        Customer created = customerRepository.save(new Customer("John", "Doe"));
+        assertThat(created.getVersion()).isZero();
+
+        created.setFirstName("Johnny");
+        assertThat(customerRepository.save(created).getVersion()).isEqualTo(1L);
+        assertThat(customerRepository.findById(created.getId().longValue()).getFirstName()).isEqualTo("Johnny");
+
+        // created still holds version 0
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> customerRepository.save(created));
+        assertThrows(DataIntegrityViolationException.class, () -> customerRepository.save(new Customer(null, "Doe")));
+    }
+
+    @Test
+    public void repoService_runsOnTheShards() {
+        Customer john = customerRepoService.createCustomer(new Customer("John", "Doe"));
+        customerRepoService.createCustomer(new Customer("Jane", "doe"));
+        customerRepoService.createCustomer(new Customer("Jim", "Doe_2"));
+        customerRepoService.createCustomer(new Customer("Joe", "Doe"));
+
+        assertThat(customerRepoService.retrieveCustomerById(john.getId()).getLastName()).isEqualTo("Doe");
+        assertThat(customerRepoService.getAllCustomers()).extracting(Customer::getFirstName).containsExactly("John", "Jane", "Jim", "Joe");
+        assertThat(customerRepoService.findByLastName("Doe")).extracting(Customer::getFirstName).containsExactly("John", "Joe");
+        assertThat(customerRepoService.findViewsByLastName("Doe")).extracting(CustomerView::getFirstName).containsExactly("John", "Joe");
+        assertThat(customerRepoService.getAllCustomerViews()).extracting(CustomerView::getFirstName).containsExactly("John", "Jane", "Jim", "Joe");
+        CustomerPage<String> firstPage = customerRepoService.searchByLastName(null, "doe", null, 2);
+        assertThat(firstPage.getCustomers()).extracting(CustomerView::getFirstName).containsExactly("John", "Jane");
+        assertThat(customerRepoService.searchByLastName(null, "doe", firstPage.getNextCursor(), 2).getCustomers())
+                .extracting(CustomerView::getFirstName).containsExactly("Joe", "Jim");
+        assertThat(customerRepoService.searchByLastName(null, "doe_", null, 2).getCustomers())
+                .extracting(CustomerView::getFirstName).containsExactly("Jim");
+
+        Customer patched = customerRepoService.patchCustomer(john.getId(), new Customer(null, "Smith"), Set.of(0L));
+        assertThat(patched.getVersion()).isEqualTo(1L);
+        assertThrows(PreconditionFailedException.class,
+                () -> customerRepoService.patchCustomer(john.getId(), new Customer("Jo", null), Set.of(0L)));
+
+        customerRepoService.deleteCustomer(john.getId());
+        assertThat(customerRepoService.getCustomers(null, 10).getCustomers()).extracting(CustomerView::getFirstName).containsExactly("Jane", "Jim", "Joe");
+    }
+
+    @Test
+    public void importAndExport_useTheShards() {
+        CustomerImportService importService = new CustomerImportService(dataSource, new DataSourceTransactionManager(dataSource), 2,
+                Collections.emptyList(), customerRepository);
+        CustomerExportService exportService = new CustomerExportService(dataSource, new ObjectMapper(), 2, customerRepository);
+
+        CustomerImportResult result = importService.importCustomers(new StringReader("firstName,lastName\nJohn,Doe\nJane,Doe\nJim,Beam\n"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = exportService.exportCustomers(output);
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(store.getStatus()).extracting(ShardedCustomerStore.ShardStatus::getCustomers).containsExactly(1L, 2L);
+        assertThat(exported).isEqualTo(3);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"version\":0}\n" +
+                "{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"version\":0}\n" +
+                "{\"id\":3,\"firstName\":\"Jim\",\"lastName\":\"Beam\",\"version\":0}\n");
+    }
+}
@@ -0,0 +1,171 @@
+package com.java.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteRoutingDataSourceTests {
+
+    private final DriverManagerDataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routingprimary;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private final DriverManagerDataSource replicaDatabase = new DriverManagerDataSource("jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private volatile boolean replicaDown;
+    private final DelegatingDataSource replica = new DelegatingDataSource(replicaDatabase) {
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (replicaDown) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            if (replicaDown) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection(username, password);
+        }
+    };
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofMillis(300), 1000);
+    private final ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, replica, readYourWrites, Duration.ofMillis(300));
+    private final LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    private final TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+    @BeforeEach
+    public void setup() {
+        readOnly.setReadOnly(true);
+        for (DriverManagerDataSource database : new DriverManagerDataSource[]{primary, replicaDatabase}) {
+            JdbcTemplate template = new JdbcTemplate(database);
+            template.execute("DROP TABLE IF EXISTS node");
+            template.execute("CREATE TABLE node (name VARCHAR(16))");
+            template.update("INSERT INTO node VALUES (?)", database == primary ? "primary" : "replica");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReadYourWrites.setCurrentClient(null);
+    }
+
+    @Test
+    public void readOnlyTransactions_goToReplica_andTheRestToPrimary() {
+        assertThat(readOnly(this::node)).isEqualTo("replica");
+        assertThat(readWrite(this::node)).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary");
+    }
+
+    @Test
+    public void client_readsFromPrimary_forAWhileAfterItsWrite() throws InterruptedException {
+        ReadYourWrites.setCurrentClient("writer");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO node VALUES ('written')"));
+
+        assertThat(readOnly(this::node)).isEqualTo("primary");
+        ReadYourWrites.setCurrentClient("reader");
+        assertThat(readOnly(this::node)).isEqualTo("replica");
+
+        Thread.sleep(400);
+        ReadYourWrites.setCurrentClient("writer");
+        assertThat(readOnly(this::node)).isEqualTo("replica");
+    }
+
+    @Test
+    public void readWriteTransaction_thatChangesNoRow_doesNotPinClient() {
+        ReadYourWrites.setCurrentClient("reader");
+        assertThat(readWrite(this::node)).isEqualTo("primary");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = 'none' WHERE name = 'missing'"));
+
+        assertThat(readYourWrites.isPinned("reader")).isFalse();
+        assertThat(readOnly(this::node)).isEqualTo("replica");
+    }
+
+    @Test
+    public void batchWrite_pinsClient() {
+        ReadYourWrites.setCurrentClient("writer");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.batchUpdate("INSERT INTO node VALUES ('written')"));
+
+        assertThat(readYourWrites.isPinned("writer")).isTrue();
+    }
+
+    @Test
+    public void rolledBackWrite_doesNotPinClient() {
+        ReadYourWrites.setCurrentClient("writer");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO node VALUES ('written')");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnly(this::node)).isEqualTo("replica");
+    }
+
+    @Test
+    public void reads_fallBackToPrimary_untilReplicaIsBack() throws InterruptedException {
+        replicaDown = true;
+        assertThat(readOnly(this::node)).isEqualTo("primary");
+        assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+
+        replicaDown = false;
+        // within the retry interval the replica is not tried again
+        assertThat(readOnly(this::node)).isEqualTo("primary");
+
+        Thread.sleep(400);
+        assertThat(readOnly(this::node)).isEqualTo("replica");
+        assertThat(routingDataSource.isReplicaAvailable()).isTrue();
+    }
+
+    @Test
+    public void connectionsWithCredentials_areRoutedLikeTheOthers() {
+        assertThat(readOnly(() -> nodeWithCredentials("sa", "sa"))).isEqualTo("replica");
+        assertThat(readWrite(() -> nodeWithCredentials("sa", "sa"))).isEqualTo("primary");
+        assertThat(nodeWithCredentials("sa", "sa")).isEqualTo("primary");
+
+        replicaDown = true;
+        assertThat(readOnly(() -> nodeWithCredentials("sa", "sa"))).isEqualTo("primary");
+        assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+    }
+
+    @Test
+    public void propagate_carriesClientToOtherThread() throws Exception {
+        ReadYourWrites.setCurrentClient("caller");
+        Supplier<String> work = ReadYourWrites.propagate(ReadYourWrites::currentClient);
+
+        assertThat(CompletableFuture.supplyAsync(work).get()).isEqualTo("caller");
+        assertThat(CompletableFuture.supplyAsync(ReadYourWrites::currentClient).get()).isNull();
+    }
+
+    private String readOnly(Supplier<String> read) {
+        return readOnly.execute(status -> read.get());
+    }
+
+    private String readWrite(Supplier<String> read) {
+        return readWrite.execute(status -> read.get());
+    }
+
+    private String nodeWithCredentials(String username, String password) {
+        try (Connection connection = routingDataSource.getConnection(username, password)) {
+            return new JdbcTemplate(new SingleConnectionDataSource(connection, true)).queryForObject("SELECT name FROM node FETCH FIRST ROW ONLY", String.class);
+        } catch (SQLException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node FETCH FIRST ROW ONLY", String.class);
+    }
+}
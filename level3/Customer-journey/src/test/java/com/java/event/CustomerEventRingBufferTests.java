@@ -0,0 +1,139 @@
+package com.java.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerEventRingBufferTests {
+
+    private CustomerEventRingBuffer ringBuffer;
+
+    @AfterEach
+    public void tearDown() {
+        if (ringBuffer != null) {
+            ringBuffer.close();
+        }
+    }
+
+    @Test
+    public void publish_deliversEveryEventInOrder_fromConcurrentPublishers() throws InterruptedException {
+        int publishers = 4;
+        int eventsPerPublisher = 20_000;
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        ringBuffer = new CustomerEventRingBuffer(64, WaitStrategy.YIELDING, OverflowPolicy.BLOCK, 1,
+                List.of((event, sequence, endOfBatch) -> received.add(event.getCustomerId())));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int publisher = 0; publisher < publishers; publisher++) {
+            long firstId = (long) publisher * eventsPerPublisher;
+            Thread thread = new Thread(() -> {
+                for (long customerId = firstId; customerId < firstId + eventsPerPublisher; customerId++) {
+                    ringBuffer.publish(CustomerEventType.CREATED, customerId, "First", "Last");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ringBuffer.close();
+
+        assertThat(received).hasSize(publishers * eventsPerPublisher);
+        assertThat(ringBuffer.getDropped()).isZero();
+        long[] lastIdByPublisher = new long[publishers];
+        Arrays.fill(lastIdByPublisher, -1);
+        for (long customerId : received) {
+            int publisher = (int) (customerId / eventsPerPublisher);
+            assertThat(customerId).isGreaterThan(lastIdByPublisher[publisher]);
+            lastIdByPublisher[publisher] = customerId;
+        }
+    }
+
+    @Test
+    public void publish_dropsEvents_whenBufferIsFullWithDropPolicy() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        ringBuffer = new CustomerEventRingBuffer(8, WaitStrategy.SLEEPING, OverflowPolicy.DROP, 1,
+                List.of((event, sequence, endOfBatch) -> release.await()));
+
+        int accepted = 0;
+        for (long customerId = 0; customerId < 20; customerId++) {
+            if (ringBuffer.publish(CustomerEventType.UPDATED, customerId, "First", "Last")) {
+                accepted++;
+            }
+        }
+        release.countDown();
+
+        assertThat(accepted).isEqualTo(8);
+        assertThat(ringBuffer.getDropped()).isEqualTo(12);
+    }
+
+    @Test
+    public void publish_keepsOneEventInSampleRate_pastHighWaterMarkWithSamplePolicy() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        ringBuffer = new CustomerEventRingBuffer(16, WaitStrategy.SLEEPING, OverflowPolicy.SAMPLE, 10,
+                List.of((event, sequence, endOfBatch) -> {
+                    release.await();
+                    received.add(event.getCustomerId());
+                }));
+
+        for (long customerId = 0; customerId < 100; customerId++) {
+            ringBuffer.publish(CustomerEventType.FETCHED, customerId, "First", "Last");
+        }
+        release.countDown();
+        ringBuffer.close();
+
+        // 12 events fill the buffer to its high-water mark, then one in ten is kept until the 16 slots are used
+        assertThat(ringBuffer.getPublished()).isEqualTo(16);
+        assertThat(received).hasSize(16);
+        assertThat(received.subList(0, 12)).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+        assertThat(received.get(12)).isEqualTo(12L);
+        assertThat(received.get(13)).isEqualTo(22L);
+    }
+
+    @Test
+    public void publish_wakesParkedConsumer_withBlockingWaitStrategy() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        List<CustomerEventType> types = Collections.synchronizedList(new ArrayList<>());
+        ringBuffer = new CustomerEventRingBuffer(8, WaitStrategy.BLOCKING, OverflowPolicy.DROP, 1,
+                List.of((event, sequence, endOfBatch) -> {
+                    types.add(event.getType());
+                    if (endOfBatch && event.getType() == CustomerEventType.DELETED) {
+                        delivered.countDown();
+                    }
+                }));
+        Thread.sleep(20);
+
+        ringBuffer.publish(CustomerEventType.CREATED, 1L, "First", "Last");
+        ringBuffer.publish(CustomerEventType.DELETED, 1L, null, null);
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(types).containsExactly(CustomerEventType.CREATED, CustomerEventType.DELETED);
+    }
+
+    @Test
+    public void consumer_keepsRunning_whenHandlerThrows() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        ringBuffer = new CustomerEventRingBuffer(8, WaitStrategy.SLEEPING, OverflowPolicy.DROP, 1,
+                List.of((event, sequence, endOfBatch) -> {
+                    if (event.getCustomerId() == 1L) {
+                        throw new IllegalStateException("Handler failure");
+                    }
+                    delivered.countDown();
+                }));
+
+        ringBuffer.publish(CustomerEventType.CREATED, 1L, "First", "Last");
+        ringBuffer.publish(CustomerEventType.CREATED, 2L, "First", "Last");
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,52 @@
+package com.java.exception;
+
+import com.java.exception.apierror.ApiErrorSlim;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpectedErrorsTests {
+
+    private static final String CONSTANT_MESSAGE = "Exactly one of lastName or prefix must be provided";
+
+    @Test
+    public void fastMode_createsStacklessExceptions_andReusesThoseWithConstantMessage() {
+        ExpectedErrors expectedErrors = new ExpectedErrors(true);
+
+        EntityNotFoundException notFound = expectedErrors.entityNotFound("No customer found with id: 1");
+        InvalidPropertyValueException invalid = expectedErrors.constantInvalidPropertyValue(CONSTANT_MESSAGE);
+
+        assertThat(notFound.getStackTrace()).isEmpty();
+        assertThat(notFound.getMessage()).isEqualTo("No customer found with id: 1");
+        assertThat(invalid.getStackTrace()).isEmpty();
+        assertThat(expectedErrors.constantInvalidPropertyValue(CONSTANT_MESSAGE)).isSameAs(invalid);
+    }
+
+    @Test
+    public void defaultMode_createsNewExceptionsWithStackTraces() {
+        ExpectedErrors expectedErrors = new ExpectedErrors(false);
+
+        InvalidPropertyValueException invalid = expectedErrors.constantInvalidPropertyValue(CONSTANT_MESSAGE);
+
+        assertThat(invalid.getStackTrace()).isNotEmpty();
+        assertThat(expectedErrors.constantInvalidPropertyValue(CONSTANT_MESSAGE)).isNotSameAs(invalid);
+        assertThat(expectedErrors.entityNotFound("No customer found with id: 1").getStackTrace()).isNotEmpty();
+    }
+
+    @Test
+    public void handler_buildsResponseOfPreallocatedExceptionOnce() {
+        ExpectedErrors expectedErrors = new ExpectedErrors(true);
+        RestExceptionHandler handler = new RestExceptionHandler(expectedErrors);
+        InvalidPropertyValueException invalid = expectedErrors.constantInvalidPropertyValue(CONSTANT_MESSAGE);
+
+        ResponseEntity<Object> response = handler.handleInvalidPropertyValueException(invalid);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(((ApiErrorSlim) response.getBody()).getMessage()).isEqualTo(CONSTANT_MESSAGE);
+        assertThat(handler.handleInvalidPropertyValueException(invalid)).isSameAs(response);
+        EntityNotFoundException notFound = expectedErrors.entityNotFound("No customer found with id: 1");
+        assertThat(handler.handleEntityNotFound(notFound)).isNotSameAs(handler.handleEntityNotFound(notFound));
+    }
+}
@@ -0,0 +1,91 @@
+package com.java.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LatencyTimingInterceptorTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Lookup lookup = proxy(new LatencyTimingInterceptor(() -> meterRegistry, "test.invocations", "Test latency"));
+
+    @Test
+    public void invoke_recordsSuccessfulCallsIntoOneTimerPerMethod() {
+        lookup.find("a");
+        lookup.find("b");
+
+        Timer timer = meterRegistry.get("test.invocations").tags("method", "find(String)", "outcome", "SUCCESS", "exception", "None").timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(meterRegistry.find("test.invocations").timers()).hasSize(1);
+    }
+
+    @Test
+    public void invoke_recordsFailuresByException_andRethrows() {
+        assertThrows(IllegalArgumentException.class, () -> lookup.find(null));
+
+        Timer timer = meterRegistry.get("test.invocations").tags("method", "find(String)", "outcome", "ERROR", "exception", "IllegalArgumentException").timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void invoke_recordsOverloadsIntoTimersOfTheirOwn() {
+        lookup.find("a");
+        lookup.find("a", 2);
+
+        assertThat(meterRegistry.get("test.invocations").tags("method", "find(String)").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("test.invocations").tags("method", "find(String,int)").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void latencyEndpoint_summarizesTimersWithPercentiles_slowestFirst() {
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentiles(0.5, 0.99, 0.999).build().merge(config);
+            }
+        });
+        LatencyTimingInterceptor interceptor = new LatencyTimingInterceptor(() -> meterRegistry, "customer.service.invocations", "Test latency");
+        Lookup service = proxy(interceptor);
+        service.find("a");
+        assertThrows(IllegalArgumentException.class, () -> service.find(null));
+
+        List<LatencyEndpoint.LatencySummary> summaries = new LatencyEndpoint(meterRegistry).layer("service");
+
+        assertThat(summaries).extracting(LatencyEndpoint.LatencySummary::getOutcome).containsExactlyInAnyOrder("SUCCESS", "ERROR");
+        Map<String, Double> percentiles = summaries.get(0).getPercentilesMs();
+        assertThat(percentiles).containsOnlyKeys("p50", "p99", "p999");
+        assertThat(percentiles.get("p99")).isGreaterThanOrEqualTo(summaries.get(1).getPercentilesMs().get("p99"));
+        assertThat(new LatencyEndpoint(meterRegistry).layer("unknown")).isNull();
+    }
+
+    private static Lookup proxy(LatencyTimingInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(new Lookup());
+        proxyFactory.addAdvice(interceptor);
+        proxyFactory.setProxyTargetClass(true);
+        return (Lookup) proxyFactory.getProxy();
+    }
+
+    public static class Lookup {
+
+        public String find(String key) {
+            if (key == null) {
+                throw new IllegalArgumentException("key must not be null");
+            }
+            return key.toUpperCase();
+        }
+
+        public String find(String key, int times) {
+            return find(key).repeat(times);
+        }
+    }
+}
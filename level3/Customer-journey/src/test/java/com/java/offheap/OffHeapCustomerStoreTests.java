@@ -0,0 +1,115 @@
+package com.java.offheap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffHeapCustomerStoreTests {
+
+    private static final OffHeapCustomerStore.RecordMapper<String> TO_STRING =
+            (id, firstName, lastName, version) -> id + ":" + firstName + " " + lastName + "@" + version;
+
+    private final OffHeapCustomerStore store = new OffHeapCustomerStore(OffHeapCustomerStore.MIN_SLAB_SIZE);
+
+    @Test
+    public void insert_assignsIdsFromOne_andGetReadsTheRecordBack() {
+        assertThat(store.insert("John", "Doe", TO_STRING)).isEqualTo("1:John Doe@0");
+        assertThat(store.insert("Zoë", "Ñúñez", TO_STRING)).isEqualTo("2:Zoë Ñúñez@0");
+
+        assertThat(store.get(2, TO_STRING)).isEqualTo("2:Zoë Ñúñez@0");
+        assertThat(store.get(3, TO_STRING)).isNull();
+        assertThat(store.get(0, TO_STRING)).isNull();
+        assertThat(store.getLastNameLower(2)).isEqualTo("ñúñez");
+        assertThat(store.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void update_incrementsTheVersion_andChecksTheExpectedVersions() {
+        store.insert("John", "Doe", TO_STRING);
+
+        assertThat(store.update(1, "Johnny", null, Set.of(0L), TO_STRING)).isEqualTo("1:Johnny Doe@1");
+        assertThat(store.update(1, "Jon", null, Set.of(0L), TO_STRING)).isNull();
+        assertThat(store.update(1, null, "A much longer last name than before", null, TO_STRING))
+                .isEqualTo("1:Johnny A much longer last name than before@2");
+        assertThat(store.update(1, "J", "D", Set.of(1L, 2L), TO_STRING)).isEqualTo("1:J D@3");
+        assertThat(store.getVersion(1)).isEqualTo(3L);
+        assertThat(store.update(2, "No", "One", null, TO_STRING)).isNull();
+    }
+
+    @Test
+    public void lastNameSearches_followRenames_inIdOrder() {
+        store.insert("A", "Smith", TO_STRING);
+        store.insert("B", "Jones", TO_STRING);
+        store.insert("C", "SMITH", TO_STRING);
+        store.insert("D", "Smithers", TO_STRING);
+        store.insert("E", "Smith", TO_STRING);
+
+        assertThat(store.findByLastNameLower("smith", 0, 10, TO_STRING)).containsExactly("1:A Smith@0", "3:C SMITH@0", "5:E Smith@0");
+        assertThat(store.findByLastNameLower("smith", 1, 1, TO_STRING)).containsExactly("3:C SMITH@0");
+
+        // moves into the middle of the smith chain, and out of the jones one, which disappears
+        store.update(2, null, "smith", null, TO_STRING);
+        store.delete(3);
+
+        assertThat(store.findByLastNameLower("smith", 0, 10, TO_STRING)).containsExactly("1:A Smith@0", "2:B smith@1", "5:E Smith@0");
+        assertThat(store.findByLastNameLower("jones", 0, 10, TO_STRING)).isEmpty();
+    }
+
+    @Test
+    public void prefixSearch_ordersByLastNameAndId_andContinuesAfterAPosition() {
+        store.insert("A", "Smithers", TO_STRING);
+        store.insert("B", "Smith", TO_STRING);
+        store.insert("C", "Smyth", TO_STRING);
+        store.insert("D", "smith", TO_STRING);
+        store.insert("E", "Jones", TO_STRING);
+
+        assertThat(store.findByLastNamePrefix("smi", "", 0, 10, TO_STRING))
+                .containsExactly("2:B Smith@0", "4:D smith@0", "1:A Smithers@0");
+        assertThat(store.findByLastNamePrefix("sm", "smith", 2, 2, TO_STRING))
+                .containsExactly("4:D smith@0", "1:A Smithers@0");
+        assertThat(store.findByLastNamePrefix("sm", "smithers", 1, 10, TO_STRING)).containsExactly("3:C Smyth@0");
+    }
+
+    @Test
+    public void deletedRecords_areReused_andPagingSkipsTheirIds() {
+        for (int i = 0; i < 5000; i++) {
+            store.insert("First" + i, "Last" + (i % 10), TO_STRING);
+        }
+        long recordBytes = store.getRecordBytes();
+        long reservedBytes = store.getReservedBytes();
+        for (long id = 1; id <= 5000; id += 2) {
+            assertThat(store.delete(id)).isTrue();
+        }
+        assertThat(store.delete(1)).isFalse();
+        // the same sizes as the deleted records, which take their places
+        for (int i = 0; i < 5000; i += 2) {
+            store.insert("Again" + i, "Last" + (i % 10), TO_STRING);
+        }
+
+        // the slabs are 64 KB, so these records span several of them
+        assertThat(reservedBytes).isGreaterThan(3L * OffHeapCustomerStore.MIN_SLAB_SIZE);
+        assertThat(store.getReservedBytes()).isEqualTo(reservedBytes);
+        assertThat(store.getRecordBytes()).isEqualTo(recordBytes);
+        assertThat(store.count()).isEqualTo(5000);
+        List<String> page = store.pageById(0, 3, TO_STRING);
+        assertThat(page).containsExactly("2:First1 Last1@0", "4:First3 Last3@0", "6:First5 Last5@0");
+        assertThat(store.pageById(5000, 2, TO_STRING)).containsExactly("5001:Again0 Last0@0", "5002:Again2 Last2@0");
+        assertThat(store.pageById(Long.MAX_VALUE, 2, TO_STRING)).isEmpty();
+    }
+
+    @Test
+    public void rejectsMissingOrTooLongNames_andInvalidSlabSizes() {
+        assertThrows(IllegalArgumentException.class, () -> store.insert(null, "Doe", TO_STRING));
+        assertThrows(IllegalArgumentException.class, () -> store.insert("John", "x".repeat(201), TO_STRING));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapCustomerStore(100_000));
+
+        store.insert("John", "Doe", TO_STRING);
+        store.clear();
+        assertThat(store.count()).isZero();
+        assertThat(store.insert("Jane", "Doe", TO_STRING)).isEqualTo("1:Jane Doe@0");
+    }
+}
@@ -0,0 +1,67 @@
+package com.java.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerOutboxRelayTests {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:outboxrelaytest;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customer_outbox");
+        jdbcTemplate.execute("CREATE TABLE customer_outbox (id BIGINT AUTO_INCREMENT PRIMARY KEY, event_type VARCHAR(16) NOT NULL, " +
+                "customer_id BIGINT NOT NULL, first_name VARCHAR(200), last_name VARCHAR(200), created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+        for (long customerId = 1; customerId <= 5; customerId++) {
+            jdbcTemplate.update(CustomerOutboxWriter.INSERT_EVENT, "CREATED", customerId, "First" + customerId, "Last");
+        }
+        jdbcTemplate.update(CustomerOutboxWriter.INSERT_EVENT, "DELETED", 1L, null, null);
+    }
+
+    @Test
+    public void relay_deliversEventsInOrderInBatches_andDeletesThem() throws Exception {
+        Path file = tempDir.resolve("outbox.ndjson");
+        NdjsonFileOutboxSink sink = new NdjsonFileOutboxSink(file.toString(), new ObjectMapper());
+        CustomerOutboxRelay relay = new CustomerOutboxRelay(dataSource, sink, meterRegistry, 4, Duration.ofMillis(100));
+
+        long delivered = relay.relay();
+        sink.close();
+
+        assertThat(delivered).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_outbox", Integer.class)).isZero();
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(6);
+        assertThat(lines.get(0)).startsWith("{\"id\":1,\"type\":\"CREATED\",\"customerId\":1,\"firstName\":\"First1\",\"lastName\":\"Last\",\"createdAt\":");
+        assertThat(lines.get(5)).startsWith("{\"id\":6,\"type\":\"DELETED\",\"customerId\":1,\"firstName\":null,\"lastName\":null,");
+        assertThat(meterRegistry.get("customer.outbox.delivered").counter().count()).isEqualTo(6);
+        assertThat(meterRegistry.get("customer.outbox.relay").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void relay_keepsEvents_whenSinkFails() {
+        CustomerOutboxRelay relay = new CustomerOutboxRelay(dataSource, events -> {
+            throw new IllegalStateException("Sink unavailable");
+        }, meterRegistry, 4, Duration.ofMillis(100));
+
+        assertThat(relay.relay()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_outbox", Integer.class)).isEqualTo(6);
+        assertThat(relay.getLagMillis()).isGreaterThanOrEqualTo(0);
+    }
+}
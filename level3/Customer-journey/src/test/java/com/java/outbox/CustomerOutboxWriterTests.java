@@ -0,0 +1,64 @@
+package com.java.outbox;
+
+import com.java.dao.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerOutboxWriterTests {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:outboxwritertest;DB_CLOSE_DELAY=-1", "sa", "sa");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    private final CustomerOutboxWriter customerOutboxWriter = new CustomerOutboxWriter(dataSource);
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customer_outbox");
+        jdbcTemplate.execute("CREATE TABLE customer_outbox (id BIGINT AUTO_INCREMENT PRIMARY KEY, event_type VARCHAR(16) NOT NULL, " +
+                "customer_id BIGINT NOT NULL, first_name VARCHAR(200), last_name VARCHAR(200), created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+    }
+
+    @Test
+    public void changes_areWrittenInOrder_whenTransactionCommits() {
+        transactionTemplate.executeWithoutResult(status -> {
+            customerOutboxWriter.customerCreated(new Customer(1L, "John", "Doe"));
+            customerOutboxWriter.customerUpdated(new Customer(1L, "Johny", "Doe"));
+            customerOutboxWriter.customerDeleted(1L);
+            assertThat(countEvents()).isZero();
+        });
+
+        List<String> events = jdbcTemplate.queryForList("SELECT event_type || ':' || customer_id || ':' || COALESCE(first_name, '-') " +
+                "FROM customer_outbox ORDER BY id", String.class);
+        assertThat(events).containsExactly("CREATED:1:John", "UPDATED:1:Johny", "DELETED:1:-");
+    }
+
+    @Test
+    public void changes_areDiscarded_whenTransactionRollsBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            customerOutboxWriter.customerCreated(new Customer(1L, "John", "Doe"));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> customerOutboxWriter.customerDeleted(2L));
+
+        assertThat(jdbcTemplate.queryForList("SELECT customer_id FROM customer_outbox", Long.class)).containsExactly(2L);
+    }
+
+    @Test
+    public void change_isWrittenImmediately_withoutTransaction() {
+        customerOutboxWriter.customerDeleted(3L);
+
+        assertThat(countEvents()).isEqualTo(1);
+    }
+
+    private int countEvents() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_outbox", Integer.class);
+    }
+}
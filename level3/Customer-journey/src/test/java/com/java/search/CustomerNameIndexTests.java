@@ -0,0 +1,62 @@
+package com.java.search;
+
+import com.java.dao.Customer;
+import com.java.dao.CustomerRepository;
+import com.java.exception.ExpectedErrors;
+import com.java.exception.InvalidPropertyValueException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyIterable;
+
+public class CustomerNameIndexTests {
+
+    private final CustomerRepository customerRepository = Mockito.mock(CustomerRepository.class);
+    private final CustomerNameIndex nameIndex = new CustomerNameIndex(customerRepository, 100, 0.3, 16,
+            new ExpectedErrors(true));
+
+    @Test
+    public void search_rejectsInvalidParameters_withPreallocatedExceptions() {
+        InvalidPropertyValueException invalidQuery = assertThrows(InvalidPropertyValueException.class, () -> nameIndex.search(" ", 10));
+        InvalidPropertyValueException invalidLimit = assertThrows(InvalidPropertyValueException.class, () -> nameIndex.search("jon", 0));
+
+        assertThat(invalidQuery.getMessage()).isEqualTo("q must be between 1 and 200 characters");
+        assertThat(invalidQuery.getStackTrace()).isEmpty();
+        assertThat(assertThrows(InvalidPropertyValueException.class, () -> nameIndex.search(null, 10))).isSameAs(invalidQuery);
+        assertThat(invalidLimit.getMessage()).isEqualTo("limit must be between 1 and 100");
+        assertThat(assertThrows(InvalidPropertyValueException.class,
+                () -> nameIndex.search("jon", CustomerNameIndex.MAX_MATCHES + 1))).isSameAs(invalidLimit);
+    }
+
+    @Test
+    public void olderUpdate_appliedAfterNewerOne_isIgnored() {
+        Customer walker = createCustomer("Walker", 2L);
+        Mockito.when(customerRepository.findAllById(anyIterable())).thenReturn(List.of(walker));
+
+        nameIndex.customerUpdated(walker);
+        nameIndex.customerUpdated(createCustomer("Smith", 1L));
+
+        assertThat(nameIndex.search("walker", 10)).extracting(CustomerMatch::getCustomer).containsExactly(walker);
+        assertThat(nameIndex.search("smith", 10)).isEmpty();
+    }
+
+    @Test
+    public void update_appliedAfterDelete_doesNotIndexCustomerAgain() {
+        nameIndex.customerCreated(createCustomer("Walker", 0L));
+        nameIndex.customerDeleted(1L);
+        nameIndex.customerUpdated(createCustomer("Walker", 1L));
+
+        assertThat(nameIndex.size()).isZero();
+    }
+
+    private static Customer createCustomer(String lastName, Long version) {
+        Customer customer = new Customer(1L, "John", lastName);
+        ReflectionTestUtils.setField(customer, "version", version);
+        return customer;
+    }
+}
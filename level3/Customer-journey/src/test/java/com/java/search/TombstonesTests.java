@@ -0,0 +1,44 @@
+package com.java.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TombstonesTests {
+
+    private final Tombstones tombstones = new Tombstones(100);
+
+    @Test
+    public void contains_untilTheTimeToLiveHasPassed() {
+        tombstones.add(7L, 1000);
+
+        assertThat(tombstones.contains(7L, 1099)).isTrue();
+        assertThat(tombstones.contains(8L, 1099)).isFalse();
+        assertThat(tombstones.contains(7L, 1100)).isFalse();
+        assertThat(tombstones.size()).isZero();
+    }
+
+    @Test
+    public void customerDeletedTwice_staysUntilItsLastTombstoneExpires() {
+        tombstones.add(7L, 1000);
+        tombstones.add(7L, 1050);
+
+        assertThat(tombstones.contains(7L, 1120)).isTrue();
+        assertThat(tombstones.contains(7L, 1150)).isFalse();
+    }
+
+    @Test
+    public void add_growsTheRing_keepingDeletionOrder() {
+        Tombstones longLived = new Tombstones(10_000);
+        for (long customerId = 0; customerId < 1000; customerId++) {
+            longLived.add(customerId, customerId);
+        }
+
+        assertThat(longLived.size()).isEqualTo(1000);
+        assertThat(longLived.contains(0L, 9999)).isTrue();
+        // at 10900 the first 901 have expired
+        assertThat(longLived.contains(900L, 10_900)).isFalse();
+        assertThat(longLived.contains(901L, 10_900)).isTrue();
+        assertThat(longLived.size()).isEqualTo(99);
+    }
+}
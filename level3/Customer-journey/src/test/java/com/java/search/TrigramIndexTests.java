@@ -0,0 +1,120 @@
+package com.java.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrigramIndexTests {
+
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new TrigramIndex(16);
+        index.put(1L, "John", "Doe");
+        index.put(2L, "Johny", "Walker");
+        index.put(3L, "Gulwal", "Manohar");
+        index.put(4L, "Jane", "Smith");
+    }
+
+    @Test
+    public void search_ranksClosestNameFirst_whenQueryHasTypos() {
+        List<TrigramIndex.Match> matches = index.search("jon smiht", 10, 0.1);
+
+        assertThat(matches).isNotEmpty();
+        assertThat(matches.get(0).getCustomerId()).isEqualTo(4L);
+    }
+
+    @Test
+    public void search_returnsFullSimilarity_forExactName() {
+        List<TrigramIndex.Match> matches = index.search("WALKER johny", 10, MIN_SIMILARITY);
+
+        assertThat(matches.get(0).getCustomerId()).isEqualTo(2L);
+        assertThat(matches.get(0).getSimilarity()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void search_returnsNothing_whenNoNameIsSimilarEnough() {
+        assertThat(index.search("xyzzy", 10, MIN_SIMILARITY)).isEmpty();
+    }
+
+    @Test
+    public void search_returnsAtMostLimitMatches_bestFirst() {
+        for (long customerId = 10; customerId < 60; customerId++) {
+            index.put(customerId, "Maria" + customerId, "Garcia");
+        }
+
+        List<TrigramIndex.Match> matches = index.search("maria garcia", 5, MIN_SIMILARITY);
+
+        assertThat(matches).hasSize(5);
+        for (int i = 1; i < matches.size(); i++) {
+            assertThat(matches.get(i - 1).getSimilarity()).isGreaterThanOrEqualTo(matches.get(i).getSimilarity());
+        }
+    }
+
+    @Test
+    public void put_replacesNames_ofIndexedCustomer() {
+        index.put(1L, "Peter", "Parker");
+
+        assertThat(index.search("john doe", 10, MIN_SIMILARITY)).extracting(TrigramIndex.Match::getCustomerId).doesNotContain(1L);
+        assertThat(index.search("peter parker", 10, MIN_SIMILARITY).get(0).getCustomerId()).isEqualTo(1L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    public void remove_hidesCustomer_fromSearch() {
+        assertThat(index.remove(3L)).isTrue();
+
+        assertThat(index.search("gulwal manohar", 10, MIN_SIMILARITY)).isEmpty();
+        assertThat(index.contains(3L)).isFalse();
+        assertThat(index.remove(3L)).isFalse();
+    }
+
+    @Test
+    public void remove_keepsSearchCorrect_afterPostingListsAreCompacted() {
+        for (long customerId = 100; customerId < 5100; customerId++) {
+            index.put(customerId, "Name" + customerId, customerId % 2 == 0 ? "Evenson" : "Oddly");
+        }
+        for (long customerId = 100; customerId < 5100; customerId += 2) {
+            index.remove(customerId);
+        }
+
+        List<TrigramIndex.Match> matches = index.search("name4321 oddly", 3, MIN_SIMILARITY);
+
+        assertThat(matches.get(0).getCustomerId()).isEqualTo(4321L);
+        assertThat(index.search("evenson", 100, MIN_SIMILARITY)).isEmpty();
+        assertThat(index.size()).isEqualTo(4 + 2500);
+    }
+
+    @Test
+    public void put_reusesDocuments_whenTheSameCustomerIsUpdatedOverAndOver() {
+        for (int update = 0; update < 100_000; update++) {
+            index.put(1L, "John" + update, "Doe");
+        }
+
+        // renumbered at every compaction, so bounded by the dead documents allowed before one
+        assertThat(index.docCapacity()).isLessThan(4096);
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.search("john99999 doe", 1, MIN_SIMILARITY).get(0).getCustomerId()).isEqualTo(1L);
+        assertThat(index.search("jane smith", 1, MIN_SIMILARITY).get(0).getCustomerId()).isEqualTo(4L);
+    }
+
+    @Test
+    public void version_isKeptWithTheNames_acrossCompaction() {
+        for (long customerId = 100; customerId < 5100; customerId++) {
+            index.put(customerId, "Name" + customerId, "Versioned", customerId * 10);
+        }
+        for (long customerId = 100; customerId < 5100; customerId += 2) {
+            index.remove(customerId);
+        }
+
+        assertThat(index.version(4321L)).isEqualTo(43210L);
+        assertThat(index.version(4320L)).isEqualTo(TrigramIndex.NO_VERSION);
+        assertThat(index.version(1L)).isZero();
+    }
+}
@@ -0,0 +1,192 @@
+package com.java.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardedCustomerStoreTests {
+
+    private static final ShardedCustomerStore.RecordMapper<String> TO_STRING =
+            (id, firstName, lastName, version) -> id + ":" + firstName + " " + lastName + "@" + version;
+    private static final ShardedCustomerStore.RecordMapper<Long> TO_ID = (id, firstName, lastName, version) -> id;
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final List<ShardedCustomerStore> stores = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        stores.forEach(ShardedCustomerStore::close);
+    }
+
+    @Test
+    public void customers_spreadOverShards_andAreReadBackById() {
+        ShardedCustomerStore store = store(3, 3);
+
+        for (int i = 0; i < 9; i++) {
+            store.insert("First" + i, "Last" + i, TO_STRING);
+        }
+
+        // ids 1 to 9 are in buckets 1 to 9, which the new shard map hands out round robin
+        assertThat(store.getStatus()).extracting(ShardedCustomerStore.ShardStatus::getCustomers).containsExactly(3L, 3L, 3L);
+        assertThat(store.get(5, TO_STRING)).isEqualTo("5:First4 Last4@0");
+        assertThat(store.get(10, TO_STRING)).isNull();
+        assertThat(store.count()).isEqualTo(9);
+        assertThat(store.getAll(List.of(9L, 1L, 10L, 2L), TO_ID)).containsExactlyInAnyOrder(1L, 2L, 9L);
+
+        assertThat(store.<Integer>onShardOf(5, shard -> shard.update("UPDATE customer SET first_name = ?, version = version + 1 WHERE id = ?", "Updated", 5))).isEqualTo(1);
+        assertThat(store.get(5, TO_STRING)).isEqualTo("5:Updated Last4@1");
+        assertThat(store.getVersion(5)).isEqualTo(1L);
+        assertThat(store.delete(5)).isTrue();
+        assertThat(store.delete(5)).isFalse();
+        assertThat(store.contains(5)).isFalse();
+    }
+
+    @Test
+    public void scatterGatherQueries_mergeShardsInOrder() {
+        ShardedCustomerStore store = store(3, 2);
+        String[] lastNames = {"Smith", "Jones", "SMITH", "Smithers", "smith", "Smyth", "Smith"};
+        for (int i = 0; i < lastNames.length; i++) {
+            store.insert("C" + (i + 1), lastNames[i], TO_STRING);
+        }
+
+        assertThat(store.pageById(0, Integer.MAX_VALUE, TO_ID)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(store.pageById(2, 3, TO_ID)).containsExactly(3L, 4L, 5L);
+        assertThat(store.findByLastName("Smith", TO_ID)).containsExactly(1L, 7L);
+        assertThat(store.findByLastNameLower("smith", 1, 2, TO_ID)).containsExactly(3L, 5L);
+        // ordered by lower-cased last name then id, the second page starting after (smith, 5)
+        assertThat(store.findByLastNameLike("sm%", "", 0, 4, TO_ID)).containsExactly(1L, 3L, 5L, 7L);
+        assertThat(store.findByLastNameLike("sm%", "smith", 5, 4, TO_ID)).containsExactly(7L, 4L, 6L);
+    }
+
+    @Test
+    public void rebalance_movesBucketsToAddedShard_whileWritesGoOn() throws InterruptedException {
+        List<DataSource> shards = shards(2);
+        ShardedCustomerStore twoShards = new ShardedCustomerStore(shards, 100, 2);
+        for (int i = 0; i < 3000; i++) {
+            twoShards.insert("First" + i, "Last" + (i % 10), TO_STRING);
+        }
+        twoShards.close();
+
+        shards.add(newDatabase());
+        ShardedCustomerStore store = new ShardedCustomerStore(shards, 100, 2);
+        stores.add(store);
+        assertThat(store.getStatus()).extracting(ShardedCustomerStore.ShardStatus::getBuckets).containsExactly(512, 512, 0);
+
+        AtomicBoolean rebalancing = new AtomicBoolean(true);
+        AtomicInteger written = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            while (rebalancing.get()) {
+                store.insert("During", "Rebalance", TO_STRING);
+                written.incrementAndGet();
+            }
+        });
+        writer.start();
+        ShardedCustomerStore.RebalanceResult result = store.rebalance();
+        rebalancing.set(false);
+        writer.join();
+
+        assertThat(result.getMovedBuckets()).isEqualTo(341);
+        assertThat(store.getStatus()).extracting(ShardedCustomerStore.ShardStatus::getBuckets).containsExactly(342, 341, 341);
+        assertThat(store.getStatus().get(2).getCustomers()).isPositive();
+        assertThat(store.count()).isEqualTo(3000 + written.get());
+        assertThat(store.pageById(0, Integer.MAX_VALUE, TO_ID)).hasSize(3000 + written.get()).isSorted();
+        assertThat(store.findByLastNameLower("last3", 0, 1000, TO_ID)).hasSize(300);
+        assertThat(store.rebalance().getMovedBuckets()).isZero();
+    }
+
+    @Test
+    public void restartedStore_keepsTheShardMap_andDropsRowsOfUnfinishedMoves() {
+        List<DataSource> shards = shards(2);
+        ShardedCustomerStore store = new ShardedCustomerStore(shards, 10, 2);
+        store.insert("John", "Doe", TO_STRING);
+        store.moveBucket(1, 0);
+        // as if a move of bucket 1 back to shard 1 had stopped after its copy
+        new JdbcTemplate(shards.get(0)).update("INSERT INTO customer_shard_move (bucket, source_shard, target_shard) VALUES (1, 0, 1)");
+        new JdbcTemplate(shards.get(1)).update("INSERT INTO customer (id, first_name, last_name) VALUES (1025, 'Left', 'Over')");
+        store.close();
+
+        ShardedCustomerStore restarted = new ShardedCustomerStore(shards, 10, 2);
+        stores.add(restarted);
+
+        assertThat(restarted.getShardMap().ownerOf(1)).isZero();
+        assertThat(restarted.get(1, TO_STRING)).isEqualTo("1:John Doe@0");
+        assertThat(restarted.count()).isEqualTo(1);
+        // ids of the new store continue after the first store's block
+        assertThat(restarted.insert("Jane", "Doe", TO_ID)).isEqualTo(11L);
+    }
+
+    @Test
+    public void startup_fails_andKeepsTheCustomers_whenShardsHoldBucketsTheyDoNotOwn() {
+        List<DataSource> shards = shards(2);
+        ShardedCustomerStore store = new ShardedCustomerStore(shards, 10, 2);
+        store.insert("John", "Doe", TO_STRING);
+        store.insert("Jane", "Doe", TO_STRING);
+        store.close();
+        // the second shard's database given as the first, and the other way round
+        List<DataSource> reordered = List.of(shards.get(1), shards.get(0));
+
+        assertThatThrownBy(() -> new ShardedCustomerStore(reordered, 10, 2))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("does not own");
+
+        ShardedCustomerStore restarted = new ShardedCustomerStore(shards, 10, 2);
+        stores.add(restarted);
+        assertThat(restarted.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void buckets_onlyMove_whileASingleStoreServesTheShards() {
+        List<DataSource> shards = shards(2);
+        ShardedCustomerStore store = new ShardedCustomerStore(shards, 10, 2);
+        stores.add(store);
+        ShardedCustomerStore other = new ShardedCustomerStore(shards, 10, 2);
+
+        assertThatThrownBy(() -> store.moveBucket(1, 0)).isInstanceOf(IllegalStateException.class).hasMessageContaining("single node");
+        assertThat(store.getShardMap().ownerOf(1)).isEqualTo(1);
+
+        other.close();
+        // a node that stopped without removing its row is gone once its lease ran out
+        new JdbcTemplate(shards.get(0)).update("INSERT INTO customer_shard_node (node_id, seen_at) VALUES ('crashed', DATEADD('MINUTE', -1, CURRENT_TIMESTAMP))");
+        assertThat(store.moveBucket(1, 0)).isZero();
+        assertThat(store.getShardMap().ownerOf(1)).isZero();
+    }
+
+    @Test
+    public void startup_fails_whileAnotherNodeRebalances() {
+        List<DataSource> shards = shards(2);
+        new ShardedCustomerStore(shards, 10, 2).close();
+        new JdbcTemplate(shards.get(0)).update("INSERT INTO customer_shard_node (node_id, seen_at, rebalancing) VALUES ('rebalancer', CURRENT_TIMESTAMP, TRUE)");
+
+        assertThatThrownBy(() -> new ShardedCustomerStore(shards, 10, 2))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("rebalancer");
+    }
+
+    private ShardedCustomerStore store(int shardCount, int scatterPoolSize) {
+        ShardedCustomerStore store = new ShardedCustomerStore(shards(shardCount), 1000, scatterPoolSize);
+        stores.add(store);
+        return store;
+    }
+
+    private List<DataSource> shards(int count) {
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(newDatabase());
+        }
+        return shards;
+    }
+
+    private DataSource newDatabase() {
+        return new DriverManagerDataSource("jdbc:h2:mem:shardtest" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+    }
+}
@@ -0,0 +1,11 @@
+-- The CUSTOMER table as the migrations leave it, for a replica database the tests fill by hand.
+CREATE TABLE IF NOT EXISTS CUSTOMER (
+                          id BIGINT NOT NULL PRIMARY KEY,
+                          first_name VARCHAR(200) NOT NULL,
+                          last_name VARCHAR(200) NOT NULL,
+                          last_name_lower VARCHAR(200) AS LOWER(last_name),
+                          first_name_lower VARCHAR(200) AS LOWER(first_name),
+                          version BIGINT DEFAULT 0 NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_customer_last_name_lower ON CUSTOMER (last_name_lower, id);
+CREATE INDEX IF NOT EXISTS idx_customer_first_name_lower ON CUSTOMER (first_name_lower, id);